@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Bounds of the cache of accounts a trigger's runAsUser has WRITE access to. */
+@Data
+@ConfigurationProperties("orca.allowed-accounts-cache")
+public class AllowedAccountsCacheConfigurationProperties {
+  private long maxSize = 1000;
+
+  private long expireAfterWriteSeconds = 300;
+
+  /** Entries are reloaded in the background once they are this old, 0 disables refreshing. */
+  private long refreshAfterWriteSeconds = 60;
+}
@@ -7,6 +7,7 @@ import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCacheConfigurationProperties;
 import com.netflix.spinnaker.echo.pipelinetriggers.eventhandlers.PubsubEventHandler;
 import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaService;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaTriggerBatcher;
 import com.netflix.spinnaker.fiat.shared.FiatClientConfigurationProperties;
 import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator;
 import com.netflix.spinnaker.fiat.shared.FiatStatus;
@@ -18,6 +19,7 @@ import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -29,6 +31,7 @@ import retrofit2.converter.jackson.JacksonConverterFactory;
 @Configuration
 @ComponentScan(value = "com.netflix.spinnaker.echo.pipelinetriggers")
 @EnableConfigurationProperties({
+  AllowedAccountsCacheConfigurationProperties.class,
   FiatClientConfigurationProperties.class,
   PipelineCacheConfigurationProperties.class,
   QuietPeriodIndicatorConfigurationProperties.class,
@@ -76,6 +79,27 @@ public class PipelineTriggerConfiguration {
     return Executors.newFixedThreadPool(threadPoolSize);
   }
 
+  @Bean
+  @ConditionalOnProperty("orca.trigger-batching.enabled")
+  public OrcaTriggerBatcher orcaTriggerBatcher(
+      Registry registry,
+      OrcaService orca,
+      ExecutorService executorService,
+      @Value("${orca.trigger-batching.max-batch-size:50}") int maxBatchSize,
+      @Value("${orca.trigger-batching.linger-millis:5}") long lingerMillis,
+      @Value("${orca.trigger-batching.unsupported-recheck-millis:300000}")
+          long unsupportedRecheckMillis,
+      @Value("${orca.trigger-batching.send-threads:4}") int sendThreads) {
+    return new OrcaTriggerBatcher(
+        registry,
+        orca,
+        executorService,
+        maxBatchSize,
+        lingerMillis,
+        unsupportedRecheckMillis,
+        sendThreads);
+  }
+
   private <T> T bindRetrofitService(final Class<T> type, final String endpoint) {
     log.info("Connecting {} to {}", type.getSimpleName(), endpoint);
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pipelinetriggers.orca;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.spinnaker.fiat.model.Authorization;
+import com.netflix.spinnaker.fiat.model.UserPermission;
+import com.netflix.spinnaker.fiat.model.resources.Account;
+import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator;
+import com.netflix.spinnaker.security.AuthenticatedRequest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the set of accounts a user has WRITE access to, as determined by fiat.
+ *
+ * <p>Entries are bounded by size and expire after a fixed time. Concurrent lookups for the same
+ * user share a single fiat call, and entries that are due for refresh keep being served while a
+ * background reload is in flight. Failed or empty fiat lookups are never cached.
+ */
+@Slf4j
+public class AllowedAccountsCache {
+  private final Registry registry;
+  private final FiatPermissionEvaluator fiatPermissionEvaluator;
+  private final LoadingCache<String, Set<String>> cache;
+
+  public AllowedAccountsCache(
+      @NonNull Registry registry,
+      @NonNull FiatPermissionEvaluator fiatPermissionEvaluator,
+      long maximumSize,
+      @NonNull Duration expireAfterWrite,
+      @NonNull Duration refreshAfterWrite) {
+    this.registry = registry;
+    this.fiatPermissionEvaluator = fiatPermissionEvaluator;
+
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats();
+    if (refreshAfterWrite.compareTo(expireAfterWrite) < 0 && !refreshAfterWrite.isZero()) {
+      builder.refreshAfterWrite(refreshAfterWrite);
+    }
+    this.cache = builder.build(this::load);
+
+    PolledMeter.using(registry)
+        .withName("orca.allowedAccounts.cache.hits")
+        .monitorMonotonicCounter(cache, c -> c.stats().hitCount());
+    PolledMeter.using(registry)
+        .withName("orca.allowedAccounts.cache.misses")
+        .monitorMonotonicCounter(cache, c -> c.stats().missCount());
+    PolledMeter.using(registry)
+        .withName("orca.allowedAccounts.cache.evictions")
+        .monitorMonotonicCounter(cache, c -> c.stats().evictionCount());
+    PolledMeter.using(registry)
+        .withName("orca.allowedAccounts.cache.size")
+        .monitorValue(cache, c -> (double) c.estimatedSize());
+  }
+
+  /**
+   * @param user A service account name (or 'anonymous' if not specified)
+   * @return the accounts {@param user} has WRITE access to, or an empty set if fiat could not be
+   *     reached
+   */
+  public Set<String> get(String user) {
+    try {
+      Set<String> accounts = cache.get(user);
+      return (accounts == null) ? Collections.emptySet() : accounts;
+    } catch (Exception e) {
+      log.error("Unable to fetch permission for {}", user, e);
+      return Collections.emptySet();
+    }
+  }
+
+  public void invalidate(String user) {
+    cache.invalidate(user);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returning null (rather than an empty set) keeps unresolved users, and users without WRITE
+   * access to any account, out of the cache.
+   */
+  private Set<String> load(String user) {
+    long start = registry.clock().monotonicTime();
+    boolean success = false;
+    try {
+      UserPermission.View userPermission =
+          AuthenticatedRequest.allowAnonymous(() -> fiatPermissionEvaluator.getPermission(user));
+      if (userPermission == null) {
+        return null;
+      }
+
+      success = true;
+      Set<String> accounts =
+          userPermission.getAccounts().stream()
+              .filter(v -> v.getAuthorizations().contains(Authorization.WRITE))
+              .map(Account.View::getName)
+              .collect(Collectors.toSet());
+      return accounts.isEmpty() ? null : Collections.unmodifiableSet(accounts);
+    } finally {
+      registry
+          .timer("orca.allowedAccounts.load", "success", Boolean.toString(success))
+          .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.netflix.spinnaker.echo.model.Pipeline;
 import com.netflix.spinnaker.echo.model.Trigger;
 import com.netflix.spinnaker.kork.common.Header;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -36,6 +37,13 @@ public interface OrcaService {
   @POST("orchestrate")
   Call<TriggerResponse> trigger(@Body Pipeline pipeline);
 
+  /**
+   * Trigger several pipelines in one request. Results are returned in the same order as {@code
+   * pipelines}.
+   */
+  @POST("orchestrate/batch")
+  Call<List<BatchTriggerResult>> triggerBatch(@Body List<Pipeline> pipelines);
+
   @POST("fail")
   Call<ResponseBody> recordFailure(@Body Pipeline pipeline);
 
@@ -66,11 +74,25 @@ public interface OrcaService {
       // do nothing
     }
 
+    public TriggerResponse(String ref) {
+      this.ref = ref;
+    }
+
     public String getRef() {
       return ref;
     }
   }
 
+  /** The outcome of a single pipeline within a batch trigger request. */
+  @Getter
+  @NoArgsConstructor
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  class BatchTriggerResult {
+    private String ref;
+    private Integer status;
+    private String error;
+  }
+
   @Getter
   @NoArgsConstructor
   @JsonIgnoreProperties(ignoreUnknown = true)
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pipelinetriggers.orca;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.model.Pipeline;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaService.BatchTriggerResult;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaService.TriggerResponse;
+import com.netflix.spinnaker.kork.retrofit.Retrofit2SyncCall;
+import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerHttpException;
+import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerNetworkException;
+import com.netflix.spinnaker.security.AuthenticatedRequest;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Groups pipeline triggers that become ready within a short linger window into a single request to
+ * _Orca_'s batch endpoint.
+ *
+ * <p>Triggers are batched per (user, allowed accounts) pair, since the whole batch is submitted
+ * with one set of authentication headers. Each submission still gets its own result. If _Orca_
+ * doesn't expose the batch endpoint, batching is switched off for a while and submissions go
+ * through the single-trigger path they were handed.
+ *
+ * <p>A batch that fails after it may have reached _Orca_ (a timeout, a 5xx, ...) fails all of its
+ * triggers rather than resubmitting them, since some of the pipelines may already have started.
+ * Batches are sent on their own pool, so a slow _Orca_ doesn't delay the linger timers.
+ */
+@Slf4j
+public class OrcaTriggerBatcher {
+  private static final Set<Integer> UNSUPPORTED_RESPONSE_CODES = Set.of(404, 405, 501);
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final Registry registry;
+  private final OrcaService orca;
+  private final ExecutorService fallbackExecutor;
+  private final ScheduledExecutorService flushExecutor;
+  private final ExecutorService sendExecutor;
+  private final int maxBatchSize;
+  private final long lingerMillis;
+  private final long unsupportedRecheckMillis;
+
+  /** Guarded by {@code this}. */
+  private final Map<BatchKey, List<PendingTrigger>> pending = new HashMap<>();
+
+  private volatile long batchingUnsupportedUntil = 0;
+
+  public OrcaTriggerBatcher(
+      @NonNull Registry registry,
+      @NonNull OrcaService orca,
+      @NonNull ExecutorService fallbackExecutor,
+      int maxBatchSize,
+      long lingerMillis,
+      long unsupportedRecheckMillis,
+      int sendThreads) {
+    this(
+        registry,
+        orca,
+        fallbackExecutor,
+        Executors.newSingleThreadScheduledExecutor(),
+        Executors.newFixedThreadPool(Math.max(1, sendThreads)),
+        maxBatchSize,
+        lingerMillis,
+        unsupportedRecheckMillis);
+  }
+
+  // VisibleForTesting
+  OrcaTriggerBatcher(
+      @NonNull Registry registry,
+      @NonNull OrcaService orca,
+      @NonNull ExecutorService fallbackExecutor,
+      @NonNull ScheduledExecutorService flushExecutor,
+      @NonNull ExecutorService sendExecutor,
+      int maxBatchSize,
+      long lingerMillis,
+      long unsupportedRecheckMillis) {
+    this.registry = registry;
+    this.orca = orca;
+    this.fallbackExecutor = fallbackExecutor;
+    this.flushExecutor = flushExecutor;
+    this.sendExecutor = sendExecutor;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.lingerMillis = Math.max(0, lingerMillis);
+    this.unsupportedRecheckMillis = unsupportedRecheckMillis;
+  }
+
+  /**
+   * Queue {@code pipeline} for batched submission.
+   *
+   * @param user the user the trigger runs as
+   * @param allowedAccounts the accounts the trigger is allowed to use
+   * @param pipeline the pipeline to trigger
+   * @param singleTrigger the non-batched path, used when batching isn't available. Expected to
+   *     apply its own authentication context and retries.
+   * @return a future that completes with this trigger's own result
+   */
+  public CompletableFuture<TriggerResponse> submit(
+      String user,
+      Collection<String> allowedAccounts,
+      Pipeline pipeline,
+      Callable<TriggerResponse> singleTrigger) {
+    PendingTrigger trigger = new PendingTrigger(pipeline, singleTrigger);
+
+    if (!isBatchingAvailable()) {
+      triggerSingly(List.of(trigger));
+      return trigger.result;
+    }
+
+    BatchKey key = new BatchKey(user, allowedAccounts);
+    List<PendingTrigger> ready = null;
+    synchronized (this) {
+      List<PendingTrigger> batch = pending.computeIfAbsent(key, k -> new ArrayList<>());
+      batch.add(trigger);
+
+      if (batch.size() >= maxBatchSize) {
+        ready = pending.remove(key);
+      } else if (batch.size() == 1) {
+        flushExecutor.schedule(() -> flush(key), lingerMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    if (ready != null) {
+      dispatch(key, ready);
+    }
+
+    return trigger.result;
+  }
+
+  public boolean isBatchingAvailable() {
+    return System.currentTimeMillis() >= batchingUnsupportedUntil;
+  }
+
+  /** Submits anything still waiting for its linger window to expire. */
+  @PreDestroy
+  public void stop() {
+    List<BatchKey> keys;
+    synchronized (this) {
+      keys = new ArrayList<>(pending.keySet());
+    }
+    keys.forEach(this::flush);
+    flushExecutor.shutdown();
+    sendExecutor.shutdown();
+  }
+
+  private void flush(BatchKey key) {
+    List<PendingTrigger> batch;
+    synchronized (this) {
+      batch = pending.remove(key);
+    }
+
+    if (batch != null && !batch.isEmpty()) {
+      dispatch(key, batch);
+    }
+  }
+
+  private void dispatch(BatchKey key, List<PendingTrigger> batch) {
+    try {
+      sendExecutor.execute(() -> send(key, batch));
+    } catch (RejectedExecutionException e) {
+      batch.forEach(t -> t.result.completeExceptionally(e));
+    }
+  }
+
+  private void send(BatchKey key, List<PendingTrigger> batch) {
+    List<Pipeline> pipelines =
+        batch.stream().map(PendingTrigger::getPipeline).collect(Collectors.toList());
+
+    long start = registry.clock().monotonicTime();
+    List<BatchTriggerResult> results;
+    try {
+      results =
+          AuthenticatedRequest.runAs(
+                  key.user,
+                  key.allowedAccounts,
+                  () -> Retrofit2SyncCall.execute(orca.triggerBatch(pipelines)))
+              .call();
+    } catch (SpinnakerHttpException e) {
+      if (UNSUPPORTED_RESPONSE_CODES.contains(e.getResponseCode())) {
+        log.warn(
+            "Orca does not support batched triggers (HTTP {}), falling back to single triggers for {}ms",
+            e.getResponseCode(),
+            unsupportedRecheckMillis);
+        batchingUnsupportedUntil = System.currentTimeMillis() + unsupportedRecheckMillis;
+        registry.counter("orca.trigger.batch.unsupported").increment();
+        triggerSingly(batch);
+      } else {
+        onBatchFailure(batch, e);
+      }
+      return;
+    } catch (Exception e) {
+      onBatchFailure(batch, e);
+      return;
+    } finally {
+      registry
+          .timer("orca.trigger.batch.latency")
+          .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    registry.distributionSummary("orca.trigger.batch.size").record(batch.size());
+
+    if (results == null || results.size() != batch.size()) {
+      // Orca accepted the request but we can't tell which triggers it started, so resubmitting
+      // any of them could start a pipeline twice.
+      log.error(
+          "Orca returned {} results for a batch of {} triggers",
+          results == null ? "no" : results.size(),
+          batch.size());
+      IllegalStateException e =
+          new IllegalStateException("Mismatched batch trigger response from orca");
+      batch.forEach(t -> t.result.completeExceptionally(e));
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      BatchTriggerResult result = results.get(i);
+      if (result != null && result.getError() == null) {
+        batch.get(i).result.complete(new TriggerResponse(result.getRef()));
+      } else {
+        batch
+            .get(i)
+            .result
+            .completeExceptionally(
+                new BatchTriggerException(
+                    result == null ? null : result.getStatus(),
+                    result == null ? "No result returned" : result.getError()));
+      }
+    }
+  }
+
+  /**
+   * Failures that prove _Orca_ never handled the batch (it couldn't be connected to, or it
+   * throttled the request) fall back to the single-trigger path, which has its own retries.
+   * Anything else fails the whole batch, like a mismatched response does.
+   */
+  private void onBatchFailure(List<PendingTrigger> batch, Exception e) {
+    registry
+        .counter("orca.trigger.batch.errors", "exception", e.getClass().getSimpleName())
+        .increment();
+
+    if (wasNotHandled(e)) {
+      log.warn("Failed to submit batch of {} triggers, retrying singly", batch.size(), e);
+      triggerSingly(batch);
+      return;
+    }
+
+    log.error(
+        "Failed to submit batch of {} triggers, not retrying since orca may have started some",
+        batch.size(),
+        e);
+    batch.forEach(t -> t.result.completeExceptionally(e));
+  }
+
+  private static boolean wasNotHandled(Exception e) {
+    if (e instanceof SpinnakerHttpException) {
+      return ((SpinnakerHttpException) e).getResponseCode() == TOO_MANY_REQUESTS;
+    }
+
+    if (e instanceof SpinnakerNetworkException) {
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof ConnectException
+            || cause instanceof UnknownHostException
+            || cause instanceof NoRouteToHostException) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private void triggerSingly(List<PendingTrigger> triggers) {
+    for (PendingTrigger trigger : triggers) {
+      try {
+        fallbackExecutor.submit(
+            () -> {
+              try {
+                trigger.result.complete(trigger.singleTrigger.call());
+              } catch (Exception e) {
+                trigger.result.completeExceptionally(e);
+              }
+            });
+      } catch (Exception e) {
+        trigger.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /** A per-trigger failure reported by _Orca_'s batch endpoint. */
+  public static class BatchTriggerException extends RuntimeException {
+    @Getter private final Integer status;
+
+    BatchTriggerException(Integer status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+
+  private static class PendingTrigger {
+    @Getter private final Pipeline pipeline;
+    private final Callable<TriggerResponse> singleTrigger;
+    private final CompletableFuture<TriggerResponse> result = new CompletableFuture<>();
+
+    PendingTrigger(Pipeline pipeline, Callable<TriggerResponse> singleTrigger) {
+      this.pipeline = pipeline;
+      this.singleTrigger = singleTrigger;
+    }
+  }
+
+  @EqualsAndHashCode
+  private static class BatchKey {
+    private final String user;
+    private final List<String> allowedAccounts;
+
+    BatchKey(String user, Collection<String> allowedAccounts) {
+      this.user = user;
+      this.allowedAccounts =
+          allowedAccounts == null
+              ? List.of()
+              : allowedAccounts.stream().sorted().collect(Collectors.toList());
+    }
+  }
+}
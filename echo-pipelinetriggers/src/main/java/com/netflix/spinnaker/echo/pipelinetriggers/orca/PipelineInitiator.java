@@ -19,12 +19,11 @@ package com.netflix.spinnaker.echo.pipelinetriggers.orca;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.config.AllowedAccountsCacheConfigurationProperties;
 import com.netflix.spinnaker.echo.model.Pipeline;
 import com.netflix.spinnaker.echo.pipelinetriggers.QuietPeriodIndicator;
 import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaService.TriggerResponse;
-import com.netflix.spinnaker.fiat.model.Authorization;
-import com.netflix.spinnaker.fiat.model.UserPermission;
-import com.netflix.spinnaker.fiat.model.resources.Account;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker.Stage;
 import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator;
 import com.netflix.spinnaker.fiat.shared.FiatStatus;
 import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener;
@@ -33,15 +32,18 @@ import com.netflix.spinnaker.kork.retrofit.Retrofit2SyncCall;
 import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerHttpException;
 import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerServerException;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -58,7 +60,7 @@ public class PipelineInitiator {
   private final Registry registry;
   private final DynamicConfigService dynamicConfigService;
   private final OrcaService orca;
-  private final FiatPermissionEvaluator fiatPermissionEvaluator;
+  private final AllowedAccountsCache allowedAccountsCache;
   private final FiatStatus fiatStatus;
 
   private final ObjectMapper objectMapper;
@@ -67,6 +69,38 @@ public class PipelineInitiator {
   private final long retryDelayMillis;
   private final ExecutorService executorService;
   private final DiscoveryStatusListener discoveryStatusListener;
+  private final OrcaTriggerBatcher triggerBatcher;
+  private final TriggerLatencyTracker latencyTracker;
+
+  // VisibleForTesting
+  public PipelineInitiator(
+      @NonNull Registry registry,
+      @NonNull OrcaService orca,
+      @NonNull Optional<FiatPermissionEvaluator> fiatPermissionEvaluator,
+      @NonNull FiatStatus fiatStatus,
+      @NonNull ExecutorService executorService,
+      ObjectMapper objectMapper,
+      @NonNull QuietPeriodIndicator quietPeriodIndicator,
+      @NonNull DynamicConfigService dynamicConfigService,
+      @NonNull DiscoveryStatusListener discoveryStatusListener,
+      int retryCount,
+      long retryDelayMillis) {
+    this(
+        registry,
+        orca,
+        fiatPermissionEvaluator,
+        fiatStatus,
+        executorService,
+        objectMapper,
+        quietPeriodIndicator,
+        dynamicConfigService,
+        discoveryStatusListener,
+        Optional.empty(),
+        new TriggerLatencyTracker(registry, Clock.systemUTC(), 20, Duration.ofHours(1)),
+        retryCount,
+        retryDelayMillis,
+        new AllowedAccountsCacheConfigurationProperties());
+  }
 
   @Autowired
   public PipelineInitiator(
@@ -79,11 +113,26 @@ public class PipelineInitiator {
       @NonNull QuietPeriodIndicator quietPeriodIndicator,
       @NonNull DynamicConfigService dynamicConfigService,
       @NonNull DiscoveryStatusListener discoveryStatusListener,
+      @NonNull Optional<OrcaTriggerBatcher> triggerBatcher,
+      @NonNull TriggerLatencyTracker latencyTracker,
       @Value("${orca.pipeline-initiator-retry-count:5}") int retryCount,
-      @Value("${orca.pipeline-initiator-retry-delay-millis:5000}") long retryDelayMillis) {
+      @Value("${orca.pipeline-initiator-retry-delay-millis:5000}") long retryDelayMillis,
+      @NonNull AllowedAccountsCacheConfigurationProperties allowedAccountsCacheProperties) {
     this.registry = registry;
     this.orca = orca;
-    this.fiatPermissionEvaluator = fiatPermissionEvaluator.orElse(null);
+    this.allowedAccountsCache =
+        fiatPermissionEvaluator
+            .map(
+                evaluator ->
+                    new AllowedAccountsCache(
+                        registry,
+                        evaluator,
+                        allowedAccountsCacheProperties.getMaxSize(),
+                        Duration.ofSeconds(
+                            allowedAccountsCacheProperties.getExpireAfterWriteSeconds()),
+                        Duration.ofSeconds(
+                            allowedAccountsCacheProperties.getRefreshAfterWriteSeconds())))
+            .orElse(null);
     this.fiatStatus = fiatStatus;
     this.objectMapper = objectMapper;
     this.quietPeriodIndicator = quietPeriodIndicator;
@@ -92,6 +141,8 @@ public class PipelineInitiator {
     this.retryDelayMillis = retryDelayMillis;
     this.executorService = executorService;
     this.discoveryStatusListener = discoveryStatusListener;
+    this.triggerBatcher = triggerBatcher.orElse(null);
+    this.latencyTracker = latencyTracker;
   }
 
   @PostConstruct
@@ -117,9 +168,18 @@ public class PipelineInitiator {
   }
 
   public void startPipeline(Pipeline pipeline, TriggerSource triggerSource) {
+    startPipeline(pipeline, triggerSource, null);
+  }
+
+  /**
+   * @param scheduledTime when the trigger was scheduled to fire, if it was scheduled at all. Used
+   *     to record the end-to-end latency of scheduled triggers (see {@link TriggerLatencyTracker}).
+   */
+  public void startPipeline(Pipeline pipeline, TriggerSource triggerSource, Instant scheduledTime) {
     if (isEnabled(triggerSource)) {
       try {
         long now = System.currentTimeMillis();
+        TriggerTiming timing = new TriggerTiming(now, scheduledTime);
         boolean inQuietPeriod = quietPeriodIndicator.inQuietPeriod(now);
         boolean shouldTrigger = true;
 
@@ -191,7 +251,7 @@ public class PipelineInitiator {
               pipeline = pipeline.withTrigger(pipeline.getTrigger().atPropagateAuth(true));
             }
           }
-          triggerPipeline(pipeline, triggerSource);
+          triggerPipeline(pipeline, triggerSource, timing);
           registry.counter("orca.requests").increment();
         }
       } catch (Exception e) {
@@ -212,20 +272,19 @@ public class PipelineInitiator {
     }
   }
 
-  private void triggerPipeline(Pipeline pipeline, TriggerSource triggerSource)
+  private void triggerPipeline(Pipeline pipeline, TriggerSource triggerSource, TriggerTiming timing)
       throws RejectedExecutionException {
     Callable<Void> triggerWithCapturedContext =
-        AuthenticatedRequest.propagate(() -> triggerPipelineImpl(pipeline, triggerSource));
+        AuthenticatedRequest.propagate(() -> triggerPipelineImpl(pipeline, triggerSource, timing));
 
     executorService.submit(triggerWithCapturedContext);
   }
 
-  private Void triggerPipelineImpl(Pipeline pipeline, TriggerSource triggerSource) {
+  private Void triggerPipelineImpl(
+      Pipeline pipeline, TriggerSource triggerSource, TriggerTiming timing) {
     try {
-      TriggerResponse response;
-
       if (pipeline.getTrigger() != null && pipeline.getTrigger().isPropagateAuth()) {
-        response = triggerWithRetries(pipeline);
+        onTriggerSuccess(pipeline, triggerSource, timing, triggerWithRetries(pipeline));
       } else {
         // default to anonymous consistent with the existing pattern of
         // `AuthenticatedRequest.getSpinnakerUser().orElse("anonymous")`
@@ -240,44 +299,92 @@ public class PipelineInitiator {
           allowedAccounts = getAllowedAccountsForUser(runAsUser);
         }
 
-        response =
+        Callable<TriggerResponse> singleTrigger =
             AuthenticatedRequest.runAs(
-                    runAsUser, allowedAccounts, () -> triggerWithRetries(pipeline))
-                .call();
+                runAsUser, allowedAccounts, () -> triggerWithRetries(pipeline));
+
+        if (triggerBatcher != null) {
+          // Don't hold this thread while the batch lingers, the result is handled when it arrives
+          triggerBatcher
+              .submit(runAsUser, allowedAccounts, pipeline, singleTrigger)
+              .whenComplete(
+                  (response, error) -> {
+                    if (error == null) {
+                      onTriggerSuccess(pipeline, triggerSource, timing, response);
+                    } else {
+                      onTriggerFailure(
+                          pipeline,
+                          triggerSource,
+                          timing,
+                          error instanceof CompletionException ? error.getCause() : error);
+                    }
+                  });
+        } else {
+          onTriggerSuccess(pipeline, triggerSource, timing, singleTrigger.call());
+        }
       }
+    } catch (Exception e) {
+      onTriggerFailure(pipeline, triggerSource, timing, e);
+    }
 
-      log.info("Successfully triggered {}: execution id: {}", pipeline, response.getRef());
+    return null;
+  }
 
-      registry
-          .counter(
-              "orca.trigger.success",
-              "triggerSource",
-              triggerSource.name(),
-              "triggerType",
-              getTriggerType(pipeline))
-          .increment();
-    } catch (SpinnakerHttpException e) {
+  private void onTriggerSuccess(
+      Pipeline pipeline,
+      TriggerSource triggerSource,
+      TriggerTiming timing,
+      TriggerResponse response) {
+    log.info("Successfully triggered {}: execution id: {}", pipeline, response.getRef());
+    recordOrcaResponseLatency(pipeline, triggerSource, timing);
+
+    registry
+        .counter(
+            "orca.trigger.success",
+            "triggerSource",
+            triggerSource.name(),
+            "triggerType",
+            getTriggerType(pipeline))
+        .increment();
+  }
+
+  private void onTriggerFailure(
+      Pipeline pipeline, TriggerSource triggerSource, TriggerTiming timing, Throwable e) {
+    recordOrcaResponseLatency(pipeline, triggerSource, timing);
+
+    if (e instanceof SpinnakerHttpException) {
+      SpinnakerHttpException httpException = (SpinnakerHttpException) e;
       String orcaResponse = "N/A";
-      if (e.getResponseBody() != null) {
-        orcaResponse = e.getResponseBody().toString();
+      if (httpException.getResponseBody() != null) {
+        orcaResponse = httpException.getResponseBody().toString();
       }
 
       log.error(
           "Failed to trigger {} HTTP: {}\norca error: {}\npayload: {}",
           pipeline,
-          e.getResponseCode(),
+          httpException.getResponseCode(),
           orcaResponse,
           pipelineAsString(pipeline));
-
-      logOrcaErrorMetric(e.getClass().getName(), triggerSource.name(), getTriggerType(pipeline));
-    } catch (Exception e) {
+    } else {
       log.error(
           "Failed to trigger {}\nerror: {}\npayload: {}", pipeline, e, pipelineAsString(pipeline));
-
-      logOrcaErrorMetric(e.getClass().getName(), triggerSource.name(), getTriggerType(pipeline));
     }
 
-    return null;
+    logOrcaErrorMetric(e.getClass().getName(), triggerSource.name(), getTriggerType(pipeline));
+  }
+
+  private void recordOrcaResponseLatency(
+      Pipeline pipeline, TriggerSource triggerSource, TriggerTiming timing) {
+    long now = System.currentTimeMillis();
+    latencyTracker.record(
+        Stage.TRIGGER_TO_ORCA_RESPONSE, triggerSource, pipeline, now - timing.startedAtMillis);
+    if (timing.scheduledTime != null) {
+      latencyTracker.record(
+          Stage.SCHEDULED_TO_ORCA_RESPONSE,
+          triggerSource,
+          pipeline,
+          now - timing.scheduledTime.toEpochMilli());
+    }
   }
 
   private TriggerResponse triggerWithRetries(Pipeline pipeline) {
@@ -307,35 +414,23 @@ public class PipelineInitiator {
       }
     }
   }
+
   /**
    * The set of accounts that a user has WRITE access to.
    *
-   * <p>Similar filtering can be found in `gate` (see AllowedAccountsSupport.java).
+   * <p>Similar filtering can be found in `gate` (see AllowedAccountsSupport.java). Results are
+   * served from {@link AllowedAccountsCache} so that repeated triggers for the same service account
+   * don't each wait on fiat.
    *
    * @param user A service account name (or 'anonymous' if not specified)
    * @return the allowed accounts for {@param user} as determined by fiat
    */
   private Set<String> getAllowedAccountsForUser(String user) {
-    if (fiatPermissionEvaluator == null || !fiatStatus.isLegacyFallbackEnabled()) {
+    if (allowedAccountsCache == null || !fiatStatus.isLegacyFallbackEnabled()) {
       return Collections.emptySet();
     }
 
-    UserPermission.View userPermission = null;
-    try {
-      userPermission =
-          AuthenticatedRequest.allowAnonymous(() -> fiatPermissionEvaluator.getPermission(user));
-    } catch (Exception e) {
-      log.error("Unable to fetch permission for {}", user, e);
-    }
-
-    if (userPermission == null) {
-      return Collections.emptySet();
-    }
-
-    return userPermission.getAccounts().stream()
-        .filter(v -> v.getAuthorizations().contains(Authorization.WRITE))
-        .map(Account.View::getName)
-        .collect(Collectors.toSet());
+    return allowedAccountsCache.get(user);
   }
 
   private void logOrcaErrorMetric(String exceptionName, String triggerSource, String triggerType) {
@@ -400,4 +495,15 @@ public class PipelineInitiator {
 
     return triggerEnabled && dynamicConfigService.isEnabled("orca", true);
   }
+
+  /** When a trigger was handed to {@link #startPipeline}, and when it was scheduled to fire. */
+  private static class TriggerTiming {
+    private final long startedAtMillis;
+    private final Instant scheduledTime;
+
+    TriggerTiming(long startedAtMillis, Instant scheduledTime) {
+      this.startedAtMillis = startedAtMillis;
+      this.scheduledTime = scheduledTime;
+    }
+  }
 }
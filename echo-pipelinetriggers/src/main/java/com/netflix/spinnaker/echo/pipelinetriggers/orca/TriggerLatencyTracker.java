@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pipelinetriggers.orca;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spinnaker.echo.model.Pipeline;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator.TriggerSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records how long each stage of triggering a pipeline takes, from the time a trigger was scheduled
+ * to fire until _Orca_ responded (see {@link Stage}).
+ *
+ * <p>Every stage is a percentile timer ({@code echo.trigger.latency}, tagged by {@code stage} and
+ * {@code triggerSource}). The slowest recent triggers of each stage are kept as well, to find out
+ * which pipelines were late rather than just how late.
+ */
+@Component
+public class TriggerLatencyTracker {
+  private static final double[] PERCENTILES = {50, 90, 99};
+
+  public enum Stage {
+    /** From the scheduled fire time until the scheduler started the trigger job. */
+    SCHEDULED_TO_JOB_START("scheduledToJobStart"),
+
+    /** From the start of the trigger job until it handed the pipeline to the initiator. */
+    JOB_START_TO_TRIGGER("jobStartToTrigger"),
+
+    /** From handing the pipeline to the initiator until _Orca_ responded. */
+    TRIGGER_TO_ORCA_RESPONSE("triggerToOrcaResponse"),
+
+    /** From the scheduled fire time until _Orca_ responded. */
+    SCHEDULED_TO_ORCA_RESPONSE("scheduledToOrcaResponse");
+
+    @Getter private final String id;
+
+    Stage(String id) {
+      this.id = id;
+    }
+  }
+
+  private final Registry registry;
+  private final Clock clock;
+  private final int maxOffenders;
+  private final Duration offenderRetention;
+
+  private final Map<TimerKey, PercentileTimer> timers = new ConcurrentHashMap<>();
+  private final Map<Stage, List<Offender>> worstOffenders = new EnumMap<>(Stage.class);
+
+  @Autowired
+  public TriggerLatencyTracker(
+      Registry registry,
+      @Value("${orca.trigger-latency.worst-offenders:20}") int maxOffenders,
+      @Value("${orca.trigger-latency.worst-offenders-retention-minutes:60}")
+          long offenderRetentionMinutes) {
+    this(registry, Clock.systemUTC(), maxOffenders, Duration.ofMinutes(offenderRetentionMinutes));
+  }
+
+  public TriggerLatencyTracker(
+      Registry registry, Clock clock, int maxOffenders, Duration offenderRetention) {
+    this.registry = registry;
+    this.clock = clock;
+    this.maxOffenders = maxOffenders;
+    this.offenderRetention = offenderRetention;
+    for (Stage stage : Stage.values()) {
+      worstOffenders.put(stage, new ArrayList<>());
+    }
+  }
+
+  /** Records that {@code stage} of triggering {@code pipeline} took {@code millis}. */
+  public void record(Stage stage, TriggerSource triggerSource, Pipeline pipeline, long millis) {
+    long latency = Math.max(0, millis);
+    timers
+        .computeIfAbsent(
+            new TimerKey(stage, triggerSource),
+            key ->
+                PercentileTimer.builder(registry)
+                    .withName("echo.trigger.latency")
+                    .withTag("stage", stage.getId())
+                    .withTag("triggerSource", triggerSource.name())
+                    .withRange(Duration.ofMillis(1), Duration.ofHours(1))
+                    .build())
+        .record(latency, TimeUnit.MILLISECONDS);
+
+    if (maxOffenders > 0) {
+      recordOffender(stage, new Offender(pipeline, triggerSource, latency, clock.instant()));
+    }
+  }
+
+  /**
+   * @return percentiles of every stage and trigger source seen so far, and the slowest triggers of
+   *     each stage within the retention period
+   */
+  public Report report() {
+    List<StageLatency> stages =
+        timers.entrySet().stream()
+            .sorted(
+                Comparator.comparing((Map.Entry<TimerKey, PercentileTimer> e) -> e.getKey().stage)
+                    .thenComparing(e -> e.getKey().triggerSource))
+            .map(e -> new StageLatency(e.getKey().stage, e.getKey().triggerSource, e.getValue()))
+            .collect(Collectors.toList());
+
+    Map<String, List<Offender>> offenders = new LinkedHashMap<>();
+    Instant cutoff = clock.instant().minus(offenderRetention);
+    for (Stage stage : Stage.values()) {
+      List<Offender> list = worstOffenders.get(stage);
+      synchronized (list) {
+        list.removeIf(offender -> offender.getRecordedAt().isBefore(cutoff));
+        if (!list.isEmpty()) {
+          offenders.put(stage.getId(), new ArrayList<>(list));
+        }
+      }
+    }
+
+    return new Report(stages, offenders);
+  }
+
+  private void recordOffender(Stage stage, Offender offender) {
+    List<Offender> list = worstOffenders.get(stage);
+    Instant cutoff = offender.getRecordedAt().minus(offenderRetention);
+    synchronized (list) {
+      list.removeIf(o -> o.getRecordedAt().isBefore(cutoff));
+      if (list.size() >= maxOffenders) {
+        Offender fastest = list.get(list.size() - 1);
+        if (fastest.getLatencyMillis() >= offender.getLatencyMillis()) {
+          return;
+        }
+        list.remove(list.size() - 1);
+      }
+
+      // keep the list sorted slowest first
+      int index = 0;
+      while (index < list.size()
+          && list.get(index).getLatencyMillis() >= offender.getLatencyMillis()) {
+        index++;
+      }
+      list.add(index, offender);
+    }
+  }
+
+  @lombok.Value
+  private static class TimerKey {
+    Stage stage;
+    TriggerSource triggerSource;
+  }
+
+  @Getter
+  public static class StageLatency {
+    private final String stage;
+    private final TriggerSource triggerSource;
+    private final long count;
+    private final double meanMillis;
+
+    /** Keyed by percentile, e.g. {@code p99}. */
+    private final Map<String, Double> percentilesMillis = new LinkedHashMap<>();
+
+    StageLatency(Stage stage, TriggerSource triggerSource, PercentileTimer timer) {
+      this.stage = stage.getId();
+      this.triggerSource = triggerSource;
+      this.count = timer.count();
+      this.meanMillis =
+          count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(timer.totalTime()) / (double) count;
+      for (double percentile : PERCENTILES) {
+        // percentile timers report seconds
+        percentilesMillis.put("p" + (int) percentile, timer.percentile(percentile) * 1000);
+      }
+    }
+  }
+
+  @Getter
+  public static class Offender {
+    private final String application;
+    private final String pipelineName;
+    private final String pipelineId;
+    private final String triggerId;
+    private final TriggerSource triggerSource;
+    private final long latencyMillis;
+    private final Instant recordedAt;
+
+    Offender(
+        Pipeline pipeline, TriggerSource triggerSource, long latencyMillis, Instant recordedAt) {
+      this.application = pipeline.getApplication();
+      this.pipelineName = pipeline.getName();
+      this.pipelineId = pipeline.getId();
+      this.triggerId = pipeline.getTrigger() == null ? null : pipeline.getTrigger().getId();
+      this.triggerSource = triggerSource;
+      this.latencyMillis = latencyMillis;
+      this.recordedAt = recordedAt;
+    }
+  }
+
+  @lombok.Value
+  public static class Report {
+    List<StageLatency> stages;
+
+    /** Slowest triggers first, keyed by stage. */
+    Map<String, List<Offender>> worstOffenders;
+  }
+}
@@ -2,7 +2,9 @@ package com.netflix.spinnaker.echo.pipelinetriggers.orca
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.google.common.util.concurrent.MoreExecutors
+import com.netflix.spectator.api.DefaultRegistry
 import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.echo.config.AllowedAccountsCacheConfigurationProperties
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.QuietPeriodIndicator
@@ -18,6 +20,9 @@ import com.netflix.spinnaker.kork.web.context.RequestContext
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 import retrofit2.mock.Calls
@@ -110,6 +115,141 @@ class PipelineInitiatorSpec extends Specification {
     null            | true          | true    | false    | true                  || 1                    || "anonymous"           || "account2,account3"           // null trigger user should default to 'anonymous'
   }
 
+  def "caches allowed accounts per runAsUser"() {
+    given:
+    def pipelineInitiator = new PipelineInitiator(
+      registry, orca, Optional.of(fiatPermissionEvaluator), fiatStatus, MoreExecutors.newDirectExecutorService(), objectMapper, quietPeriodIndicator, noopDynamicConfigService, activator, 5, 5000
+    )
+
+    def pipeline = Pipeline
+      .builder()
+      .application("application")
+      .name("name")
+      .id("id")
+      .type("pipeline")
+      .trigger(new Trigger.TriggerBuilder().type("cron").runAsUser("not-anonymous").build())
+      .build()
+
+    when:
+    3.times { pipelineInitiator.startPipeline(pipeline, PipelineInitiator.TriggerSource.CRON_SCHEDULER) }
+
+    then:
+    3 * activator.isEnabled() >> true
+    _ * fiatStatus.isEnabled() >> true
+    _ * fiatStatus.isLegacyFallbackEnabled() >> true
+    1 * fiatPermissionEvaluator.getPermission("not-anonymous") >> userPermissions.get("not-anonymous")
+    3 * orca.trigger(pipeline) >> {
+      captureAuthorizationContext()
+      Calls.response(new OrcaService.TriggerResponse())
+    }
+
+    capturedSpinnakerAccounts.orElse(null)?.split(",") as Set<String> == ["account1", "account2", "account3"] as Set<String>
+  }
+
+  def "does not cache failed permission lookups"() {
+    given:
+    def pipelineInitiator = new PipelineInitiator(
+      registry, orca, Optional.of(fiatPermissionEvaluator), fiatStatus, MoreExecutors.newDirectExecutorService(), objectMapper, quietPeriodIndicator, noopDynamicConfigService, activator, 5, 5000
+    )
+
+    def pipeline = Pipeline
+      .builder()
+      .application("application")
+      .name("name")
+      .id("id")
+      .type("pipeline")
+      .trigger(new Trigger.TriggerBuilder().type("cron").runAsUser("not-anonymous").build())
+      .build()
+
+    when:
+    2.times { pipelineInitiator.startPipeline(pipeline, PipelineInitiator.TriggerSource.CRON_SCHEDULER) }
+
+    then:
+    2 * activator.isEnabled() >> true
+    _ * fiatStatus.isEnabled() >> true
+    _ * fiatStatus.isLegacyFallbackEnabled() >> true
+    2 * fiatPermissionEvaluator.getPermission("not-anonymous") >> { throw new RuntimeException("fiat is down") }
+    2 * orca.trigger(pipeline) >> {
+      captureAuthorizationContext()
+      Calls.response(new OrcaService.TriggerResponse())
+    }
+
+    capturedSpinnakerUser.orElse(null) == "not-anonymous"
+    capturedSpinnakerAccounts.orElse(null) == null
+  }
+
+  def "does not cache users without WRITE access to any account"() {
+    given:
+    def pipelineInitiator = new PipelineInitiator(
+      registry, orca, Optional.of(fiatPermissionEvaluator), fiatStatus, MoreExecutors.newDirectExecutorService(), objectMapper, quietPeriodIndicator, noopDynamicConfigService, activator, 5, 5000
+    )
+
+    def pipeline = Pipeline
+      .builder()
+      .application("application")
+      .name("name")
+      .id("id")
+      .type("pipeline")
+      .trigger(new Trigger.TriggerBuilder().type("cron").runAsUser("read-only").build())
+      .build()
+
+    when:
+    2.times { pipelineInitiator.startPipeline(pipeline, PipelineInitiator.TriggerSource.CRON_SCHEDULER) }
+
+    then:
+    2 * activator.isEnabled() >> true
+    _ * fiatStatus.isEnabled() >> true
+    _ * fiatStatus.isLegacyFallbackEnabled() >> true
+    2 * fiatPermissionEvaluator.getPermission("read-only") >> new UserPermission.View(
+      accounts: [account("account1", ["READ"])] as Set<Account.View>
+    )
+    2 * orca.trigger(pipeline) >> {
+      captureAuthorizationContext()
+      Calls.response(new OrcaService.TriggerResponse())
+    }
+
+    capturedSpinnakerUser.orElse(null) == "read-only"
+    capturedSpinnakerAccounts.orElse(null) == null
+  }
+
+  @Unroll
+  def "records how long orca took to respond when the trigger #description"() {
+    given:
+    def latencyTracker = new TriggerLatencyTracker(new DefaultRegistry(), Clock.systemUTC(), 20, Duration.ofHours(1))
+    def pipelineInitiator = new PipelineInitiator(
+      registry, orca, Optional.empty(), fiatStatus, MoreExecutors.newDirectExecutorService(), objectMapper, quietPeriodIndicator,
+      noopDynamicConfigService, activator, Optional.empty(), latencyTracker, 1, 0, new AllowedAccountsCacheConfigurationProperties()
+    )
+
+    def pipeline = Pipeline
+      .builder()
+      .application("application")
+      .name("name")
+      .id("id")
+      .type("pipeline")
+      .trigger(new Trigger.TriggerBuilder().type("cron").build())
+      .build()
+
+    when:
+    pipelineInitiator.startPipeline(pipeline, PipelineInitiator.TriggerSource.CRON_SCHEDULER, scheduledTime)
+
+    then:
+    1 * activator.isEnabled() >> true
+    1 * orca.trigger(pipeline) >> (succeeds ? Calls.response(new OrcaService.TriggerResponse()) : Calls.failure(new IOException("orca is down")))
+
+    def report = latencyTracker.report()
+    report.stages.collect { [it.stage, it.triggerSource, it.count] } == expectedStages.collect {
+      [it, PipelineInitiator.TriggerSource.CRON_SCHEDULER, 1L]
+    }
+    scheduledTime == null || report.worstOffenders.scheduledToOrcaResponse*.latencyMillis.every { it >= 5000 }
+
+    where:
+    description                     | succeeds | scheduledTime                    || expectedStages
+    "succeeds"                      | true     | Instant.now().minusSeconds(5)    || ["triggerToOrcaResponse", "scheduledToOrcaResponse"]
+    "fails"                         | false    | Instant.now().minusSeconds(5)    || ["triggerToOrcaResponse", "scheduledToOrcaResponse"]
+    "was not scheduled"             | true     | null                             || ["triggerToOrcaResponse"]
+  }
+
   def "propages auth headers to orca calls without runAs"() {
     given:
     RequestContext context = contextProvider.get()
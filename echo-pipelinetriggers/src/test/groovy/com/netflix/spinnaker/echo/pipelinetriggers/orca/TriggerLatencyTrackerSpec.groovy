@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pipelinetriggers.orca
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.echo.model.Pipeline
+import com.netflix.spinnaker.echo.model.Trigger
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker.Stage
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+
+import static com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator.TriggerSource.CRON_SCHEDULER
+import static com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator.TriggerSource.EXTERNAL_EVENT
+
+class TriggerLatencyTrackerSpec extends Specification {
+  def registry = new DefaultRegistry()
+  def now = Instant.parse("2026-01-01T10:00:00Z")
+  def clock = Stub(Clock) {
+    instant() >> { now }
+  }
+
+  @Subject
+  def tracker = new TriggerLatencyTracker(registry, clock, 2, Duration.ofMinutes(10))
+
+  def 'records a timer per stage and trigger source'() {
+    when:
+    tracker.record(Stage.SCHEDULED_TO_JOB_START, CRON_SCHEDULER, pipeline('p1'), 100)
+    tracker.record(Stage.SCHEDULED_TO_JOB_START, CRON_SCHEDULER, pipeline('p2'), 300)
+    tracker.record(Stage.TRIGGER_TO_ORCA_RESPONSE, EXTERNAL_EVENT, pipeline('p1'), 50)
+
+    then:
+    def stages = tracker.report().stages
+    stages.collect { [it.stage, it.triggerSource, it.count] } == [
+      ['scheduledToJobStart', CRON_SCHEDULER, 2L],
+      ['triggerToOrcaResponse', EXTERNAL_EVENT, 1L]
+    ]
+    stages[0].meanMillis == 200d
+    stages[0].percentilesMillis.keySet() == ['p50', 'p90', 'p99'] as Set
+    stages[0].percentilesMillis.p99 >= stages[0].percentilesMillis.p50
+  }
+
+  def 'keeps the slowest recent triggers of each stage'() {
+    when:
+    tracker.record(Stage.SCHEDULED_TO_ORCA_RESPONSE, CRON_SCHEDULER, pipeline('p1'), 100)
+    tracker.record(Stage.SCHEDULED_TO_ORCA_RESPONSE, CRON_SCHEDULER, pipeline('p2'), 500)
+    tracker.record(Stage.SCHEDULED_TO_ORCA_RESPONSE, CRON_SCHEDULER, pipeline('p3'), 300)
+    tracker.record(Stage.SCHEDULED_TO_ORCA_RESPONSE, CRON_SCHEDULER, pipeline('p4'), 50)
+
+    then:
+    offenders(Stage.SCHEDULED_TO_ORCA_RESPONSE) == ['p2', 'p3']
+    tracker.report().worstOffenders.keySet() == ['scheduledToOrcaResponse'] as Set
+
+    when: 'they are out of the retention period'
+    now = now.plus(Duration.ofMinutes(11))
+    tracker.record(Stage.SCHEDULED_TO_ORCA_RESPONSE, CRON_SCHEDULER, pipeline('p5'), 10)
+
+    then:
+    offenders(Stage.SCHEDULED_TO_ORCA_RESPONSE) == ['p5']
+
+    when:
+    now = now.plus(Duration.ofMinutes(11))
+
+    then:
+    tracker.report().worstOffenders.isEmpty()
+  }
+
+  private List<String> offenders(Stage stage) {
+    return tracker.report().worstOffenders[stage.id].collect { it.pipelineId }
+  }
+
+  private static Pipeline pipeline(String id) {
+    return Pipeline.builder()
+      .application('app')
+      .name("pipeline ${id}")
+      .id(id)
+      .trigger(Trigger.builder().id("trigger-${id}").type('cron').build())
+      .build()
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pipelinetriggers.orca;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
+import com.netflix.spinnaker.echo.model.Pipeline;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.OrcaService.TriggerResponse;
+import com.netflix.spinnaker.kork.retrofit.ErrorHandlingExecutorCallAdapterFactory;
+import com.netflix.spinnaker.kork.retrofit.Retrofit2SyncCall;
+import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerHttpException;
+import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerNetworkException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+class OrcaTriggerBatcherTest {
+  private WireMockServer orcaStub;
+  private OrcaService orca;
+  private ExecutorService fallbackExecutor;
+  private OrcaTriggerBatcher batcher;
+
+  @BeforeEach
+  void setup() {
+    orcaStub = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    orcaStub.start();
+
+    orca = orcaService(orcaStub.baseUrl(), new OkHttpClient());
+
+    fallbackExecutor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (batcher != null) {
+      batcher.stop();
+    }
+    fallbackExecutor.shutdownNow();
+    orcaStub.stop();
+  }
+
+  @Test
+  void batchesTriggersSubmittedWithinTheLingerWindow() throws Exception {
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate/batch"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "[{\"ref\": \"/pipelines/1\"},"
+                            + " {\"ref\": \"/pipelines/2\"},"
+                            + " {\"status\": 400, \"error\": \"invalid pipeline\"}]")));
+    batcher = new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 10, 200, 60000, 2);
+
+    List<CompletableFuture<TriggerResponse>> results = submit(3);
+
+    assertThat(results.get(0).get(5, TimeUnit.SECONDS).getRef()).isEqualTo("/pipelines/1");
+    assertThat(results.get(1).get(5, TimeUnit.SECONDS).getRef()).isEqualTo("/pipelines/2");
+    assertThatThrownBy(() -> results.get(2).get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(OrcaTriggerBatcher.BatchTriggerException.class)
+        .hasMessageContaining("invalid pipeline");
+
+    orcaStub.verify(1, postRequestedFor(urlEqualTo("/orchestrate/batch")));
+    orcaStub.verify(0, postRequestedFor(urlEqualTo("/orchestrate")));
+  }
+
+  @Test
+  void sendsFullBatchesWithoutWaitingForTheLingerWindow() throws Exception {
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate/batch"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[{\"ref\": \"/pipelines/1\"}, {\"ref\": \"/pipelines/2\"}]")));
+    batcher =
+        new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 2, 60000, 60000, 2);
+
+    List<CompletableFuture<TriggerResponse>> results = submit(2);
+
+    assertThat(results.get(1).get(5, TimeUnit.SECONDS).getRef()).isEqualTo("/pipelines/2");
+    orcaStub.verify(1, postRequestedFor(urlEqualTo("/orchestrate/batch")));
+  }
+
+  @Test
+  void fallsBackToSingleTriggersWhenBatchingIsNotSupported() throws Exception {
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate/batch")).willReturn(aResponse().withStatus(404)));
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"ref\": \"/pipelines/single\"}")));
+    batcher = new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 10, 50, 60000, 2);
+
+    for (CompletableFuture<TriggerResponse> result : submit(2)) {
+      assertThat(result.get(5, TimeUnit.SECONDS).getRef()).isEqualTo("/pipelines/single");
+    }
+    assertThat(batcher.isBatchingAvailable()).isFalse();
+
+    // subsequent triggers go straight to the single endpoint
+    submit(1).get(0).get(5, TimeUnit.SECONDS);
+
+    orcaStub.verify(1, postRequestedFor(urlEqualTo("/orchestrate/batch")));
+    orcaStub.verify(3, postRequestedFor(urlEqualTo("/orchestrate")));
+  }
+
+  @Test
+  void doesNotResubmitWhenOrcaMayHaveStartedTheBatch() throws Exception {
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate/batch")).willReturn(aResponse().withStatus(503)));
+    batcher = new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 10, 50, 60000, 2);
+
+    for (CompletableFuture<TriggerResponse> result : submit(2)) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(SpinnakerHttpException.class);
+    }
+    orcaStub.verify(1, postRequestedFor(urlEqualTo("/orchestrate/batch")));
+    orcaStub.verify(0, postRequestedFor(urlEqualTo("/orchestrate")));
+  }
+
+  @Test
+  void doesNotResubmitWhenTheBatchTimesOut() throws Exception {
+    orcaStub.stubFor(
+        post(urlEqualTo("/orchestrate/batch"))
+            .willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+    orca =
+        orcaService(
+            orcaStub.baseUrl(),
+            new OkHttpClient.Builder().readTimeout(200, TimeUnit.MILLISECONDS).build());
+    batcher = new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 10, 50, 60000, 2);
+
+    for (CompletableFuture<TriggerResponse> result : submit(2)) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(SpinnakerNetworkException.class);
+    }
+    orcaStub.verify(0, postRequestedFor(urlEqualTo("/orchestrate")));
+  }
+
+  @Test
+  void resubmitsSinglyWhenTheBatchNeverReachedOrca() throws Exception {
+    String baseUrl = orcaStub.baseUrl();
+    orcaStub.stop();
+    orca = orcaService(baseUrl, new OkHttpClient());
+    batcher = new OrcaTriggerBatcher(new NoopRegistry(), orca, fallbackExecutor, 10, 50, 60000, 2);
+
+    AtomicInteger singleTriggers = new AtomicInteger();
+    CompletableFuture<TriggerResponse> result =
+        batcher.submit(
+            "anonymous",
+            List.of(),
+            Pipeline.builder().application("app").name("pipeline").id("id").build(),
+            () -> {
+              singleTriggers.incrementAndGet();
+              return new TriggerResponse("/pipelines/single");
+            });
+
+    assertThat(result.get(5, TimeUnit.SECONDS).getRef()).isEqualTo("/pipelines/single");
+    assertThat(singleTriggers.get()).isEqualTo(1);
+  }
+
+  private List<CompletableFuture<TriggerResponse>> submit(int count) {
+    List<CompletableFuture<TriggerResponse>> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Pipeline pipeline =
+          Pipeline.builder().application("app").name("pipeline-" + i).id("id-" + i).build();
+      results.add(
+          batcher.submit(
+              "anonymous",
+              List.of(),
+              pipeline,
+              () -> Retrofit2SyncCall.execute(orca.trigger(pipeline))));
+    }
+    return results;
+  }
+
+  private static OrcaService orcaService(String baseUrl, OkHttpClient client) {
+    return new Retrofit.Builder()
+        .baseUrl(baseUrl + "/")
+        .client(client)
+        .addCallAdapterFactory(ErrorHandlingExecutorCallAdapterFactory.getInstance())
+        .addConverterFactory(JacksonConverterFactory.create(EchoObjectMapper.getInstance()))
+        .build()
+        .create(OrcaService.class);
+  }
+}
@@ -58,6 +58,38 @@ public class AmazonPubsubProperties {
     int sqsMessageRetentionPeriodSeconds = 120;
     int waitTimeSeconds = 5;
 
+    /**
+     * Number of threads handling the messages of this subscription. With a single thread, messages
+     * are handled by the thread polling the queue, one poll at a time.
+     */
+    int concurrency = 1;
+
+    /**
+     * Messages received but not handled yet, the queue isn't polled for more while this many are in
+     * flight. Defaults to 10 per thread.
+     */
+    private Integer maxInFlightMessages;
+
+    /**
+     * Extends the visibility timeout of messages that wait to be handled, so that they aren't
+     * redelivered to other instances in the meantime.
+     */
+    boolean extendVisibilityTimeout = false;
+
+    /** Time after receiving a message that its visibility timeout is no longer extended. */
+    int maxVisibilityExtensionSeconds = 600;
+
+    /**
+     * Deletes processed messages in batches of up to 10 rather than one by one, once a batch is
+     * full or after {@code ackFlushIntervalMillis}.
+     */
+    boolean batchAcknowledgements = false;
+
+    int ackFlushIntervalMillis = 200;
+
+    /** How often the deletion of a message is attempted before giving up. */
+    int ackMaxAttempts = 3;
+
     // 1 hour default
     private Integer dedupeRetentionSeconds = 3600;
 
@@ -86,6 +118,11 @@ public class AmazonPubsubProperties {
       }
     }
 
+    public int resolveMaxInFlightMessages() {
+      int threads = Math.max(1, concurrency);
+      return maxInFlightMessages == null ? threads * 10 : Math.max(threads, maxInFlightMessages);
+    }
+
     private MessageFormat determineMessageFormat() {
       // Supplying a custom template overrides a MessageFormat choice
       if (!StringUtils.isEmpty(templatePath)) {
@@ -21,7 +21,9 @@ import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiptHandleIsInvalidException;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
 import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +39,8 @@ public class AmazonMessageAcknowledger implements MessageAcknowledger {
   private Message message;
   private Registry registry;
   private String subscriptionName;
+  private long receivedAt;
+  private SQSAckBatcher ackBatcher;
 
   public AmazonMessageAcknowledger(
       AmazonSQS amazonSQS,
@@ -44,19 +48,55 @@ public class AmazonMessageAcknowledger implements MessageAcknowledger {
       Message message,
       Registry registry,
       String subscriptionName) {
+    this(amazonSQS, queueUrl, message, registry, subscriptionName, registry.clock().wallTime());
+  }
+
+  /**
+   * @param receivedAt when the message was received from the queue, in epoch millis
+   */
+  public AmazonMessageAcknowledger(
+      AmazonSQS amazonSQS,
+      String queueUrl,
+      Message message,
+      Registry registry,
+      String subscriptionName,
+      long receivedAt) {
+    this(amazonSQS, queueUrl, message, registry, subscriptionName, receivedAt, null);
+  }
+
+  /**
+   * @param ackBatcher deletes acknowledged messages in batches, null deletes each one right away
+   */
+  public AmazonMessageAcknowledger(
+      AmazonSQS amazonSQS,
+      String queueUrl,
+      Message message,
+      Registry registry,
+      String subscriptionName,
+      long receivedAt,
+      SQSAckBatcher ackBatcher) {
     this.amazonSQS = amazonSQS;
     this.queueUrl = queueUrl;
     this.message = message;
     this.registry = registry;
     this.subscriptionName = subscriptionName;
+    this.receivedAt = receivedAt;
+    this.ackBatcher = ackBatcher;
   }
 
   @Override
   public void ack() {
+    if (ackBatcher != null) {
+      ackBatcher.ack(queueUrl, message, receivedAt);
+      return;
+    }
+
     // Delete from queue
     try {
       amazonSQS.deleteMessage(queueUrl, message.getReceiptHandle());
       registry.counter(getProcessedMetricId(subscriptionName)).increment();
+      PercentileTimer.get(registry, getReceiveToAckMetricId(subscriptionName))
+          .record(registry.clock().wallTime() - receivedAt, TimeUnit.MILLISECONDS);
     } catch (ReceiptHandleIsInvalidException e) {
       log.warn(
           "Error deleting message: {}, queue: {}, reason: {} (receiptHandle: {})",
@@ -79,6 +119,11 @@ public class AmazonMessageAcknowledger implements MessageAcknowledger {
         "echo.pubsub.amazon.totalProcessed", "subscriptionName", subscriptionName);
   }
 
+  Id getReceiveToAckMetricId(String subscriptionName) {
+    return registry.createId(
+        "echo.pubsub.amazon.receiveToAck", "subscriptionName", subscriptionName);
+  }
+
   Id getNackMetricId(String subscriptionName) {
     return registry.createId(
         "echo.pubsub.amazon.messagesNacked", "subscriptionName", subscriptionName);
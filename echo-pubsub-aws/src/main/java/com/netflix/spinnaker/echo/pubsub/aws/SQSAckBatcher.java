@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.aws;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.Message;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the acknowledgements of a subscription and deletes the messages with {@code
+ * DeleteMessageBatch}, as soon as a full batch is pending or at the latest after the flush
+ * interval.
+ *
+ * <p>Entries failing for reasons other than the request itself, like throttling, are retried with
+ * the next flush. Once deleted messages can't be redelivered anymore, so a message that couldn't be
+ * deleted is only processed again if its dedupe marker expired in the meantime.
+ *
+ * <p>Once stopped, acknowledgements are no longer batched and delete their message right away.
+ */
+public class SQSAckBatcher {
+  private static final Logger log = LoggerFactory.getLogger(SQSAckBatcher.class);
+
+  static final int MAX_BATCH_SIZE = 10;
+
+  private final AmazonSQS amazonSQS;
+  private final Registry registry;
+  private final String subscriptionName;
+  private final int maxAttempts;
+  private final ScheduledExecutorService flusher;
+
+  private final Object lock = new Object();
+  private List<PendingAck> pending = new ArrayList<>();
+  private boolean flushScheduled = false;
+  private volatile boolean stopped = false;
+
+  /**
+   * @param flushIntervalMillis how long an acknowledgement may wait for others to share its batch
+   * @param maxAttempts how often the deletion of a message is attempted
+   */
+  public SQSAckBatcher(
+      AmazonSQS amazonSQS,
+      Registry registry,
+      String subscriptionName,
+      long flushIntervalMillis,
+      int maxAttempts) {
+    this.amazonSQS = amazonSQS;
+    this.registry = registry;
+    this.subscriptionName = subscriptionName;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("sqs-" + subscriptionName + "-acks-%d")
+                .setDaemon(true)
+                .build());
+    flusher.scheduleWithFixedDelay(
+        this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues the deletion of {@code message}, or deletes it right away if the batcher is stopped.
+   *
+   * @param receivedAt when the message was received from the queue, in epoch millis
+   */
+  public void ack(String queueUrl, Message message, long receivedAt) {
+    synchronized (lock) {
+      pending.add(new PendingAck(queueUrl, message, receivedAt, registry.clock().wallTime()));
+      if (!stopped) {
+        if (pending.size() < MAX_BATCH_SIZE || flushScheduled) {
+          return;
+        }
+        flushScheduled = true;
+      }
+    }
+
+    if (stopped) {
+      // nothing flushes later
+      drain();
+      return;
+    }
+
+    try {
+      flusher.execute(this::flushQuietly);
+    } catch (RejectedExecutionException e) {
+      drain();
+    }
+  }
+
+  /** Stops the timer and deletes the pending messages, retrying failed entries right away. */
+  public void stop() {
+    stopped = true;
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    drain();
+  }
+
+  int pendingCount() {
+    synchronized (lock) {
+      return pending.size();
+    }
+  }
+
+  void flush() {
+    List<PendingAck> acks;
+    synchronized (lock) {
+      acks = pending;
+      pending = new ArrayList<>();
+      flushScheduled = false;
+    }
+    if (acks.isEmpty()) {
+      return;
+    }
+
+    // the queue url changes when a queue had to be recreated
+    Map<String, List<PendingAck>> byQueue = new LinkedHashMap<>();
+    for (PendingAck ack : acks) {
+      byQueue.computeIfAbsent(ack.queueUrl, q -> new ArrayList<>()).add(ack);
+    }
+
+    List<PendingAck> retries = new ArrayList<>();
+    byQueue.forEach(
+        (queueUrl, queueAcks) -> {
+          for (int i = 0; i < queueAcks.size(); i += MAX_BATCH_SIZE) {
+            deleteBatch(
+                queueUrl,
+                queueAcks.subList(i, Math.min(i + MAX_BATCH_SIZE, queueAcks.size())),
+                retries);
+          }
+        });
+
+    if (!retries.isEmpty()) {
+      synchronized (lock) {
+        pending.addAll(retries);
+      }
+    }
+  }
+
+  private void drain() {
+    for (int attempt = 0; attempt < maxAttempts && pendingCount() > 0; attempt++) {
+      flushQuietly();
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      log.error("Failed to flush acknowledgements of subscription {}", subscriptionName, e);
+    }
+  }
+
+  private void deleteBatch(String queueUrl, List<PendingAck> batch, List<PendingAck> retries) {
+    List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      entries.add(
+          new DeleteMessageBatchRequestEntry(
+              Integer.toString(i), batch.get(i).message.getReceiptHandle()));
+    }
+
+    registry
+        .distributionSummary(
+            "echo.pubsub.amazon.ackBatchSize", "subscriptionName", subscriptionName)
+        .record(batch.size());
+
+    DeleteMessageBatchResult result;
+    try {
+      result = amazonSQS.deleteMessageBatch(new DeleteMessageBatchRequest(queueUrl, entries));
+    } catch (Exception e) {
+      log.warn(
+          "Failed to delete {} messages from queue {}, reason: {}",
+          batch.size(),
+          queueUrl,
+          e.getMessage());
+      for (PendingAck ack : batch) {
+        retryOrDrop(ack, e.getClass().getSimpleName(), retries);
+      }
+      return;
+    }
+
+    long now = registry.clock().wallTime();
+    for (DeleteMessageBatchResultEntry entry : result.getSuccessful()) {
+      PendingAck ack = batch.get(Integer.parseInt(entry.getId()));
+      registry
+          .counter(
+              registry.createId(
+                  "echo.pubsub.amazon.totalProcessed", "subscriptionName", subscriptionName))
+          .increment();
+      PercentileTimer.get(
+              registry,
+              registry.createId(
+                  "echo.pubsub.amazon.receiveToAck", "subscriptionName", subscriptionName))
+          .record(now - ack.receivedAt, TimeUnit.MILLISECONDS);
+      PercentileTimer.get(
+              registry,
+              registry.createId(
+                  "echo.pubsub.amazon.ackLatency", "subscriptionName", subscriptionName))
+          .record(now - ack.ackedAt, TimeUnit.MILLISECONDS);
+    }
+
+    for (BatchResultErrorEntry error : result.getFailed()) {
+      PendingAck ack = batch.get(Integer.parseInt(error.getId()));
+      if (error.isSenderFault()) {
+        // e.g. an expired receipt handle, retrying won't help
+        log.warn(
+            "Error deleting message: {}, queue: {}, reason: {} (receiptHandle: {})",
+            ack.message.getMessageId(),
+            queueUrl,
+            error.getMessage(),
+            ack.message.getReceiptHandle());
+        countFailure(error.getCode());
+      } else {
+        retryOrDrop(ack, error.getCode(), retries);
+      }
+    }
+  }
+
+  private void retryOrDrop(PendingAck ack, String reason, List<PendingAck> retries) {
+    ack.attempts++;
+    if (ack.attempts < maxAttempts) {
+      retries.add(ack);
+      return;
+    }
+
+    log.warn(
+        "Giving up deleting message: {}, queue: {} after {} attempts",
+        ack.message.getMessageId(),
+        ack.queueUrl,
+        ack.attempts);
+    countFailure(reason);
+  }
+
+  private void countFailure(String reason) {
+    registry
+        .counter(
+            registry
+                .createId("echo.pubsub.amazon.ackFailures", "subscriptionName", subscriptionName)
+                .withTag("reason", String.valueOf(reason)))
+        .increment();
+  }
+
+  private static class PendingAck {
+    final String queueUrl;
+    final Message message;
+    final long receivedAt;
+    final long ackedAt;
+    int attempts;
+
+    PendingAck(String queueUrl, Message message, long receivedAt, long ackedAt) {
+      this.queueUrl = queueUrl;
+      this.message = message;
+      this.receivedAt = receivedAt;
+      this.ackedAt = ackedAt;
+    }
+  }
+}
@@ -19,12 +19,17 @@ package com.netflix.spinnaker.echo.pubsub.aws;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageSystemAttributeName;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 import com.amazonaws.services.sqs.model.ReceiveMessageResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
 import com.netflix.spinnaker.echo.config.AmazonPubsubProperties;
 import com.netflix.spinnaker.echo.model.pubsub.MessageDescription;
 import com.netflix.spinnaker.echo.model.pubsub.PubsubSystem;
@@ -35,16 +40,34 @@ import com.netflix.spinnaker.kork.annotations.VisibleForTesting;
 import com.netflix.spinnaker.kork.aws.ARN;
 import com.netflix.spinnaker.kork.pubsub.aws.PubSubUtils;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * One subscriber for each subscription. The subscriber makes sure the SQS queue is created,
  * subscribes to the SNS topic, polls the queue for messages, and removes them once processed.
+ *
+ * <p>With a {@code concurrency} above 1, received messages are handed to a pool of that many
+ * threads and the queue is polled again right away, as long as fewer than {@code
+ * maxInFlightMessages} are waiting to be handled.
  */
 public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
@@ -52,6 +75,8 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
   private static final int AWS_MAX_NUMBER_OF_MESSAGES = 10;
   private static final PubsubSystem pubsubSystem = PubsubSystem.AMAZON;
+  private static final long PARSE_FAILURE_LOG_INTERVAL_MS = 60_000;
+  private static final int MAX_LOGGED_BODY_LENGTH = 1000;
 
   private final ObjectMapper objectMapper;
   private final AmazonSNS amazonSNS;
@@ -72,6 +97,27 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
   private final Supplier<Boolean> isEnabled;
 
+  private final ObjectReader envelopeReader;
+
+  private final AtomicLong nextParseFailureLog = new AtomicLong();
+  private final AtomicInteger suppressedParseFailures = new AtomicInteger();
+
+  /** Bounds the messages received but not handled yet. */
+  private final Semaphore inFlight;
+
+  private final int maxInFlightMessages;
+
+  /** Handles messages when {@code concurrency} is above 1, otherwise they're handled inline. */
+  private final ExecutorService workers;
+
+  private final ScheduledExecutorService visibilityExtender;
+
+  private final SQSAckBatcher ackBatcher;
+
+  private volatile boolean stopped = false;
+  private volatile boolean polling = false;
+  private final CountDownLatch pollingStopped = new CountDownLatch(1);
+
   public SQSSubscriber(
       ObjectMapper objectMapper,
       AmazonPubsubProperties.AmazonPubsubSubscription subscription,
@@ -81,6 +127,7 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
       Supplier<Boolean> isEnabled,
       Registry registry) {
     this.objectMapper = objectMapper;
+    this.envelopeReader = objectMapper.readerFor(NotificationMessageWrapper.class);
     this.subscription = subscription;
     this.pubsubMessageHandler = pubsubMessageHandler;
     this.amazonSNS = amazonSNS;
@@ -90,6 +137,60 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
     this.queueARN = new ARN(subscription.getQueueARN());
     this.topicARN = new ARN(subscription.getTopicARN());
+
+    this.maxInFlightMessages = subscription.resolveMaxInFlightMessages();
+    this.inFlight = new Semaphore(maxInFlightMessages);
+    this.workers =
+        subscription.getConcurrency() > 1
+            ? Executors.newFixedThreadPool(
+                subscription.getConcurrency(),
+                threadFactory("sqs-" + subscription.getName() + "-%d"))
+            : null;
+    this.visibilityExtender =
+        subscription.isExtendVisibilityTimeout()
+            ? Executors.newSingleThreadScheduledExecutor(
+                threadFactory("sqs-" + subscription.getName() + "-visibility-%d"))
+            : null;
+    this.ackBatcher =
+        subscription.isBatchAcknowledgements()
+            ? new SQSAckBatcher(
+                amazonSQS,
+                registry,
+                subscription.getName(),
+                subscription.getAckFlushIntervalMillis(),
+                subscription.getAckMaxAttempts())
+            : null;
+  }
+
+  /**
+   * Stops polling the queue, lets the workers finish the messages they have, and deletes the
+   * acknowledged ones.
+   */
+  public void shutdown() {
+    stopped = true;
+    if (polling) {
+      // a receive already in progress returns within the long poll wait time
+      try {
+        pollingStopped.await(subscription.getWaitTimeSeconds() + 5L, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (workers != null) {
+      workers.shutdown();
+      try {
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (visibilityExtender != null) {
+      visibilityExtender.shutdownNow();
+    }
+    if (ackBatcher != null) {
+      ackBatcher.stop();
+    }
   }
 
   public String getWorkerName() {
@@ -113,7 +214,22 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
   @Override
   public void run() {
+    polling = true;
+    try {
+      poll();
+    } finally {
+      pollingStopped.countDown();
+    }
+  }
+
+  private void poll() {
     log.info("Starting " + getWorkerName());
+    PolledMeter.using(registry)
+        .withId(
+            registry.createId(
+                "echo.pubsub.amazon.inFlightMessages", "subscriptionName", getSubscriptionName()))
+        .monitorValue(this, SQSSubscriber::getInFlightMessages);
+
     try {
       initializeQueue();
     } catch (Exception e) {
@@ -121,7 +237,7 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
       throw e;
     }
 
-    while (true) {
+    while (!stopped) {
       try {
         listenForMessages();
       } catch (QueueDoesNotExistException e) {
@@ -132,6 +248,7 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
         sleepALittle();
       }
     }
+    log.info("Stopped " + getWorkerName());
   }
 
   private void initializeQueue() {
@@ -142,116 +259,311 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
   }
 
   private void listenForMessages() {
-    while (isEnabled.get()) {
-      ReceiveMessageResult receiveMessageResult =
-          amazonSQS.receiveMessage(
-              new ReceiveMessageRequest(queueId)
-                  .withMaxNumberOfMessages(AWS_MAX_NUMBER_OF_MESSAGES)
-                  .withVisibilityTimeout(subscription.getVisibilityTimeout())
-                  .withWaitTimeSeconds(subscription.getWaitTimeSeconds())
-                  .withMessageAttributeNames("All"));
-
-      if (receiveMessageResult.getMessages().isEmpty()) {
+    while (!stopped && isEnabled.get()) {
+      int capacity = reserveCapacity();
+      List<Message> messages;
+      try {
+        ReceiveMessageResult receiveMessageResult =
+            amazonSQS.receiveMessage(
+                new ReceiveMessageRequest(queueId)
+                    .withMaxNumberOfMessages(capacity)
+                    .withVisibilityTimeout(subscription.getVisibilityTimeout())
+                    .withWaitTimeSeconds(subscription.getWaitTimeSeconds())
+                    .withMessageAttributeNames("All")
+                    .withAttributeNames(MessageSystemAttributeName.SentTimestamp.toString()));
+        messages = receiveMessageResult.getMessages();
+      } catch (RuntimeException e) {
+        inFlight.release(capacity);
+        throw e;
+      }
+      inFlight.release(capacity - messages.size());
+
+      if (stopped) {
+        // received while shutting down, they become visible again after the visibility timeout
+        inFlight.release(messages.size());
+        return;
+      }
+
+      if (messages.isEmpty()) {
         log.debug("Received no messages for queue: {}", queueARN);
         continue;
       }
 
-      receiveMessageResult.getMessages().forEach(this::handleMessage);
+      long receivedAt = registry.clock().wallTime();
+      messages.forEach(message -> recordQueueLag(message, receivedAt));
+
+      if (workers == null) {
+        handleInline(messages, receivedAt);
+      } else {
+        messages.forEach(message -> submit(message, receivedAt));
+      }
     }
 
     // If isEnabled is false, let's not busy spin
     sleepALittle();
   }
 
-  private void handleMessage(Message message) {
+  /**
+   * Blocks until at least one more message may be in flight, and reserves room for as many as a
+   * single receive returns.
+   */
+  private int reserveCapacity() {
+    inFlight.acquireUninterruptibly();
+    int capacity = 1;
+    while (capacity < AWS_MAX_NUMBER_OF_MESSAGES && inFlight.tryAcquire()) {
+      capacity++;
+    }
+    return capacity;
+  }
+
+  /** All messages of a poll are handled by the polling thread before it polls again. */
+  private void handleInline(List<Message> messages, long receivedAt) {
+    List<ScheduledFuture<?>> extensions = new ArrayList<>(messages.size());
+    messages.forEach(message -> extensions.add(scheduleVisibilityExtension(message, receivedAt)));
+    try {
+      handleMessages(messages, receivedAt);
+    } finally {
+      extensions.forEach(SQSSubscriber::cancel);
+      inFlight.release(messages.size());
+    }
+  }
+
+  /**
+   * Messages handled by the pool are deduped and locked one by one, so that a slow message doesn't
+   * hold back the others received with it.
+   */
+  private void submit(Message message, long receivedAt) {
+    ScheduledFuture<?> extension = scheduleVisibilityExtension(message, receivedAt);
     try {
-      String messageId = message.getMessageId();
-      String messagePayload = unmarshalMessageBody(message.getBody());
-
-      Map<String, String> stringifiedMessageAttributes =
-          message.getMessageAttributes().entrySet().stream()
-              .collect(Collectors.toMap(Map.Entry::getKey, e -> String.valueOf(e.getValue())));
-
-      // SNS message attributes are stored within the SQS message body. Add them to other
-      // attributes..
-      Map<String, MessageAttributeWrapper> messageAttributes =
-          unmarshalMessageAttributes(message.getBody());
-      stringifiedMessageAttributes.putAll(
-          messageAttributes.entrySet().stream()
-              .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getAttributeValue())));
-
-      MessageDescription description =
-          MessageDescription.builder()
-              .subscriptionName(getSubscriptionName())
-              .messagePayload(messagePayload)
-              .messageAttributes(stringifiedMessageAttributes)
-              .pubsubSystem(pubsubSystem)
-              .ackDeadlineSeconds(60) // Set a high upper bound on message processing time.
-              .retentionDeadlineSeconds(
-                  subscription.getDedupeRetentionSeconds()) // Configurable but default to 1 hour
-              .build();
-
-      AmazonMessageAcknowledger acknowledger =
-          new AmazonMessageAcknowledger(amazonSQS, queueId, message, registry, getName());
-
-      if (subscription.getAlternateIdInMessageAttributes() != null
-          && !subscription.getAlternateIdInMessageAttributes().isEmpty()
-          && stringifiedMessageAttributes.containsKey(
-              subscription.getAlternateIdInMessageAttributes())) {
-        // Message attributes contain the unique id used for deduping
-        messageId =
-            stringifiedMessageAttributes.get(subscription.getAlternateIdInMessageAttributes());
+      workers.execute(
+          () -> {
+            try {
+              handleMessages(Collections.singletonList(message), receivedAt);
+            } finally {
+              cancel(extension);
+              inFlight.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      cancel(extension);
+      inFlight.release();
+      onMessageFailure(message, e);
+    }
+  }
+
+  /** Messages of a single poll are deduped and locked together. */
+  private void handleMessages(List<Message> messages, long receivedAt) {
+    List<PubsubMessageHandler.ReceivedMessage> receivedMessages = new ArrayList<>(messages.size());
+    Map<PubsubMessageHandler.ReceivedMessage, Message> sqsMessages = new IdentityHashMap<>();
+    for (Message message : messages) {
+      try {
+        PubsubMessageHandler.ReceivedMessage receivedMessage =
+            toReceivedMessage(message, receivedAt);
+        receivedMessages.add(receivedMessage);
+        sqsMessages.put(receivedMessage, message);
+      } catch (Exception e) {
+        onMessageFailure(message, e);
       }
+    }
 
-      pubsubMessageHandler.handleMessage(
-          description, acknowledger, identity.getIdentity(), messageId);
-    } catch (Exception e) {
-      registry.counter(getFailedToBeHandledMetricId(e)).increment();
-      log.error("Message {} from queue {} failed to be handled", message, queueId, e);
-      // Todo emjburns: add dead-letter queue policy
+    if (!receivedMessages.isEmpty()) {
+      pubsubMessageHandler.handleMessages(
+          receivedMessages,
+          (receivedMessage, e) -> onMessageFailure(sqsMessages.get(receivedMessage), e));
     }
   }
 
-  @VisibleForTesting
-  String unmarshalMessageBody(String messageBody) {
-    String messagePayload = messageBody;
+  private PubsubMessageHandler.ReceivedMessage toReceivedMessage(Message message, long receivedAt) {
+    String messageId = message.getMessageId();
+    NotificationMessageWrapper envelope = parseEnvelope(message.getBody());
+    String messagePayload = payloadOf(envelope, message.getBody());
+
+    // SNS message attributes are stored within the SQS message body. Add them to other
+    // attributes..
+    Map<String, MessageAttributeWrapper> envelopeAttributes =
+        envelope != null && envelope.getMessageAttributes() != null
+            ? envelope.getMessageAttributes()
+            : Collections.emptyMap();
+
+    Map<String, String> stringifiedMessageAttributes =
+        new HashMap<>(
+            (int) ((message.getMessageAttributes().size() + envelopeAttributes.size()) / 0.75f)
+                + 1);
+    message
+        .getMessageAttributes()
+        .forEach((key, value) -> stringifiedMessageAttributes.put(key, String.valueOf(value)));
+    envelopeAttributes.forEach(
+        (key, value) -> stringifiedMessageAttributes.put(key, value.getAttributeValue()));
+
+    MessageDescription description =
+        MessageDescription.builder()
+            .subscriptionName(getSubscriptionName())
+            .messagePayload(messagePayload)
+            .messageAttributes(stringifiedMessageAttributes)
+            .pubsubSystem(pubsubSystem)
+            .ackDeadlineSeconds(60) // Set a high upper bound on message processing time.
+            .retentionDeadlineSeconds(
+                subscription.getDedupeRetentionSeconds()) // Configurable but default to 1 hour
+            .build();
+
+    AmazonMessageAcknowledger acknowledger =
+        new AmazonMessageAcknowledger(
+            amazonSQS, queueId, message, registry, getName(), receivedAt, ackBatcher);
+
+    if (subscription.getAlternateIdInMessageAttributes() != null
+        && !subscription.getAlternateIdInMessageAttributes().isEmpty()
+        && stringifiedMessageAttributes.containsKey(
+            subscription.getAlternateIdInMessageAttributes())) {
+      // Message attributes contain the unique id used for deduping
+      messageId =
+          stringifiedMessageAttributes.get(subscription.getAlternateIdInMessageAttributes());
+    }
+
+    return new PubsubMessageHandler.ReceivedMessage(
+        description, acknowledger, identity.getIdentity(), messageId);
+  }
+
+  /**
+   * Keeps a message invisible to other consumers while it waits to be handled, up to {@code
+   * maxVisibilityExtensionSeconds} after it was received.
+   */
+  private ScheduledFuture<?> scheduleVisibilityExtension(Message message, long receivedAt) {
+    if (visibilityExtender == null) {
+      return null;
+    }
+
+    long periodSeconds = Math.max(1, subscription.getVisibilityTimeout() / 2);
+    return visibilityExtender.scheduleAtFixedRate(
+        () -> extendVisibility(message, receivedAt),
+        periodSeconds,
+        periodSeconds,
+        TimeUnit.SECONDS);
+  }
+
+  private void extendVisibility(Message message, long receivedAt) {
+    long elapsedSeconds = (registry.clock().wallTime() - receivedAt) / 1000;
+    if (elapsedSeconds + subscription.getVisibilityTimeout()
+        > subscription.getMaxVisibilityExtensionSeconds()) {
+      return;
+    }
+
     try {
-      NotificationMessageWrapper wrapper =
-          objectMapper.readValue(messagePayload, NotificationMessageWrapper.class);
-      if (wrapper != null && wrapper.getMessage() != null) {
-        messagePayload = wrapper.getMessage();
-      }
-    } catch (IOException e) {
-      // Try to unwrap a notification message; if that doesn't work,
-      // we're dealing with a message we can't parse. The template or
-      // the pipeline potentially knows how to deal with it.
-      log.error(
-          "Unable unmarshal NotificationMessageWrapper. Unknown message type. (body: {})",
-          messageBody,
+      amazonSQS.changeMessageVisibility(
+          queueId, message.getReceiptHandle(), subscription.getVisibilityTimeout());
+      registry
+          .counter("echo.pubsub.amazon.visibilityExtensions", "subscriptionName", getName())
+          .increment();
+    } catch (Exception e) {
+      // the message may have been deleted in the meantime
+      log.debug(
+          "Failed to extend visibility of message {} from queue {}",
+          message.getMessageId(),
+          queueId,
           e);
     }
-    return messagePayload;
+  }
+
+  private void recordQueueLag(Message message, long receivedAt) {
+    String sentTimestamp =
+        message.getAttributes().get(MessageSystemAttributeName.SentTimestamp.toString());
+    if (sentTimestamp == null) {
+      return;
+    }
+
+    try {
+      PercentileTimer.get(
+              registry,
+              registry.createId("echo.pubsub.amazon.queueLag", "subscriptionName", getName()))
+          .record(Math.max(0, receivedAt - Long.parseLong(sentTimestamp)), TimeUnit.MILLISECONDS);
+    } catch (NumberFormatException e) {
+      log.debug("Invalid SentTimestamp {} of message {}", sentTimestamp, message.getMessageId());
+    }
+  }
+
+  private int getInFlightMessages() {
+    return maxInFlightMessages - inFlight.availablePermits();
+  }
+
+  private static void cancel(ScheduledFuture<?> extension) {
+    if (extension != null) {
+      extension.cancel(false);
+    }
+  }
+
+  private static ThreadFactory threadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
+  }
+
+  private void onMessageFailure(Message message, Exception e) {
+    registry.counter(getFailedToBeHandledMetricId(e)).increment();
+    log.error("Message {} from queue {} failed to be handled", message, queueId, e);
+    // Todo emjburns: add dead-letter queue policy
+  }
+
+  @VisibleForTesting
+  String unmarshalMessageBody(String messageBody) {
+    NotificationMessageWrapper envelope = parseEnvelope(messageBody);
+    return payloadOf(envelope, messageBody);
+  }
+
+  private static String payloadOf(NotificationMessageWrapper envelope, String messageBody) {
+    return envelope != null && envelope.getMessage() != null ? envelope.getMessage() : messageBody;
   }
 
   /**
-   * If there is an error parsing message attributes because the message is not a notification
-   * message, an empty map will be returned.
+   * Unwraps an SNS notification, or returns null for bodies that aren't one. Bodies that can't be
+   * an SNS notification, because they aren't a JSON object naming a {@code Message}, are not parsed
+   * at all. The template or the pipeline potentially knows how to deal with them.
    */
-  private Map<String, MessageAttributeWrapper> unmarshalMessageAttributes(String messageBody) {
+  private NotificationMessageWrapper parseEnvelope(String messageBody) {
+    if (!mayBeEnvelope(messageBody)) {
+      return null;
+    }
+
     try {
-      NotificationMessageWrapper wrapper =
-          objectMapper.readValue(messageBody, NotificationMessageWrapper.class);
-      if (wrapper != null && wrapper.getMessageAttributes() != null) {
-        return wrapper.getMessageAttributes();
-      }
+      return envelopeReader.readValue(messageBody);
     } catch (IOException e) {
-      // Try to unwrap a notification message; if that doesn't work,
-      // we're dealing with a message we can't parse. The template or
-      // the pipeline potentially knows how to deal with it.
-      log.error(
-          "Unable to parse message attributes. Unknown message type. (body: {})", messageBody, e);
+      logParseFailure(messageBody, e);
+      return null;
+    }
+  }
+
+  private static boolean mayBeEnvelope(String messageBody) {
+    if (messageBody == null) {
+      return false;
     }
-    return Collections.emptyMap();
+    for (int i = 0; i < messageBody.length(); i++) {
+      char c = messageBody.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '{' && messageBody.indexOf("\"Message\"", i) >= 0;
+      }
+    }
+    return false;
+  }
+
+  /** Logs at most one parse failure per minute, a poison message would flood the logs otherwise. */
+  private void logParseFailure(String messageBody, IOException e) {
+    registry
+        .counter("echo.pubsub.amazon.envelopeParseFailures", "subscriptionName", getName())
+        .increment();
+
+    long now = registry.clock().wallTime();
+    long next = nextParseFailureLog.get();
+    if (now < next
+        || !nextParseFailureLog.compareAndSet(next, now + PARSE_FAILURE_LOG_INTERVAL_MS)) {
+      suppressedParseFailures.incrementAndGet();
+      return;
+    }
+
+    String body =
+        messageBody.length() > MAX_LOGGED_BODY_LENGTH
+            ? messageBody.substring(0, MAX_LOGGED_BODY_LENGTH) + "..."
+            : messageBody;
+    log.error(
+        "Unable unmarshal NotificationMessageWrapper. Unknown message type. (body: {}, similar failures since the last one: {})",
+        body,
+        suppressedParseFailures.getAndSet(0),
+        e);
   }
 
   private Id getFailedToBeHandledMetricId(Exception e) {
@@ -41,6 +41,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +63,7 @@ public class SQSSubscriberProvider {
   private final MessageArtifactTranslator.Factory messageArtifactTranslatorFactory;
   private final DynamicConfigService dynamicConfigService;
   private final DiscoveryStatusListener discoveryStatusListener;
+  private final List<SQSSubscriber> workers = new ArrayList<>();
 
   @Autowired
   SQSSubscriberProvider(
@@ -139,6 +141,7 @@ public class SQSSubscriberProvider {
               try {
                 executorService.submit(worker);
                 subscribers.add(worker);
+                workers.add(worker);
                 log.debug("Created worker for subscription: {}", subscription.getName());
               } catch (RejectedExecutionException e) {
                 log.error("Could not start " + worker.getWorkerName(), e);
@@ -147,6 +150,12 @@ public class SQSSubscriberProvider {
     pubsubSubscribers.putAll(subscribers);
   }
 
+  /** Pending acknowledgements would otherwise be lost, and the messages processed again. */
+  @PreDestroy
+  public void stop() {
+    workers.forEach(SQSSubscriber::shutdown);
+  }
+
   private Supplier<Boolean> isEnabledSupplier() {
     return () ->
         discoveryStatusListener.isEnabled()
@@ -24,6 +24,7 @@ import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.echo.config.AmazonPubsubProperties;
 import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
@@ -47,7 +48,7 @@ public class AmazonSQSSubscriberTest {
 
   @Mock private PubsubMessageHandler pubsubMessageHandler;
 
-  @Mock private Registry registry;
+  private Registry registry = new DefaultRegistry();
 
   private final ARN queueARN = new ARN("arn:aws:sqs:us-west-2:100:queueName");
   private final ARN topicARN = new ARN("arn:aws:sns:us-west-2:100:topicName");
@@ -126,4 +127,39 @@ public class AmazonSQSSubscriberTest {
     assertThat(logMsgs).hasSize(0);
     assertEquals(payload, result);
   }
+
+  @Test
+  void shouldPassRawBodiesThroughWithoutParsingThem() {
+    // Given
+    MemoryAppender memoryAppender = new MemoryAppender(SQSSubscriber.class);
+
+    // When
+    String result = subject.unmarshalMessageBody("s3://bucket/key");
+
+    // Then
+    assertThat(memoryAppender.search("Unable unmarshal", Level.ERROR)).isEmpty();
+    assertEquals("s3://bucket/key", result);
+  }
+
+  @Test
+  void shouldLogRepeatedParseFailuresOnce() {
+    // Given
+    MemoryAppender memoryAppender = new MemoryAppender(SQSSubscriber.class);
+    String body = "{\"Message\": \"truncated";
+
+    // When
+    String first = subject.unmarshalMessageBody(body);
+    String second = subject.unmarshalMessageBody(body);
+
+    // Then
+    assertThat(memoryAppender.search("Unable unmarshal", Level.ERROR)).hasSize(1);
+    assertEquals(body, first);
+    assertEquals(body, second);
+    assertThat(
+            registry
+                .counter(
+                    "echo.pubsub.amazon.envelopeParseFailures", "subscriptionName", "aws_events")
+                .count())
+        .isEqualTo(2);
+  }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.services.sqs.AbstractAmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.Message;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SQSAckBatcherTest {
+
+  private final FakeSQS sqs = new FakeSQS();
+
+  private final Registry registry = new DefaultRegistry();
+
+  private SQSAckBatcher batcher;
+
+  @AfterEach
+  void tearDown() {
+    batcher.stop();
+  }
+
+  @Test
+  void shouldDeleteFullBatchesRightAway() throws InterruptedException {
+    batcher = new SQSAckBatcher(sqs, registry, "sub", 60_000, 3);
+
+    for (int i = 0; i < 25; i++) {
+      batcher.ack("queue", message(i), 0);
+    }
+    waitFor(() -> sqs.deleted.size() >= 20);
+    batcher.stop();
+
+    assertThat(sqs.batchSizes.get(0)).isEqualTo(10);
+    assertThat(sqs.batchSizes).allMatch(size -> size <= 10);
+    assertThat(sqs.deleted).hasSize(25);
+  }
+
+  @Test
+  void shouldDeletePartialBatchesAfterTheFlushInterval() throws InterruptedException {
+    batcher = new SQSAckBatcher(sqs, registry, "sub", 50, 3);
+
+    batcher.ack("queue", message(1), 0);
+    batcher.ack("queue", message(2), 0);
+    waitFor(() -> processed() == 2);
+
+    assertThat(sqs.deleted).containsExactly("receipt-1", "receipt-2");
+    assertThat(sqs.batchSizes).allMatch(size -> size < 10);
+  }
+
+  @Test
+  void shouldRetryEntriesThatFailedOnTheServerSide() throws InterruptedException {
+    batcher = new SQSAckBatcher(sqs, registry, "sub", 60_000, 3);
+    sqs.failures.put("receipt-1", 1);
+    sqs.failures.put("receipt-2", 5);
+    sqs.senderFaults.add("receipt-3");
+
+    batcher.ack("queue", message(1), 0);
+    batcher.ack("queue", message(2), 0);
+    batcher.ack("queue", message(3), 0);
+    batcher.ack("queue", message(4), 0);
+    batcher.flush();
+    batcher.flush();
+    batcher.flush();
+
+    assertThat(sqs.deleted).containsExactlyInAnyOrder("receipt-4", "receipt-1");
+    assertThat(batcher.pendingCount()).isZero();
+    assertThat(failures("InternalError")).isEqualTo(1);
+    assertThat(failures("ReceiptHandleIsInvalid")).isEqualTo(1);
+  }
+
+  @Test
+  void shouldDeletePendingMessagesOnStop() {
+    batcher = new SQSAckBatcher(sqs, registry, "sub", 60_000, 3);
+    sqs.failures.put("receipt-2", 1);
+
+    batcher.ack("queue", message(1), 0);
+    batcher.ack("queue", message(2), 0);
+    batcher.stop();
+
+    assertThat(sqs.deleted).containsExactlyInAnyOrder("receipt-1", "receipt-2");
+
+    batcher.ack("queue", message(3), 0);
+    assertThat(batcher.pendingCount()).isZero();
+    assertThat(sqs.deleted).contains("receipt-3");
+  }
+
+  private long processed() {
+    return registry.counter("echo.pubsub.amazon.totalProcessed", "subscriptionName", "sub").count();
+  }
+
+  private long failures(String reason) {
+    return registry
+        .counter(
+            registry
+                .createId("echo.pubsub.amazon.ackFailures", "subscriptionName", "sub")
+                .withTag("reason", reason))
+        .count();
+  }
+
+  private static Message message(int i) {
+    return new Message().withMessageId("message-" + i).withReceiptHandle("receipt-" + i);
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  /** Deletes receipt handles, failing the configured ones. */
+  private static class FakeSQS extends AbstractAmazonSQS {
+    final List<String> deleted = new CopyOnWriteArrayList<>();
+    final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    final Map<String, Integer> failures = new HashMap<>();
+    final List<String> senderFaults = new ArrayList<>();
+
+    @Override
+    public synchronized DeleteMessageBatchResult deleteMessageBatch(
+        DeleteMessageBatchRequest request) {
+      batchSizes.add(request.getEntries().size());
+
+      List<DeleteMessageBatchResultEntry> successful = new ArrayList<>();
+      List<BatchResultErrorEntry> failed = new ArrayList<>();
+      for (DeleteMessageBatchRequestEntry entry : request.getEntries()) {
+        String receiptHandle = entry.getReceiptHandle();
+        if (senderFaults.contains(receiptHandle)) {
+          failed.add(
+              new BatchResultErrorEntry()
+                  .withId(entry.getId())
+                  .withSenderFault(true)
+                  .withCode("ReceiptHandleIsInvalid"));
+        } else if (failures.getOrDefault(receiptHandle, 0) > 0) {
+          failures.merge(receiptHandle, -1, Integer::sum);
+          failed.add(
+              new BatchResultErrorEntry()
+                  .withId(entry.getId())
+                  .withSenderFault(false)
+                  .withCode("InternalError"));
+        } else {
+          deleted.add(receiptHandle);
+          successful.add(new DeleteMessageBatchResultEntry().withId(entry.getId()));
+        }
+      }
+      return new DeleteMessageBatchResult().withSuccessful(successful).withFailed(failed);
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.aws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sqs.AbstractAmazonSQS;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityResult;
+import com.amazonaws.services.sqs.model.CreateQueueRequest;
+import com.amazonaws.services.sqs.model.CreateQueueResult;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.SetQueueAttributesResult;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.spinnaker.echo.config.AmazonPubsubProperties.AmazonPubsubSubscription;
+import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler;
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler.ReceivedMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SQSSubscriberConcurrencyTest {
+
+  private final FakeSQS sqs = new FakeSQS();
+
+  private final Registry registry = new DefaultRegistry();
+
+  private final PubsubMessageHandler handler = mock(PubsubMessageHandler.class);
+
+  /** Handlers block until released, keeping their messages in flight. */
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final List<String> handled = new CopyOnWriteArrayList<>();
+
+  private SQSSubscriber subscriber;
+  private Thread poller;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    if (subscriber != null) {
+      subscriber.shutdown();
+      poller.join(5_000);
+    }
+  }
+
+  @Test
+  void shouldNotReceiveMoreMessagesThanMayBeInFlight() throws InterruptedException {
+    sqs.enqueue(20);
+    start(subscription(2, 4, false));
+
+    waitFor(() -> sqs.received.size() == 4);
+    Thread.sleep(200);
+
+    assertThat(sqs.received).hasSize(4);
+    assertThat(inFlightMessages()).isEqualTo(4);
+
+    release.countDown();
+    waitFor(() -> handled.size() == 20);
+
+    assertThat(handled).hasSize(20);
+    assertThat(sqs.requestedMessages).allMatch(requested -> requested >= 1 && requested <= 4);
+  }
+
+  @Test
+  void shouldOnlyAskForAsManyMessagesAsThereIsRoomFor() throws InterruptedException {
+    // one message per receive, so that each receive reserves what the previous one left over
+    sqs.maxMessagesPerReceive = 1;
+    sqs.enqueue(3);
+    start(subscription(2, 4, false));
+
+    waitFor(() -> sqs.received.size() == 3);
+    waitFor(() -> sqs.requestedMessages.size() >= 4);
+
+    assertThat(sqs.requestedMessages.subList(0, 4)).containsExactly(4, 3, 2, 1);
+  }
+
+  @Test
+  void shouldExtendTheVisibilityOfMessagesWaitingToBeHandled() throws InterruptedException {
+    sqs.enqueue(1);
+    AmazonPubsubSubscription subscription = subscription(2, 4, true);
+    subscription.setVisibilityTimeout(2);
+    start(subscription);
+
+    waitFor(() -> !sqs.visibilityChanges.isEmpty());
+    assertThat(sqs.visibilityChanges).allMatch(change -> change.equals("receipt-0:2"));
+
+    release.countDown();
+    waitFor(() -> handled.size() == 1);
+    int extensions = sqs.visibilityChanges.size();
+    Thread.sleep(1_500);
+
+    // no longer extended once handled
+    assertThat(sqs.visibilityChanges).hasSize(extensions);
+    assertThat(
+            registry
+                .counter("echo.pubsub.amazon.visibilityExtensions", "subscriptionName", "sub")
+                .count())
+        .isEqualTo(extensions);
+  }
+
+  private AmazonPubsubSubscription subscription(
+      int concurrency, int maxInFlightMessages, boolean extendVisibilityTimeout) {
+    AmazonPubsubSubscription subscription =
+        new AmazonPubsubSubscription(
+            "sub",
+            "arn:aws:sns:us-west-2:100:topic",
+            "arn:aws:sqs:us-west-2:100:queue",
+            "",
+            null,
+            null,
+            3600);
+    subscription.setConcurrency(concurrency);
+    subscription.setMaxInFlightMessages(maxInFlightMessages);
+    subscription.setExtendVisibilityTimeout(extendVisibilityTimeout);
+    subscription.setWaitTimeSeconds(0);
+    return subscription;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void start(AmazonPubsubSubscription subscription) {
+    doAnswer(
+            invocation -> {
+              release.await(10, TimeUnit.SECONDS);
+              for (ReceivedMessage message : (List<ReceivedMessage>) invocation.getArgument(0)) {
+                handled.add(message.getMessageId());
+              }
+              return null;
+            })
+        .when(handler)
+        .handleMessages(anyList(), any());
+
+    subscriber =
+        new SQSSubscriber(
+            EchoObjectMapper.getInstance(),
+            subscription,
+            handler,
+            mock(AmazonSNS.class),
+            sqs,
+            () -> true,
+            registry);
+    poller = new Thread(subscriber);
+    poller.setDaemon(true);
+    poller.start();
+  }
+
+  private double inFlightMessages() {
+    PolledMeter.update(registry);
+    return registry
+        .gauge(registry.createId("echo.pubsub.amazon.inFlightMessages", "subscriptionName", "sub"))
+        .value();
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  /** Serves the enqueued messages, recording what was asked for. */
+  private static class FakeSQS extends AbstractAmazonSQS {
+    final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+    final List<String> received = new CopyOnWriteArrayList<>();
+    final List<Integer> requestedMessages = new CopyOnWriteArrayList<>();
+    final List<String> visibilityChanges = new CopyOnWriteArrayList<>();
+    volatile int maxMessagesPerReceive = 10;
+
+    void enqueue(int count) {
+      for (int i = 0; i < count; i++) {
+        messages.add(
+            new Message()
+                .withMessageId("message-" + i)
+                .withReceiptHandle("receipt-" + i)
+                .withBody("s3://bucket/key-" + i));
+      }
+    }
+
+    @Override
+    public CreateQueueResult createQueue(CreateQueueRequest request) {
+      return new CreateQueueResult().withQueueUrl("queue");
+    }
+
+    @Override
+    public SetQueueAttributesResult setQueueAttributes(SetQueueAttributesRequest request) {
+      return new SetQueueAttributesResult();
+    }
+
+    @Override
+    public ReceiveMessageResult receiveMessage(ReceiveMessageRequest request) {
+      requestedMessages.add(request.getMaxNumberOfMessages());
+      List<Message> batch = new ArrayList<>();
+      Message message;
+      while (batch.size() < Math.min(request.getMaxNumberOfMessages(), maxMessagesPerReceive)
+          && (message = messages.poll()) != null) {
+        batch.add(message);
+        received.add(message.getMessageId());
+      }
+      if (batch.isEmpty()) {
+        try {
+          // a short long poll
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new ReceiveMessageResult().withMessages(batch);
+    }
+
+    @Override
+    public ChangeMessageVisibilityResult changeMessageVisibility(
+        ChangeMessageVisibilityRequest request) {
+      visibilityChanges.add(request.getReceiptHandle() + ":" + request.getVisibilityTimeout());
+      return new ChangeMessageVisibilityResult();
+    }
+
+    @Override
+    public DeleteMessageResult deleteMessage(DeleteMessageRequest request) {
+      return new DeleteMessageResult();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config;
+
+import com.netflix.spinnaker.echo.pubsub.dedupe.InMemoryMessageDedupeStore;
+import com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore;
+import com.netflix.spinnaker.echo.pubsub.dedupe.SqlMessageDedupeStore;
+import com.netflix.spinnaker.kork.sql.config.DefaultSqlConfiguration;
+import java.time.Clock;
+import java.util.Optional;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Selects where pubsub messages are deduplicated ({@code pubsub.dedupe.store}). Without a store
+ * configured here, messages are deduplicated in Redis.
+ *
+ * <p>The SQL store brings its own {@link DefaultSqlConfiguration}, so that instances that only
+ * consume pubsub messages (without {@code scheduler.enabled}) get the data source and the
+ * migrations of {@code db/changelog-master.yml} too.
+ */
+@Slf4j
+@Configuration
+public class PubsubDedupeConfig {
+
+  @Bean
+  @ConditionalOnProperty(value = "pubsub.dedupe.store", havingValue = "sql")
+  public MessageDedupeStore sqlMessageDedupeStore(
+      Optional<DataSource> dataSource,
+      @Value("${sql.enabled:false}") boolean sqlEnabled,
+      @Value("${pubsub.dedupe.sql.cleanup-interval-ms:60000}") long cleanupIntervalMillis) {
+    if (!sqlEnabled || dataSource.isEmpty()) {
+      throw new IllegalStateException("pubsub.dedupe.store: sql requires sql.enabled");
+    }
+
+    return new SqlMessageDedupeStore(dataSource.get(), Clock.systemUTC(), cleanupIntervalMillis);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "pubsub.dedupe.store", havingValue = "in-memory")
+  public MessageDedupeStore inMemoryMessageDedupeStore(
+      @Value("${pubsub.dedupe.in-memory.purge-interval-ms:60000}") long purgeIntervalMillis) {
+    log.warn(
+        "Pubsub messages are deduplicated in memory, other echo instances may process them again");
+    return new InMemoryMessageDedupeStore(Clock.systemUTC(), purgeIntervalMillis);
+  }
+
+  @Configuration
+  @ConditionalOnExpression("${sql.enabled:false} && '${pubsub.dedupe.store:redis}' == 'sql'")
+  @Import(DefaultSqlConfiguration.class)
+  static class SqlDedupeStoreConfig {}
+}
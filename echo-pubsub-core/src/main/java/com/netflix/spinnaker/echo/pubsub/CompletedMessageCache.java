@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded local cache of the pubsub messages this node completed, in front of the completed markers
+ * in Redis. Redeliveries mostly reach the node that handled the message, which can then skip them
+ * without a Redis round-trip. Entries expire with the message's retention deadline, like the
+ * markers in Redis.
+ */
+class CompletedMessageCache {
+  private final Cache<String, Completed> completed;
+
+  CompletedMessageCache(long maxEntries) {
+    this(maxEntries, Ticker.systemTicker());
+  }
+
+  CompletedMessageCache(long maxEntries, Ticker ticker) {
+    this.completed =
+        Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new RetentionExpiry())
+            .ticker(ticker)
+            .build();
+  }
+
+  /**
+   * @return whether a message with this key and payload checksum was completed by this node
+   */
+  boolean isComplete(String completedKey, String checksum) {
+    Completed message = completed.getIfPresent(completedKey);
+    return message != null && message.checksum.equals(checksum);
+  }
+
+  void complete(String completedKey, String checksum, int retentionDeadlineSeconds) {
+    completed.put(completedKey, new Completed(checksum, retentionDeadlineSeconds));
+  }
+
+  private static class Completed {
+    private final String checksum;
+    private final long retentionNanos;
+
+    Completed(String checksum, int retentionDeadlineSeconds) {
+      this.checksum = checksum;
+      this.retentionNanos = TimeUnit.SECONDS.toNanos(retentionDeadlineSeconds);
+    }
+  }
+
+  private static class RetentionExpiry implements Expiry<String, Completed> {
+    @Override
+    public long expireAfterCreate(String key, Completed value, long currentTime) {
+      return value.retentionNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, Completed value, long currentTime, long currentDuration) {
+      return value.retentionNanos;
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, Completed value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -21,43 +21,94 @@ import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.echo.api.events.Event;
 import com.netflix.spinnaker.echo.events.EventPropagator;
 import com.netflix.spinnaker.echo.model.pubsub.MessageDescription;
+import com.netflix.spinnaker.echo.pubsub.dedupe.DedupeEntry;
+import com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore;
+import com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult;
+import com.netflix.spinnaker.echo.pubsub.dedupe.NoopMessageDedupeStore;
+import com.netflix.spinnaker.echo.pubsub.dedupe.RedisMessageDedupeStore;
 import com.netflix.spinnaker.echo.pubsub.model.EventCreator;
 import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
-import com.netflix.spinnaker.kork.jedis.RedisClientDelegate;
 import com.netflix.spinnaker.kork.jedis.RedisClientSelector;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import redis.clients.jedis.params.SetParams;
 
-/** Shared cache of received and handled pubsub messages to synchronize clients. */
+/**
+ * Shared cache of received and handled pubsub messages to synchronize clients, kept in a {@link
+ * MessageDedupeStore}.
+ */
 @Slf4j
 public class PubsubMessageHandler {
 
   private final EventPropagator eventPropagator;
-  private RedisClientDelegate redisClientDelegate;
+  private final MessageDedupeStore dedupeStore;
   private final Registry registry;
   private final List<EventCreator> eventCreators;
-
-  private static final String SUCCESS = "OK";
+  private final CompletedMessageCache completedMessageCache;
 
   @Service
   public static class Factory {
     private final EventPropagator eventPropagator;
-    private final RedisClientDelegate redisClientDelegate;
+    private final MessageDedupeStore dedupeStore;
     private final Registry registry;
+    private final CompletedMessageCache completedMessageCache;
 
     public Factory(
         EventPropagator eventPropagator,
         Optional<RedisClientSelector> redisClientSelector,
         Registry registry) {
+      this(eventPropagator, redisClientSelector, registry, false, 0);
+    }
+
+    public Factory(
+        EventPropagator eventPropagator,
+        Optional<RedisClientSelector> redisClientSelector,
+        Registry registry,
+        boolean nearCacheEnabled,
+        long nearCacheMaxEntries) {
+      this(
+          eventPropagator,
+          Optional.empty(),
+          redisClientSelector,
+          registry,
+          nearCacheEnabled,
+          nearCacheMaxEntries);
+    }
+
+    /**
+     * @param dedupeStore where messages are deduplicated, Redis is used if none is configured
+     * @param nearCacheEnabled whether messages completed by this node are also remembered locally,
+     *     so that their redeliveries don't need a round-trip to the dedupe store
+     * @param nearCacheMaxEntries the number of completed messages remembered locally
+     */
+    @Autowired
+    public Factory(
+        EventPropagator eventPropagator,
+        Optional<MessageDedupeStore> dedupeStore,
+        Optional<RedisClientSelector> redisClientSelector,
+        Registry registry,
+        @Value("${pubsub.dedupe.near-cache.enabled:false}") boolean nearCacheEnabled,
+        @Value("${pubsub.dedupe.near-cache.max-entries:100000}") long nearCacheMaxEntries) {
       this.eventPropagator = eventPropagator;
-      this.redisClientDelegate =
-          redisClientSelector.map(selector -> selector.primary("default")).orElse(null);
+      this.dedupeStore =
+          dedupeStore
+              .or(
+                  () ->
+                      redisClientSelector.map(
+                          selector -> new RedisMessageDedupeStore(selector.primary("default"))))
+              .orElse(null);
       this.registry = registry;
+      this.completedMessageCache =
+          nearCacheEnabled ? new CompletedMessageCache(nearCacheMaxEntries) : null;
     }
 
     public PubsubMessageHandler create(EventCreator eventCreator) {
@@ -66,19 +117,34 @@ public class PubsubMessageHandler {
 
     public PubsubMessageHandler create(List<EventCreator> eventCreators) {
       return new PubsubMessageHandler(
-          eventPropagator, redisClientDelegate, registry, eventCreators);
+          eventPropagator, dedupeStore, registry, eventCreators, completedMessageCache);
+    }
+
+    /**
+     * Creates a handler that processes every message it's given, for brokers that deliver each
+     * message to a single consumer already. Messages aren't deduplicated across echo instances.
+     */
+    public PubsubMessageHandler createWithoutDedupe(EventCreator eventCreator) {
+      return new PubsubMessageHandler(
+          eventPropagator,
+          new NoopMessageDedupeStore(),
+          registry,
+          Collections.singletonList(eventCreator),
+          null);
     }
   }
 
   private PubsubMessageHandler(
       EventPropagator eventPropagator,
-      RedisClientDelegate redisClientDelegate,
+      MessageDedupeStore dedupeStore,
       Registry registry,
-      List<EventCreator> eventCreators) {
+      List<EventCreator> eventCreators,
+      CompletedMessageCache completedMessageCache) {
     this.eventPropagator = eventPropagator;
-    this.redisClientDelegate = redisClientDelegate;
+    this.dedupeStore = dedupeStore;
     this.registry = registry;
     this.eventCreators = eventCreators;
+    this.completedMessageCache = completedMessageCache;
   }
 
   public void handleMessage(
@@ -86,92 +152,156 @@ public class PubsubMessageHandler {
       MessageAcknowledger acknowledger,
       String identifier,
       String messageId) {
-    if (redisClientDelegate == null) {
-      throw new IllegalStateException("Redis not enabled, pubsub requires redis. Please enable.");
+    checkDedupeStore();
+
+    ReceivedMessage message = new ReceivedMessage(description, acknowledger, identifier, messageId);
+    if (completedLocally(message)) {
+      return;
     }
 
-    String completeKey = makeCompletedKey(description, messageId);
-    if (messageComplete(completeKey, description.getMessagePayload())) {
-      // Acknowledge duplicate messages but don't process them
-      acknowledger.ack();
-      registry.counter(getDuplicateMetricId(description)).increment();
+    LockResult lockResult = dedupeStore.tryLock(List.of(message.entry)).get(0);
+    if (onLockResult(message, lockResult)) {
+      rememberComplete(message);
+      dedupeStore.complete(List.of(message.entry));
+    }
+  }
+
+  /**
+   * Handles messages received together, e.g. from a single poll. Completion checks and locks of all
+   * messages are taken in one exchange with the dedupe store, and so are the completion markers
+   * once the messages were processed.
+   *
+   * @param onFailure called with messages that failed to be handled, instead of throwing
+   */
+  public void handleMessages(
+      List<ReceivedMessage> messages, BiConsumer<ReceivedMessage, Exception> onFailure) {
+    checkDedupeStore();
+
+    if (completedMessageCache != null) {
+      messages = messages.stream().filter(m -> !completedLocally(m)).collect(Collectors.toList());
+    }
+    if (messages.isEmpty()) {
       return;
     }
 
-    String processingKey = makeProcessingKey(description, messageId);
-    if (tryAck(processingKey, description.getAckDeadlineSeconds(), acknowledger, identifier)) {
-      for (EventCreator eventCreator : eventCreators) {
-        Event event = eventCreator.createEvent(description);
-        eventPropagator.processEvent(event);
+    List<LockResult> lockResults;
+    try {
+      lockResults =
+          dedupeStore.tryLock(messages.stream().map(m -> m.entry).collect(Collectors.toList()));
+    } catch (Exception e) {
+      // nothing was acked, the messages are redelivered
+      messages.forEach(message -> onFailure.accept(message, e));
+      return;
+    }
+
+    List<ReceivedMessage> processed = new ArrayList<>(messages.size());
+    for (int i = 0; i < messages.size(); i++) {
+      ReceivedMessage message = messages.get(i);
+      try {
+        if (onLockResult(message, lockResults.get(i))) {
+          rememberComplete(message);
+          processed.add(message);
+        }
+      } catch (Exception e) {
+        onFailure.accept(message, e);
       }
-      setMessageComplete(
-          completeKey, description.getMessagePayload(), description.getRetentionDeadlineSeconds());
-      registry.counter(getProcessedMetricId(description)).increment();
+    }
+
+    if (processed.isEmpty()) {
+      return;
+    }
+
+    try {
+      dedupeStore.complete(processed.stream().map(m -> m.entry).collect(Collectors.toList()));
+    } catch (Exception e) {
+      // the processing locks still keep duplicates out until the ack deadline
+      log.error("Failed to mark {} pubsub messages as complete", processed.size(), e);
     }
   }
 
-  private boolean tryAck(
-      String messageKey,
-      int ackDeadlineSeconds,
-      MessageAcknowledger acknowledger,
-      String identifier) {
-    if (!acquireMessageLock(messageKey, identifier, ackDeadlineSeconds)) {
-      acknowledger.nack();
-      return false;
-    } else {
-      acknowledger.ack();
-      return true;
+  private void checkDedupeStore() {
+    if (dedupeStore == null) {
+      throw new IllegalStateException(
+          "Redis not enabled, pubsub requires redis or a pubsub.dedupe.store. Please enable.");
     }
   }
 
-  private boolean acquireMessageLock(String messageKey, String identifier, int ackDeadlineSeconds) {
-    String response =
-        redisClientDelegate.withCommandsClient(
-            c -> {
-              return c.set(
-                  messageKey, identifier, SetParams.setParams().nx().ex(ackDeadlineSeconds));
-            });
-    return SUCCESS.equals(response);
+  /**
+   * Acks, nacks or processes a message depending on the outcome of its lock.
+   *
+   * @return whether the message was processed and needs to be marked as complete
+   */
+  private boolean onLockResult(ReceivedMessage message, LockResult lockResult) {
+    MessageDescription description = message.getDescription();
+    if (lockResult == LockResult.ALREADY_COMPLETE) {
+      // Acknowledge duplicate messages but don't process them
+      message.getAcknowledger().ack();
+      registry.counter(getDuplicateMetricId(description)).increment();
+      registry.counter(getDedupeLookupMetricId(description, "redisHit")).increment();
+      return false;
+    }
+
+    registry.counter(getDedupeLookupMetricId(description, "miss")).increment();
+
+    if (lockResult == LockResult.HELD) {
+      message.getAcknowledger().nack();
+      return false;
+    }
+
+    message.getAcknowledger().ack();
+    processEvents(description);
+    registry.counter(getProcessedMetricId(description)).increment();
+    return true;
   }
 
-  private void setMessageHandled(
-      String messageKey, String identifier, Integer retentionDeadlineSeconds) {
-    redisClientDelegate.withCommandsClient(
-        c -> {
-          c.setex(messageKey, retentionDeadlineSeconds, identifier);
-        });
+  /**
+   * Acks messages this node completed before without going to the dedupe store. Other nodes'
+   * completions are only known to the store.
+   */
+  private boolean completedLocally(ReceivedMessage message) {
+    if (completedMessageCache == null
+        || !completedMessageCache.isComplete(
+            message.entry.getCompletedKey(), message.entry.getChecksum())) {
+      return false;
+    }
+
+    message.getAcknowledger().ack();
+    registry.counter(getDuplicateMetricId(message.getDescription())).increment();
+    registry.counter(getDedupeLookupMetricId(message.getDescription(), "localHit")).increment();
+    return true;
   }
 
-  private void setMessageComplete(
-      String messageKey, String payload, Integer retentionDeadlineSeconds) {
-    redisClientDelegate.withCommandsClient(
-        c -> {
-          c.setex(messageKey, retentionDeadlineSeconds, getCRC32(payload));
-        });
+  private void rememberComplete(ReceivedMessage message) {
+    if (completedMessageCache != null) {
+      completedMessageCache.complete(
+          message.entry.getCompletedKey(),
+          message.entry.getChecksum(),
+          message.entry.getRetentionDeadlineSeconds());
+    }
   }
 
-  private Boolean messageComplete(String messageKey, String value) {
-    return redisClientDelegate.withCommandsClient(
-        c -> {
-          return getCRC32(value).equals(c.get(messageKey));
-        });
+  private void processEvents(MessageDescription description) {
+    for (EventCreator eventCreator : eventCreators) {
+      Event event = eventCreator.createEvent(description);
+      eventPropagator.processEvent(event);
+    }
   }
 
   // Todo emjburns: change key format to "{echo:pubsub:system}:%s:%s" and migrate messages
-  private String makeProcessingKey(MessageDescription description, String messageId) {
+  private static String makeProcessingKey(MessageDescription description, String messageId) {
     return String.format(
         "%s:echo-pubsub:%s:%s",
         description.getPubsubSystem().toString(), description.getSubscriptionName(), messageId);
   }
 
-  private String makeCompletedKey(MessageDescription description, String messageId) {
+  private static String makeCompletedKey(MessageDescription description, String messageId) {
     return String.format(
         "{echo:pubsub:completed}:%s:%s:%s",
         description.getPubsubSystem().toString(), description.getSubscriptionName(), messageId);
   }
 
   /** Generates a string checksum for comparing message body. */
-  private String getCRC32(String value) {
+  private static String getCRC32(String value) {
     CRC32 checksum = new CRC32();
     checksum.update(value.getBytes());
     return Long.toString(checksum.getValue());
@@ -184,10 +314,47 @@ public class PubsubMessageHandler {
         .withTag("pubsubSystem", messageDescription.getPubsubSystem().toString());
   }
 
+  private Id getDedupeLookupMetricId(MessageDescription messageDescription, String result) {
+    return registry
+        .createId("echo.pubsub.dedupeLookups")
+        .withTag("result", result)
+        .withTag("subscription", messageDescription.getSubscriptionName())
+        .withTag("pubsubSystem", messageDescription.getPubsubSystem().toString());
+  }
+
   private Id getProcessedMetricId(MessageDescription messageDescription) {
     return registry
         .createId("echo.pubsub.messagesProcessed")
         .withTag("subscription", messageDescription.getSubscriptionName())
         .withTag("pubsubSystem", messageDescription.getPubsubSystem().toString());
   }
+
+  /** A message to be handled, see {@link #handleMessage} for the fields. */
+  public static class ReceivedMessage {
+    @Getter private final MessageDescription description;
+    @Getter private final MessageAcknowledger acknowledger;
+    @Getter private final String identifier;
+    @Getter private final String messageId;
+
+    private final DedupeEntry entry;
+
+    public ReceivedMessage(
+        MessageDescription description,
+        MessageAcknowledger acknowledger,
+        String identifier,
+        String messageId) {
+      this.description = description;
+      this.acknowledger = acknowledger;
+      this.identifier = identifier;
+      this.messageId = messageId;
+      this.entry =
+          new DedupeEntry(
+              makeProcessingKey(description, messageId),
+              makeCompletedKey(description, messageId),
+              getCRC32(description.getMessagePayload()),
+              identifier,
+              description.getAckDeadlineSeconds(),
+              description.getRetentionDeadlineSeconds());
+    }
+  }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import lombok.Value;
+
+/** The keys and deadlines a {@link MessageDedupeStore} tracks a single message with. */
+@Value
+public class DedupeEntry {
+  /** Key of the lock held while the message is processed. */
+  String processingKey;
+
+  /** Key of the marker of a processed message. */
+  String completedKey;
+
+  /** Checksum of the message payload. */
+  String checksum;
+
+  /** Identifies the instance taking the lock. */
+  String owner;
+
+  int ackDeadlineSeconds;
+
+  int retentionDeadlineSeconds;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Value;
+
+/**
+ * Keeps locks and completed markers in this process. Messages are only deduplicated between the
+ * subscribers of a single echo instance, which is enough for installations running just one.
+ */
+public class InMemoryMessageDedupeStore implements MessageDedupeStore {
+  private final Map<String, Marker> markers = new ConcurrentHashMap<>();
+  private final Clock clock;
+  private final long purgeIntervalMillis;
+  private final AtomicLong nextPurge = new AtomicLong();
+
+  /**
+   * @param purgeIntervalMillis how often markers past their expiry are dropped
+   */
+  public InMemoryMessageDedupeStore(Clock clock, long purgeIntervalMillis) {
+    this.clock = clock;
+    this.purgeIntervalMillis = purgeIntervalMillis;
+  }
+
+  @Override
+  public List<LockResult> tryLock(List<DedupeEntry> entries) {
+    long now = clock.millis();
+    purgeIfDue(now);
+
+    List<LockResult> results = new ArrayList<>(entries.size());
+    for (DedupeEntry entry : entries) {
+      Marker completed = markers.get(entry.getCompletedKey());
+      if (completed != null
+          && completed.isLive(now)
+          && completed.getValue().equals(entry.getChecksum())) {
+        results.add(LockResult.ALREADY_COMPLETE);
+        continue;
+      }
+
+      Marker lock = new Marker(entry.getOwner(), now + entry.getAckDeadlineSeconds() * 1000L);
+      Marker current =
+          markers.compute(
+              entry.getProcessingKey(),
+              (key, existing) -> (existing != null && existing.isLive(now)) ? existing : lock);
+      results.add(current == lock ? LockResult.ACQUIRED : LockResult.HELD);
+    }
+    return results;
+  }
+
+  @Override
+  public void complete(List<DedupeEntry> entries) {
+    long now = clock.millis();
+    for (DedupeEntry entry : entries) {
+      markers.put(
+          entry.getCompletedKey(),
+          new Marker(entry.getChecksum(), now + entry.getRetentionDeadlineSeconds() * 1000L));
+    }
+  }
+
+  int size() {
+    return markers.size();
+  }
+
+  private void purgeIfDue(long now) {
+    long due = nextPurge.get();
+    if (now >= due && nextPurge.compareAndSet(due, now + purgeIntervalMillis)) {
+      markers.values().removeIf(marker -> !marker.isLive(now));
+    }
+  }
+
+  @Value
+  private static class Marker {
+    String value;
+    long expiresAt;
+
+    boolean isLive(long now) {
+      return expiresAt > now;
+    }
+  }
+}
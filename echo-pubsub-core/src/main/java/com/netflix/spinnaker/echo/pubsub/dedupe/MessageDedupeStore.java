@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import java.util.List;
+
+/**
+ * Shared record of pubsub messages being processed or already processed, used to handle each
+ * message once across all echo instances.
+ *
+ * <p>A message is locked for its ack deadline while it's processed, and marked as complete for its
+ * retention deadline afterwards. Completion is tied to the message's payload checksum, a message
+ * redelivered with a different payload is processed again.
+ */
+public interface MessageDedupeStore {
+  enum LockResult {
+    /** The message wasn't completed and is now locked by the caller. */
+    ACQUIRED,
+
+    /** The message is being processed elsewhere. */
+    HELD,
+
+    /** The message, with the same payload, was already processed. */
+    ALREADY_COMPLETE
+  }
+
+  /**
+   * Checks whether each message was completed and otherwise tries to lock it.
+   *
+   * @return one result per entry, in the same order
+   */
+  List<LockResult> tryLock(List<DedupeEntry> entries);
+
+  /** Marks the messages as complete until their retention deadline. */
+  void complete(List<DedupeEntry> entries);
+}
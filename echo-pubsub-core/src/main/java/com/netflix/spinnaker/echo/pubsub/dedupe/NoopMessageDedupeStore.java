@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lets every message through, for subscriptions whose broker already hands each message to a single
+ * consumer, like the partitions of a Kafka consumer group.
+ */
+public class NoopMessageDedupeStore implements MessageDedupeStore {
+
+  @Override
+  public List<LockResult> tryLock(List<DedupeEntry> entries) {
+    return Collections.nCopies(entries.size(), LockResult.ACQUIRED);
+  }
+
+  @Override
+  public void complete(List<DedupeEntry> entries) {}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import com.netflix.spinnaker.kork.jedis.RedisClientDelegate;
+import java.util.ArrayList;
+import java.util.List;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Keeps locks and completed markers as expiring Redis keys.
+ *
+ * <p>The completed check and the lock of a message are a single script call, and entries handled
+ * together are sent in one pipelined exchange. Clients that support neither, like Redis cluster
+ * where the keys of a message live in different slots, check the keys one at a time.
+ */
+public class RedisMessageDedupeStore implements MessageDedupeStore {
+  private static final String SUCCESS = "OK";
+
+  /**
+   * Checks whether a message was completed and otherwise takes its processing lock, in a single
+   * round-trip. KEYS: completed key, processing key. ARGV: payload checksum, owner, ack deadline in
+   * seconds.
+   */
+  private static final String CHECK_AND_LOCK_SCRIPT =
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return 2 end "
+          + "if redis.call('SET', KEYS[2], ARGV[2], 'NX', 'EX', ARGV[3]) then return 1 end "
+          + "return 0";
+
+  private final RedisClientDelegate redisClientDelegate;
+
+  public RedisMessageDedupeStore(RedisClientDelegate redisClientDelegate) {
+    this.redisClientDelegate = redisClientDelegate;
+  }
+
+  @Override
+  public List<LockResult> tryLock(List<DedupeEntry> entries) {
+    if (!redisClientDelegate.supportsScripting()) {
+      List<LockResult> results = new ArrayList<>(entries.size());
+      for (DedupeEntry entry : entries) {
+        results.add(tryLockWithoutScripting(entry));
+      }
+      return results;
+    }
+
+    if (entries.size() == 1 || !redisClientDelegate.supportsMultiKeyPipelines()) {
+      List<LockResult> results = new ArrayList<>(entries.size());
+      for (DedupeEntry entry : entries) {
+        Object result =
+            redisClientDelegate.withScriptingClient(
+                c -> {
+                  return c.eval(CHECK_AND_LOCK_SCRIPT, lockKeys(entry), lockArgs(entry));
+                });
+        results.add(toLockResult(result));
+      }
+      return results;
+    }
+
+    return redisClientDelegate.withMultiKeyPipeline(
+        p -> {
+          List<Response<Object>> responses = new ArrayList<>(entries.size());
+          for (DedupeEntry entry : entries) {
+            responses.add(p.eval(CHECK_AND_LOCK_SCRIPT, lockKeys(entry), lockArgs(entry)));
+          }
+          p.sync();
+
+          List<LockResult> results = new ArrayList<>(responses.size());
+          for (Response<Object> response : responses) {
+            results.add(toLockResult(response.get()));
+          }
+          return results;
+        });
+  }
+
+  @Override
+  public void complete(List<DedupeEntry> entries) {
+    if (entries.size() == 1 || !redisClientDelegate.supportsMultiKeyPipelines()) {
+      for (DedupeEntry entry : entries) {
+        setMessageComplete(
+            entry.getCompletedKey(), entry.getChecksum(), entry.getRetentionDeadlineSeconds());
+      }
+      return;
+    }
+
+    redisClientDelegate.withMultiKeyPipeline(
+        p -> {
+          for (DedupeEntry entry : entries) {
+            p.setex(
+                entry.getCompletedKey(), entry.getRetentionDeadlineSeconds(), entry.getChecksum());
+          }
+          p.sync();
+        });
+  }
+
+  private LockResult tryLockWithoutScripting(DedupeEntry entry) {
+    if (messageComplete(entry.getCompletedKey(), entry.getChecksum())) {
+      return LockResult.ALREADY_COMPLETE;
+    }
+
+    return acquireMessageLock(
+            entry.getProcessingKey(), entry.getOwner(), entry.getAckDeadlineSeconds())
+        ? LockResult.ACQUIRED
+        : LockResult.HELD;
+  }
+
+  boolean acquireMessageLock(String messageKey, String identifier, int ackDeadlineSeconds) {
+    String response =
+        redisClientDelegate.withCommandsClient(
+            c -> {
+              return c.set(
+                  messageKey, identifier, SetParams.setParams().nx().ex(ackDeadlineSeconds));
+            });
+    return SUCCESS.equals(response);
+  }
+
+  void setMessageHandled(String messageKey, String identifier, Integer retentionDeadlineSeconds) {
+    redisClientDelegate.withCommandsClient(
+        c -> {
+          c.setex(messageKey, retentionDeadlineSeconds, identifier);
+        });
+  }
+
+  private void setMessageComplete(
+      String messageKey, String checksum, Integer retentionDeadlineSeconds) {
+    redisClientDelegate.withCommandsClient(
+        c -> {
+          c.setex(messageKey, retentionDeadlineSeconds, checksum);
+        });
+  }
+
+  private Boolean messageComplete(String messageKey, String checksum) {
+    return redisClientDelegate.withCommandsClient(
+        c -> {
+          return checksum.equals(c.get(messageKey));
+        });
+  }
+
+  private static List<String> lockKeys(DedupeEntry entry) {
+    return List.of(entry.getCompletedKey(), entry.getProcessingKey());
+  }
+
+  private static List<String> lockArgs(DedupeEntry entry) {
+    return List.of(
+        entry.getChecksum(), entry.getOwner(), Integer.toString(entry.getAckDeadlineSeconds()));
+  }
+
+  private static LockResult toLockResult(Object scriptResult) {
+    long result = (Long) scriptResult;
+    if (result == 2) {
+      return LockResult.ALREADY_COMPLETE;
+    }
+    return result == 1 ? LockResult.ACQUIRED : LockResult.HELD;
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.dedupe;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps locks and completed markers as rows of {@code ECHO_PUBSUB_DEDUPE}, for installations that
+ * run echo with SQL but without Redis.
+ *
+ * <p>A lock is taken by inserting its row, so the primary key decides between instances racing for
+ * the same message. The entries handled together are checked with one query and locked with one
+ * batched insert. Rows past their expiry are ignored, and deleted from time to time.
+ *
+ * <p>Expiry times are taken from the clocks of the echo instances, which need to be reasonably in
+ * sync.
+ */
+@Slf4j
+public class SqlMessageDedupeStore implements MessageDedupeStore {
+  private static final String TABLE = "ECHO_PUBSUB_DEDUPE";
+  private static final int MAX_KEY_LENGTH = 190;
+
+  private final DataSource dataSource;
+  private final Clock clock;
+  private final long cleanupIntervalMillis;
+  private final AtomicLong nextCleanup = new AtomicLong();
+
+  /**
+   * @param cleanupIntervalMillis how often rows past their expiry are deleted
+   */
+  public SqlMessageDedupeStore(DataSource dataSource, Clock clock, long cleanupIntervalMillis) {
+    this.dataSource = dataSource;
+    this.clock = clock;
+    this.cleanupIntervalMillis = cleanupIntervalMillis;
+  }
+
+  @Override
+  public List<LockResult> tryLock(List<DedupeEntry> entries) {
+    long now = clock.millis();
+    LockResult[] results = new LockResult[entries.size()];
+
+    try (Connection connection = dataSource.getConnection()) {
+      Map<String, String> completed =
+          selectValues(
+              connection,
+              entries.stream().map(e -> key(e.getCompletedKey())).collect(Collectors.toList()),
+              now);
+
+      List<Integer> pending = new ArrayList<>(entries.size());
+      for (int i = 0; i < entries.size(); i++) {
+        DedupeEntry entry = entries.get(i);
+        if (entry.getChecksum().equals(completed.get(key(entry.getCompletedKey())))) {
+          results[i] = LockResult.ALREADY_COMPLETE;
+        } else {
+          pending.add(i);
+        }
+      }
+
+      if (!pending.isEmpty()) {
+        List<DedupeEntry> locks = pending.stream().map(entries::get).collect(Collectors.toList());
+        deleteExpired(
+            connection,
+            locks.stream().map(e -> key(e.getProcessingKey())).collect(Collectors.toList()),
+            now);
+
+        List<LockResult> lockResults = insertLocks(connection, locks, now);
+        for (int i = 0; i < pending.size(); i++) {
+          results[pending.get(i)] = lockResults.get(i);
+        }
+      }
+
+      cleanupIfDue(connection, now);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to lock " + entries.size() + " pubsub messages", e);
+    }
+
+    return List.of(results);
+  }
+
+  @Override
+  public void complete(List<DedupeEntry> entries) {
+    long now = clock.millis();
+
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        // completed markers are replaced, a message redelivered with a new payload may have
+        // left one behind
+        List<String> keys =
+            entries.stream().map(e -> key(e.getCompletedKey())).collect(Collectors.toList());
+        try (PreparedStatement delete =
+            connection.prepareStatement(
+                "DELETE FROM " + TABLE + " WHERE MESSAGE_KEY IN (" + placeholders(keys) + ")")) {
+          bind(delete, keys, 1);
+          delete.executeUpdate();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+          for (DedupeEntry entry : entries) {
+            insert.setString(1, key(entry.getCompletedKey()));
+            insert.setString(2, entry.getChecksum());
+            insert.setLong(3, now + entry.getRetentionDeadlineSeconds() * 1000L);
+            insert.addBatch();
+          }
+          insert.executeBatch();
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException(
+          "Failed to mark " + entries.size() + " pubsub messages as complete", e);
+    }
+  }
+
+  /**
+   * Inserts the lock rows in one batch. Drivers differ in what they do after a row of a batch
+   * failed, so the rows that weren't reported as inserted are retried one at a time.
+   */
+  private List<LockResult> insertLocks(Connection connection, List<DedupeEntry> locks, long now)
+      throws SQLException {
+    LockResult[] results = new LockResult[locks.size()];
+
+    try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+      for (DedupeEntry entry : locks) {
+        bindLock(insert, entry, now);
+        insert.addBatch();
+      }
+
+      int[] counts;
+      try {
+        counts = insert.executeBatch();
+      } catch (BatchUpdateException e) {
+        counts = e.getUpdateCounts();
+        if (counts == null) {
+          counts = new int[0];
+        }
+      }
+
+      for (int i = 0; i < counts.length && i < results.length; i++) {
+        if (counts[i] >= 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+          results[i] = LockResult.ACQUIRED;
+        }
+      }
+    }
+
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] == null) {
+        results[i] = insertLock(connection, locks.get(i), now);
+      }
+    }
+    return List.of(results);
+  }
+
+  private LockResult insertLock(Connection connection, DedupeEntry entry, long now)
+      throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+      bindLock(insert, entry, now);
+      insert.executeUpdate();
+      return LockResult.ACQUIRED;
+    } catch (SQLException e) {
+      if (isDuplicateKey(e)) {
+        return LockResult.HELD;
+      }
+      throw e;
+    }
+  }
+
+  private Map<String, String> selectValues(Connection connection, List<String> keys, long now)
+      throws SQLException {
+    Map<String, String> values = new HashMap<>();
+    try (PreparedStatement select =
+        connection.prepareStatement(
+            "SELECT MESSAGE_KEY, MESSAGE_VALUE FROM "
+                + TABLE
+                + " WHERE MESSAGE_KEY IN ("
+                + placeholders(keys)
+                + ") AND EXPIRES_AT > ?")) {
+      bind(select, keys, 1);
+      select.setLong(keys.size() + 1, now);
+      try (ResultSet resultSet = select.executeQuery()) {
+        while (resultSet.next()) {
+          values.put(resultSet.getString(1), resultSet.getString(2));
+        }
+      }
+    }
+    return values;
+  }
+
+  private void deleteExpired(Connection connection, List<String> keys, long now)
+      throws SQLException {
+    try (PreparedStatement delete =
+        connection.prepareStatement(
+            "DELETE FROM "
+                + TABLE
+                + " WHERE MESSAGE_KEY IN ("
+                + placeholders(keys)
+                + ") AND EXPIRES_AT <= ?")) {
+      bind(delete, keys, 1);
+      delete.setLong(keys.size() + 1, now);
+      delete.executeUpdate();
+    }
+  }
+
+  /** Deletes all expired rows, at most once per cleanup interval across the callers of a node. */
+  private void cleanupIfDue(Connection connection, long now) {
+    long due = nextCleanup.get();
+    if (now < due || !nextCleanup.compareAndSet(due, now + cleanupIntervalMillis)) {
+      return;
+    }
+
+    try (PreparedStatement delete =
+        connection.prepareStatement("DELETE FROM " + TABLE + " WHERE EXPIRES_AT <= ?")) {
+      delete.setLong(1, now);
+      int deleted = delete.executeUpdate();
+      log.debug("Deleted {} expired pubsub dedupe rows", deleted);
+    } catch (SQLException e) {
+      log.warn("Failed to delete expired pubsub dedupe rows", e);
+    }
+  }
+
+  private static String insertSql() {
+    return "INSERT INTO " + TABLE + " (MESSAGE_KEY, MESSAGE_VALUE, EXPIRES_AT) VALUES (?, ?, ?)";
+  }
+
+  private static void bindLock(PreparedStatement insert, DedupeEntry entry, long now)
+      throws SQLException {
+    insert.setString(1, key(entry.getProcessingKey()));
+    insert.setString(2, entry.getOwner());
+    insert.setLong(3, now + entry.getAckDeadlineSeconds() * 1000L);
+  }
+
+  private static void bind(PreparedStatement statement, List<String> values, int firstIndex)
+      throws SQLException {
+    for (int i = 0; i < values.size(); i++) {
+      statement.setString(firstIndex + i, values.get(i));
+    }
+  }
+
+  private static String placeholders(List<String> values) {
+    return String.join(", ", Collections.nCopies(values.size(), "?"));
+  }
+
+  private static boolean isDuplicateKey(SQLException e) {
+    return e instanceof SQLIntegrityConstraintViolationException
+        || (e.getSQLState() != null && e.getSQLState().startsWith("23"));
+  }
+
+  /** Keys longer than the column are replaced by their digest. */
+  static String key(String key) {
+    if (key.length() <= MAX_KEY_LENGTH) {
+      return key;
+    }
+
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder("sha256:");
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
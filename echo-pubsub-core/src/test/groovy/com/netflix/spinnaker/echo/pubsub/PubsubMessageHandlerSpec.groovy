@@ -16,11 +16,14 @@
 
 package com.netflix.spinnaker.echo.pubsub
 
+import com.netflix.spectator.api.DefaultRegistry
 import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.echo.artifacts.MessageArtifactTranslator
 import com.netflix.spinnaker.echo.events.EventPropagator
 import com.netflix.spinnaker.echo.model.pubsub.MessageDescription
 import com.netflix.spinnaker.echo.model.pubsub.PubsubSystem
+import com.netflix.spinnaker.echo.pubsub.dedupe.RedisMessageDedupeStore
 import com.netflix.spinnaker.echo.pubsub.model.EventCreator
 import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger
 import com.netflix.spinnaker.kork.jedis.EmbeddedRedis
@@ -58,6 +61,8 @@ class PubsubMessageHandlerSpec extends Specification {
 
   EventCreator eventCreator = new PubsubEventCreator(Optional.empty())
 
+  RedisMessageDedupeStore redisDedupeStore = new RedisMessageDedupeStore(redisClientDelegate)
+
   @Subject
   PubsubMessageHandler pubsubMessageHandler = pubsubMessageHandlerFactory.create(eventCreator)
 
@@ -78,7 +83,7 @@ class PubsubMessageHandlerSpec extends Specification {
     Integer ackDeadline = 1
 
     when:
-    def resp = pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
+    def resp = redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
 
     then:
     resp // Response is Boolean.
@@ -91,8 +96,8 @@ class PubsubMessageHandlerSpec extends Specification {
     Integer ackDeadline = 1
 
     when:
-    pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
-    def resp = pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
+    redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
+    def resp = redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
 
     then:
     !resp // Response is Boolean.
@@ -105,9 +110,9 @@ class PubsubMessageHandlerSpec extends Specification {
     Integer ackDeadline = 1
 
     when:
-    pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
+    redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
     sleep(1005)
-    def resp = pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
+    def resp = redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
 
     then:
     resp // Response is Boolean.
@@ -121,8 +126,8 @@ class PubsubMessageHandlerSpec extends Specification {
     Integer retentionDeadline = 5
 
     when:
-    pubsubMessageHandler.setMessageHandled(key, id, retentionDeadline)
-    def resp = pubsubMessageHandler.acquireMessageLock(key, id, ackDeadline)
+    redisDedupeStore.setMessageHandled(key, id, retentionDeadline)
+    def resp = redisDedupeStore.acquireMessageLock(key, id, ackDeadline)
 
     then:
     !resp // Response is Boolean.
@@ -173,4 +178,106 @@ class PubsubMessageHandlerSpec extends Specification {
     1 * eventPropagator.processEvent(_)
     2 * acker.ack() // duplicate is dismissed
   }
+
+  def "messages received together are checked and locked at once"() {
+    given:
+    def ackers = (0..3).collect { Mock(MessageAcknowledger) }
+    def messages = (0..3).collect {
+      new PubsubMessageHandler.ReceivedMessage(description("payload $it"), ackers[it], 'id', "message$it")
+    }
+    def failures = []
+
+    and: 'one message was handled before and another one is being handled elsewhere'
+    pubsubMessageHandler.handleMessage(messages[1].description, Mock(MessageAcknowledger), 'id', 'message1')
+    redisDedupeStore.acquireMessageLock('google:echo-pubsub:subscriptionName:message2', 'other', 5)
+
+    when:
+    pubsubMessageHandler.handleMessages(messages, { message, e -> failures << message })
+
+    then:
+    2 * eventPropagator.processEvent(_)
+    1 * ackers[0].ack()
+    1 * ackers[1].ack()
+    1 * ackers[2].nack()
+    1 * ackers[3].ack()
+    failures.isEmpty()
+
+    when: 'they are redelivered'
+    pubsubMessageHandler.handleMessages(messages.findAll { it.messageId != 'message2' }, { message, e -> failures << message })
+
+    then:
+    0 * eventPropagator.processEvent(_)
+    3 * _.ack()
+  }
+
+  def "failing messages don't affect the others received with them"() {
+    given:
+    def failingPropagator = Mock(EventPropagator) {
+      processEvent({ it.content.messageDescription.messagePayload == 'bad' }) >> { throw new IllegalStateException() }
+    }
+    def handler = new PubsubMessageHandler.Factory(failingPropagator, redisClientSelector, new NoopRegistry()).create(eventCreator)
+    def messages = ['bad', 'good'].collect {
+      new PubsubMessageHandler.ReceivedMessage(description(it), Mock(MessageAcknowledger), 'id', it)
+    }
+    def failures = []
+
+    when:
+    handler.handleMessages(messages, { message, e -> failures << message.messageId })
+
+    then:
+    failures == ['bad']
+    embeddedRedis.jedis.withCloseable { it.get('{echo:pubsub:completed}:google:subscriptionName:good') } != null
+  }
+
+  def "redeliveries of messages completed by this node are skipped without redis"() {
+    given:
+    def registry = new DefaultRegistry()
+    def handler = new PubsubMessageHandler.Factory(eventPropagator, redisClientSelector, registry, true, 10)
+      .create(eventCreator)
+    def acker = Mock(MessageAcknowledger)
+
+    when:
+    handler.handleMessage(description('payload'), acker, 'id', 'X')
+    embeddedRedis.jedis.withCloseable { it.flushDB() }
+    handler.handleMessage(description('payload'), acker, 'id', 'X')
+
+    then:
+    1 * eventPropagator.processEvent(_)
+    2 * acker.ack()
+    lookups(registry, 'miss') == 1
+    lookups(registry, 'localHit') == 1
+
+    when: 'the payload changed'
+    handler.handleMessage(description('other payload'), acker, 'id', 'X')
+
+    then:
+    1 * eventPropagator.processEvent(_)
+    lookups(registry, 'miss') == 2
+
+    when: 'another node completed the message'
+    handler.handleMessages([new PubsubMessageHandler.ReceivedMessage(description('payload'), acker, 'id', 'Y')], { m, e -> })
+    pubsubMessageHandler.handleMessage(description('payload'), acker, 'id', 'Z')
+    handler.handleMessage(description('payload'), acker, 'id', 'Z')
+
+    then:
+    2 * eventPropagator.processEvent(_)
+    lookups(registry, 'redisHit') == 1
+  }
+
+  private static long lookups(Registry registry, String result) {
+    return registry.counters()
+      .filter { it.id().name() == 'echo.pubsub.dedupeLookups' && it.id().tags().any { t -> t.value() == result } }
+      .mapToLong { it.count() }
+      .sum()
+  }
+
+  private static MessageDescription description(String payload) {
+    return MessageDescription.builder()
+      .subscriptionName('subscriptionName')
+      .messagePayload(payload)
+      .pubsubSystem(PubsubSystem.GOOGLE)
+      .ackDeadlineSeconds(5)
+      .retentionDeadlineSeconds(10)
+      .build()
+  }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pubsub.dedupe
+
+import java.time.Clock
+
+class InMemoryMessageDedupeStoreSpec extends MessageDedupeStoreSpec {
+
+  @Override
+  MessageDedupeStore createStore(Clock clock) {
+    return new InMemoryMessageDedupeStore(clock, 60000)
+  }
+
+  def 'expired markers are purged'() {
+    given:
+    def store = new InMemoryMessageDedupeStore(clock, 60000)
+    store.tryLock([entry('m1')])
+    store.complete([entry('m1')])
+
+    when:
+    clock.instant = clock.instant().plusSeconds(60)
+    store.tryLock([entry('m2')])
+
+    then:
+    store.size() == 1
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pubsub.dedupe
+
+import spock.lang.Specification
+import spock.util.time.MutableClock
+
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+
+import static com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult.ACQUIRED
+import static com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult.ALREADY_COMPLETE
+import static com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult.HELD
+
+/** Behavior shared by all dedupe stores, driven by a clock the features control. */
+abstract class MessageDedupeStoreSpec extends Specification {
+  MutableClock clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC)
+
+  abstract MessageDedupeStore createStore(Clock clock)
+
+  def 'a message is locked once until its ack deadline'() {
+    given:
+    def store = createStore(clock)
+
+    expect:
+    store.tryLock([entry('m1', 'node1')]) == [ACQUIRED]
+    store.tryLock([entry('m1', 'node2')]) == [HELD]
+
+    when:
+    clock.instant = clock.instant().plusSeconds(5)
+
+    then:
+    store.tryLock([entry('m1', 'node2')]) == [ACQUIRED]
+  }
+
+  def 'completed messages are reported until their retention deadline'() {
+    given:
+    def store = createStore(clock)
+    store.tryLock([entry('m1')])
+    store.complete([entry('m1')])
+
+    expect:
+    store.tryLock([entry('m1')]) == [ALREADY_COMPLETE]
+
+    and: 'a redelivery with another payload is not'
+    store.tryLock([entry('m1', 'node1', 'other')]) == [HELD]
+
+    when:
+    clock.instant = clock.instant().plusSeconds(10)
+
+    then:
+    store.tryLock([entry('m2')]) == [ACQUIRED]
+    store.tryLock([entry('m1')]) == [ACQUIRED]
+  }
+
+  def 'messages locked together get their own results'() {
+    given:
+    def store = createStore(clock)
+    store.tryLock([entry('m1')])
+    store.complete([entry('m1')])
+    store.tryLock([entry('m2', 'other')])
+
+    expect:
+    store.tryLock([entry('m1'), entry('m2'), entry('m3'), entry('m3')]) == [ALREADY_COMPLETE, HELD, ACQUIRED, HELD]
+  }
+
+  def 'completing a message again replaces its marker'() {
+    given:
+    def store = createStore(clock)
+    store.complete([entry('m1', 'node1', 'old')])
+
+    when:
+    store.complete([entry('m1', 'node1', 'new')])
+
+    then:
+    store.tryLock([entry('m1', 'node1', 'new')]) == [ALREADY_COMPLETE]
+    store.tryLock([entry('m1', 'node1', 'old')]) == [ACQUIRED]
+  }
+
+  static DedupeEntry entry(String messageId, String owner = 'node1', String checksum = 'checksum') {
+    return new DedupeEntry("processing:$messageId", "completed:$messageId", checksum, owner, 5, 10)
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pubsub.dedupe
+
+import org.h2.jdbcx.JdbcDataSource
+
+import java.time.Clock
+
+import static com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult.ACQUIRED
+import static com.netflix.spinnaker.echo.pubsub.dedupe.MessageDedupeStore.LockResult.ALREADY_COMPLETE
+
+class SqlMessageDedupeStoreSpec extends MessageDedupeStoreSpec {
+  def dataSource = new JdbcDataSource(url: "jdbc:h2:mem:pubsub_dedupe_${UUID.randomUUID()};DB_CLOSE_DELAY=-1")
+
+  void setup() {
+    dataSource.connection.withCloseable {
+      it.createStatement().execute(
+        "CREATE TABLE ECHO_PUBSUB_DEDUPE (MESSAGE_KEY VARCHAR(190) NOT NULL PRIMARY KEY, MESSAGE_VALUE VARCHAR(200) NOT NULL, EXPIRES_AT BIGINT NOT NULL)")
+    }
+  }
+
+  @Override
+  MessageDedupeStore createStore(Clock clock) {
+    return new SqlMessageDedupeStore(dataSource, clock, 60000)
+  }
+
+  def 'keys longer than the column are hashed'() {
+    given:
+    def store = createStore(clock)
+    def longId = 'x' * 300
+
+    expect:
+    store.tryLock([entry(longId)]) == [ACQUIRED]
+    store.complete([entry(longId)])
+    store.tryLock([entry(longId)]) == [ALREADY_COMPLETE]
+  }
+
+  def 'expired rows are deleted'() {
+    given:
+    def store = createStore(clock)
+    store.tryLock([entry('m1')])
+    store.complete([entry('m1')])
+
+    when:
+    clock.instant = clock.instant().plusSeconds(60)
+    store.tryLock([entry('m2')])
+
+    then:
+    rows() == 1
+  }
+
+  private int rows() {
+    dataSource.connection.withCloseable {
+      def resultSet = it.createStatement().executeQuery("SELECT COUNT(*) FROM ECHO_PUBSUB_DEDUPE")
+      resultSet.next()
+      return resultSet.getInt(1)
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.netflix.spinnaker.echo.config;
 
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.echo.artifacts.MessageArtifactTranslator;
 import com.netflix.spinnaker.echo.pubsub.GoogleCloudBuildEventCreator;
 import com.netflix.spinnaker.echo.pubsub.PubsubEventCreator;
@@ -48,6 +49,7 @@ public class GoogleCloudBuildConfig {
   @Valid private final GoogleCloudBuildProperties googleCloudBuildProperties;
   private final MessageArtifactTranslator.Factory messageArtifactTranslatorFactory;
   private final GoogleCloudBuildArtifactExtractor.Factory googleCloudBuildArtifactExtractorFactory;
+  private final Registry registry;
 
   @PostConstruct
   void googleCloudBuildSubscribers() {
@@ -82,7 +84,8 @@ public class GoogleCloudBuildConfig {
                       Arrays.asList(pubsubEventCreator, googleCloudBuildEventCreator));
 
               GooglePubsubSubscriber subscriber =
-                  GooglePubsubSubscriber.buildSubscriber(subscription, pubsubMessageHandler);
+                  GooglePubsubSubscriber.buildSubscriber(
+                      subscription, pubsubMessageHandler, registry);
 
               newSubscribers.add(subscriber);
             });
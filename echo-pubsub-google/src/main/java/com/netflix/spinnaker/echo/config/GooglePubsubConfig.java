@@ -17,6 +17,7 @@
 package com.netflix.spinnaker.echo.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.echo.artifacts.MessageArtifactTranslator;
 import com.netflix.spinnaker.echo.config.GooglePubsubProperties.GooglePubsubSubscription;
 import com.netflix.spinnaker.echo.pubsub.PubsubEventCreator;
@@ -53,6 +54,7 @@ public class GooglePubsubConfig {
   @Valid private final GooglePubsubProperties googlePubsubProperties;
   private final ObjectMapper mapper;
   private final MessageArtifactTranslator.Factory messageArtifactTranslatorFactory;
+  private final Registry registry;
 
   @PostConstruct
   void googlePubsubSubscribers() {
@@ -75,7 +77,8 @@ public class GooglePubsubConfig {
                   pubsubMessageHandlerFactory.create(eventCreator);
 
               GooglePubsubSubscriber subscriber =
-                  GooglePubsubSubscriber.buildSubscriber(subscription, pubsubMessageHandler);
+                  GooglePubsubSubscriber.buildSubscriber(
+                      subscription, pubsubMessageHandler, registry);
 
               newSubscribers.add(subscriber);
             });
@@ -95,7 +98,7 @@ public class GooglePubsubConfig {
                       publisherConfig.getTopicName(),
                       publisherConfig.getProject(),
                       publisherConfig.getContent());
-                  return GooglePubsubPublisher.buildPublisher(publisherConfig, mapper);
+                  return GooglePubsubPublisher.buildPublisher(publisherConfig, mapper, registry);
                 })
             .collect(Collectors.toList());
 
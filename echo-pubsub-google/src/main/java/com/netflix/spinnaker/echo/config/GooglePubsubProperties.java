@@ -63,6 +63,33 @@ public class GooglePubsubProperties {
 
     @Builder.Default private MessageFormat messageFormat = MessageFormat.CUSTOM;
 
+    /** Messages handed to echo but not yet acked, before the subscriber stops pulling. */
+    @Min(1)
+    @Builder.Default
+    private long maxOutstandingMessages = 1000L;
+
+    @Min(1)
+    @Builder.Default
+    private long maxOutstandingBytes = 100L * 1024 * 1024;
+
+    /** Threads handling messages. Uses the client library's default if not set. */
+    @Min(1)
+    private Integer executorThreadCount;
+
+    /** Streaming pull connections to the subscription. */
+    @Min(1)
+    @Builder.Default
+    private int parallelPullCount = 1;
+
+    /** Delay of the first restart after a failure, doubled for each failure in a row. */
+    @Min(1)
+    @Builder.Default
+    private long restartBackoffMillis = 1000L;
+
+    @Min(1)
+    @Builder.Default
+    private long maxRestartBackoffMillis = 60000L;
+
     public InputStream readTemplatePath() {
       try {
         if (messageFormat == null || messageFormat == MessageFormat.CUSTOM) {
@@ -103,6 +130,33 @@ public class GooglePubsubProperties {
         value = 1L,
         message = "Delay milliseconds threshold must be a positive integer. Defaults to 1000.")
     private Long delayMillisecondsThreshold = 1000L;
+
+    @Min(
+        value = 1L,
+        message = "Request bytes threshold must be a positive integer. Defaults to 1000000.")
+    private Long requestBytesThreshold = 1000000L;
+
+    /** Messages handed to the publisher but not yet published, before flow control kicks in. */
+    @Min(1)
+    private Long maxOutstandingMessages = 1000L;
+
+    @Min(1)
+    private Long maxOutstandingBytes = 100L * 1024 * 1024;
+
+    private FlowControlBehavior flowControlBehavior = FlowControlBehavior.BLOCK;
+
+    /** Gzips payloads of at least compressionThresholdBytes, see {@code contentEncoding}. */
+    private boolean compress = false;
+
+    @Min(0)
+    private int compressionThresholdBytes = 1024;
+  }
+
+  public static enum FlowControlBehavior {
+    /** Blocks the publishing thread until earlier messages were published. */
+    BLOCK,
+    /** Drops the message. */
+    DROP
   }
 
   public static enum Content {
@@ -18,22 +18,52 @@ package com.netflix.spinnaker.echo.pubsub.google;
 
 import com.google.cloud.pubsub.v1.AckReplyConsumer;
 import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class GoogleMessageAcknowledger implements MessageAcknowledger {
 
   private AckReplyConsumer consumer;
 
+  private Consumer<Reply> onReply;
+
+  private final AtomicBoolean replied = new AtomicBoolean();
+
   public GoogleMessageAcknowledger(AckReplyConsumer consumer) {
+    this(consumer, reply -> {});
+  }
+
+  /**
+   * @param onReply called once, with the first reply given to the message
+   */
+  public GoogleMessageAcknowledger(AckReplyConsumer consumer, Consumer<Reply> onReply) {
     this.consumer = consumer;
+    this.onReply = onReply;
   }
 
   @Override
   public void ack() {
-    consumer.ack();
+    if (replied.compareAndSet(false, true)) {
+      consumer.ack();
+      onReply.accept(Reply.ACK);
+    }
   }
 
   @Override
   public void nack() {
-    consumer.nack();
+    if (replied.compareAndSet(false, true)) {
+      consumer.nack();
+      onReply.accept(Reply.NACK);
+    }
+  }
+
+  public enum Reply {
+    ACK,
+    NACK;
+
+    @Override
+    public String toString() {
+      return name().toLowerCase();
+    }
   }
 }
@@ -22,20 +22,30 @@ import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutureCallback;
 import com.google.api.core.ApiFutures;
 import com.google.api.gax.batching.BatchingSettings;
+import com.google.api.gax.batching.FlowControlSettings;
+import com.google.api.gax.batching.FlowController;
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
 import com.google.cloud.pubsub.v1.Publisher;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.ProjectTopicName;
 import com.google.pubsub.v1.PubsubMessage;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
 import com.netflix.spinnaker.echo.api.events.Event;
 import com.netflix.spinnaker.echo.api.events.Metadata;
 import com.netflix.spinnaker.echo.config.GooglePubsubCredentialsProvider;
 import com.netflix.spinnaker.echo.config.GooglePubsubProperties.Content;
+import com.netflix.spinnaker.echo.config.GooglePubsubProperties.FlowControlBehavior;
 import com.netflix.spinnaker.echo.config.GooglePubsubProperties.GooglePubsubPublisherConfig;
 import com.netflix.spinnaker.echo.model.pubsub.PubsubSystem;
 import com.netflix.spinnaker.echo.pubsub.model.PubsubPublisher;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -60,8 +70,23 @@ public class GooglePubsubPublisher implements PubsubPublisher {
 
   private ObjectMapper mapper;
 
+  private Registry registry;
+
+  /** Bounds the messages buffered by the client library, which doesn't in this version. */
+  private FlowController flowController;
+
+  private FlowControlBehavior flowControlBehavior;
+
+  private boolean compress;
+
+  private int compressionThresholdBytes;
+
+  private final AtomicInteger outstandingPublishes = new AtomicInteger();
+
+  private volatile long lastDropWarning;
+
   public static GooglePubsubPublisher buildPublisher(
-      GooglePubsubPublisherConfig config, ObjectMapper mapper) {
+      GooglePubsubPublisherConfig config, ObjectMapper mapper, Registry registry) {
     GooglePubsubPublisher publisher = new GooglePubsubPublisher();
     publisher.setName(config.getName());
     ProjectTopicName fullName = ProjectTopicName.of(config.getProject(), config.getTopicName());
@@ -69,10 +94,31 @@ public class GooglePubsubPublisher implements PubsubPublisher {
     publisher.setFullTopicName(fullName.toString());
     publisher.setContent(config.getContent());
     publisher.setMapper(mapper);
+    publisher.setRegistry(registry);
+    publisher.setCompress(config.isCompress());
+    publisher.setCompressionThresholdBytes(config.getCompressionThresholdBytes());
+    publisher.setFlowControlBehavior(config.getFlowControlBehavior());
+    publisher.setFlowController(
+        new FlowController(
+            FlowControlSettings.newBuilder()
+                .setMaxOutstandingElementCount(config.getMaxOutstandingMessages())
+                .setMaxOutstandingRequestBytes(config.getMaxOutstandingBytes())
+                .setLimitExceededBehavior(
+                    config.getFlowControlBehavior() == FlowControlBehavior.DROP
+                        ? LimitExceededBehavior.ThrowException
+                        : LimitExceededBehavior.Block)
+                .build()));
+
+    PolledMeter.using(registry)
+        .withId(
+            registry.createId(
+                "echo.pubsub.google.outstandingPublishes", "publisherName", config.getName()))
+        .monitorValue(publisher.outstandingPublishes);
 
     BatchingSettings batchingSettings =
         BatchingSettings.newBuilder()
             .setElementCountThreshold(config.getBatchCountThreshold())
+            .setRequestByteThreshold(config.getRequestBytesThreshold())
             .setDelayThreshold(Duration.ofMillis(config.getDelayMillisecondsThreshold()))
             .build();
 
@@ -153,31 +199,90 @@ public class GooglePubsubPublisher implements PubsubPublisher {
   }
 
   public void publish(String jsonPayload, Map<String, String> attributes) {
-    PubsubMessage message =
-        PubsubMessage.newBuilder()
-            .setData(ByteString.copyFromUtf8(jsonPayload))
-            .putAllAttributes(attributes)
-            .build();
+    ByteString data = ByteString.copyFromUtf8(jsonPayload);
+    PubsubMessage.Builder builder = PubsubMessage.newBuilder().putAllAttributes(attributes);
+    if (compress && data.size() >= compressionThresholdBytes) {
+      data = PubsubMessageCompression.gzip(data);
+      builder.putAttributes(
+          PubsubMessageCompression.CONTENT_ENCODING_ATTRIBUTE, PubsubMessageCompression.GZIP);
+    }
+    PubsubMessage message = builder.setData(data).build();
+
+    long bytes = message.getSerializedSize();
+    if (!reserve(bytes)) {
+      return;
+    }
 
     log.debug("Publishing message on Google Pubsub topic {}", this.getFullTopicName());
 
-    ApiFuture<String> future = publisher.publish(message);
-    ApiFutures.addCallback(future, new PublishCallback(this.getFullTopicName()));
+    registry.distributionSummary(metricId("echo.pubsub.google.publishedBytes")).record(bytes);
+    outstandingPublishes.incrementAndGet();
+    ApiFuture<String> future;
+    try {
+      future = publisher.publish(message);
+    } catch (RuntimeException e) {
+      release(bytes);
+      throw e;
+    }
+    ApiFutures.addCallback(
+        future,
+        new PublishCallback(this.getFullTopicName(), bytes, registry.clock().monotonicTime()));
+  }
+
+  /**
+   * @return whether the message may be published, blocks for {@link FlowControlBehavior#BLOCK}
+   */
+  private boolean reserve(long bytes) {
+    try {
+      flowController.reserve(1, bytes);
+      return true;
+    } catch (FlowController.FlowControlException e) {
+      registry.counter(metricId("echo.pubsub.google.droppedPublishes")).increment();
+      long now = registry.clock().wallTime();
+      if (now - lastDropWarning > TimeUnit.MINUTES.toMillis(1)) {
+        lastDropWarning = now;
+        log.warn(
+            "Dropping messages to Google Pubsub topic {}, too many are waiting to be published ({})",
+            this.getFullTopicName(),
+            e.getMessage());
+      }
+      return false;
+    }
+  }
+
+  private void release(long bytes) {
+    outstandingPublishes.decrementAndGet();
+    flowController.release(1, bytes);
+  }
+
+  private Id metricId(String name) {
+    return registry.createId(name, "publisherName", this.getName());
   }
 
   @RequiredArgsConstructor
   private class PublishCallback implements ApiFutureCallback<String> {
 
     private final String topic;
+    private final long bytes;
+    private final long startTime;
 
     @Override
     public void onFailure(Throwable t) {
+      complete("failure");
       log.error("Could not publish message to Google Pubsub topic " + this.topic, t);
     }
 
     @Override
     public void onSuccess(String result) {
+      complete("success");
       log.debug("Successfully published message with ID {}", result);
     }
+
+    private void complete(String result) {
+      release(bytes);
+      PercentileTimer.get(
+              registry, metricId("echo.pubsub.google.publishLatency").withTag("result", result))
+          .record(registry.clock().monotonicTime() - startTime, TimeUnit.NANOSECONDS);
+    }
   }
 }
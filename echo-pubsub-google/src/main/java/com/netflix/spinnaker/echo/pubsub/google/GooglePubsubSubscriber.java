@@ -17,7 +17,9 @@
 package com.netflix.spinnaker.echo.pubsub.google;
 
 import com.google.api.core.ApiService;
+import com.google.api.gax.batching.FlowControlSettings;
 import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.core.InstantiatingExecutorProvider;
 import com.google.auth.Credentials;
 import com.google.cloud.pubsub.v1.AckReplyConsumer;
 import com.google.cloud.pubsub.v1.MessageReceiver;
@@ -25,6 +27,10 @@ import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.pubsub.v1.ProjectSubscriptionName;
 import com.google.pubsub.v1.PubsubMessage;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
 import com.netflix.spinnaker.echo.config.GooglePubsubCredentialsProvider;
 import com.netflix.spinnaker.echo.config.GooglePubsubProperties.GooglePubsubSubscription;
 import com.netflix.spinnaker.echo.model.pubsub.MessageDescription;
@@ -35,6 +41,9 @@ import com.netflix.spinnaker.echo.pubsub.utils.NodeIdentity;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -51,21 +60,30 @@ public class GooglePubsubSubscriber implements PubsubSubscriber {
 
   private Credentials credentials;
 
-  private MessageReceiver messageReceiver;
+  private GooglePubsubMessageReceiver messageReceiver;
+
+  private GooglePubsubSubscription subscription;
+
+  private Registry registry;
+
+  private long startedAt;
+
+  private int consecutiveFailures;
 
   private static final PubsubSystem pubsubSystem = PubsubSystem.GOOGLE;
 
   public GooglePubsubSubscriber(
-      String name,
-      String subscriptionName,
-      String project,
+      GooglePubsubSubscription subscription,
       Credentials credentials,
-      GooglePubsubMessageReceiver messageReceiver) {
-    this.name = name;
-    this.subscriptionName = subscriptionName;
-    this.project = project;
+      GooglePubsubMessageReceiver messageReceiver,
+      Registry registry) {
+    this.name = subscription.getName();
+    this.subscriptionName = subscription.getSubscriptionName();
+    this.project = subscription.getProject();
+    this.subscription = subscription;
     this.messageReceiver = messageReceiver;
     this.credentials = credentials;
+    this.registry = registry;
   }
 
   @Override
@@ -88,14 +106,17 @@ public class GooglePubsubSubscriber implements PubsubSubscriber {
   }
 
   public static GooglePubsubSubscriber buildSubscriber(
-      GooglePubsubSubscription subscription, PubsubMessageHandler pubsubMessageHandler) {
-    String subscriptionName = subscription.getSubscriptionName();
-    String project = subscription.getProject();
+      GooglePubsubSubscription subscription,
+      PubsubMessageHandler pubsubMessageHandler,
+      Registry registry) {
     String jsonPath = subscription.getJsonPath();
 
     GooglePubsubMessageReceiver messageReceiver =
         new GooglePubsubMessageReceiver(
-            subscription.getAckDeadlineSeconds(), subscription.getName(), pubsubMessageHandler);
+            subscription.getAckDeadlineSeconds(),
+            subscription.getName(),
+            pubsubMessageHandler,
+            registry);
 
     Credentials credentials = null;
     try {
@@ -104,20 +125,32 @@ public class GooglePubsubSubscriber implements PubsubSubscriber {
       log.error("Could not create Google Pubsub json credentials: {}", e.getMessage());
     }
 
-    return new GooglePubsubSubscriber(
-        subscription.getName(), subscriptionName, project, credentials, messageReceiver);
+    return new GooglePubsubSubscriber(subscription, credentials, messageReceiver, registry);
   }
 
   public synchronized void start() {
-    this.subscriber =
+    Subscriber.Builder builder =
         Subscriber.newBuilder(
                 ProjectSubscriptionName.of(project, subscriptionName), messageReceiver)
             .setCredentialsProvider(FixedCredentialsProvider.create(credentials))
-            .build();
+            .setFlowControlSettings(
+                FlowControlSettings.newBuilder()
+                    .setMaxOutstandingElementCount(subscription.getMaxOutstandingMessages())
+                    .setMaxOutstandingRequestBytes(subscription.getMaxOutstandingBytes())
+                    .build())
+            .setParallelPullCount(subscription.getParallelPullCount());
+    if (subscription.getExecutorThreadCount() != null) {
+      builder.setExecutorProvider(
+          InstantiatingExecutorProvider.newBuilder()
+              .setExecutorThreadCount(subscription.getExecutorThreadCount())
+              .build());
+    }
+    this.subscriber = builder.build();
 
     subscriber.addListener(
         new GooglePubsubFailureHandler(this, formatSubscriptionName(project, subscriptionName)),
         MoreExecutors.directExecutor());
+    startedAt = System.currentTimeMillis();
     subscriber.startAsync().awaitRunning();
     log.info(
         "Google Pubsub subscriber started for {}",
@@ -135,19 +168,40 @@ public class GooglePubsubSubscriber implements PubsubSubscriber {
       log.warn("Failure stopping subscriber: ", e);
     }
 
+    long delay = nextRestartDelay(System.currentTimeMillis());
     log.info(
-        "Waiting to restart Google Pubsub subscriber for {}",
+        "Waiting {}ms to restart Google Pubsub subscriber for {}",
+        delay,
         formatSubscriptionName(project, subscriptionName));
     try {
-      // TODO: Use exponential backoff?
-      Thread.sleep(1000);
+      Thread.sleep(delay);
     } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
     }
 
     start();
   }
 
-  private static class GooglePubsubMessageReceiver implements MessageReceiver {
+  /**
+   * Doubles the delay for each failure in a row, jittered so that instances don't reconnect in
+   * lockstep. A subscriber that stayed up for longer than the maximum delay starts over.
+   */
+  // VisibleForTesting
+  synchronized long nextRestartDelay(long now) {
+    if (now - startedAt > subscription.getMaxRestartBackoffMillis()) {
+      consecutiveFailures = 0;
+    }
+
+    long delay =
+        Math.min(
+            subscription.getMaxRestartBackoffMillis(),
+            subscription.getRestartBackoffMillis() << Math.min(consecutiveFailures, 20));
+    consecutiveFailures++;
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  static class GooglePubsubMessageReceiver implements MessageReceiver {
 
     private int ackDeadlineSeconds;
 
@@ -160,40 +214,75 @@ public class GooglePubsubSubscriber implements PubsubSubscriber {
 
     private NodeIdentity identity = new NodeIdentity();
 
-    public GooglePubsubMessageReceiver(
+    private Registry registry;
+
+    private Id receiveToAckId;
+
+    /** Messages received but not yet acked or nacked. */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    GooglePubsubMessageReceiver(
         int ackDeadlineSeconds,
         String subscriptionName,
-        PubsubMessageHandler pubsubMessageHandler) {
+        PubsubMessageHandler pubsubMessageHandler,
+        Registry registry) {
       this.ackDeadlineSeconds = ackDeadlineSeconds;
       this.subscriptionName = subscriptionName;
       this.pubsubMessageHandler = pubsubMessageHandler;
+      this.registry = registry;
+      this.receiveToAckId =
+          registry.createId(
+              "echo.pubsub.google.receiveToAck", "subscriptionName", subscriptionName);
+
+      PolledMeter.using(registry)
+          .withId(
+              registry.createId(
+                  "echo.pubsub.google.outstandingMessages", "subscriptionName", subscriptionName))
+          .monitorValue(outstanding);
     }
 
     @Override
     public void receiveMessage(PubsubMessage message, AckReplyConsumer consumer) {
-      String messagePayload = message.getData().toStringUtf8();
-      String messageId = message.getMessageId();
-      Map<String, String> messageAttributes =
-          message.getAttributesMap() == null ? new HashMap<>() : message.getAttributesMap();
-      log.debug(
-          "Received Google pub/sub message with payload: {}\n and attributes: {}",
-          messagePayload,
-          messageAttributes);
-      MessageDescription description =
-          MessageDescription.builder()
-              .subscriptionName(subscriptionName)
-              .messagePayload(messagePayload)
-              .messageAttributes(messageAttributes)
-              .pubsubSystem(pubsubSystem)
-              .ackDeadlineSeconds(
-                  5 * ackDeadlineSeconds) // Set a high upper bound on message processing time.
-              .retentionDeadlineSeconds(
-                  7 * 24 * 60 * 60) // Expire key after max retention time, which is 7 days.
-              .build();
-      GoogleMessageAcknowledger acknowledger = new GoogleMessageAcknowledger(consumer);
-
-      pubsubMessageHandler.handleMessage(
-          description, acknowledger, identity.getIdentity(), messageId);
+      long receivedAt = registry.clock().monotonicTime();
+      outstanding.incrementAndGet();
+      GoogleMessageAcknowledger acknowledger =
+          new GoogleMessageAcknowledger(
+              consumer,
+              reply -> {
+                outstanding.decrementAndGet();
+                PercentileTimer.get(registry, receiveToAckId.withTag("reply", reply.toString()))
+                    .record(registry.clock().monotonicTime() - receivedAt, TimeUnit.NANOSECONDS);
+              });
+
+      try {
+        String messagePayload = PubsubMessageCompression.payloadOf(message);
+        String messageId = message.getMessageId();
+        Map<String, String> messageAttributes =
+            message.getAttributesMap() == null ? new HashMap<>() : message.getAttributesMap();
+        log.debug(
+            "Received Google pub/sub message with payload: {}\n and attributes: {}",
+            messagePayload,
+            messageAttributes);
+        MessageDescription description =
+            MessageDescription.builder()
+                .subscriptionName(subscriptionName)
+                .messagePayload(messagePayload)
+                .messageAttributes(messageAttributes)
+                .pubsubSystem(pubsubSystem)
+                .ackDeadlineSeconds(
+                    5 * ackDeadlineSeconds) // Set a high upper bound on message processing time.
+                .retentionDeadlineSeconds(
+                    7 * 24 * 60 * 60) // Expire key after max retention time, which is 7 days.
+                .build();
+
+        pubsubMessageHandler.handleMessage(
+            description, acknowledger, identity.getIdentity(), messageId);
+      } catch (RuntimeException e) {
+        // e.g. a payload that can't be decompressed. The client library nacks the message too,
+        // this settles it for the metrics.
+        acknowledger.nack();
+        throw e;
+      }
     }
   }
 
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.google;
+
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed payloads of Google Pub/Sub messages. Compressed messages carry a {@code
+ * contentEncoding} attribute naming the encoding of their data.
+ */
+final class PubsubMessageCompression {
+  static final String CONTENT_ENCODING_ATTRIBUTE = "contentEncoding";
+  static final String GZIP = "gzip";
+
+  private PubsubMessageCompression() {}
+
+  static ByteString gzip(ByteString data) {
+    ByteString.Output compressed = ByteString.newOutput(data.size() / 4);
+    try (OutputStream out = new GZIPOutputStream(compressed)) {
+      data.writeTo(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteString();
+  }
+
+  /**
+   * @return the payload of {@code message}, decompressed if needed
+   */
+  static String payloadOf(PubsubMessage message) {
+    if (!GZIP.equals(message.getAttributesOrDefault(CONTENT_ENCODING_ATTRIBUTE, null))) {
+      return message.getData().toStringUtf8();
+    }
+
+    try (InputStream in = new GZIPInputStream(message.getData().newInput())) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
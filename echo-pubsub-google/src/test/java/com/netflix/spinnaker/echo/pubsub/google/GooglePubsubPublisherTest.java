@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.google;
+
+import static com.netflix.spinnaker.echo.pubsub.google.PubsubMessageCompression.CONTENT_ENCODING_ATTRIBUTE;
+import static com.netflix.spinnaker.echo.pubsub.google.PubsubMessageCompression.GZIP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.batching.FlowControlSettings;
+import com.google.api.gax.batching.FlowController;
+import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.pubsub.v1.PubsubMessage;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class GooglePubsubPublisherTest {
+
+  private static final String PAYLOAD = "{\"name\": \"" + "x".repeat(100) + "\"}";
+
+  private final Registry registry = new DefaultRegistry();
+
+  private final Publisher client = mock(Publisher.class);
+
+  private final List<SettableApiFuture<String>> results = new ArrayList<>();
+
+  @Test
+  void shouldCompressPayloadsOverTheThreshold() {
+    GooglePubsubPublisher publisher = publisher(LimitExceededBehavior.Block, 10);
+    publisher.setCompress(true);
+    publisher.setCompressionThresholdBytes(PAYLOAD.length());
+
+    publisher.publish(PAYLOAD, Collections.singletonMap("type", "big"));
+    publisher.publish("{}", Collections.singletonMap("type", "small"));
+
+    ArgumentCaptor<PubsubMessage> messages = ArgumentCaptor.forClass(PubsubMessage.class);
+    verify(client, times(2)).publish(messages.capture());
+    PubsubMessage big = messages.getAllValues().get(0);
+    PubsubMessage small = messages.getAllValues().get(1);
+    assertThat(big.getAttributesMap())
+        .containsEntry(CONTENT_ENCODING_ATTRIBUTE, GZIP)
+        .containsEntry("type", "big");
+    assertThat(big.getData().size()).isLessThan(PAYLOAD.length());
+    assertThat(PubsubMessageCompression.payloadOf(big)).isEqualTo(PAYLOAD);
+    assertThat(small.getAttributesMap()).doesNotContainKey(CONTENT_ENCODING_ATTRIBUTE);
+    assertThat(small.getData().toStringUtf8()).isEqualTo("{}");
+  }
+
+  @Test
+  void shouldDropMessagesWhileTooManyAreOutstanding() {
+    GooglePubsubPublisher publisher = publisher(LimitExceededBehavior.ThrowException, 1);
+
+    publisher.publish(PAYLOAD, Collections.emptyMap());
+    publisher.publish(PAYLOAD, Collections.emptyMap());
+
+    verify(client, times(1)).publish(any());
+    assertThat(droppedPublishes()).isEqualTo(1);
+    assertThat(publisher.getOutstandingPublishes().get()).isEqualTo(1);
+
+    results.get(0).set("1");
+    publisher.publish(PAYLOAD, Collections.emptyMap());
+
+    verify(client, times(2)).publish(any());
+    assertThat(droppedPublishes()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldBlockWhileTooManyMessagesAreOutstanding() throws Exception {
+    GooglePubsubPublisher publisher = publisher(LimitExceededBehavior.Block, 1);
+    publisher.publish(PAYLOAD, Collections.emptyMap());
+
+    CompletableFuture<Void> blocked =
+        CompletableFuture.runAsync(() -> publisher.publish(PAYLOAD, Collections.emptyMap()));
+    Thread.sleep(200);
+    assertThat(blocked).isNotDone();
+
+    results.get(0).setException(new IllegalStateException("unavailable"));
+    blocked.get(5, TimeUnit.SECONDS);
+
+    verify(client, times(2)).publish(any());
+    assertThat(droppedPublishes()).isZero();
+  }
+
+  @Test
+  void shouldReleaseTheReservationWhenPublishingFails() {
+    GooglePubsubPublisher publisher = publisher(LimitExceededBehavior.ThrowException, 1);
+    when(client.publish(any())).thenThrow(new IllegalStateException("shut down"));
+
+    assertThatThrownBy(() -> publisher.publish(PAYLOAD, Collections.emptyMap()))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> publisher.publish(PAYLOAD, Collections.emptyMap()))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(droppedPublishes()).isZero();
+    assertThat(publisher.getOutstandingPublishes().get()).isZero();
+  }
+
+  private GooglePubsubPublisher publisher(LimitExceededBehavior behavior, long maxMessages) {
+    when(client.publish(any()))
+        .thenAnswer(
+            invocation -> {
+              SettableApiFuture<String> result = SettableApiFuture.create();
+              results.add(result);
+              return result;
+            });
+
+    GooglePubsubPublisher publisher = new GooglePubsubPublisher();
+    publisher.setName("pub");
+    publisher.setFullTopicName("projects/project/topics/topic");
+    publisher.setPublisher(client);
+    publisher.setMapper(new ObjectMapper());
+    publisher.setRegistry(registry);
+    publisher.setFlowController(
+        new FlowController(
+            FlowControlSettings.newBuilder()
+                .setMaxOutstandingElementCount(maxMessages)
+                .setMaxOutstandingRequestBytes(1024L * 1024)
+                .setLimitExceededBehavior(behavior)
+                .build()));
+    return publisher;
+  }
+
+  private long droppedPublishes() {
+    return registry
+        .counter(registry.createId("echo.pubsub.google.droppedPublishes", "publisherName", "pub"))
+        .count();
+  }
+}
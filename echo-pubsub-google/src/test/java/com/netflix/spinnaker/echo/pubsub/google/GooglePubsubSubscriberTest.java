@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.google;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.spinnaker.echo.config.GooglePubsubProperties.GooglePubsubSubscription;
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler;
+import com.netflix.spinnaker.echo.pubsub.google.GooglePubsubSubscriber.GooglePubsubMessageReceiver;
+import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class GooglePubsubSubscriberTest {
+
+  private final Registry registry = new DefaultRegistry();
+
+  private final PubsubMessageHandler handler = mock(PubsubMessageHandler.class);
+
+  private final GooglePubsubMessageReceiver receiver =
+      new GooglePubsubMessageReceiver(10, "sub", handler, registry);
+
+  @Test
+  void shouldDoubleTheRestartDelayWithEachFailureUpToTheMaximum() {
+    GooglePubsubSubscriber subscriber = subscriber(1_000, 8_000);
+
+    // never started, so "now" is how long it stayed up
+    assertThat(subscriber.nextRestartDelay(1)).isBetween(500L, 1_000L);
+    assertThat(subscriber.nextRestartDelay(1)).isBetween(1_000L, 2_000L);
+    assertThat(subscriber.nextRestartDelay(1)).isBetween(2_000L, 4_000L);
+    assertThat(subscriber.nextRestartDelay(1)).isBetween(4_000L, 8_000L);
+    assertThat(subscriber.nextRestartDelay(1)).isBetween(4_000L, 8_000L);
+  }
+
+  @Test
+  void shouldStartOverOnceTheSubscriberStayedUpLongerThanTheMaximumDelay() {
+    GooglePubsubSubscriber subscriber = subscriber(1_000, 8_000);
+    for (int i = 0; i < 5; i++) {
+      subscriber.nextRestartDelay(1);
+    }
+
+    assertThat(subscriber.nextRestartDelay(8_001)).isBetween(500L, 1_000L);
+    assertThat(subscriber.nextRestartDelay(8_002)).isBetween(500L, 1_000L);
+  }
+
+  @Test
+  void shouldReplyToEachMessageOnce() {
+    doAnswer(
+            invocation -> {
+              MessageAcknowledger acknowledger = invocation.getArgument(1);
+              acknowledger.ack();
+              acknowledger.ack();
+              acknowledger.nack();
+              return null;
+            })
+        .when(handler)
+        .handleMessage(any(), any(), anyString(), anyString());
+    FakeAckReplyConsumer consumer = new FakeAckReplyConsumer();
+
+    receiver.receiveMessage(message("1"), consumer);
+
+    assertThat(consumer.replies).containsExactly("ack");
+    assertThat(outstandingMessages()).isZero();
+    assertThat(receiveToAck("ack").count()).isEqualTo(1);
+    assertThat(receiveToAck("nack").count()).isZero();
+  }
+
+  @Test
+  void shouldCountMessagesUntilTheyAreAckedOrNacked() {
+    List<MessageAcknowledger> acknowledgers = new ArrayList<>();
+    doAnswer(invocation -> acknowledgers.add(invocation.getArgument(1)))
+        .when(handler)
+        .handleMessage(any(), any(), anyString(), anyString());
+
+    receiver.receiveMessage(message("1"), new FakeAckReplyConsumer());
+    receiver.receiveMessage(message("2"), new FakeAckReplyConsumer());
+    receiver.receiveMessage(message("3"), new FakeAckReplyConsumer());
+    assertThat(outstandingMessages()).isEqualTo(3);
+
+    acknowledgers.get(0).ack();
+    acknowledgers.get(1).nack();
+    acknowledgers.get(1).nack();
+    assertThat(outstandingMessages()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNackMessagesTheHandlerFailedOn() {
+    doThrow(new IllegalStateException("failed"))
+        .when(handler)
+        .handleMessage(any(), any(), anyString(), anyString());
+    FakeAckReplyConsumer consumer = new FakeAckReplyConsumer();
+
+    assertThatThrownBy(() -> receiver.receiveMessage(message("1"), consumer))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(consumer.replies).containsExactly("nack");
+    assertThat(outstandingMessages()).isZero();
+  }
+
+  @Test
+  void shouldNackMessagesThatCantBeDecompressed() {
+    PubsubMessage message =
+        message("1").toBuilder()
+            .putAttributes(
+                PubsubMessageCompression.CONTENT_ENCODING_ATTRIBUTE, PubsubMessageCompression.GZIP)
+            .build();
+    FakeAckReplyConsumer consumer = new FakeAckReplyConsumer();
+
+    assertThatThrownBy(() -> receiver.receiveMessage(message, consumer))
+        .isInstanceOf(UncheckedIOException.class);
+
+    verifyNoInteractions(handler);
+    assertThat(consumer.replies).containsExactly("nack");
+    assertThat(outstandingMessages()).isZero();
+  }
+
+  private GooglePubsubSubscriber subscriber(
+      long restartBackoffMillis, long maxRestartBackoffMillis) {
+    GooglePubsubSubscription subscription =
+        GooglePubsubSubscription.builder()
+            .name("sub")
+            .project("project")
+            .subscriptionName("subscription")
+            .restartBackoffMillis(restartBackoffMillis)
+            .maxRestartBackoffMillis(maxRestartBackoffMillis)
+            .build();
+    return new GooglePubsubSubscriber(subscription, null, receiver, registry);
+  }
+
+  private double outstandingMessages() {
+    PolledMeter.update(registry);
+    return registry
+        .gauge(
+            registry.createId("echo.pubsub.google.outstandingMessages", "subscriptionName", "sub"))
+        .value();
+  }
+
+  private PercentileTimer receiveToAck(String reply) {
+    return PercentileTimer.get(
+        registry,
+        registry
+            .createId("echo.pubsub.google.receiveToAck", "subscriptionName", "sub")
+            .withTag("reply", reply));
+  }
+
+  private static PubsubMessage message(String id) {
+    return PubsubMessage.newBuilder()
+        .setMessageId(id)
+        .setData(ByteString.copyFromUtf8("{\"id\": \"" + id + "\"}"))
+        .build();
+  }
+
+  static class FakeAckReplyConsumer implements AckReplyConsumer {
+    final List<String> replies = new ArrayList<>();
+
+    @Override
+    public void ack() {
+      replies.add("ack");
+    }
+
+    @Override
+    public void nack() {
+      replies.add("nack");
+    }
+  }
+}
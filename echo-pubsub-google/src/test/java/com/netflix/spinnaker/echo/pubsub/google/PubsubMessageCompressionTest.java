@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.google;
+
+import static com.netflix.spinnaker.echo.pubsub.google.PubsubMessageCompression.CONTENT_ENCODING_ATTRIBUTE;
+import static com.netflix.spinnaker.echo.pubsub.google.PubsubMessageCompression.GZIP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import java.io.UncheckedIOException;
+import org.junit.jupiter.api.Test;
+
+public class PubsubMessageCompressionTest {
+
+  private static final String PAYLOAD = "{\"name\": \"déploiement\", \"status\": \"succeeded\"}";
+
+  @Test
+  void shouldReadBackGzippedPayloads() {
+    ByteString compressed = PubsubMessageCompression.gzip(ByteString.copyFromUtf8(PAYLOAD));
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(compressed)
+            .putAttributes(CONTENT_ENCODING_ATTRIBUTE, GZIP)
+            .build();
+
+    assertThat(compressed).isNotEqualTo(ByteString.copyFromUtf8(PAYLOAD));
+    assertThat(PubsubMessageCompression.payloadOf(message)).isEqualTo(PAYLOAD);
+  }
+
+  @Test
+  void shouldReadPayloadsWithoutTheAttributeAsIs() {
+    ByteString compressed = PubsubMessageCompression.gzip(ByteString.copyFromUtf8(PAYLOAD));
+
+    assertThat(
+            PubsubMessageCompression.payloadOf(
+                PubsubMessage.newBuilder().setData(ByteString.copyFromUtf8(PAYLOAD)).build()))
+        .isEqualTo(PAYLOAD);
+    assertThat(
+            PubsubMessageCompression.payloadOf(
+                PubsubMessage.newBuilder().setData(compressed).build()))
+        .isEqualTo(compressed.toStringUtf8());
+    assertThat(
+            PubsubMessageCompression.payloadOf(
+                PubsubMessage.newBuilder()
+                    .setData(ByteString.copyFromUtf8(PAYLOAD))
+                    .putAttributes(CONTENT_ENCODING_ATTRIBUTE, "identity")
+                    .build()))
+        .isEqualTo(PAYLOAD);
+  }
+
+  @Test
+  void shouldFailOnPayloadsThatArentGzipped() {
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(ByteString.copyFromUtf8(PAYLOAD))
+            .putAttributes(CONTENT_ENCODING_ATTRIBUTE, GZIP)
+            .build();
+
+    assertThatThrownBy(() -> PubsubMessageCompression.payloadOf(message))
+        .isInstanceOf(UncheckedIOException.class);
+  }
+}
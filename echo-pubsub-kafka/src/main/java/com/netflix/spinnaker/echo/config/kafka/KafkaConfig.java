@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config.kafka;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.artifacts.MessageArtifactTranslator;
+import com.netflix.spinnaker.echo.config.kafka.KafkaProperties.KafkaSubscription;
+import com.netflix.spinnaker.echo.pubsub.PubsubEventCreator;
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler;
+import com.netflix.spinnaker.echo.pubsub.PubsubSubscribers;
+import com.netflix.spinnaker.echo.pubsub.kafka.KafkaSubscriber;
+import com.netflix.spinnaker.echo.pubsub.model.EventCreator;
+import com.netflix.spinnaker.echo.pubsub.model.PubsubSubscriber;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Consumes Kafka topics as pubsub subscriptions. Records aren't deduplicated through Redis, the
+ * consumer group already hands each partition to a single echo instance.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnExpression("${pubsub.enabled:false} && ${pubsub.kafka.enabled:false}")
+@EnableConfigurationProperties(KafkaProperties.class)
+@RequiredArgsConstructor
+public class KafkaConfig {
+  private final PubsubSubscribers pubsubSubscribers;
+  private final PubsubMessageHandler.Factory pubsubMessageHandlerFactory;
+  @Valid private final KafkaProperties kafkaProperties;
+  private final MessageArtifactTranslator.Factory messageArtifactTranslatorFactory;
+  private final Registry registry;
+
+  @PostConstruct
+  void kafkaSubscribers() {
+    log.info("Creating Kafka Subscribers");
+    List<PubsubSubscriber> newSubscribers = new ArrayList<>();
+    kafkaProperties
+        .getSubscriptions()
+        .forEach(
+            (KafkaSubscription subscription) -> {
+              log.info(
+                  "Bootstrapping Kafka Subscriber listening to topics: {} as group: {}",
+                  subscription.getTopics(),
+                  subscription.getGroupId());
+
+              Optional<MessageArtifactTranslator> messageArtifactTranslator =
+                  Optional.ofNullable(subscription.readTemplatePath())
+                      .map(messageArtifactTranslatorFactory::createJinja);
+              EventCreator eventCreator = new PubsubEventCreator(messageArtifactTranslator);
+
+              newSubscribers.add(
+                  KafkaSubscriber.buildSubscriber(
+                      subscription,
+                      pubsubMessageHandlerFactory.createWithoutDedupe(eventCreator),
+                      registry));
+            });
+    pubsubSubscribers.putAll(newSubscribers);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config.kafka;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@ConfigurationProperties(prefix = "pubsub.kafka")
+@Validated
+public class KafkaProperties {
+
+  @Valid private List<KafkaSubscription> subscriptions = new ArrayList<>();
+
+  @Data
+  @NoArgsConstructor
+  public static class KafkaSubscription {
+
+    @NotEmpty private String name;
+
+    @NotEmpty private List<String> topics = new ArrayList<>();
+
+    @NotEmpty private String bootstrapServers;
+
+    /** Echo instances sharing a consumer group split the partitions of the topics between them. */
+    @NotEmpty private String groupId = "spinnaker-echo";
+
+    private String templatePath;
+
+    /** Passed to the consumer as is, e.g. security settings or {@code auto.offset.reset}. */
+    private Map<String, String> consumerProperties = new HashMap<>();
+
+    /** Threads handling the records of this subscription, one partition at a time each. */
+    @Min(1)
+    private int concurrency = 4;
+
+    @Min(1)
+    private int maxPollRecords = 500;
+
+    @Min(1)
+    private long pollTimeoutMillis = 1000;
+
+    /** How often a failing record is handled before it's skipped. */
+    @Min(1)
+    private int maxAttempts = 3;
+
+    private long retryBackoffMillis = 1000;
+
+    public InputStream readTemplatePath() {
+      if (StringUtils.isEmpty(templatePath)) {
+        return null;
+      }
+
+      try {
+        return new FileInputStream(new File(templatePath));
+      } catch (IOException e) {
+        throw new RuntimeException(
+            "Failed to read template in subscription " + name + ": " + e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -1,11 +1,11 @@
 /*
- * Copyright 2017 Google, Inc.
+ * Copyright 2026 Netflix, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *     http://www.apache.org/licenses/LICENSE-2.0
+ *    http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -16,5 +16,17 @@
 
 package com.netflix.spinnaker.echo.pubsub.kafka;
 
-// TODO: move to pubsub-kafka module
-public class KafkaMonitor {}
+import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
+
+/**
+ * Kafka has no acknowledgements of single records. The offsets of a partition are committed once
+ * the records polled from it were handled, see {@link KafkaSubscriber}.
+ */
+class KafkaMessageAcknowledger implements MessageAcknowledger {
+
+  @Override
+  public void ack() {}
+
+  @Override
+  public void nack() {}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.kafka;
+
+import com.netflix.spinnaker.echo.model.pubsub.PubsubSystem;
+import com.netflix.spinnaker.echo.pubsub.PollingMonitor;
+import com.netflix.spinnaker.echo.pubsub.PubsubSubscribers;
+import com.netflix.spinnaker.echo.pubsub.model.PubsubSubscriber;
+import javax.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/** Starts and stops the consumers of Kafka subscriptions. */
+@Slf4j
+@Service
+@Async
+@ConditionalOnExpression("${pubsub.enabled:false} && ${pubsub.kafka.enabled:false}")
+public class KafkaMonitor implements PollingMonitor {
+
+  private Long lastPoll;
+
+  @Getter private final String name = "KafkaMonitor";
+
+  @Autowired private PubsubSubscribers pubsubSubscribers;
+
+  @PreDestroy
+  private void closeConsumers() {
+    log.info("Closing consumers of Kafka subscribers");
+    pubsubSubscribers.subscribersMatchingType(PubsubSystem.KAFKA).parallelStream()
+        .forEach(this::closeConsumer);
+  }
+
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    log.info("Starting consumers of Kafka subscribers");
+    pubsubSubscribers.subscribersMatchingType(PubsubSystem.KAFKA).forEach(this::openConsumer);
+  }
+
+  private void openConsumer(PubsubSubscriber subscriber) {
+    log.info("Starting Kafka consumer of {}", subscriber.getSubscriptionName());
+    lastPoll = System.currentTimeMillis();
+    ((KafkaSubscriber) subscriber).start();
+  }
+
+  private void closeConsumer(PubsubSubscriber subscriber) {
+    log.info("Closing Kafka consumer of {}", subscriber.getSubscriptionName());
+    ((KafkaSubscriber) subscriber).stop();
+  }
+
+  @Override
+  public boolean isInService() {
+    return true;
+  }
+
+  @Override
+  public Long getLastPoll() {
+    return lastPoll;
+  }
+
+  @Override
+  public int getPollInterval() {
+    return -1;
+  }
+}
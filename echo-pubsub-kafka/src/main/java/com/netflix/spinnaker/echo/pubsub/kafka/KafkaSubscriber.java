@@ -0,0 +1,504 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.pubsub.kafka;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spinnaker.echo.config.kafka.KafkaProperties.KafkaSubscription;
+import com.netflix.spinnaker.echo.model.pubsub.MessageDescription;
+import com.netflix.spinnaker.echo.model.pubsub.PubsubSystem;
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler;
+import com.netflix.spinnaker.echo.pubsub.model.MessageAcknowledger;
+import com.netflix.spinnaker.echo.pubsub.model.PubsubSubscriber;
+import com.netflix.spinnaker.echo.pubsub.utils.NodeIdentity;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+/**
+ * One subscriber for each Kafka subscription.
+ *
+ * <p>A single thread owns the consumer: it polls records in batches and hands the records of each
+ * partition to a worker as one task, pausing the partition until the task is done so that records
+ * of a partition are handled one at a time and in order. Offsets are committed once a task
+ * succeeded. A failing record is polled again after a backoff, up to {@code maxAttempts} times,
+ * after which it's skipped.
+ *
+ * <p>A record counts as handled once its event was handed to the {@link
+ * com.netflix.spinnaker.echo.events.EventPropagator}, which runs the event listeners asynchronously
+ * and only logs their failures. Retries therefore cover failures up to that hand-off, like turning
+ * the record into an event, but a listener failing afterwards (e.g. Orca being down while
+ * triggering a pipeline) doesn't redeliver the record: delivery to the listeners is at most once,
+ * as with the other pubsub systems.
+ *
+ * <p>Records aren't locked in Redis: the consumer group assigns each partition to a single echo
+ * instance. A rebalance waits for the tasks of revoked partitions and commits their offsets, so
+ * that the next owner picks up where this instance stopped.
+ */
+@Slf4j
+public class KafkaSubscriber implements PubsubSubscriber, Runnable {
+
+  private static final PubsubSystem pubsubSystem = PubsubSystem.KAFKA;
+
+  private static final Duration IN_FLIGHT_POLL_TIMEOUT = Duration.ofMillis(50);
+  private static final long MAX_POLL_ERROR_BACKOFF_MILLIS = 10_000;
+
+  private final KafkaSubscription subscription;
+  private final PubsubMessageHandler pubsubMessageHandler;
+  private final Registry registry;
+  private final Supplier<Consumer<String, String>> consumerSupplier;
+  private final NodeIdentity identity = new NodeIdentity();
+  private final MessageAcknowledger acknowledger = new KafkaMessageAcknowledger();
+
+  private final Id messagesId;
+  private final PercentileTimer recordLag;
+
+  // only accessed by the consumer thread
+  private final Map<TopicPartition, Future<PartitionResult>> inFlight = new HashMap<>();
+  private final Map<TopicPartition, OffsetAndMetadata> pendingOffsets = new HashMap<>();
+  private final Map<TopicPartition, Retry> retries = new HashMap<>();
+
+  private ExecutorService workers;
+  private Thread consumerThread;
+  private volatile Consumer<String, String> consumer;
+  private volatile boolean running;
+
+  public KafkaSubscriber(
+      KafkaSubscription subscription,
+      PubsubMessageHandler pubsubMessageHandler,
+      Registry registry,
+      Supplier<Consumer<String, String>> consumerSupplier) {
+    this.subscription = subscription;
+    this.pubsubMessageHandler = pubsubMessageHandler;
+    this.registry = registry;
+    this.consumerSupplier = consumerSupplier;
+
+    this.messagesId =
+        registry.createId("echo.pubsub.kafka.messages", "subscription", subscription.getName());
+    this.recordLag =
+        PercentileTimer.get(
+            registry,
+            registry.createId(
+                "echo.pubsub.kafka.recordLag", "subscription", subscription.getName()));
+  }
+
+  public static KafkaSubscriber buildSubscriber(
+      KafkaSubscription subscription,
+      PubsubMessageHandler pubsubMessageHandler,
+      Registry registry) {
+    return new KafkaSubscriber(
+        subscription,
+        pubsubMessageHandler,
+        registry,
+        () -> new KafkaConsumer<>(properties(subscription)));
+  }
+
+  static Properties properties(KafkaSubscription subscription) {
+    Properties properties = new Properties();
+    properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, subscription.getBootstrapServers());
+    properties.put(ConsumerConfig.GROUP_ID_CONFIG, subscription.getGroupId());
+    properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, subscription.getMaxPollRecords());
+    properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    properties.putAll(subscription.getConsumerProperties());
+    // offsets are only committed once records were handled
+    properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    return properties;
+  }
+
+  @Override
+  public PubsubSystem getPubsubSystem() {
+    return pubsubSystem;
+  }
+
+  @Override
+  public String getSubscriptionName() {
+    return subscription.getName();
+  }
+
+  @Override
+  public String getName() {
+    return subscription.getName();
+  }
+
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+
+    running = true;
+    workers =
+        Executors.newFixedThreadPool(
+            subscription.getConcurrency(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("kafka-" + subscription.getName() + "-%d")
+                .setDaemon(true)
+                .build());
+    consumerThread = new Thread(this, "kafka-" + subscription.getName() + "-consumer");
+    consumerThread.setDaemon(true);
+    consumerThread.start();
+  }
+
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+
+    running = false;
+    Consumer<String, String> consumer = this.consumer;
+    if (consumer != null) {
+      consumer.wakeup();
+    }
+
+    try {
+      consumerThread.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    workers.shutdownNow();
+  }
+
+  @Override
+  public void run() {
+    log.info("Starting Kafka consumer of {}", subscription.getName());
+    try (Consumer<String, String> consumer = consumerSupplier.get()) {
+      this.consumer = consumer;
+      consumer.subscribe(subscription.getTopics(), new RebalanceListener(consumer));
+
+      int pollErrors = 0;
+      while (running) {
+        try {
+          completeFinished(consumer);
+          commitPending(consumer, false);
+
+          Duration timeout =
+              inFlight.isEmpty()
+                  ? Duration.ofMillis(subscription.getPollTimeoutMillis())
+                  : IN_FLIGHT_POLL_TIMEOUT;
+          dispatch(consumer, consumer.poll(timeout));
+          pollErrors = 0;
+        } catch (WakeupException e) {
+          // stopping
+        } catch (Exception e) {
+          pollErrors++;
+          log.error(
+              "Error polling Kafka subscription {} ({} in a row)",
+              subscription.getName(),
+              pollErrors,
+              e);
+          backOff(pollErrors);
+        }
+      }
+
+      awaitInFlight(inFlight.keySet());
+      // failed records are left uncommitted, the next owner retries them
+      completeFinished(consumer);
+      commitPending(consumer, true);
+    } catch (Exception e) {
+      log.error("Kafka consumer of {} failed", subscription.getName(), e);
+    } finally {
+      this.consumer = null;
+      log.info("Stopped Kafka consumer of {}", subscription.getName());
+    }
+  }
+
+  /** Doubles the wait with each consecutive poll error, starting at the retry backoff. */
+  private void backOff(int pollErrors) {
+    long backoffMillis =
+        Math.min(
+            Math.max(1, subscription.getRetryBackoffMillis()) << Math.min(pollErrors - 1, 20),
+            MAX_POLL_ERROR_BACKOFF_MILLIS);
+    registry
+        .counter("echo.pubsub.kafka.pollErrors", "subscription", subscription.getName())
+        .increment();
+    try {
+      Thread.sleep(backoffMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  /** Hands the records of each partition to a worker, one task per partition. */
+  private void dispatch(
+      Consumer<String, String> consumer, ConsumerRecords<String, String> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+
+    List<TopicPartition> dispatched = new ArrayList<>(records.partitions().size());
+    for (TopicPartition partition : records.partitions()) {
+      List<ConsumerRecord<String, String>> partitionRecords = records.records(partition);
+      inFlight.put(partition, workers.submit(() -> handle(partitionRecords)));
+      dispatched.add(partition);
+    }
+    consumer.pause(dispatched);
+  }
+
+  private PartitionResult handle(List<ConsumerRecord<String, String>> records) {
+    long nextOffset = -1;
+    for (ConsumerRecord<String, String> record : records) {
+      try {
+        handleRecord(record);
+      } catch (Exception e) {
+        registry.counter(messagesId.withTag("result", "failure")).increment();
+        return new PartitionResult(nextOffset, record, e);
+      }
+      nextOffset = record.offset() + 1;
+    }
+    return new PartitionResult(nextOffset, null, null);
+  }
+
+  private void handleRecord(ConsumerRecord<String, String> record) {
+    if (record.timestamp() >= 0) {
+      recordLag.record(
+          Math.max(0, registry.clock().wallTime() - record.timestamp()), TimeUnit.MILLISECONDS);
+    }
+
+    if (record.value() == null) {
+      // tombstones carry nothing to trigger on
+      registry.counter(messagesId.withTag("result", "skipped")).increment();
+      return;
+    }
+
+    Map<String, String> attributes = new HashMap<>();
+    for (Header header : record.headers()) {
+      if (header.value() != null) {
+        attributes.put(header.key(), new String(header.value(), StandardCharsets.UTF_8));
+      }
+    }
+
+    MessageDescription description =
+        MessageDescription.builder()
+            .subscriptionName(subscription.getName())
+            .messagePayload(record.value())
+            .messageAttributes(attributes)
+            .pubsubSystem(pubsubSystem)
+            // records are neither locked nor remembered, partition assignment deduplicates them
+            .ackDeadlineSeconds(0)
+            .retentionDeadlineSeconds(0)
+            .build();
+
+    String messageId = record.topic() + ":" + record.partition() + ":" + record.offset();
+    pubsubMessageHandler.handleMessage(
+        description, acknowledger, identity.getIdentity(), messageId);
+    registry.counter(messagesId.withTag("result", "success")).increment();
+  }
+
+  /**
+   * Collects the offsets of finished tasks and resumes their partitions. A partition with a failed
+   * record is rewound to that record, and resumed once its backoff elapsed.
+   */
+  private void completeFinished(Consumer<String, String> consumer) {
+    long now = registry.clock().wallTime();
+    List<TopicPartition> resumed = new ArrayList<>();
+
+    Iterator<Map.Entry<TopicPartition, Future<PartitionResult>>> it =
+        inFlight.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<TopicPartition, Future<PartitionResult>> entry = it.next();
+      if (!entry.getValue().isDone()) {
+        continue;
+      }
+      it.remove();
+
+      TopicPartition partition = entry.getKey();
+      PartitionResult result = result(entry.getValue());
+      if (result.nextOffset >= 0) {
+        pendingOffsets.put(partition, new OffsetAndMetadata(result.nextOffset));
+      }
+
+      if (result.failed == null) {
+        retries.remove(partition);
+        resumed.add(partition);
+        continue;
+      }
+
+      long failedOffset = result.failed.offset();
+      Retry retry = retries.get(partition);
+      int attempts = (retry != null && retry.offset == failedOffset) ? retry.attempts + 1 : 1;
+      if (attempts >= subscription.getMaxAttempts()) {
+        log.error(
+            "Skipping Kafka record {}:{}:{} of subscription {} after {} attempts",
+            partition.topic(),
+            partition.partition(),
+            failedOffset,
+            subscription.getName(),
+            attempts,
+            result.error);
+        registry.counter(messagesId.withTag("result", "skipped")).increment();
+        retries.remove(partition);
+        pendingOffsets.put(partition, new OffsetAndMetadata(failedOffset + 1));
+        consumer.seek(partition, failedOffset + 1);
+        resumed.add(partition);
+      } else {
+        log.warn(
+            "Failed to handle Kafka record {}:{}:{} of subscription {} (attempt {}), retrying",
+            partition.topic(),
+            partition.partition(),
+            failedOffset,
+            subscription.getName(),
+            attempts,
+            result.error);
+        retries.put(
+            partition,
+            new Retry(failedOffset, attempts, now + subscription.getRetryBackoffMillis()));
+        consumer.seek(partition, failedOffset);
+      }
+    }
+
+    retries.forEach(
+        (partition, retry) -> {
+          if (!inFlight.containsKey(partition) && retry.resumeAt <= now && !retry.resumed) {
+            retry.resumed = true;
+            resumed.add(partition);
+          }
+        });
+
+    resumed.retainAll(consumer.assignment());
+    if (!resumed.isEmpty()) {
+      consumer.resume(resumed);
+    }
+  }
+
+  private void commitPending(Consumer<String, String> consumer, boolean sync) {
+    if (pendingOffsets.isEmpty()) {
+      return;
+    }
+
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(pendingOffsets);
+    pendingOffsets.clear();
+    if (sync) {
+      try {
+        consumer.commitSync(offsets);
+      } catch (Exception e) {
+        log.error("Failed to commit offsets of Kafka subscription {}", subscription.getName(), e);
+      }
+    } else {
+      // a failed commit is covered by the next one, or redelivers records after a rebalance
+      consumer.commitAsync(
+          offsets,
+          (committed, e) -> {
+            if (e != null) {
+              log.warn(
+                  "Failed to commit offsets of Kafka subscription {}", subscription.getName(), e);
+            }
+          });
+    }
+  }
+
+  private void awaitInFlight(Collection<TopicPartition> partitions) {
+    for (TopicPartition partition : partitions) {
+      Future<PartitionResult> task = inFlight.get(partition);
+      if (task == null) {
+        continue;
+      }
+      try {
+        task.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        // collected by completeFinished
+      }
+    }
+  }
+
+  private static PartitionResult result(Future<PartitionResult> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new PartitionResult(-1, null, null);
+    } catch (ExecutionException e) {
+      // handle() catches everything per record
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private class RebalanceListener implements ConsumerRebalanceListener {
+    private final Consumer<String, String> consumer;
+
+    RebalanceListener(Consumer<String, String> consumer) {
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      awaitInFlight(partitions);
+      completeFinished(consumer);
+      commitPending(consumer, true);
+      partitions.forEach(retries::remove);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {}
+  }
+
+  private static class PartitionResult {
+    /** The offset to commit, or -1 if no record was handled. */
+    final long nextOffset;
+
+    final ConsumerRecord<String, String> failed;
+    final Exception error;
+
+    PartitionResult(long nextOffset, ConsumerRecord<String, String> failed, Exception error) {
+      this.nextOffset = nextOffset;
+      this.failed = failed;
+      this.error = error;
+    }
+  }
+
+  private static class Retry {
+    final long offset;
+    final int attempts;
+    final long resumeAt;
+    boolean resumed;
+
+    Retry(long offset, int attempts, long resumeAt) {
+      this.offset = offset;
+      this.attempts = attempts;
+      this.resumeAt = resumeAt;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pubsub.kafka
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.echo.api.events.Event
+import com.netflix.spinnaker.echo.api.events.EventListener
+import com.netflix.spinnaker.echo.config.kafka.KafkaProperties.KafkaSubscription
+import com.netflix.spinnaker.echo.events.EventPropagator
+import com.netflix.spinnaker.echo.model.pubsub.MessageDescription
+import com.netflix.spinnaker.echo.pubsub.PubsubMessageHandler
+import com.netflix.spinnaker.echo.pubsub.model.EventCreator
+import org.apache.kafka.clients.admin.AdminClient
+import org.apache.kafka.clients.producer.KafkaProducer
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.common.serialization.StringSerializer
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.kafka.test.EmbeddedKafkaBroker
+import rx.schedulers.Schedulers
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+
+class KafkaSubscriberSpec extends Specification {
+  @Shared
+  EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, true, 2)
+
+  def registry = new DefaultRegistry()
+  def propagated = new ConcurrentHashMap<String, Integer>()
+  def failures = new ConcurrentHashMap<String, Integer>()
+  def listenerFailures = new ConcurrentHashMap<String, Integer>()
+  def listener = { Event event ->
+    String payload = event.content.payload
+    if (listenerFailures.containsKey(payload)) {
+      listenerFailures.merge(payload, 1, Integer::sum)
+      throw new IllegalStateException("listener failing " + payload)
+    }
+    propagated.merge(payload, 1, Integer::sum)
+  } as EventListener
+  def eventPropagator = new EventPropagator(
+    Stub(ObjectProvider) { getIfAvailable(_) >> [listener] },
+    [],
+    Schedulers.immediate()
+  )
+  def eventCreator = { MessageDescription description ->
+    String payload = description.messagePayload
+    Integer remaining = failures.get(payload)
+    if (remaining) {
+      failures.put(payload, remaining - 1)
+      throw new IllegalStateException("failing " + payload)
+    }
+    new Event(content: [payload: payload])
+  } as EventCreator
+
+  KafkaSubscriber subscriber
+
+  def setupSpec() {
+    broker.afterPropertiesSet()
+  }
+
+  def cleanupSpec() {
+    broker.destroy()
+  }
+
+  def cleanup() {
+    subscriber?.stop()
+  }
+
+  def 'propagates records and commits their offsets'() {
+    given:
+    def subscription = subscription("propagates")
+    subscriber = subscriber(subscription)
+
+    when:
+    subscriber.start()
+    send(subscription, (1..20).collect { "message-$it".toString() })
+
+    then:
+    new PollingConditions(timeout: 30).eventually {
+      assert propagated.keySet() == (1..20).collect { "message-$it".toString() } as Set
+      assert committedOffsets(subscription.groupId) == 20
+    }
+    propagated.values().every { it == 1 }
+  }
+
+  def 'retries failing records before moving on'() {
+    given:
+    def subscription = subscription("retries")
+    subscriber = subscriber(subscription)
+    failures.put("flaky", 1)
+    failures.put("broken", 5)
+
+    when:
+    subscriber.start()
+    send(subscription, ["flaky", "broken", "after"])
+
+    then:
+    new PollingConditions(timeout: 30).eventually {
+      assert propagated.keySet() == ["flaky", "after"] as Set
+      assert committedOffsets(subscription.groupId) == 3
+    }
+    failures.get("broken") == 2
+    registry.counter("echo.pubsub.kafka.messages", "subscription", "retries", "result", "skipped").count() == 1
+  }
+
+  def 'does not redeliver records whose listeners failed after the hand-off'() {
+    given:
+    def subscription = subscription("handoff")
+    subscriber = subscriber(subscription)
+    listenerFailures.put("rejected", 0)
+
+    when:
+    subscriber.start()
+    send(subscription, ["rejected", "after"])
+
+    then:
+    new PollingConditions(timeout: 30).eventually {
+      assert propagated.keySet() == ["after"] as Set
+      assert committedOffsets(subscription.groupId) == 2
+    }
+    listenerFailures.get("rejected") == 1
+    registry.counter("echo.pubsub.kafka.messages", "subscription", "handoff", "result", "success").count() == 2
+  }
+
+  private KafkaSubscription subscription(String name) {
+    broker.addTopics(name)
+    def subscription = new KafkaSubscription(
+      name: name,
+      topics: [name],
+      bootstrapServers: broker.brokersAsString,
+      groupId: "echo-$name",
+      concurrency: 2,
+      retryBackoffMillis: 10,
+      pollTimeoutMillis: 100
+    )
+    subscription.consumerProperties.put("auto.offset.reset", "earliest")
+    return subscription
+  }
+
+  private KafkaSubscriber subscriber(KafkaSubscription subscription) {
+    def handler = new PubsubMessageHandler.Factory(eventPropagator, Optional.empty(), registry)
+      .createWithoutDedupe(eventCreator)
+    return KafkaSubscriber.buildSubscriber(subscription, handler, registry)
+  }
+
+  private void send(KafkaSubscription subscription, List<String> payloads) {
+    def producer = new KafkaProducer<String, String>([
+      "bootstrap.servers": broker.brokersAsString,
+      "key.serializer"   : StringSerializer.name,
+      "value.serializer" : StringSerializer.name
+    ] as Map<String, Object>)
+    producer.withCloseable {
+      // a single key keeps the records of a test in one partition and in order
+      payloads.each { producer.send(new ProducerRecord<>(subscription.topics[0], "key", it)) }
+      producer.flush()
+    }
+  }
+
+  private long committedOffsets(String groupId) {
+    AdminClient.create(["bootstrap.servers": broker.brokersAsString] as Map<String, Object>).withCloseable {
+      it.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get().values().sum { it.offset() } ?: 0
+    }
+  }
+}
@@ -19,6 +19,7 @@ package com.netflix.spinnaker.echo.config;
 import java.util.List;
 import java.util.Map;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -35,6 +36,12 @@ public class RestProperties {
 
   @Data
   public static class RestEndpointConfiguration {
+    /**
+     * Identifies the endpoint in metrics and thread names, defaults to the host and path of its
+     * url.
+     */
+    String name;
+
     String eventName;
     String fieldName;
     String template;
@@ -48,5 +55,38 @@ public class RestProperties {
     Boolean flatten = false;
     int retryCount = 1;
     Boolean circuitBreakerEnabled = false;
+    Boolean asyncEnabled = false;
+    int queueCapacity = 1000;
+    @Valid BatchConfiguration batch = new BatchConfiguration();
+  }
+
+  /**
+   * Groups the events sent to an endpoint into batches, posted once they reach {@code maxEvents} or
+   * {@code maxBytes}, or after {@code lingerMillis}. Each event in a batch is transformed just like
+   * a single event would be.
+   */
+  @Data
+  public static class BatchConfiguration {
+    boolean enabled = false;
+    BatchFormat format = BatchFormat.JSON_ARRAY;
+
+    @Min(1)
+    int maxEvents = 500;
+
+    @Min(1)
+    long maxBytes = 1024 * 1024;
+
+    long lingerMillis = 1000;
+
+    /** Batches waiting to be sent beyond this are dropped. */
+    @Min(1)
+    int maxQueuedBatches = 10;
+  }
+
+  public enum BatchFormat {
+    /** A JSON array of events. */
+    JSON_ARRAY,
+    /** One JSON event per line. */
+    NDJSON
   }
 }
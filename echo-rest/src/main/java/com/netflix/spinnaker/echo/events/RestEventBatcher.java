@@ -0,0 +1,290 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileDistributionSummary;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spinnaker.echo.config.RestProperties;
+import com.netflix.spinnaker.kork.retrofit.exceptions.SpinnakerHttpException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups the events of one REST sink into batches, posted as a JSON array or as NDJSON. A batch is
+ * posted once it holds {@code maxEvents} events or {@code maxBytes} bytes, or {@code lingerMillis}
+ * after its first event.
+ *
+ * <p>Each batch is retried as a whole. A batch the sink rejects with a client error is split in
+ * halves which are sent on their own, so that one bad event doesn't cost its whole batch.
+ */
+class RestEventBatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(RestEventBatcher.class);
+
+  private static final MediaType JSON = MediaType.parse("application/json");
+  private static final MediaType NDJSON = MediaType.parse("application/x-ndjson");
+
+  private final Registry registry;
+  private final ObjectMapper mapper;
+  private final Sender sender;
+  private final ScheduledExecutorService flushExecutor;
+  private final RestProperties.BatchConfiguration config;
+  private final AtomicInteger queuedBatches = new AtomicInteger();
+
+  private final Id sizeId;
+  private final Id bytesId;
+  private final Id latencyId;
+  private final Id droppedId;
+
+  /** Guarded by {@code this}. */
+  private List<byte[]> pending = new ArrayList<>();
+
+  /** Guarded by {@code this}. */
+  private long pendingBytes = 0;
+
+  /** Guarded by {@code this}, tells a linger flush whether its batch was already sent. */
+  private long generation = 0;
+
+  RestEventBatcher(
+      Registry registry,
+      ObjectMapper mapper,
+      String sink,
+      RestProperties.BatchConfiguration config,
+      Sender sender) {
+    this(registry, mapper, sink, config, sender, flushExecutor(sink));
+  }
+
+  // VisibleForTesting
+  RestEventBatcher(
+      Registry registry,
+      ObjectMapper mapper,
+      String sink,
+      RestProperties.BatchConfiguration config,
+      Sender sender,
+      ScheduledExecutorService flushExecutor) {
+    this.registry = registry;
+    this.mapper = mapper;
+    this.config = config;
+    this.sender = sender;
+    this.flushExecutor = flushExecutor;
+
+    this.sizeId = registry.createId("echo.rest.batch.size").withTag("sink", sink);
+    this.bytesId = registry.createId("echo.rest.batch.bytes").withTag("sink", sink);
+    this.latencyId = registry.createId("echo.rest.batch.latency").withTag("sink", sink);
+    this.droppedId = registry.createId("echo.rest.batch.dropped").withTag("sink", sink);
+  }
+
+  /** Adds an already transformed event to the current batch. */
+  void add(Map<String, Object> eventMap) throws JsonProcessingException {
+    byte[] event = mapper.writeValueAsBytes(eventMap);
+
+    List<List<byte[]>> ready = new ArrayList<>(2);
+    synchronized (this) {
+      if (!pending.isEmpty() && pendingBytes + event.length > config.getMaxBytes()) {
+        ready.add(cut());
+      }
+
+      pending.add(event);
+      pendingBytes += event.length;
+
+      if (pending.size() >= config.getMaxEvents() || pendingBytes >= config.getMaxBytes()) {
+        ready.add(cut());
+      } else if (pending.size() == 1) {
+        long batchGeneration = generation;
+        flushExecutor.schedule(
+            () -> flush(batchGeneration), config.getLingerMillis(), TimeUnit.MILLISECONDS);
+      }
+    }
+
+    ready.forEach(this::enqueue);
+  }
+
+  void dropped(String reason, int events) {
+    registry.counter(droppedId.withTag("reason", reason)).increment(events);
+  }
+
+  /** Sends the current batch, and waits for the queued batches to be sent. */
+  void stop(long timeoutMillis) throws InterruptedException {
+    List<byte[]> batch;
+    synchronized (this) {
+      batch = cut();
+    }
+    enqueue(batch);
+
+    flushExecutor.shutdown();
+    if (!flushExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+      flushExecutor.shutdownNow();
+      log.warn("Dropping {} batches that couldn't be sent on shutdown", queuedBatches.get());
+    }
+  }
+
+  /** Must be called while holding the lock. */
+  private List<byte[]> cut() {
+    List<byte[]> batch = pending;
+    pending = new ArrayList<>();
+    pendingBytes = 0;
+    generation++;
+    return batch;
+  }
+
+  private void flush(long batchGeneration) {
+    List<byte[]> batch;
+    synchronized (this) {
+      if (batchGeneration != generation) {
+        // that batch was already full
+        return;
+      }
+      batch = cut();
+    }
+    send(batch);
+  }
+
+  private void enqueue(List<byte[]> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    if (queuedBatches.incrementAndGet() > config.getMaxQueuedBatches()) {
+      queuedBatches.decrementAndGet();
+      log.warn("Dropping a batch of {} events, too many batches are waiting", batch.size());
+      dropped("queueFull", batch.size());
+      return;
+    }
+
+    try {
+      flushExecutor.execute(
+          () -> {
+            try {
+              send(batch);
+            } finally {
+              queuedBatches.decrementAndGet();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      queuedBatches.decrementAndGet();
+      dropped("shutdown", batch.size());
+    }
+  }
+
+  private void send(List<byte[]> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    byte[] body = serialize(batch);
+    long start = registry.clock().monotonicTime();
+    boolean success = false;
+    try {
+      sender.send(
+          RequestBody.create(
+              body, config.getFormat() == RestProperties.BatchFormat.NDJSON ? NDJSON : JSON));
+      success = true;
+    } catch (CallNotPermittedException e) {
+      dropped("circuitOpen", batch.size());
+    } catch (SpinnakerHttpException e) {
+      if (batch.size() > 1 && isRejectedContent(e.getResponseCode())) {
+        log.warn(
+            "Batch of {} events was rejected (HTTP {}), retrying it in halves",
+            batch.size(),
+            e.getResponseCode());
+        send(batch.subList(0, batch.size() / 2));
+        send(batch.subList(batch.size() / 2, batch.size()));
+      } else {
+        onFailure(batch, e);
+      }
+    } catch (Exception e) {
+      onFailure(batch, e);
+    } finally {
+      PercentileTimer.get(registry, latencyId.withTag("success", String.valueOf(success)))
+          .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    if (success) {
+      PercentileDistributionSummary.get(registry, sizeId).record(batch.size());
+      PercentileDistributionSummary.get(registry, bytesId).record(body.length);
+    }
+  }
+
+  private void onFailure(List<byte[]> batch, Exception e) {
+    log.error("Could not send a batch of {} events", batch.size(), e);
+    dropped("error", batch.size());
+  }
+
+  private byte[] serialize(List<byte[]> batch) {
+    int size = batch.stream().mapToInt(e -> e.length + 1).sum() + 1;
+    ByteArrayOutputStream body = new ByteArrayOutputStream(size);
+    if (config.getFormat() == RestProperties.BatchFormat.NDJSON) {
+      for (byte[] event : batch) {
+        body.writeBytes(event);
+        body.write('\n');
+      }
+    } else {
+      body.write('[');
+      for (int i = 0; i < batch.size(); i++) {
+        if (i > 0) {
+          body.write(',');
+        }
+        body.writeBytes(batch.get(i));
+      }
+      body.write(']');
+    }
+    return body.toByteArray();
+  }
+
+  private static ScheduledExecutorService flushExecutor(String sink) {
+    ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setNameFormat("rest-batch-" + sink + "-%d")
+                .setDaemon(true)
+                .build());
+    // stop() sends the current batch itself
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    return executor;
+  }
+
+  /**
+   * @return whether the response rejects what was sent (malformed, too large or invalid), rather
+   *     than the request as such (auth, routing, rate limits), so that smaller batches may succeed
+   */
+  private static boolean isRejectedContent(int responseCode) {
+    return responseCode == 400 || responseCode == 413 || responseCode == 422;
+  }
+
+  /** Posts a serialized batch, throwing if it couldn't be delivered. */
+  interface Sender {
+    void send(RequestBody events);
+  }
+}
@@ -25,8 +25,14 @@ import com.netflix.spinnaker.echo.config.RestUrls;
 import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import javax.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
@@ -62,6 +68,20 @@ class RestEventListener implements EventListener {
   @Value("${rest.circuit-breaker-enabled:false}")
   private boolean circuitBreakerEnabled;
 
+  @Value("${rest.async-enabled:false}")
+  private boolean asyncEnabled;
+
+  @Value("${rest.shutdown-timeout-ms:5000}")
+  private long shutdownTimeoutMillis = 5000;
+
+  /** Batchers of the sinks sending batches, created on their first event. */
+  private final Map<RestUrls.Service, RestEventBatcher> batchers =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  /** Queues of the sinks sending asynchronously, created on their first event. */
+  private final Map<RestUrls.Service, RestSinkQueue> queues =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
   @Autowired
   RestEventListener(
       RestUrls restUrls,
@@ -76,7 +96,8 @@ class RestEventListener implements EventListener {
 
   /**
    * Processes the incoming event and sends it to all configured services. Checks if the Circuit
-   * Breaker is enabled per service
+   * Breaker is enabled per service. Services sending asynchronously only get the event queued, so
+   * they receive it in parallel.
    *
    * @param event The event to be processed.
    */
@@ -87,7 +108,12 @@ class RestEventListener implements EventListener {
         .forEach(
             (service) -> {
               try {
-                if (service.getConfig().getCircuitBreakerEnabled() || circuitBreakerEnabled) {
+                if (service.getConfig().getBatch().isEnabled()) {
+                  batchEvent(event, service);
+                } else if (service.getConfig().getAsyncEnabled() || asyncEnabled) {
+                  enqueueEvent(event, service);
+                } else if (service.getConfig().getCircuitBreakerEnabled()
+                    || circuitBreakerEnabled) {
                   processEventWithCircuitBreaker(event, service);
                 } else {
                   Map<String, Object> eventMap = transformEventToMap(event, service);
@@ -134,6 +160,144 @@ class RestEventListener implements EventListener {
     }
   }
 
+  /**
+   * Queues the event for a service sending asynchronously. The event is only transformed and sent
+   * by the service's worker. If the Circuit Breaker is open, the event is dropped without being
+   * queued.
+   *
+   * @param event The event to be queued.
+   * @param service The REST service the event is queued for.
+   */
+  private void enqueueEvent(Event event, RestUrls.Service service) {
+    RestSinkQueue queue = queues.computeIfAbsent(service, this::createQueue);
+    boolean useCircuitBreaker =
+        service.getConfig().getCircuitBreakerEnabled() || circuitBreakerEnabled;
+
+    CircuitBreaker circuitBreaker = null;
+    if (useCircuitBreaker) {
+      circuitBreaker = restEventService.getCircuitBreakerInstance(service);
+      if (!circuitBreaker.tryAcquirePermission()) {
+        log.warn(
+            "Circuit Breaker '{}' blocked queueing an event for {}",
+            circuitBreaker.getName(),
+            service.getConfig().getUrl());
+        queue.dropped("circuitOpen");
+        return;
+      }
+      // the permission is acquired again when the event is sent
+      circuitBreaker.releasePermission();
+    }
+
+    CircuitBreaker sendCircuitBreaker = circuitBreaker;
+    boolean queued =
+        queue.offer(
+            () -> {
+              Map<String, Object> eventMap = transformEventToMap(event, service);
+              if (sendCircuitBreaker != null) {
+                restEventService.sendEventWithCircuitBreaker(eventMap, service, sendCircuitBreaker);
+              } else {
+                restEventService.sendEvent(eventMap, service);
+              }
+            },
+            e -> {
+              if (e instanceof CallNotPermittedException) {
+                queue.dropped("circuitOpen");
+              } else {
+                handleError(event, service, e);
+              }
+            });
+
+    if (!queued) {
+      log.warn("Dropping an event for {}, its queue is full", service.getConfig().getUrl());
+    }
+  }
+
+  /**
+   * Adds the event to the current batch of a service sending batches. Batches are sent by the
+   * service's own thread. If the Circuit Breaker is open, the event is dropped without being
+   * transformed.
+   *
+   * @param event The event to be batched.
+   * @param service The REST service the event is batched for.
+   * @throws JsonProcessingException if there is an issue with JSON processing.
+   */
+  private void batchEvent(Event event, RestUrls.Service service) throws JsonProcessingException {
+    RestEventBatcher batcher = batchers.computeIfAbsent(service, this::createBatcher);
+
+    if (service.getConfig().getCircuitBreakerEnabled() || circuitBreakerEnabled) {
+      CircuitBreaker circuitBreaker = restEventService.getCircuitBreakerInstance(service);
+      if (!circuitBreaker.tryAcquirePermission()) {
+        batcher.dropped("circuitOpen", 1);
+        return;
+      }
+      circuitBreaker.releasePermission();
+    }
+
+    batcher.add(transformEventToMap(event, service));
+  }
+
+  private RestEventBatcher createBatcher(RestUrls.Service service) {
+    RestEventBatcher.Sender sender;
+    if (service.getConfig().getCircuitBreakerEnabled() || circuitBreakerEnabled) {
+      CircuitBreaker circuitBreaker = restEventService.getCircuitBreakerInstance(service);
+      sender =
+          events -> restEventService.sendEventsWithCircuitBreaker(events, service, circuitBreaker);
+    } else {
+      sender = events -> restEventService.sendEvents(events, service);
+    }
+    return new RestEventBatcher(
+        registry, mapper, sinkName(service), service.getConfig().getBatch(), sender);
+  }
+
+  private RestSinkQueue createQueue(RestUrls.Service service) {
+    return new RestSinkQueue(registry, sinkName(service), service.getConfig().getQueueCapacity());
+  }
+
+  /**
+   * Endpoints may share an event name, so they are told apart by url. Credentials and query
+   * parameters are left out of it, as they may hold secrets.
+   */
+  static String sinkName(RestUrls.Service service) {
+    String name = service.getConfig().getName();
+    if (StringUtils.isEmpty(name) && service.getConfig().getUrl() != null) {
+      try {
+        URI url = URI.create(service.getConfig().getUrl());
+        if (url.getHost() != null) {
+          name =
+              url.getHost()
+                  + (url.getPort() == -1 ? "" : ":" + url.getPort())
+                  + StringUtils.defaultString(url.getRawPath());
+        }
+      } catch (IllegalArgumentException e) {
+        log.warn("Could not parse url of REST endpoint {}", service.getConfig().getEventName());
+      }
+    }
+    // also part of thread name formats
+    return StringUtils.isEmpty(name) ? "default" : name.replaceAll("[^A-Za-z0-9._:/-]", "_");
+  }
+
+  /** Gives events queued or batched for asynchronous services a chance to be sent. */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    List<RestSinkQueue> sinkQueues;
+    synchronized (queues) {
+      sinkQueues = new ArrayList<>(queues.values());
+    }
+    List<RestEventBatcher> sinkBatchers;
+    synchronized (batchers) {
+      sinkBatchers = new ArrayList<>(batchers.values());
+    }
+    sinkQueues.forEach(RestSinkQueue::shutdown);
+
+    long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+    for (RestSinkQueue queue : sinkQueues) {
+      queue.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()));
+    }
+    for (RestEventBatcher batcher : sinkBatchers) {
+      batcher.stop(Math.max(0, deadline - System.currentTimeMillis()));
+    }
+  }
+
   /**
    * Transforms the event into a map to be sent in the REST request.
    *
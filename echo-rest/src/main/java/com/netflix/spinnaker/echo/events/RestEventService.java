@@ -26,6 +26,7 @@ import java.time.Duration;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import net.logstash.logback.encoder.org.apache.commons.lang.StringUtils;
+import okhttp3.RequestBody;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
@@ -62,6 +63,31 @@ public class RestEventService {
         false);
   }
 
+  /**
+   * Sends a batch of events to a REST service with retry support. The batch is retried as a whole.
+   *
+   * @param events The serialized batch to be sent.
+   * @param service The REST service to which the batch should be sent.
+   */
+  public void sendEvents(RequestBody events, RestUrls.Service service) {
+    retrySupport.retry(
+        () -> Retrofit2SyncCall.execute(service.getClient().recordEvents(events)),
+        service.getConfig().getRetryCount(),
+        Duration.ofMillis(200),
+        false);
+  }
+
+  /**
+   * Sends a batch of events to a REST service using a Circuit Breaker.
+   *
+   * @param events The serialized batch to be sent.
+   * @param service The REST service to which the batch should be sent.
+   */
+  public void sendEventsWithCircuitBreaker(
+      RequestBody events, RestUrls.Service service, CircuitBreaker circuitBreaker) {
+    circuitBreaker.executeRunnable(() -> sendEvents(events, service));
+  }
+
   /**
    * Retrieves or creates a Circuit Breaker instance for a specific REST service.
    *
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.events;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Events waiting to be sent to one REST sink, and the worker sending them. Each sink gets its own
+ * queue so that a slow or failing endpoint only delays its own events. A full queue drops events
+ * rather than blocking the caller.
+ */
+class RestSinkQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(RestSinkQueue.class);
+
+  private final Registry registry;
+  private final String sink;
+  private final ThreadPoolExecutor executor;
+  private final Id sendId;
+  private final Id droppedId;
+
+  RestSinkQueue(Registry registry, String sink, int capacity) {
+    this.registry = registry;
+    this.sink = sink;
+    this.executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            new ThreadFactoryBuilder()
+                .setNameFormat("rest-sink-" + sink + "-%d")
+                .setDaemon(true)
+                .build(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.sendId = registry.createId("echo.rest.send").withTag("sink", sink);
+    this.droppedId = registry.createId("echo.rest.dropped").withTag("sink", sink);
+
+    PolledMeter.using(registry)
+        .withId(registry.createId("echo.rest.queue.depth").withTag("sink", sink))
+        .monitorValue(executor.getQueue(), BlockingQueue::size);
+  }
+
+  /**
+   * @param send sends one event, throwing if it couldn't be delivered
+   * @param onError called with whatever {@code send} threw
+   * @return whether the event was queued, {@code false} if the queue is full
+   */
+  boolean offer(Send send, Consumer<Exception> onError) {
+    try {
+      executor.execute(() -> timed(send, onError));
+      return true;
+    } catch (RejectedExecutionException e) {
+      dropped("queueFull");
+      return false;
+    }
+  }
+
+  void dropped(String reason) {
+    registry.counter(droppedId.withTag("reason", reason)).increment();
+  }
+
+  int depth() {
+    return executor.getQueue().size();
+  }
+
+  /** Stops accepting events, the queued ones are still sent. */
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  /** Waits for the queued events to be sent, and drops them if they aren't in time. */
+  void awaitTermination(long timeoutMillis) throws InterruptedException {
+    if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+      int remaining = executor.shutdownNow().size();
+      log.warn("Dropping {} events queued for {} on shutdown", remaining, sink);
+      registry.counter(droppedId.withTag("reason", "shutdown")).increment(remaining);
+    }
+  }
+
+  private void timed(Send send, Consumer<Exception> onError) {
+    long start = registry.clock().monotonicTime();
+    boolean success = false;
+    try {
+      send.run();
+      success = true;
+    } catch (Exception e) {
+      onError.accept(e);
+    } finally {
+      PercentileTimer.get(registry, sendId.withTag("success", String.valueOf(success)))
+          .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  interface Send {
+    void run() throws Exception;
+  }
+}
@@ -17,6 +17,7 @@
 package com.netflix.spinnaker.echo.rest;
 
 import java.util.Map;
+import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
@@ -26,4 +27,8 @@ public interface RestService {
 
   @POST(".")
   Call<ResponseBody> recordEvent(@Body Map<String, Object> event);
+
+  /** Posts a batch of already serialized events, as a JSON array or NDJSON. */
+  @POST(".")
+  Call<ResponseBody> recordEvents(@Body RequestBody events);
 }
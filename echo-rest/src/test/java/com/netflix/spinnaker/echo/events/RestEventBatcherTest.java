@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.events;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spinnaker.echo.config.RestProperties;
+import com.netflix.spinnaker.echo.config.RestUrls;
+import com.netflix.spinnaker.echo.jackson.EchoObjectMapper;
+import com.netflix.spinnaker.echo.rest.RestService;
+import com.netflix.spinnaker.echo.util.RetrofitUtils;
+import com.netflix.spinnaker.kork.core.RetrySupport;
+import com.netflix.spinnaker.kork.retrofit.ErrorHandlingExecutorCallAdapterFactory;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.Map;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+class RestEventBatcherTest {
+  WireMockServer wireMockServer;
+  DefaultRegistry registry;
+  RestProperties.BatchConfiguration config;
+  RestEventService restEventService;
+  RestUrls.Service service;
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    wireMockServer.start();
+    wireMockServer.stubFor(post(urlEqualTo("/events/")).willReturn(aResponse().withStatus(200)));
+
+    RestService restService =
+        new Retrofit.Builder()
+            .baseUrl(RetrofitUtils.getBaseUrl(wireMockServer.baseUrl() + "/events"))
+            .client(new OkHttpClient())
+            .addCallAdapterFactory(ErrorHandlingExecutorCallAdapterFactory.getInstance())
+            .addConverterFactory(JacksonConverterFactory.create())
+            .build()
+            .create(RestService.class);
+
+    RestProperties.RestEndpointConfiguration endpoint =
+        new RestProperties.RestEndpointConfiguration();
+    endpoint.setRetryCount(1);
+    service = RestUrls.Service.builder().client(restService).config(endpoint).build();
+
+    registry = new DefaultRegistry();
+    restEventService =
+        new RestEventService(new RetrySupport(), CircuitBreakerRegistry.ofDefaults());
+    config = new RestProperties.BatchConfiguration();
+    config.setLingerMillis(60000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    wireMockServer.stop();
+  }
+
+  @Test
+  void sendsFullBatchesAsJsonArrays() throws Exception {
+    config.setMaxEvents(2);
+    RestEventBatcher batcher = batcher();
+
+    batcher.add(Map.of("n", 1));
+    batcher.add(Map.of("n", 2));
+    batcher.add(Map.of("n", 3));
+    batcher.stop(5000);
+
+    wireMockServer.verify(
+        1,
+        postRequestedFor(urlEqualTo("/events/"))
+            .withHeader("Content-Type", containing("application/json"))
+            .withRequestBody(equalToJson("[{\"n\":1},{\"n\":2}]")));
+    wireMockServer.verify(
+        1, postRequestedFor(urlEqualTo("/events/")).withRequestBody(equalToJson("[{\"n\":3}]")));
+    Assertions.assertEquals(
+        2, registry.distributionSummary("echo.rest.batch.size", "sink", "test").count());
+  }
+
+  @Test
+  void sendsBatchesAsNdjsonAfterLingering() throws Exception {
+    config.setFormat(RestProperties.BatchFormat.NDJSON);
+    config.setLingerMillis(50);
+    RestEventBatcher batcher = batcher();
+
+    batcher.add(Map.of("n", 1));
+    batcher.add(Map.of("n", 2));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (wireMockServer.getAllServeEvents().isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    wireMockServer.verify(
+        1,
+        postRequestedFor(urlEqualTo("/events/"))
+            .withHeader("Content-Type", containing("application/x-ndjson"))
+            .withRequestBody(equalTo("{\"n\":1}\n{\"n\":2}\n")));
+    batcher.stop(5000);
+  }
+
+  @Test
+  void cutsBatchesBeforeTheyGetTooLarge() throws Exception {
+    // each event is 7 bytes
+    config.setMaxBytes(20);
+    RestEventBatcher batcher = batcher();
+
+    batcher.add(Map.of("n", 1));
+    batcher.add(Map.of("n", 2));
+    batcher.add(Map.of("n", 3));
+    batcher.stop(5000);
+
+    wireMockServer.verify(
+        1,
+        postRequestedFor(urlEqualTo("/events/"))
+            .withRequestBody(equalToJson("[{\"n\":1},{\"n\":2}]")));
+    wireMockServer.verify(
+        1, postRequestedFor(urlEqualTo("/events/")).withRequestBody(equalToJson("[{\"n\":3}]")));
+  }
+
+  @Test
+  void splitsRejectedBatchesToIsolateBadEvents() throws Exception {
+    wireMockServer.stubFor(
+        post(urlEqualTo("/events/"))
+            .withRequestBody(containing("bad"))
+            .willReturn(aResponse().withStatus(400)));
+    config.setMaxEvents(3);
+    RestEventBatcher batcher = batcher();
+
+    batcher.add(Map.of("n", 1));
+    batcher.add(Map.of("n", "bad"));
+    batcher.add(Map.of("n", 3));
+    batcher.stop(5000);
+
+    wireMockServer.verify(
+        1, postRequestedFor(urlEqualTo("/events/")).withRequestBody(equalToJson("[{\"n\":1}]")));
+    wireMockServer.verify(
+        1, postRequestedFor(urlEqualTo("/events/")).withRequestBody(equalToJson("[{\"n\":3}]")));
+    Assertions.assertEquals(
+        1, registry.counter("echo.rest.batch.dropped", "sink", "test", "reason", "error").count());
+  }
+
+  @Test
+  void failsBatchesRejectedForReasonsOtherThanTheirContent() throws Exception {
+    wireMockServer.stubFor(post(urlEqualTo("/events/")).willReturn(aResponse().withStatus(403)));
+    config.setMaxEvents(3);
+    RestEventBatcher batcher = batcher();
+
+    batcher.add(Map.of("n", 1));
+    batcher.add(Map.of("n", 2));
+    batcher.add(Map.of("n", 3));
+    batcher.stop(5000);
+
+    wireMockServer.verify(1, postRequestedFor(urlEqualTo("/events/")));
+    Assertions.assertEquals(
+        3, registry.counter("echo.rest.batch.dropped", "sink", "test", "reason", "error").count());
+  }
+
+  private RestEventBatcher batcher() {
+    return new RestEventBatcher(
+        registry,
+        EchoObjectMapper.getInstance(),
+        "test",
+        config,
+        events -> restEventService.sendEvents(events, service));
+  }
+}
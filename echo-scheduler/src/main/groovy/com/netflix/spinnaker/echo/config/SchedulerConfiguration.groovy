@@ -25,6 +25,7 @@ import com.netflix.spinnaker.kork.sql.config.DefaultSqlConfiguration
 import org.quartz.JobDetail
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.boot.autoconfigure.quartz.QuartzAutoConfiguration
 import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer
 import org.springframework.context.annotation.Bean
@@ -41,6 +42,9 @@ import java.util.concurrent.TimeUnit
 @ConditionalOnExpression('${scheduler.enabled:false}')
 @Import([DefaultSqlConfiguration, QuartzAutoConfiguration])
 class SchedulerConfiguration {
+  public static final String PIPELINE_SYNC_JOB_NAME = "Sync Pipelines"
+  public static final String PIPELINE_SYNC_JOB_GROUP = "Sync"
+
   @Value('${scheduler.pipeline-configs-poller.polling-interval-ms:30000}')
   long syncInterval
 
@@ -54,26 +58,28 @@ class SchedulerConfiguration {
     JobDetailFactoryBean syncJob = new JobDetailFactoryBean()
     syncJob.setJobClass(PipelineConfigsPollingJob.class)
     syncJob.jobDataMap.put("timeZoneId", timeZoneId)
-    syncJob.setName("Sync Pipelines")
-    syncJob.setGroup("Sync")
+    syncJob.setName(PIPELINE_SYNC_JOB_NAME)
+    syncJob.setGroup(PIPELINE_SYNC_JOB_GROUP)
     syncJob.setDurability(true)
 
     return syncJob
   }
 
   /**
-   * Trigger for the job to sync pipeline triggers
+   * Trigger for the job to sync pipeline triggers, unless they are fired by the timing wheel engine
+   * (see {@link TimingWheelSchedulerConfiguration})
    */
   @Bean
   @ConditionalOnExpression('${scheduler.pipeline-configs-poller.enabled:true}')
+  @ConditionalOnProperty(value = "scheduler.cron.engine", havingValue = "quartz", matchIfMissing = true)
   SimpleTriggerFactoryBean syncJobTriggerBean(
     @Value('${scheduler.pipeline-configs-poller.polling-interval-ms:60000}') long intervalMs,
     JobDetail pipelineSyncJobBean
   ) {
     SimpleTriggerFactoryBean triggerBean = new SimpleTriggerFactoryBean()
 
-    triggerBean.setName("Sync Pipelines")
-    triggerBean.setGroup("Sync")
+    triggerBean.setName(PIPELINE_SYNC_JOB_NAME)
+    triggerBean.setGroup(PIPELINE_SYNC_JOB_GROUP)
     triggerBean.setStartDelay(TimeUnit.SECONDS.toMillis(60 + new Random().nextInt() % 60))
     triggerBean.setRepeatInterval(intervalMs)
     triggerBean.setJobDetail(pipelineSyncJobBean)
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.config;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy;
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.PipelineConfigsPollingJob;
+import com.netflix.spinnaker.echo.scheduler.sharding.CronTriggerOwnership;
+import com.netflix.spinnaker.echo.scheduler.sharding.CronTriggerSharding;
+import com.netflix.spinnaker.echo.scheduler.sharding.SqlCronShardMembership;
+import com.netflix.spinnaker.echo.scheduler.wheel.CronFireStateStore;
+import com.netflix.spinnaker.echo.scheduler.wheel.InMemoryCronFireStateStore;
+import com.netflix.spinnaker.echo.scheduler.wheel.SqlCronFireStateStore;
+import com.netflix.spinnaker.echo.scheduler.wheel.TimingWheelCronScheduler;
+import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fires pipeline cron triggers from an in-memory timing wheel instead of quartz ({@code
+ * scheduler.cron.engine: timing-wheel}). Quartz keeps running the other scheduler jobs, but no
+ * longer mirrors pipeline triggers. All instances sharing a database should use the same engine.
+ *
+ * <p>With {@code scheduler.cron.sharding.enabled}, each instance only schedules its share of the
+ * triggers (see {@link CronTriggerSharding}) instead of all of them. This requires SQL.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("${scheduler.enabled:false}")
+@ConditionalOnProperty(value = "scheduler.cron.engine", havingValue = "timing-wheel")
+public class TimingWheelSchedulerConfiguration {
+
+  @Bean
+  public CronFireStateStore cronFireStateStore(
+      Optional<DataSource> dataSource,
+      Registry registry,
+      @Value("${sql.enabled:false}") boolean sqlEnabled) {
+    if (sqlEnabled && dataSource.isPresent()) {
+      return new SqlCronFireStateStore(dataSource.get(), registry, instanceId());
+    }
+
+    log.warn(
+        "No SQL database configured, cron triggers are only guarded against double fires within this instance");
+    return new InMemoryCronFireStateStore();
+  }
+
+  @Bean
+  @ConditionalOnProperty("scheduler.cron.sharding.enabled")
+  public CronTriggerSharding cronTriggerSharding(
+      Optional<DataSource> dataSource,
+      Registry registry,
+      @Value("${sql.enabled:false}") boolean sqlEnabled,
+      @Value("${scheduler.cron.sharding.virtual-nodes:128}") int virtualNodes,
+      @Value("${scheduler.cron.sharding.heartbeat-interval-ms:10000}") long heartbeatIntervalMillis,
+      @Value("${scheduler.cron.sharding.node-ttl-ms:30000}") long nodeTtlMillis,
+      @Value("${scheduler.cron.sharding.handoff-grace-ms:60000}") long handoffGraceMillis) {
+    if (!sqlEnabled || dataSource.isEmpty()) {
+      throw new IllegalStateException(
+          "scheduler.cron.sharding.enabled requires sql.enabled, triggers can't be handed off safely without it");
+    }
+
+    return new CronTriggerSharding(
+        new SqlCronShardMembership(dataSource.get()),
+        registry,
+        Clock.systemUTC(),
+        instanceId(),
+        virtualNodes,
+        heartbeatIntervalMillis,
+        nodeTtlMillis,
+        handoffGraceMillis);
+  }
+
+  @Bean
+  public TimingWheelCronScheduler timingWheelCronScheduler(
+      PipelineCache pipelineCache,
+      PipelineInitiator pipelineInitiator,
+      CronFireStateStore cronFireStateStore,
+      Optional<CronTriggerSharding> cronTriggerSharding,
+      CronJitterPolicy cronJitterPolicy,
+      DiscoveryStatusListener discoveryStatusListener,
+      TriggerLatencyTracker triggerLatencyTracker,
+      Registry registry,
+      Optional<Scheduler> quartzScheduler,
+      @Value("${scheduler.cron.timezone:America/Los_Angeles}") String timeZoneId,
+      @Value("${scheduler.cron.timing-wheel.tick-ms:1000}") long tickMillis,
+      @Value("${scheduler.cron.timing-wheel.wheel-size:60}") int wheelSize,
+      @Value("${scheduler.cron.timing-wheel.refresh-interval-ms:30000}") long refreshIntervalMillis,
+      @Value("${scheduler.cron.timing-wheel.misfire-threshold-ms:60000}")
+          long misfireThresholdMillis) {
+    quartzScheduler.ifPresent(TimingWheelSchedulerConfiguration::removeQuartzPipelineTriggers);
+
+    TimingWheelCronScheduler scheduler =
+        new TimingWheelCronScheduler(
+            pipelineCache,
+            pipelineInitiator,
+            cronFireStateStore,
+            cronTriggerSharding.<CronTriggerOwnership>map(s -> s).orElse(CronTriggerOwnership.ALL),
+            cronJitterPolicy,
+            discoveryStatusListener,
+            triggerLatencyTracker,
+            registry,
+            Clock.systemUTC(),
+            TimeZone.getTimeZone(timeZoneId),
+            tickMillis,
+            wheelSize,
+            refreshIntervalMillis,
+            misfireThresholdMillis);
+
+    // reconcile right away rather than on the next refresh, so that handed off triggers don't
+    // wait out the whole grace period
+    cronTriggerSharding.ifPresent(
+        sharding -> sharding.addRebalanceListener(scheduler::refreshSoon));
+    return scheduler;
+  }
+
+  /**
+   * Pipeline triggers left behind in quartz by the quartz engine would fire a second time, and a
+   * persisted sync trigger would keep adding them back.
+   */
+  private static void removeQuartzPipelineTriggers(Scheduler scheduler) {
+    try {
+      scheduler.unscheduleJob(
+          TriggerKey.triggerKey(
+              SchedulerConfiguration.PIPELINE_SYNC_JOB_NAME,
+              SchedulerConfiguration.PIPELINE_SYNC_JOB_GROUP));
+
+      List<TriggerKey> triggerKeys =
+          new ArrayList<>(
+              scheduler.getTriggerKeys(
+                  GroupMatcher.triggerGroupStartsWith(
+                      PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX)));
+      if (!triggerKeys.isEmpty()) {
+        log.info("Removing {} pipeline triggers from quartz", triggerKeys.size());
+        scheduler.unscheduleJobs(triggerKeys);
+      }
+    } catch (SchedulerException e) {
+      log.error("Failed to remove pipeline triggers from quartz", e);
+    }
+  }
+
+  private static String instanceId() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+}
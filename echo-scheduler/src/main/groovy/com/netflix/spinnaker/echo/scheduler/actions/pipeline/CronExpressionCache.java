@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline;
+
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy;
+import com.netflix.spinnaker.echo.model.Trigger;
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.CronExpression;
+
+/**
+ * Parsed cron expressions of pipeline triggers, with {@code H} tokens already fuzzed.
+ *
+ * <p>Expressions are resolved through a {@link CronJitterPolicy}, which must be the one triggers
+ * are scheduled with.
+ *
+ * <p>Expressions are compiled once per pipeline snapshot: refreshing with a different snapshot
+ * drops the expressions of triggers that are no longer part of it and only compiles the ones that
+ * are new or changed. Compiled expressions are only read afterwards, so they can be shared between
+ * threads.
+ */
+@Slf4j
+public class CronExpressionCache {
+  private final CronJitterPolicy jitterPolicy;
+  private Object snapshot;
+  private TimeZone timeZone;
+  private volatile Map<Key, Compiled> compiled = Collections.emptyMap();
+
+  public CronExpressionCache() {
+    this(CronJitterPolicy.NONE);
+  }
+
+  public CronExpressionCache(CronJitterPolicy jitterPolicy) {
+    this.jitterPolicy = jitterPolicy;
+  }
+
+  /**
+   * @param snapshot the pipeline snapshot {@code triggers} were taken from, compared by identity
+   * @param triggers the triggers to compile
+   * @param timeZone the time zone expressions are evaluated in
+   */
+  public synchronized void refresh(
+      Object snapshot, Collection<Trigger> triggers, TimeZone timeZone) {
+    Map<Key, Compiled> previous = timeZone.equals(this.timeZone) ? compiled : Map.of();
+    Map<Key, Compiled> next =
+        (snapshot == this.snapshot) ? new HashMap<>(previous) : new HashMap<>(triggers.size());
+
+    for (Trigger trigger : triggers) {
+      Key key = Key.of(trigger);
+      Compiled expression = previous.get(key);
+      if (expression == null) {
+        expression = compile(trigger, timeZone, jitterPolicy);
+        if (expression.error != null) {
+          log.error(
+              "Error parsing cron expression ({}) for trigger {}",
+              trigger.getCronExpression(),
+              trigger.getId(),
+              expression.error);
+        }
+      }
+      next.put(key, expression);
+    }
+
+    this.snapshot = snapshot;
+    this.timeZone = timeZone;
+    this.compiled = next;
+  }
+
+  /**
+   * @return the compiled expression of {@code trigger}. Triggers that weren't part of the last
+   *     refresh are compiled on every call.
+   * @throws ParseException if the trigger's cron expression is invalid
+   */
+  public CronExpression get(Trigger trigger) throws ParseException {
+    Compiled expression = compiled.get(Key.of(trigger));
+    if (expression == null) {
+      expression = compile(trigger, timeZone, jitterPolicy);
+    }
+
+    if (expression.error != null) {
+      throw expression.error;
+    }
+    return expression.expression;
+  }
+
+  public int size() {
+    return compiled.size();
+  }
+
+  private static Compiled compile(
+      Trigger trigger, TimeZone timeZone, CronJitterPolicy jitterPolicy) {
+    try {
+      CronExpression expression = new CronExpression(jitterPolicy.resolve(trigger));
+      if (timeZone != null) {
+        expression.setTimeZone(timeZone);
+      }
+      return new Compiled(expression, null);
+    } catch (ParseException e) {
+      return new Compiled(null, e);
+    } catch (RuntimeException e) {
+      // the fuzzer doesn't validate expressions before tokenizing them
+      ParseException parseException = new ParseException(String.valueOf(e.getMessage()), 0);
+      parseException.initCause(e);
+      return new Compiled(null, parseException);
+    }
+  }
+
+  @Value
+  private static class Key {
+    String triggerId;
+    String cronExpression;
+
+    static Key of(Trigger trigger) {
+      return new Key(trigger.getId(), Objects.toString(trigger.getCronExpression(), ""));
+    }
+  }
+
+  @Value
+  private static class Compiled {
+    CronExpression expression;
+    ParseException error;
+  }
+}
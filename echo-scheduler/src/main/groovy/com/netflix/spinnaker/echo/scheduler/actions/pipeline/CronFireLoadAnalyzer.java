@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline;
+
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy;
+import com.netflix.spinnaker.echo.model.Pipeline;
+import com.netflix.spinnaker.echo.model.Trigger;
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.quartz.CronExpression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes how many cron triggers fire in each second of a window, from the current pipeline
+ * triggers and {@link CronJitterPolicy}, to see how spiky the cron load is and how much auto jitter
+ * flattens it.
+ */
+@Component
+@ConditionalOnExpression("${scheduler.enabled:false}")
+public class CronFireLoadAnalyzer {
+  /** Upper bound of the analyzed window, so that a request can't walk cron expressions for days. */
+  public static final Duration MAX_WINDOW = Duration.ofHours(6);
+
+  private final PipelineCache pipelineCache;
+  private final CronJitterPolicy jitterPolicy;
+  private final TimeZone timeZone;
+  private final Clock clock;
+
+  @Autowired
+  public CronFireLoadAnalyzer(
+      PipelineCache pipelineCache,
+      CronJitterPolicy jitterPolicy,
+      @Value("${scheduler.cron.timezone:America/Los_Angeles}") String timeZoneId) {
+    this(pipelineCache, jitterPolicy, TimeZone.getTimeZone(timeZoneId), Clock.systemUTC());
+  }
+
+  public CronFireLoadAnalyzer(
+      PipelineCache pipelineCache, CronJitterPolicy jitterPolicy, TimeZone timeZone, Clock clock) {
+    this.pipelineCache = pipelineCache;
+    this.jitterPolicy = jitterPolicy;
+    this.timeZone = timeZone;
+    this.clock = clock;
+  }
+
+  /**
+   * Analyzes the {@code window} starting at the next full hour, which is where most of the load
+   * lands.
+   *
+   * @param top number of busiest seconds to report
+   */
+  public FireLoad analyze(Duration window, int top) throws TimeoutException {
+    Instant from = clock.instant().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+    return analyze(from, window, top);
+  }
+
+  public FireLoad analyze(Instant from, Duration window, int top) throws TimeoutException {
+    if (window.isNegative() || window.isZero() || window.compareTo(MAX_WINDOW) > 0) {
+      throw new IllegalArgumentException("window must be positive and at most " + MAX_WINDOW);
+    }
+
+    List<Pipeline> pipelines = pipelineCache.getPipelinesSync();
+    Collection<Trigger> triggers =
+        new TriggerRepository(
+                pipelines.stream()
+                    .filter(p -> !p.isDisabled() && p.getTriggers() != null)
+                    .collect(Collectors.toList()))
+            .triggers();
+
+    Instant to = from.plus(window);
+    Map<Long, Integer> firesPerSecond = countFires(triggers, jitterPolicy, from, to);
+    Map<Long, Integer> unjitteredFiresPerSecond =
+        jitterPolicy.isEnabled()
+            ? countFires(triggers, CronJitterPolicy.NONE, from, to)
+            : firesPerSecond;
+
+    int totalFires = firesPerSecond.values().stream().mapToInt(Integer::intValue).sum();
+    List<BusySecond> busiest =
+        firesPerSecond.entrySet().stream()
+            .sorted(
+                Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()))
+            .limit(Math.max(0, top))
+            .map(e -> new BusySecond(Instant.ofEpochSecond(e.getKey()), e.getValue()))
+            .collect(Collectors.toList());
+
+    return new FireLoad(
+        from,
+        to,
+        triggers.size(),
+        jitterPolicy.isEnabled(),
+        totalFires,
+        firesPerSecond.size(),
+        max(firesPerSecond),
+        max(unjitteredFiresPerSecond),
+        histogram(firesPerSecond),
+        busiest);
+  }
+
+  private Map<Long, Integer> countFires(
+      Collection<Trigger> triggers, CronJitterPolicy policy, Instant from, Instant to) {
+    CronExpressionCache cronExpressions = new CronExpressionCache(policy);
+    cronExpressions.refresh(triggers, triggers, timeZone);
+    Date end = Date.from(to);
+
+    Map<Long, Integer> firesPerSecond = new HashMap<>();
+    for (Trigger trigger : triggers) {
+      CronExpression expression;
+      try {
+        expression = cronExpressions.get(trigger);
+      } catch (ParseException e) {
+        continue;
+      }
+
+      // getNextValidTimeAfter is exclusive, start a second early so that firings at the start of
+      // the window count
+      Date next = expression.getNextValidTimeAfter(Date.from(from.minusSeconds(1)));
+      while (next != null && next.before(end)) {
+        firesPerSecond.merge(next.getTime() / 1000, 1, Integer::sum);
+        next = expression.getNextValidTimeAfter(next);
+      }
+    }
+    return firesPerSecond;
+  }
+
+  private static int max(Map<Long, Integer> firesPerSecond) {
+    return firesPerSecond.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+  }
+
+  /**
+   * @return number of seconds by fires per second, in power of two buckets ("1", "2-3", "4-7", ...)
+   */
+  private static Map<String, Integer> histogram(Map<Long, Integer> firesPerSecond) {
+    int[] counts = new int[32];
+    firesPerSecond.values().forEach(fires -> counts[31 - Integer.numberOfLeadingZeros(fires)]++);
+
+    int highest = counts.length - 1;
+    while (highest > 0 && counts[highest] == 0) {
+      highest--;
+    }
+
+    Map<String, Integer> histogram = new LinkedHashMap<>();
+    for (int i = 0; i <= highest && !firesPerSecond.isEmpty(); i++) {
+      int low = 1 << i;
+      int high = (low << 1) - 1;
+      histogram.put(low == high ? Integer.toString(low) : low + "-" + high, counts[i]);
+    }
+    return histogram;
+  }
+
+  @lombok.Value
+  public static class FireLoad {
+    Instant from;
+    Instant to;
+    int triggers;
+    boolean autoJitterEnabled;
+    int totalFires;
+    int secondsWithFires;
+    int maxFiresPerSecond;
+
+    /** What {@code maxFiresPerSecond} would be without auto jitter. */
+    int maxFiresPerSecondWithoutJitter;
+
+    /** Number of seconds of the window by how many triggers fire in them. */
+    Map<String, Integer> secondsByFiresPerSecond;
+
+    List<BusySecond> busiestSeconds;
+  }
+
+  @lombok.Value
+  public static class BusySecond {
+    Instant time;
+    int fires;
+  }
+}
@@ -17,8 +17,9 @@
 package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 
 import com.google.common.collect.Lists
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.spectator.api.Registry
-import com.netflix.spinnaker.echo.cron.CronExpressionFuzzer
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
@@ -42,7 +43,9 @@ import java.time.Duration
 import java.time.Instant
 import java.time.ZoneId
 import java.time.temporal.ChronoUnit
+import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
+import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 
@@ -57,6 +60,9 @@ import static net.logstash.logback.argument.StructuredArguments.kv
  * If enabled (`scheduler.compensationJob.enableRecurring`, default on), after the initial startup compensation job
  * has been performed, a recurring job will be started at a less aggressive poll cycle to ensure lost triggers are
  * re-scheduled.
+ *
+ * Execution history is fetched from orca in partitions of `scheduler.compensation-job.pipeline-fetch-size` pipelines,
+ * with up to `scheduler.compensation-job.fetch-concurrency` partitions in flight at once.
  */
 @ConditionalOnExpression('${scheduler.enabled:false} && ${scheduler.compensation-job.enabled:false}')
 @Component
@@ -70,7 +76,9 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
   final boolean enableRecurring
   final Duration recurringPollInterval
   final int pipelineFetchSize
+  final int fetchConcurrency
   final DateContext dateContext
+  final CronExpressionCache cronExpressions
 
   private Boolean running = false
 
@@ -85,24 +93,34 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
                                        @Value('${scheduler.cron.timezone:America/Los_Angeles}') String timeZoneId,
                                        @Value('${scheduler.compensation-job.enable-recurring:true}') boolean enableRecurring,
                                        @Value('${scheduler.compensation-job.recurring-poll-interval-ms:300000}') long recurringPollIntervalMs, // 5 min
-                                       @Value('${scheduler.compensation-job.pipeline-fetch-size:20}') int pipelineFetchSize) {
+                                       @Value('${scheduler.compensation-job.pipeline-fetch-size:20}') int pipelineFetchSize,
+                                       @Value('${scheduler.compensation-job.fetch-concurrency:4}') int fetchConcurrency,
+                                       CronJitterPolicy cronJitterPolicy) {
 
     this(pipelineCache, orcaService, pipelineInitiator, registry, quietPeriodIndicator, compensationWindowMs, compensationWindowToleranceMs, timeZoneId,
-      enableRecurring, recurringPollIntervalMs, pipelineFetchSize, null)
+      enableRecurring, recurringPollIntervalMs, pipelineFetchSize, fetchConcurrency, null, cronJitterPolicy)
   }
 
+  /**
+   * @param dateContext the trigger window, computed from {@code compensationWindowMs} and
+   *     {@code compensationWindowToleranceMs} when null
+   * @param cronJitterPolicy must be the policy triggers are scheduled with, see {@link CronJitterPolicy}
+   */
+  // VisibleForTesting
   MissedPipelineTriggerCompensationJob(PipelineCache pipelineCache,
                                        OrcaService orcaService,
                                        PipelineInitiator pipelineInitiator,
                                        Registry registry,
                                        QuietPeriodIndicator quietPeriodIndicator,
-                                       @Value('${scheduler.compensation-job.window-ms:600000}') long compensationWindowMs, // 10 min
-                                       @Value('${scheduler.compensation-job.tolerance-ms:30000}') long compensationWindowToleranceMs, // 30 seconds
-                                       @Value('${scheduler.cron.timezone:America/Los_Angeles}') String timeZoneId,
-                                       @Value('${scheduler.compensation-job.enable-recurring:true}') boolean enableRecurring,
-                                       @Value('${scheduler.compensation-job.recurring-poll-interval-ms:300000}') long recurringPollIntervalMs, // 5 min
-                                       @Value('${scheduler.compensation-job.pipeline-metch-size:20}') int pipelineFetchSize,
-                                       DateContext dateContext) {
+                                       long compensationWindowMs,
+                                       long compensationWindowToleranceMs,
+                                       String timeZoneId,
+                                       boolean enableRecurring,
+                                       long recurringPollIntervalMs,
+                                       int pipelineFetchSize,
+                                       int fetchConcurrency,
+                                       DateContext dateContext,
+                                       CronJitterPolicy cronJitterPolicy) {
     this.pipelineCache = pipelineCache
     this.orcaService = orcaService
     this.pipelineInitiator = pipelineInitiator
@@ -111,6 +129,8 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
     this.enableRecurring = enableRecurring
     this.recurringPollInterval = Duration.ofMillis(recurringPollIntervalMs)
     this.pipelineFetchSize = pipelineFetchSize
+    this.fetchConcurrency = Math.max(1, fetchConcurrency)
+    this.cronExpressions = new CronExpressionCache(cronJitterPolicy)
     this.dateContext = dateContext ?: DateContext.fromCompensationWindow(timeZoneId, compensationWindowMs, compensationWindowToleranceMs)
   }
 
@@ -157,45 +177,126 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
   }
 
   void triggerMissedExecutions(List<Pipeline> pipelines) {
+    long startTime = System.currentTimeMillis()
+    long phaseStart = startTime
+    List<Pipeline> snapshot = pipelines
     pipelines = pipelines.findAll { !it.disabled }
     List<Trigger> allEnabledCronTriggers = getEnabledCronTriggers(pipelines, quietPeriodIndicator.inQuietPeriod(System.currentTimeMillis()))
+    cronExpressions.refresh(snapshot, allEnabledCronTriggers, TimeZone.getTimeZone(dateContext.clock.zone))
+    recordPhaseTime("compile", phaseStart)
+    phaseStart = System.currentTimeMillis()
+
     List<Trigger> triggers = getWithValidTimeInWindow(allEnabledCronTriggers)
     List<String> ids = getPipelineConfigIds(pipelines, triggers)
 
+    Map<String, Pipeline> pipelinesByTriggerId = indexPipelinesByTriggerId(pipelines)
+    Map<String, List<Trigger>> triggersByPipelineId = [:]
+    triggers.each { trigger ->
+      Pipeline pipeline = pipelinesByTriggerId.get(trigger.id)
+      if (pipeline != null) {
+        triggersByPipelineId.computeIfAbsent(pipeline.id, { [] }).add(trigger)
+      }
+    }
+    recordPhaseTime("index", phaseStart)
+
+    List<List<String>> partitions = Lists.partition(ids, pipelineFetchSize)
     log.info("Checking ${ids.size()} pipelines with cron triggers in window (out of ${pipelines.size()} pipelines" +
-      " and ${allEnabledCronTriggers.size()} enabled cron triggers)")
-    long startTime = System.currentTimeMillis()
-    Lists.partition(ids, pipelineFetchSize).forEach { idsPartition ->
+      " and ${allEnabledCronTriggers.size()} enabled cron triggers) in ${partitions.size()} partitions")
+
+    if (partitions.size() <= 1 || fetchConcurrency == 1) {
+      partitions.each { checkPartition(it, pipelinesByTriggerId, triggersByPipelineId) }
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(fetchConcurrency, partitions.size()),
+        new ThreadFactoryBuilder().setNameFormat("compensation-job-%d").setDaemon(true).build())
       try {
-        onOrcaResponse(Retrofit2SyncCall.execute(orcaService.getLatestPipelineExecutions(idsPartition, 1)), pipelines, triggers)
-      } catch (Exception e) {
-        onOrcaError(e)
+        List<Future<?>> futures = partitions.collect { idsPartition ->
+          executor.submit({ checkPartition(idsPartition, pipelinesByTriggerId, triggersByPipelineId) } as Runnable)
+        }
+        futures.each { it.get() }
+      } finally {
+        executor.shutdownNow()
       }
     }
-    log.info("Done searching for cron trigger misfires in ${(System.currentTimeMillis() - startTime)/1000}s")
+
+    long elapsedMillis = System.currentTimeMillis() - startTime
+    registry.timer("triggers.compensation.duration").record(elapsedMillis, TimeUnit.MILLISECONDS)
+    log.info("Done searching for cron trigger misfires in ${elapsedMillis/1000}s")
+  }
+
+  /**
+   * Fetch the latest execution of each pipeline in {@code idsPartition} and start the ones that missed a trigger.
+   * Safe to call concurrently for distinct partitions.
+   */
+  private void checkPartition(List<String> idsPartition,
+                              Map<String, Pipeline> pipelinesByTriggerId,
+                              Map<String, List<Trigger>> triggersByPipelineId) {
+    boolean success = false
+    try {
+      long fetchStart = System.currentTimeMillis()
+      Collection<PipelineResponse> response = Retrofit2SyncCall.execute(orcaService.getLatestPipelineExecutions(idsPartition, 1))
+      recordPhaseTime("fetch", fetchStart)
+
+      long evaluateStart = System.currentTimeMillis()
+      List<Trigger> triggers = idsPartition.collectMany { triggersByPipelineId.get(it) ?: [] }
+      onOrcaResponse(response, pipelinesByTriggerId, triggers)
+      recordPhaseTime("evaluate", evaluateStart)
+      success = true
+    } catch (Exception e) {
+      onOrcaError(e)
+    } finally {
+      registry.counter("triggers.compensation.partitions", "success", Boolean.toString(success)).increment()
+      registry.counter("triggers.compensation.pipelines", "success", Boolean.toString(success)).increment(idsPartition.size())
+    }
+  }
+
+  private void recordPhaseTime(String phase, long startTime) {
+    registry.timer("triggers.compensation.phaseTime", "phase", phase)
+      .record(System.currentTimeMillis() - startTime, TimeUnit.MILLISECONDS)
   }
 
   private List<Trigger> getWithValidTimeInWindow(List<Trigger> triggers) {
-    return triggers.findAll({ trigger -> getLastValidTimeInWindow(trigger, dateContext) != null })
+    Date windowFloor = dateContext.triggerWindowFloor()
+    Date windowCeiling = dateContext.triggerWindowCeiling()
+    return triggers.findAll({ trigger ->
+      try {
+        return getLastValidTimeInWindow(cronExpressions.get(trigger), windowFloor, windowCeiling) != null
+      } catch (ParseException ignored) {
+        // already reported when the expression was compiled
+        return false
+      }
+    })
   }
 
-  private Date getLastExecutionOrNull(List<Date> executions) {
-    if (executions.isEmpty()) {
-      return null
+  /**
+   * @return the first pipeline declaring each trigger id
+   */
+  static Map<String, Pipeline> indexPipelinesByTriggerId(List<Pipeline> pipelines) {
+    Map<String, Pipeline> pipelinesByTriggerId = [:]
+    pipelines.each { pipeline ->
+      pipeline.triggers?.each { trigger ->
+        if (trigger?.id != null) {
+          pipelinesByTriggerId.putIfAbsent(trigger.id, pipeline)
+        }
+      }
     }
-
-    return executions.first()
+    return pipelinesByTriggerId
   }
 
-  void onOrcaResponse(Collection<PipelineResponse> response, List<Pipeline> pipelines, List<Trigger> triggers) {
+  /**
+   * @param response the latest executions of a set of pipelines
+   * @param pipelinesByTriggerId see {@link #indexPipelinesByTriggerId}
+   * @param triggers the triggers of the pipelines in {@code response}
+   */
+  void onOrcaResponse(Collection<PipelineResponse> response, Map<String, Pipeline> pipelinesByTriggerId, List<Trigger> triggers) {
+    Map<String, List<PipelineResponse>> executionsByPipelineId = (response ?: []).groupBy { it.pipelineConfigId }
+
     triggers.each { trigger ->
-      Pipeline pipeline = pipelines.find { it.triggers && it.triggers*.id.contains(trigger.id) }
-      List<Date> executions = response.findAll { it.pipelineConfigId == pipeline.id }.collect {
-        // A null value is valid; a pipeline that hasn't started won't get re-triggered.
-        it.startTime != null ? new Date(it.startTime) : null
-      }
+      Pipeline pipeline = pipelinesByTriggerId.get(trigger.id)
+      List<PipelineResponse> executions = executionsByPipelineId.get(pipeline.id)
 
-      def lastExecution = getLastExecutionOrNull(executions)
+      // A null start time is valid; a pipeline that hasn't started won't get re-triggered.
+      def lastExecution = (executions && executions.first().startTime != null) ? new Date(executions.first().startTime) : null
       if (lastExecution == null) {
         // a pipeline that has no executions could technically get retriggered (e.g. it missed its very first trigger)
         // but this should be a very rare occurrence, so as a safety measure let's bail
@@ -204,8 +305,7 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
       }
 
       try {
-        CronExpression expr = getCronExpression(trigger)
-        expr.timeZone = TimeZone.getTimeZone(dateContext.clock.zone)
+        CronExpression expr = cronExpressions.get(trigger)
 
         if (missedExecution(expr, lastExecution, dateContext.triggerWindowFloor(), dateContext.triggerWindowCeiling(), pipeline)) {
           pipelineInitiator.startPipeline(pipeline.withTrigger(trigger), PipelineInitiator.TriggerSource.COMPENSATION_SCHEDULER)
@@ -230,35 +330,43 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
       .findAll { Trigger it -> it && it.enabled && it.type == CRON.toString() }
   }
 
-  private static CronExpression getCronExpression(Trigger trigger) {
-    if (CronExpressionFuzzer.hasFuzzyExpression(trigger.cronExpression)) {
-      return new CronExpression(CronExpressionFuzzer.fuzz(trigger.id, trigger.cronExpression))
-    }
-    return new CronExpression(trigger.cronExpression)
-  }
-
-  private static Date getLastValidTimeInWindow(Trigger trigger, DateContext dateContext) {
-    return getLastValidTimeInWindow(
-      getCronExpression(trigger),
-      dateContext.triggerWindowFloor(),
-      dateContext.triggerWindowCeiling())
-  }
-
+  /**
+   * @return the first fire time of the last minute with fire times in (from..to], or null if there are none.
+   * Several fire times within the same minute are treated as one, so that e.g. a pipeline started on the first
+   * second of a minute isn't considered to have missed the following seconds.
+   */
   private static Date getLastValidTimeInWindow(CronExpression expr, Date from, Date to) {
-    Date valid = expr.getNextValidTimeAfter(from)
-    if (valid.after(to)) {
+    Date first = expr.getNextValidTimeAfter(from)
+    if (first == null || first.after(to)) {
       return null
     }
 
-    while (true) {
-      def truncatedAtMinute = valid.toInstant().truncatedTo(ChronoUnit.MINUTES).plusSeconds(60)
-      Date candidate = expr.getNextValidTimeAfter(Date.from(truncatedAtMinute))
-      if (candidate.after(to)) {
-        return valid
-      }
+    Date last = getLastValidTimeBefore(expr, first, to)
+    Date minuteStart = Date.from(last.toInstant().truncatedTo(ChronoUnit.MINUTES))
+    Date firstInMinute = expr.getNextValidTimeAfter(new Date(minuteStart.time - 1000))
+    return firstInMinute.after(from) ? firstInMinute : first
+  }
 
-      valid = candidate
+  /**
+   * Quartz can't compute previous fire times, so this bisects [first..to] with getNextValidTimeAfter (fire times have
+   * a one second resolution). That takes log2 of the window length in seconds probes, however often the expression fires.
+   *
+   * @param first a fire time that is not after {@code to}
+   * @return the last fire time that is not after {@code to}
+   */
+  private static Date getLastValidTimeBefore(CronExpression expr, Date first, Date to) {
+    long last = first.time
+    long upper = to.time
+    while (upper - last >= 1000) {
+      long mid = last + (upper - last).intdiv(2)
+      Date next = expr.getNextValidTimeAfter(new Date(mid))
+      if (next != null && !next.after(to)) {
+        last = next.time
+      } else {
+        upper = mid
+      }
     }
+    return new Date(last)
   }
 
   /**
@@ -291,8 +399,9 @@ class MissedPipelineTriggerCompensationJob implements ApplicationListener<Contex
   }
 
   static List<String> getPipelineConfigIds(List<Pipeline> pipelines, List<Trigger> cronTriggers) {
+    Set<Trigger> triggers = new HashSet<>(cronTriggers)
     pipelines.findAll { pipeline ->
-      !pipeline.disabled && cronTriggers.find { pipeline.triggers?.contains(it) }
+      !pipeline.disabled && pipeline.triggers?.any { triggers.contains(it) }
     }.collect { it.id }
   }
 
@@ -15,8 +15,11 @@ public class PipelineConfigPollingMetrics {
   private final Id removeFailCountId;
   private final Id failedUpdateCountId;
   private final Id addCountId;
+  private final Id updateCountId;
+  private final Id unchangedCountId;
   private final Id syncErrorId;
   private final Id syncTimeId;
+  private final Id syncPhaseTimeId;
 
   @Autowired
   public PipelineConfigPollingMetrics(Registry registry) {
@@ -26,8 +29,11 @@ public class PipelineConfigPollingMetrics {
     removeFailCountId = registry.createId("echo.triggers.sync.removeFailCount");
     failedUpdateCountId = registry.createId("echo.triggers.sync.failedUpdateCount");
     addCountId = registry.createId("echo.triggers.sync.addCount");
+    updateCountId = registry.createId("echo.triggers.sync.updateCount");
+    unchangedCountId = registry.createId("echo.triggers.sync.unchangedCount");
     syncErrorId = registry.createId("echo.triggers.sync.error");
     syncTimeId = registry.createId("echo.triggers.sync.executionTimeMillis");
+    syncPhaseTimeId = registry.createId("echo.triggers.sync.phaseTimeMillis");
   }
 
   public void triggerCount(int count) {
@@ -54,7 +60,24 @@ public class PipelineConfigPollingMetrics {
     registry.gauge(addCountId).set(count);
   }
 
+  public void updateCount(int count) {
+    registry.gauge(updateCountId).set(count);
+  }
+
+  public void unchangedCount(int count) {
+    registry.gauge(unchangedCountId).set(count);
+  }
+
   public void recordSyncTime(long elapsedMillis) {
     registry.timer(syncTimeId).record(elapsedMillis, TimeUnit.MILLISECONDS);
   }
+
+  /**
+   * @param phase one of load, diff or apply
+   */
+  public void recordSyncPhaseTime(String phase, long elapsedMillis) {
+    registry
+        .timer(syncPhaseTimeId.withTag("phase", phase))
+        .record(elapsedMillis, TimeUnit.MILLISECONDS);
+  }
 }
@@ -16,23 +16,30 @@
 
 package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 
+import com.google.common.collect.Lists
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
 import groovy.util.logging.Slf4j
-import org.quartz.CronTrigger
 import org.quartz.DisallowConcurrentExecution
 import org.quartz.Job
+import org.quartz.JobDetail
 import org.quartz.JobExecutionContext
+import org.quartz.JobKey
 import org.quartz.Scheduler
 import org.quartz.SchedulerException
 import org.quartz.TriggerKey
-import org.quartz.impl.matchers.GroupMatcher
 import org.quartz.spi.OperableTrigger
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.stereotype.Component
 
 /**
- * Syncs triggers from pipelines with the triggers in the scheduler
+ * Syncs triggers from pipelines with the triggers in the scheduler.
+ *
+ * The triggers currently in the scheduler are loaded in bulk along with their fingerprints (see
+ * {@link TriggerConverter#fingerprint}), diffed in memory against the pipeline triggers, and only the
+ * resulting inserts, updates and deletes are written back, in batches.
  */
 @Slf4j
 @Component
@@ -44,11 +51,25 @@ class PipelineConfigsPollingJob implements Job {
   private Scheduler scheduler
   private PipelineConfigPollingMetrics metrics
   private PipelineCache pipelineCache
+  private QuartzTriggerStateReader triggerStateReader
+  private CronJitterPolicy jitterPolicy
+  private int batchSize
 
-  @Autowired
   PipelineConfigsPollingJob(PipelineConfigPollingMetrics metrics, PipelineCache pipelineCache) {
+    this(metrics, pipelineCache, new QuartzTriggerStateReader(Optional.empty(), "QRTZ_"), CronJitterPolicy.NONE, 500)
+  }
+
+  @Autowired
+  PipelineConfigsPollingJob(PipelineConfigPollingMetrics metrics,
+                            PipelineCache pipelineCache,
+                            QuartzTriggerStateReader triggerStateReader,
+                            CronJitterPolicy jitterPolicy,
+                            @Value('${scheduler.pipeline-configs-poller.batch-size:500}') int batchSize) {
     this.pipelineCache = pipelineCache
     this.metrics = metrics
+    this.triggerStateReader = triggerStateReader
+    this.jitterPolicy = jitterPolicy
+    this.batchSize = Math.max(1, batchSize)
   }
 
   void execute(JobExecutionContext context) {
@@ -69,8 +90,7 @@ class PipelineConfigsPollingJob implements Job {
 
       log.debug("Found ${pipelineTriggers.triggers().size()} pipeline CRON triggers that are active")
 
-      removeStaleTriggers(pipelineTriggers)
-      updateChangedTriggers(pipelineTriggers)
+      syncTriggers(pipelineTriggers)
 
       metrics.triggerCount(pipelineTriggers.triggers().size())
     } catch (Exception e) {
@@ -84,138 +104,147 @@ class PipelineConfigsPollingJob implements Job {
   }
 
   /**
-   * Remove all triggers no longer needed
-   * e.g. triggers that are still registered in our scheduler but no longer found on any pipeline
+   * Bring the scheduler in line with the active pipeline CRON triggers:
+   * create triggers for new pipeline triggers,
+   * update triggers whose fingerprint changed,
+   * remove triggers no longer found on any pipeline (or that became invalid)
    * @param pipelineTriggers all active pipeline CRON triggers
    */
-  void removeStaleTriggers(TriggerRepository pipelineTriggers) {
-    int removeCount = 0
-    int failCount = 0
+  void syncTriggers(TriggerRepository pipelineTriggers) {
+    long phaseStart = System.currentTimeMillis()
+    Map<TriggerKey, String> existingFingerprints = triggerStateReader.readFingerprints(scheduler)
+    metrics.recordSyncPhaseTime("load", System.currentTimeMillis() - phaseStart)
+
+    phaseStart = System.currentTimeMillis()
+    List<org.quartz.Trigger> toAdd = []
+    List<org.quartz.Trigger> toUpdate = []
+    List<TriggerKey> toRemove = []
+    Set<TriggerKey> activeKeys = new HashSet<>()
+    int unchangedCount = 0
+
+    pipelineTriggers.triggers().each { pipelineTrigger ->
+      TriggerKey triggerKey = TriggerKey.triggerKey(pipelineTrigger.id, PIPELINE_TRIGGER_GROUP_PREFIX + pipelineTrigger.parent.id)
+      activeKeys.add(triggerKey)
+
+      boolean exists = existingFingerprints.containsKey(triggerKey)
+      if (exists && existingFingerprints.get(triggerKey) == TriggerConverter.fingerprint(pipelineTrigger, timeZoneId, jitterPolicy)) {
+        unchangedCount++
+        return
+      }
 
-    try {
-      Set<TriggerKey> triggerKeys = scheduler.getTriggerKeys(
-        GroupMatcher.triggerGroupStartsWith(PIPELINE_TRIGGER_GROUP_PREFIX))
-
-      triggerKeys.each { triggerKey ->
-        if (pipelineTriggers.getTrigger(triggerKey.name) == null) {
-          try {
-            scheduler.unscheduleJob(triggerKey)
-            removeCount++
-          } catch (Exception e) {
-            log.error("Failed to unschedule job with triggerId: ${triggerKey.name}", e)
-            failCount++
-          }
-        }
+      org.quartz.Trigger trigger = buildTrigger(pipelineTrigger)
+      if (trigger != null) {
+        (exists ? toUpdate : toAdd).add(trigger)
+      } else if (exists) {
+        // the pipeline trigger is no longer valid, stop firing the old one
+        toRemove.add(triggerKey)
       }
     }
-    catch (Exception e) {
-      log.error("Failed during stale trigger removal", e)
-    }
 
-    if ((removeCount + failCount) > 0) {
-      log.debug("Removed $removeCount stale triggers successfully, $failCount removals failed")
+    existingFingerprints.keySet().each { triggerKey ->
+      if (!activeKeys.contains(triggerKey)) {
+        toRemove.add(triggerKey)
+      }
+    }
+    metrics.recordSyncPhaseTime("diff", System.currentTimeMillis() - phaseStart)
+
+    phaseStart = System.currentTimeMillis()
+    int removeFailCount = removeTriggers(toRemove)
+    int addFailCount = storeTriggers(toAdd)
+    int updateFailCount = storeTriggers(toUpdate)
+    metrics.recordSyncPhaseTime("apply", System.currentTimeMillis() - phaseStart)
+
+    int addCount = toAdd.size() - addFailCount
+    int updateCount = toUpdate.size() - updateFailCount
+    int removeCount = toRemove.size() - removeFailCount
+    int failCount = addFailCount + updateFailCount
+
+    if ((addCount + updateCount + removeCount + failCount + removeFailCount) > 0) {
+      log.debug("Added $addCount new triggers, updated $updateCount existing triggers, removed $removeCount triggers, " +
+        "$unchangedCount unchanged, ${failCount + removeFailCount} failed")
     }
 
     metrics.removeCount(removeCount)
-    metrics.failedRemoveCount(failCount)
+    metrics.failedRemoveCount(removeFailCount)
+    metrics.failedUpdateCount(failCount)
+    metrics.addCount(addCount)
+    metrics.updateCount(updateCount)
+    metrics.unchangedCount(unchangedCount)
   }
 
   /**
-   * Update triggers: Compare triggers in the system with those of the parsed pipelines
-   * create triggers for new pipeline triggers
-   * update triggers that have changed
-   * @param pipelineTriggers all active pipeline CRON triggers
+   * Unschedule triggers in batches, one job store transaction per batch.
+   * @return the number of triggers that failed to be removed
    */
-  void updateChangedTriggers(TriggerRepository pipelineTriggers) {
-    int addCount = 0
-    int updateCount = 0
+  private int removeTriggers(List<TriggerKey> triggerKeys) {
     int failCount = 0
-
-    try {
-      pipelineTriggers.triggers().each { pipelineTrigger ->
-        CronTrigger trigger = scheduler.getTrigger(
-          TriggerKey.triggerKey(pipelineTrigger.id, PIPELINE_TRIGGER_GROUP_PREFIX + pipelineTrigger.parent.id)
-        ) as CronTrigger
-
-        if (trigger == null) {
-          try {
-            if (storeTrigger(pipelineTrigger)) {
-              addCount++
-            }
-          } catch (Exception e) {
-            log.error("Failed to create a new trigger: id: ${pipelineTrigger.id} for pipeline: ${pipelineTrigger.parent.id} " +
-              "with CRON expression '${pipelineTrigger.cronExpression}'", e)
-            failCount++
-          }
-        } else {
-          if (!TriggerConverter.isInSync(trigger, pipelineTrigger, timeZoneId)) {
-            try {
-              if (storeTrigger(pipelineTrigger, trigger.getKey())) {
-                updateCount++
-              } else {
-                scheduler.unscheduleJob(trigger.getKey())
-              }
-            } catch (Exception e) {
-              log.error("Failed to update an existing trigger: id: ${pipelineTrigger.id} for pipeline: ${pipelineTrigger.parent.id} " +
-                "with CRON expression '${pipelineTrigger.cronExpression}'", e)
-              failCount++
-              }
-          }
-        }
+    Lists.partition(triggerKeys, batchSize).each { batch ->
+      try {
+        scheduler.unscheduleJobs(batch)
+      } catch (Exception e) {
+        log.error("Failed to unschedule ${batch.size()} triggers", e)
+        failCount += batch.size()
       }
-    } catch (Exception e) {
-      log.error("Failed to upsert a trigger", e)
     }
+    return failCount
+  }
 
-    if ((addCount + updateCount + failCount) > 0) {
-      log.debug("Added $addCount new triggers, updated $updateCount existing triggers, $failCount failed")
+  /**
+   * Store (insert or replace) triggers in batches, one job store transaction per batch.
+   * @return the number of triggers that failed to be stored
+   */
+  private int storeTriggers(List<org.quartz.Trigger> triggers) {
+    if (triggers.isEmpty()) {
+      return 0
     }
 
-    metrics.failedUpdateCount(failCount)
-    metrics.addCount(addCount)
-  }
+    JobDetail jobDetail = scheduler.getJobDetail(JobKey.jobKey(TriggerConverter.JOB_ID))
+    if (jobDetail == null) {
+      log.error("Job '${TriggerConverter.JOB_ID}' is not registered, unable to store ${triggers.size()} triggers")
+      return triggers.size()
+    }
 
-  boolean storeTrigger(Trigger pipelineTrigger) {
-    return storeTrigger(pipelineTrigger, null)
+    int failCount = 0
+    Lists.partition(triggers, batchSize).each { batch ->
+      try {
+        scheduler.scheduleJobs([(jobDetail): new HashSet<>(batch)] as Map<JobDetail, Set<? extends org.quartz.Trigger>>, true)
+      } catch (Exception e) {
+        log.error("Failed to store ${batch.size()} triggers", e)
+        failCount += batch.size()
+      }
+    }
+    return failCount
   }
 
   /**
-   * Register a new (or re-register existing) scheduler trigger given a pipeline trigger
-   * @param pipelineTrigger
+   * Build the scheduler trigger for a pipeline trigger
+   * @return null if the pipeline trigger is invalid or will never fire
    */
-  boolean storeTrigger(Trigger pipelineTrigger, TriggerKey triggerKey) {
+  private org.quartz.Trigger buildTrigger(Trigger pipelineTrigger) {
     org.quartz.Trigger trigger
 
     try {
-      trigger = TriggerConverter.toQuartzTrigger(pipelineTrigger, timeZoneId)
+      trigger = TriggerConverter.toQuartzTrigger(pipelineTrigger, timeZoneId, jitterPolicy)
     } catch (InvalidCronExpressionException e) {
       log.warn("Failed to create a new trigger: id: ${pipelineTrigger.id} for pipeline: ${pipelineTrigger.parent.application}:${pipelineTrigger.parent.name} (${pipelineTrigger.parent.id}). " +
         "The CRON expression '${pipelineTrigger.cronExpression}' is not valid", e)
 
-      return false
+      return null
     }
 
     // It's possible the user has created a trigger that will never fire (e.g. a trigger in the past)
     // That's ok, just don't even bother creating it
     try {
-      boolean willTriggerFire = willTriggerFire(trigger)
-
-      if (!willTriggerFire) {
+      if (!willTriggerFire(trigger)) {
         throw new SchedulerException("Trigger is in the past")
       }
     } catch (SchedulerException e) {
       log.warn("Failed to create a new trigger: id: ${pipelineTrigger.id} for pipeline: ${pipelineTrigger.parent.application}:${pipelineTrigger.parent.name} (${pipelineTrigger.parent.id}). " +
         "The CRON expression '${pipelineTrigger.cronExpression}' will never fire", e)
-      return false
+      return null
     }
 
-    // Any exceptions in this call should trickle up as they represent a serious issue
-    if (triggerKey != null) {
-      scheduler.rescheduleJob(triggerKey, trigger)
-    } else {
-      scheduler.scheduleJob(trigger)
-    }
-    return true
+    return trigger
   }
 
   /**
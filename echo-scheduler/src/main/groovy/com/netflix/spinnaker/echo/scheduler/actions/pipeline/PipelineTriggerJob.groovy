@@ -19,6 +19,7 @@ package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
 import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker
 import org.quartz.Job
 import org.quartz.JobExecutionContext
 import org.quartz.JobExecutionException
@@ -36,15 +37,18 @@ class PipelineTriggerJob implements Job {
 
   PipelineInitiator pipelineInitiator
   PipelineCache pipelineCache
+  TriggerLatencyTracker latencyTracker
 
   @Autowired
-  PipelineTriggerJob(PipelineInitiator pipelineInitiator, PipelineCache pipelineCache) {
+  PipelineTriggerJob(PipelineInitiator pipelineInitiator, PipelineCache pipelineCache, TriggerLatencyTracker latencyTracker) {
     this.pipelineInitiator = pipelineInitiator
     this.pipelineCache = pipelineCache
+    this.latencyTracker = latencyTracker
   }
 
   @Override
   void execute(JobExecutionContext context) throws JobExecutionException {
+    long jobStartedAt = System.currentTimeMillis()
     Pipeline pipeline = null
 
     try {
@@ -52,7 +56,13 @@ class PipelineTriggerJob implements Job {
       def eventId = pipeline.trigger.eventId ? pipeline.trigger.eventId : "not set"
 
       LOGGER.info("Executing PipelineTriggerJob for '${pipeline}', eventId='${eventId}', triggerId='${context.trigger.key.name}'")
-      pipelineInitiator.startPipeline(pipeline, PipelineInitiator.TriggerSource.CRON_SCHEDULER)
+      def triggerSource = PipelineInitiator.TriggerSource.CRON_SCHEDULER
+      Date scheduledFireTime = context.scheduledFireTime
+      if (scheduledFireTime != null) {
+        latencyTracker.record(TriggerLatencyTracker.Stage.SCHEDULED_TO_JOB_START, triggerSource, pipeline, jobStartedAt - scheduledFireTime.time)
+      }
+      latencyTracker.record(TriggerLatencyTracker.Stage.JOB_START_TO_TRIGGER, triggerSource, pipeline, System.currentTimeMillis() - jobStartedAt)
+      pipelineInitiator.startPipeline(pipeline, triggerSource, scheduledFireTime?.toInstant())
     } catch (Exception e) {
       LOGGER.error("Exception occurred while executing PipelineTriggerJob for ${pipeline}", e)
       throw new JobExecutionException(e)
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.CronTrigger;
+import org.quartz.JobDataMap;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.impl.matchers.StringMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the fingerprints (see {@link TriggerConverter#fingerprint}) of all pipeline triggers
+ * currently registered with the scheduler, or the cron triggers of a set of trigger groups.
+ *
+ * <p>With a persistent (SQL) job store this is a single query against the triggers table rather
+ * than one {@link Scheduler#getTrigger} round-trip per trigger. Other job stores are in memory, so
+ * they are read through the scheduler API.
+ */
+@Slf4j
+@Component
+public class QuartzTriggerStateReader {
+  /** Escapes wildcards in {@code LIKE} patterns, a backslash would need escaping in MySQL. */
+  private static final String LIKE_ESCAPE = "!";
+
+  private final DataSource dataSource;
+  private final String tablePrefix;
+
+  @Autowired
+  public QuartzTriggerStateReader(
+      Optional<DataSource> dataSource,
+      @Value("${spring.quartz.properties.org.quartz.jobStore.tablePrefix:QRTZ_}")
+          String tablePrefix) {
+    this.dataSource = dataSource.orElse(null);
+    this.tablePrefix = tablePrefix;
+  }
+
+  /**
+   * @return the fingerprint of every trigger in a pipeline trigger group, keyed by trigger key. The
+   *     value is null for triggers that were stored without a fingerprint.
+   */
+  public Map<TriggerKey, String> readFingerprints(Scheduler scheduler) throws SchedulerException {
+    if (dataSource != null && scheduler.getMetaData().isJobStoreSupportsPersistence()) {
+      try {
+        return readFromJobStore(scheduler.getSchedulerName());
+      } catch (SQLException e) {
+        log.warn("Failed to bulk load pipeline triggers, falling back to the scheduler api", e);
+      }
+    }
+
+    return readFromScheduler(scheduler);
+  }
+
+  private Map<TriggerKey, String> readFromJobStore(String schedulerName) throws SQLException {
+    String sql =
+        "SELECT TRIGGER_NAME, TRIGGER_GROUP, DESCRIPTION FROM "
+            + tablePrefix
+            + "TRIGGERS WHERE SCHED_NAME = ? AND TRIGGER_GROUP LIKE ? ESCAPE '"
+            + LIKE_ESCAPE
+            + "'";
+
+    Map<TriggerKey, String> fingerprints = new HashMap<>();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, schedulerName);
+      statement.setString(2, likePrefix(PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX));
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          fingerprints.put(
+              TriggerKey.triggerKey(resultSet.getString(1), resultSet.getString(2)),
+              resultSet.getString(3));
+        }
+      }
+    }
+
+    return fingerprints;
+  }
+
+  private static Map<TriggerKey, String> readFromScheduler(Scheduler scheduler)
+      throws SchedulerException {
+    Set<TriggerKey> triggerKeys =
+        scheduler.getTriggerKeys(
+            GroupMatcher.triggerGroupStartsWith(
+                PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX));
+
+    Map<TriggerKey, String> fingerprints = new HashMap<>();
+    for (TriggerKey triggerKey : triggerKeys) {
+      Trigger trigger = scheduler.getTrigger(triggerKey);
+      if (trigger != null) {
+        fingerprints.put(triggerKey, trigger.getDescription());
+      }
+    }
+
+    return fingerprints;
+  }
+
+  /**
+   * @param groupMatcher the trigger groups to read, only {@code EQUALS} and {@code STARTS_WITH}
+   *     matchers are read in bulk
+   * @return the cron triggers of the matching groups, in no particular order
+   */
+  public List<CronTriggerState> readCronTriggers(
+      Scheduler scheduler, GroupMatcher<TriggerKey> groupMatcher) throws SchedulerException {
+    if (dataSource != null
+        && isBulkReadable(groupMatcher)
+        && scheduler.getMetaData().isJobStoreSupportsPersistence()) {
+      try {
+        return readCronTriggersFromJobStore(scheduler.getSchedulerName(), groupMatcher);
+      } catch (SQLException | IOException | ClassNotFoundException e) {
+        log.warn("Failed to bulk load cron triggers, falling back to the scheduler api", e);
+      }
+    }
+
+    List<CronTriggerState> triggers = new ArrayList<>();
+    for (TriggerKey triggerKey : scheduler.getTriggerKeys(groupMatcher)) {
+      Trigger trigger = scheduler.getTrigger(triggerKey);
+      if (trigger instanceof CronTrigger) {
+        CronTrigger cronTrigger = (CronTrigger) trigger;
+        triggers.add(
+            new CronTriggerState(
+                triggerKey,
+                cronTrigger.getCronExpression(),
+                cronTrigger.getTimeZone().getID(),
+                cronTrigger.getJobDataMap()));
+      }
+    }
+
+    return triggers;
+  }
+
+  /**
+   * @param groupMatcher the trigger groups to read, only {@code EQUALS} and {@code STARTS_WITH}
+   *     matchers are paged by the job store
+   * @return up to {@code limit} cron triggers of the matching groups, sorted by key and skipping
+   *     the first {@code offset}
+   */
+  public CronTriggerPage readCronTriggers(
+      Scheduler scheduler, GroupMatcher<TriggerKey> groupMatcher, long offset, int limit)
+      throws SchedulerException {
+    if (dataSource != null
+        && isBulkReadable(groupMatcher)
+        && scheduler.getMetaData().isJobStoreSupportsPersistence()) {
+      try {
+        return readCronTriggerPageFromJobStore(
+            scheduler.getSchedulerName(), groupMatcher, offset, limit);
+      } catch (SQLException | IOException | ClassNotFoundException e) {
+        log.warn("Failed to page cron triggers, falling back to the scheduler api", e);
+      }
+    }
+
+    List<CronTriggerState> triggers = new ArrayList<>(readCronTriggers(scheduler, groupMatcher));
+    triggers.sort(Comparator.comparing(CronTriggerState::getKey));
+    if (offset >= triggers.size()) {
+      return new CronTriggerPage(List.of(), triggers.size());
+    }
+    return new CronTriggerPage(
+        triggers.subList((int) offset, (int) Math.min(triggers.size(), offset + limit)),
+        triggers.size());
+  }
+
+  private List<CronTriggerState> readCronTriggersFromJobStore(
+      String schedulerName, GroupMatcher<TriggerKey> groupMatcher)
+      throws SQLException, IOException, ClassNotFoundException {
+    String sql =
+        "SELECT t.TRIGGER_NAME, t.TRIGGER_GROUP, t.JOB_DATA, c.CRON_EXPRESSION, c.TIME_ZONE_ID"
+            + cronTriggersMatching(groupMatcher);
+
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, schedulerName);
+      statement.setString(2, groupParameter(groupMatcher));
+
+      return readCronTriggerStates(statement);
+    }
+  }
+
+  private CronTriggerPage readCronTriggerPageFromJobStore(
+      String schedulerName, GroupMatcher<TriggerKey> groupMatcher, long offset, int limit)
+      throws SQLException, IOException, ClassNotFoundException {
+    String countSql = "SELECT COUNT(*)" + cronTriggersMatching(groupMatcher);
+    String pageSql =
+        "SELECT t.TRIGGER_NAME, t.TRIGGER_GROUP, t.JOB_DATA, c.CRON_EXPRESSION, c.TIME_ZONE_ID"
+            + cronTriggersMatching(groupMatcher)
+            + " ORDER BY t.TRIGGER_GROUP, t.TRIGGER_NAME LIMIT ? OFFSET ?";
+
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement countStatement = connection.prepareStatement(countSql);
+        PreparedStatement pageStatement = connection.prepareStatement(pageSql)) {
+      countStatement.setString(1, schedulerName);
+      countStatement.setString(2, groupParameter(groupMatcher));
+      int total;
+      try (ResultSet resultSet = countStatement.executeQuery()) {
+        resultSet.next();
+        total = resultSet.getInt(1);
+      }
+
+      if (offset >= total) {
+        return new CronTriggerPage(List.of(), total);
+      }
+
+      pageStatement.setString(1, schedulerName);
+      pageStatement.setString(2, groupParameter(groupMatcher));
+      pageStatement.setInt(3, limit);
+      pageStatement.setLong(4, offset);
+      return new CronTriggerPage(readCronTriggerStates(pageStatement), total);
+    }
+  }
+
+  private String cronTriggersMatching(GroupMatcher<TriggerKey> groupMatcher) {
+    return " FROM "
+        + tablePrefix
+        + "TRIGGERS t JOIN "
+        + tablePrefix
+        + "CRON_TRIGGERS c ON c.SCHED_NAME = t.SCHED_NAME AND c.TRIGGER_NAME = t.TRIGGER_NAME"
+        + " AND c.TRIGGER_GROUP = t.TRIGGER_GROUP WHERE t.SCHED_NAME = ? AND t.TRIGGER_GROUP "
+        + (isEquals(groupMatcher) ? "= ?" : "LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+  }
+
+  private static String groupParameter(GroupMatcher<TriggerKey> groupMatcher) {
+    return isEquals(groupMatcher)
+        ? groupMatcher.getCompareToValue()
+        : likePrefix(groupMatcher.getCompareToValue());
+  }
+
+  private static List<CronTriggerState> readCronTriggerStates(PreparedStatement statement)
+      throws SQLException, IOException, ClassNotFoundException {
+    List<CronTriggerState> triggers = new ArrayList<>();
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        triggers.add(
+            new CronTriggerState(
+                TriggerKey.triggerKey(resultSet.getString(1), resultSet.getString(2)),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                readJobData(resultSet.getBytes(3))));
+      }
+    }
+    return triggers;
+  }
+
+  private static boolean isBulkReadable(GroupMatcher<TriggerKey> groupMatcher) {
+    StringMatcher.StringOperatorName operator = groupMatcher.getCompareWithOperator();
+    return operator == StringMatcher.StringOperatorName.EQUALS
+        || operator == StringMatcher.StringOperatorName.STARTS_WITH;
+  }
+
+  private static boolean isEquals(GroupMatcher<TriggerKey> groupMatcher) {
+    return groupMatcher.getCompareWithOperator() == StringMatcher.StringOperatorName.EQUALS;
+  }
+
+  /**
+   * @return a {@code LIKE} pattern matching values that start with {@code prefix}, wildcards in it
+   *     (such as the {@code _} of the pipeline trigger group prefix) match only themselves
+   */
+  static String likePrefix(String prefix) {
+    return prefix
+            .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+            .replace("%", LIKE_ESCAPE + "%")
+            .replace("_", LIKE_ESCAPE + "_")
+        + "%";
+  }
+
+  /** Job data is stored as a serialized {@link JobDataMap}, the same way quartz reads it. */
+  private static JobDataMap readJobData(byte[] blob) throws IOException, ClassNotFoundException {
+    if (blob == null || blob.length == 0) {
+      return new JobDataMap();
+    }
+
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(blob))) {
+      Object jobData = in.readObject();
+      return jobData instanceof Map ? new JobDataMap((Map<?, ?>) jobData) : new JobDataMap();
+    }
+  }
+
+  /** A cron trigger as stored by the scheduler. */
+  @lombok.Value
+  public static class CronTriggerState {
+    TriggerKey key;
+    String cronExpression;
+    String timeZoneId;
+    JobDataMap jobData;
+  }
+
+  /** A page of cron triggers. */
+  @lombok.Value
+  public static class CronTriggerPage {
+    List<CronTriggerState> triggers;
+
+    /** The number of triggers on all pages. */
+    int total;
+  }
+}
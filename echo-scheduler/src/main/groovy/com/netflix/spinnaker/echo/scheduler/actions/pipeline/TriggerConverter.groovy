@@ -16,14 +16,17 @@
 
 package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 
-import com.netflix.spinnaker.echo.cron.CronExpressionFuzzer
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.google.common.hash.Hashing
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
 import org.quartz.CronExpression
-import org.quartz.CronTrigger
 import org.quartz.JobDataMap
 
+import java.nio.charset.StandardCharsets
 import java.text.ParseException
 
 import static org.quartz.CronScheduleBuilder.cronSchedule
@@ -32,6 +35,15 @@ import static org.quartz.TriggerBuilder.newTrigger
 class TriggerConverter {
   public static final String JOB_ID = "Pipeline Trigger"
 
+  /**
+   * Prefix of the fingerprint stored as the quartz trigger's description, bump it whenever the
+   * fingerprinted fields change so that all triggers are re-synced once.
+   */
+  public static final String FINGERPRINT_PREFIX = "fp1:"
+
+  private static final ObjectMapper FINGERPRINT_MAPPER = new ObjectMapper()
+    .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+
   static Map<String, Object> toParamMap(Trigger trigger, String timeZoneId) {
     def params = [
       id                   : trigger.parent.id,
@@ -53,11 +65,18 @@ class TriggerConverter {
   }
 
   static org.quartz.Trigger toQuartzTrigger(Trigger pipelineTrigger, TimeZone timeZoneId) {
+    return toQuartzTrigger(pipelineTrigger, timeZoneId, CronJitterPolicy.NONE)
+  }
+
+  /**
+   * @param jitterPolicy resolves the expression the trigger is scheduled with
+   */
+  static org.quartz.Trigger toQuartzTrigger(Trigger pipelineTrigger, TimeZone timeZoneId, CronJitterPolicy jitterPolicy) {
     if (pipelineTrigger.cronExpression == null) {
       throw new InvalidCronExpressionException("null", "cron expression can't be null")
     }
 
-    String cronExpression = CronExpressionFuzzer.fuzz(pipelineTrigger.id, pipelineTrigger.cronExpression)
+    String cronExpression = jitterPolicy.resolve(pipelineTrigger)
 
     try {
       new CronExpression(cronExpression)
@@ -71,6 +90,7 @@ class TriggerConverter {
         .inTimeZone(timeZoneId)
         .withMisfireHandlingInstructionDoNothing())
       .usingJobData(new JobDataMap(toParamMap(pipelineTrigger, timeZoneId.getID())))
+      .withDescription(fingerprint(pipelineTrigger, timeZoneId, jitterPolicy))
       .forJob(JOB_ID)
       .build()
 
@@ -83,6 +103,15 @@ class TriggerConverter {
       throw new IllegalStateException("No pipeline found (id: ${parameters.id})")
     }
 
+    return toPipeline(existingPipeline, parameters)
+  }
+
+  /**
+   * @param existingPipeline the pipeline the trigger belongs to
+   * @param parameters see {@link #toParamMap}
+   * @return {@code existingPipeline} with a cron trigger built from {@code parameters}
+   */
+  static Pipeline toPipeline(Pipeline existingPipeline, Map<String, Object> parameters) {
     def triggerBuilder = Trigger
       .builder()
       .enabled(Boolean.parseBoolean(parameters.triggerEnabled as String))
@@ -100,12 +129,31 @@ class TriggerConverter {
     return existingPipeline.withTrigger(triggerBuilder.build())
   }
 
-  static boolean isInSync(CronTrigger trigger, Trigger pipelineTrigger, TimeZone timeZoneId) {
-    CronTrigger other = toQuartzTrigger(pipelineTrigger, timeZoneId) as CronTrigger
+  /**
+   * A stable digest of everything that ends up in the quartz trigger for {@code pipelineTrigger}
+   * (fuzzed or spread cron expression, time zone and job data).
+   *
+   * Stored as the description of the quartz trigger so that a sync can tell whether a trigger
+   * changed from a single bulk read, without loading or building any quartz triggers.
+   */
+  static String fingerprint(Trigger pipelineTrigger, TimeZone timeZoneId) {
+    return fingerprint(pipelineTrigger, timeZoneId, CronJitterPolicy.NONE)
+  }
+
+  static String fingerprint(Trigger pipelineTrigger, TimeZone timeZoneId, CronJitterPolicy jitterPolicy) {
+    String cronExpression = pipelineTrigger.cronExpression
+    try {
+      cronExpression = jitterPolicy.resolve(pipelineTrigger)
+    } catch (Exception ignored) {
+      // invalid expressions are rejected when the quartz trigger is built
+    }
+
+    String canonical = FINGERPRINT_MAPPER.writeValueAsString([
+      cronExpression: cronExpression,
+      timeZoneId    : timeZoneId.getID(),
+      jobData       : toParamMap(pipelineTrigger, timeZoneId.getID())
+    ])
 
-    return (trigger.cronExpression == other.cronExpression
-      && trigger.timeZone.hasSameRules(other.timeZone)
-      && trigger.jobDataMap.getString("runAsUser") == other.jobDataMap.getString("runAsUser")
-      && trigger.jobDataMap.getWrappedMap().triggerParameters == other.jobDataMap.getWrappedMap().triggerParameters)
+    return FINGERPRINT_PREFIX + Hashing.sha256().hashString(canonical, StandardCharsets.UTF_8).toString()
   }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Assigns keys to members by consistent hashing. Each member is placed on the ring at {@code
+ * virtualNodes} points, so keys spread evenly and a member joining or leaving only moves about
+ * {@code 1 / members} of the keys.
+ */
+public class ConsistentHashRing {
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final Set<String> members;
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+  public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+    this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+    for (String member : this.members) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(member + "#" + i), member);
+      }
+    }
+  }
+
+  /** @return the member owning {@code key}, or null if there are no members */
+  public String owner(String key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+
+    Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+    return (entry == null ? ring.firstEntry() : entry).getValue();
+  }
+
+  public Set<String> getMembers() {
+    return members;
+  }
+
+  private static long hash(String value) {
+    return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding;
+
+import java.util.Set;
+
+/** Tracks the echo instances that share cron trigger ownership. */
+public interface CronShardMembership {
+  /**
+   * Records that {@code nodeId} is alive.
+   *
+   * @return the ids of all nodes that sent a heartbeat within the last {@code ttlMillis}
+   */
+  Set<String> heartbeat(String nodeId, long nowMillis, long ttlMillis);
+
+  /** Removes {@code nodeId} right away, rather than once its heartbeat expires. */
+  void leave(String nodeId);
+}
@@ -1,11 +1,11 @@
 /*
- * Copyright 2017 Google, Inc.
+ * Copyright 2026 Netflix, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *     http://www.apache.org/licenses/LICENSE-2.0
+ *    http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -13,8 +13,11 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package com.netflix.spinnaker.echo.scheduler.sharding;
 
-package com.netflix.spinnaker.echo.config.kafka;
+/** Decides which cron triggers this echo instance schedules and fires. */
+public interface CronTriggerOwnership {
+  CronTriggerOwnership ALL = triggerId -> true;
 
-// TODO: move to pubsub-kafka module
-public class KafkaConfig {}
+  boolean owns(String triggerId);
+}
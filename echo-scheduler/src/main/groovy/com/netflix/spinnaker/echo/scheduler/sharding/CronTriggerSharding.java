@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * Splits cron trigger ownership across echo instances with a {@link ConsistentHashRing} keyed by
+ * trigger id, so that each instance only schedules its own share of the triggers.
+ *
+ * <p>Membership is refreshed from heartbeats every {@code heartbeatIntervalMillis}. When the
+ * members change, the ring is rebuilt and rebalance listeners are notified. Instances don't switch
+ * rings at the same moment, so for {@code handoffGraceMillis} after a rebalance a trigger is also
+ * owned by the node that owned it before. Every ring replaced within the grace period is kept, so
+ * that members changing several times in a row (e.g. during a rolling deploy) don't cut an earlier
+ * handoff short. During that window several nodes may plan the same firing, and the fire state
+ * claim (see {@link com.netflix.spinnaker.echo.scheduler.wheel.CronFireStateStore}) lets only one
+ * of them fire it. That way a handoff can neither skip a firing nor fire it twice.
+ *
+ * <p>No trigger is owned until the first heartbeat went through.
+ */
+@Slf4j
+public class CronTriggerSharding
+    implements CronTriggerOwnership, ApplicationListener<ContextRefreshedEvent> {
+  private final CronShardMembership membership;
+  private final Registry registry;
+  private final Clock clock;
+  private final String nodeId;
+  private final int virtualNodes;
+  private final long heartbeatIntervalMillis;
+  private final long nodeTtlMillis;
+  private final long handoffGraceMillis;
+
+  private final List<Runnable> rebalanceListeners = new CopyOnWriteArrayList<>();
+  private volatile Rings rings;
+  private ScheduledExecutorService executor;
+
+  public CronTriggerSharding(
+      CronShardMembership membership,
+      Registry registry,
+      Clock clock,
+      String nodeId,
+      int virtualNodes,
+      long heartbeatIntervalMillis,
+      long nodeTtlMillis,
+      long handoffGraceMillis) {
+    this.membership = membership;
+    this.registry = registry;
+    this.clock = clock;
+    this.nodeId = nodeId;
+    this.virtualNodes = virtualNodes;
+    this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    this.nodeTtlMillis = nodeTtlMillis;
+    this.handoffGraceMillis = handoffGraceMillis;
+
+    ConsistentHashRing empty = new ConsistentHashRing(Collections.emptySet(), virtualNodes);
+    this.rings = new Rings(empty, Collections.emptyList());
+
+    PolledMeter.using(registry)
+        .withName("echo.cron.shard.members")
+        .monitorValue(this, s -> s.rings.current.getMembers().size());
+  }
+
+  @Override
+  public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+    if (executor != null) {
+      return;
+    }
+
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "cron-shard-heartbeat");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.scheduleWithFixedDelay(
+        this::heartbeatSafely, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    log.info("Sharding cron triggers as node {}", nodeId);
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor == null) {
+      // never joined
+      return;
+    }
+
+    executor.shutdownNow();
+    try {
+      // a heartbeat still in flight would join again after we left
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    executor = null;
+    // let the other nodes take over right away rather than once our heartbeat expires
+    membership.leave(nodeId);
+  }
+
+  /** Registers {@code listener} to be called whenever trigger ownership changes. */
+  public void addRebalanceListener(Runnable listener) {
+    rebalanceListeners.add(listener);
+  }
+
+  @Override
+  public boolean owns(String triggerId) {
+    Rings rings = this.rings;
+    if (nodeId.equals(rings.current.owner(triggerId))) {
+      return true;
+    }
+
+    long now = clock.millis();
+    for (RetiredRing retired : rings.retired) {
+      if (now < retired.validUntil && nodeId.equals(retired.ring.owner(triggerId))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Records a heartbeat and rebalances if the members changed since the last one. */
+  public void heartbeat() {
+    long now = clock.millis();
+    Set<String> members = new HashSet<>(membership.heartbeat(nodeId, now, nodeTtlMillis));
+    // our own heartbeat may not be visible yet, e.g. with a read replica
+    members.add(nodeId);
+
+    Rings previous = this.rings;
+    List<RetiredRing> retired = new ArrayList<>();
+    for (RetiredRing ring : previous.retired) {
+      if (now < ring.validUntil) {
+        retired.add(ring);
+      }
+    }
+
+    if (members.equals(previous.current.getMembers())) {
+      if (retired.size() != previous.retired.size()) {
+        this.rings = new Rings(previous.current, retired);
+      }
+      return;
+    }
+
+    Set<String> joined = new HashSet<>(members);
+    joined.removeAll(previous.current.getMembers());
+    Set<String> left = new HashSet<>(previous.current.getMembers());
+    left.removeAll(members);
+
+    retired.add(new RetiredRing(previous.current, now + handoffGraceMillis));
+    this.rings = new Rings(new ConsistentHashRing(members, virtualNodes), retired);
+
+    log.info(
+        "Rebalancing cron triggers across {} nodes (joined: {}, left: {})",
+        members.size(),
+        joined,
+        left);
+    registry
+        .counter(
+            "echo.cron.shard.rebalances",
+            "joined",
+            Integer.toString(joined.size()),
+            "left",
+            Integer.toString(left.size()))
+        .increment();
+
+    for (Runnable listener : rebalanceListeners) {
+      try {
+        listener.run();
+      } catch (Exception e) {
+        log.error("Failed to notify rebalance listener", e);
+      }
+    }
+  }
+
+  public Set<String> getMembers() {
+    return rings.current.getMembers();
+  }
+
+  private void heartbeatSafely() {
+    try {
+      heartbeat();
+    } catch (Exception e) {
+      // keep the current ring, if our heartbeat expires the other nodes take over our triggers
+      // and the fire state claims keep them from firing twice
+      log.error("Failed to refresh cron shard membership", e);
+      registry.counter("echo.cron.shard.heartbeatErrors").increment();
+    }
+  }
+
+  private static class Rings {
+    private final ConsistentHashRing current;
+
+    /** Rings replaced within the grace period, oldest first. */
+    private final List<RetiredRing> retired;
+
+    Rings(ConsistentHashRing current, List<RetiredRing> retired) {
+      this.current = current;
+      this.retired = Collections.unmodifiableList(retired);
+    }
+  }
+
+  private static class RetiredRing {
+    private final ConsistentHashRing ring;
+    private final long validUntil;
+
+    RetiredRing(ConsistentHashRing ring, long validUntil) {
+      this.ring = ring;
+      this.validUntil = validUntil;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/** Membership kept as heartbeat rows in {@code ECHO_CRON_NODES}. */
+@Slf4j
+public class SqlCronShardMembership implements CronShardMembership {
+  private static final String TABLE = "ECHO_CRON_NODES";
+
+  /** Rows of nodes that stopped heartbeating are deleted once they are this many TTLs old. */
+  private static final int EXPIRED_ROW_RETENTION_TTLS = 10;
+
+  private final DataSource dataSource;
+
+  public SqlCronShardMembership(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Set<String> heartbeat(String nodeId, long nowMillis, long ttlMillis) {
+    try (Connection connection = dataSource.getConnection()) {
+      upsert(connection, nodeId, nowMillis);
+
+      try (PreparedStatement delete =
+          connection.prepareStatement("DELETE FROM " + TABLE + " WHERE LAST_HEARTBEAT < ?")) {
+        delete.setLong(1, nowMillis - ttlMillis * EXPIRED_ROW_RETENTION_TTLS);
+        delete.executeUpdate();
+      }
+
+      Set<String> members = new HashSet<>();
+      try (PreparedStatement select =
+          connection.prepareStatement(
+              "SELECT NODE_ID FROM " + TABLE + " WHERE LAST_HEARTBEAT >= ?")) {
+        select.setLong(1, nowMillis - ttlMillis);
+        try (ResultSet resultSet = select.executeQuery()) {
+          while (resultSet.next()) {
+            members.add(resultSet.getString(1));
+          }
+        }
+      }
+      return members;
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to record cron shard heartbeat", e);
+    }
+  }
+
+  @Override
+  public void leave(String nodeId) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement delete =
+            connection.prepareStatement("DELETE FROM " + TABLE + " WHERE NODE_ID = ?")) {
+      delete.setString(1, nodeId);
+      delete.executeUpdate();
+    } catch (SQLException e) {
+      log.warn("Failed to remove {} from the cron shard members", nodeId, e);
+    }
+  }
+
+  private static void upsert(Connection connection, String nodeId, long nowMillis)
+      throws SQLException {
+    try (PreparedStatement update =
+        connection.prepareStatement(
+            "UPDATE " + TABLE + " SET LAST_HEARTBEAT = ? WHERE NODE_ID = ?")) {
+      update.setLong(1, nowMillis);
+      update.setString(2, nodeId);
+      if (update.executeUpdate() == 1) {
+        return;
+      }
+    }
+
+    try (PreparedStatement insert =
+        connection.prepareStatement(
+            "INSERT INTO " + TABLE + " (NODE_ID, LAST_HEARTBEAT) VALUES (?, ?)")) {
+      insert.setString(1, nodeId);
+      insert.setLong(2, nowMillis);
+      insert.executeUpdate();
+    }
+  }
+}
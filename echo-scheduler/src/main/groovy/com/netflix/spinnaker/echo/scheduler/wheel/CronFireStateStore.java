@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Records the last time each cron trigger fired, so that a firing is only claimed by one echo
+ * instance.
+ */
+public interface CronFireStateStore {
+  /**
+   * @param triggerId the pipeline trigger id
+   * @param fireTimeMillis the scheduled fire time being claimed
+   * @return true if the caller should fire the trigger, false if this (or a later) fire time was
+   *     already claimed
+   */
+  boolean tryClaim(String triggerId, long fireTimeMillis);
+
+  /**
+   * Claims several firings at once, see {@link #tryClaim}. Stores backed by a database should
+   * override this to claim them in as few round-trips as possible.
+   *
+   * @return whether each firing was claimed, in the order of {@code claims}
+   */
+  default List<Boolean> tryClaimAll(List<Claim> claims) {
+    List<Boolean> claimed = new ArrayList<>(claims.size());
+    for (Claim claim : claims) {
+      claimed.add(tryClaim(claim.getTriggerId(), claim.getFireTimeMillis()));
+    }
+    return claimed;
+  }
+
+  @Value
+  class Claim {
+    String triggerId;
+    long fireTimeMillis;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.scheduler.wheel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: each level is a ring of {@code wheelSize} buckets, where a bucket of
+ * level {@code n + 1} spans a whole revolution of level {@code n}. Levels are added as far out
+ * deadlines require them.
+ *
+ * <p>Scheduling a task and expiring a due one are O(1), and advancing the clock by one tick only
+ * looks at the bucket of that tick (plus, on a revolution, the next bucket of the level above,
+ * whose tasks are cascaded down). This keeps the cost of a tick independent of how many tasks are
+ * scheduled further out.
+ *
+ * <p>Not thread-safe.
+ */
+public class HierarchicalTimingWheel<T> {
+  private final int wheelSize;
+  private final List<Level<T>> levels = new ArrayList<>();
+  private final ArrayDeque<Entry<T>> due = new ArrayDeque<>();
+  private int size = 0;
+
+  /**
+   * @param tickMillis resolution of the wheel, deadlines within the same tick expire together
+   * @param wheelSize number of buckets per level
+   * @param startMillis the current time
+   */
+  public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+    if (tickMillis <= 0 || wheelSize < 2) {
+      throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+    }
+    this.wheelSize = wheelSize;
+    levels.add(new Level<>(tickMillis, wheelSize, startMillis));
+  }
+
+  /**
+   * Schedules {@code task} to expire once the clock reaches {@code deadlineMillis}. Tasks whose
+   * deadline already passed expire on the next {@link #advance}.
+   */
+  public void schedule(long deadlineMillis, T task) {
+    size++;
+    add(new Entry<>(deadlineMillis, task));
+  }
+
+  /**
+   * Moves the clock forward to {@code nowMillis}, tick by tick, handing every task whose deadline
+   * has been reached to {@code onExpired}.
+   *
+   * @return the number of expired tasks
+   */
+  public int advance(long nowMillis, Consumer<T> onExpired) {
+    int expired = drainDue(onExpired);
+
+    Level<T> first = levels.get(0);
+    while (first.currentTime + first.tick <= nowMillis) {
+      long time = first.currentTime + first.tick;
+
+      // the clock of every level whose tick boundary we crossed moves along
+      int top = 0;
+      for (int i = 0; i < levels.size(); i++) {
+        Level<T> level = levels.get(i);
+        if (time % level.tick != 0) {
+          break;
+        }
+        level.currentTime = time;
+        top = i;
+      }
+
+      // cascade the current buckets of the upper levels down, outermost first
+      for (int i = top; i > 0; i--) {
+        ArrayDeque<Entry<T>> bucket = levels.get(i).bucketFor(time);
+        while (!bucket.isEmpty()) {
+          add(bucket.poll());
+        }
+      }
+
+      ArrayDeque<Entry<T>> bucket = first.bucketFor(time);
+      while (!bucket.isEmpty()) {
+        due.add(bucket.poll());
+      }
+      expired += drainDue(onExpired);
+    }
+
+    return expired;
+  }
+
+  /**
+   * @return the number of scheduled tasks that haven't expired yet
+   */
+  public int size() {
+    return size;
+  }
+
+  public long currentTimeMillis() {
+    return levels.get(0).currentTime;
+  }
+
+  private int drainDue(Consumer<T> onExpired) {
+    int expired = 0;
+    while (!due.isEmpty()) {
+      size--;
+      expired++;
+      onExpired.accept(due.poll().task);
+    }
+    return expired;
+  }
+
+  private void add(Entry<T> entry) {
+    for (int i = 0; ; i++) {
+      if (i == levels.size()) {
+        Level<T> below = levels.get(i - 1);
+        long span = below.tick * wheelSize;
+        levels.add(new Level<>(span, wheelSize, below.currentTime - (below.currentTime % span)));
+      }
+
+      Level<T> level = levels.get(i);
+      if (entry.deadline < level.currentTime + level.tick) {
+        // only reachable on the first level, upper levels only see deadlines past a whole
+        // revolution of the level below
+        due.add(entry);
+        return;
+      }
+      if (entry.deadline < level.currentTime + level.tick * wheelSize) {
+        level.bucketFor(entry.deadline).add(entry);
+        return;
+      }
+    }
+  }
+
+  private static class Level<T> {
+    final long tick;
+    final ArrayDeque<Entry<T>>[] buckets;
+    long currentTime;
+
+    @SuppressWarnings("unchecked")
+    Level(long tick, int wheelSize, long startMillis) {
+      this.tick = tick;
+      this.currentTime = startMillis - (startMillis % tick);
+      this.buckets = new ArrayDeque[wheelSize];
+      for (int i = 0; i < wheelSize; i++) {
+        buckets[i] = new ArrayDeque<>();
+      }
+    }
+
+    ArrayDeque<Entry<T>> bucketFor(long time) {
+      return buckets[(int) ((time / tick) % buckets.length)];
+    }
+  }
+
+  private static class Entry<T> {
+    final long deadline;
+    final T task;
+
+    Entry(long deadline, T task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Only guards against double fires within a single echo instance. */
+public class InMemoryCronFireStateStore implements CronFireStateStore {
+  private final Map<String, Long> lastFireTimes = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean tryClaim(String triggerId, long fireTimeMillis) {
+    boolean[] claimed = {false};
+    lastFireTimes.compute(
+        triggerId,
+        (id, lastFireTime) -> {
+          if (lastFireTime != null && lastFireTime >= fireTimeMillis) {
+            return lastFireTime;
+          }
+          claimed[0] = true;
+          return fireTimeMillis;
+        });
+    return claimed[0];
+  }
+}
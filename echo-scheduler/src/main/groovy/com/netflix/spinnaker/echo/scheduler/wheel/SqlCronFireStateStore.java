@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel;
+
+import com.netflix.spectator.api.Registry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Claims firings with a conditional update of the trigger's row, so that exactly one of the echo
+ * instances sharing the database fires each scheduled time.
+ *
+ * <p>If the database can't be reached nothing is claimed: a missed firing is picked up by the
+ * compensation job, a double firing can't be undone.
+ */
+@Slf4j
+public class SqlCronFireStateStore implements CronFireStateStore {
+  private static final String TABLE = "ECHO_CRON_TRIGGER_FIRES";
+
+  private final DataSource dataSource;
+  private final Registry registry;
+  private final String instanceId;
+
+  public SqlCronFireStateStore(DataSource dataSource, Registry registry, String instanceId) {
+    this.dataSource = dataSource;
+    this.registry = registry;
+    this.instanceId = instanceId;
+  }
+
+  @Override
+  public boolean tryClaim(String triggerId, long fireTimeMillis) {
+    return tryClaimAll(List.of(new Claim(triggerId, fireTimeMillis))).get(0);
+  }
+
+  /**
+   * Claims all firings with one batch of conditional updates. Only triggers that never fired before
+   * have no row to update, and are inserted one by one.
+   */
+  @Override
+  public List<Boolean> tryClaimAll(List<Claim> claims) {
+    List<Boolean> claimed = new ArrayList<>(Collections.nCopies(claims.size(), false));
+    if (claims.isEmpty()) {
+      return claimed;
+    }
+
+    try (Connection connection = dataSource.getConnection()) {
+      int[] updated;
+      try (PreparedStatement update =
+          connection.prepareStatement(
+              "UPDATE "
+                  + TABLE
+                  + " SET LAST_FIRE_TIME = ?, FIRED_BY = ? WHERE TRIGGER_ID = ? AND LAST_FIRE_TIME < ?")) {
+        for (Claim claim : claims) {
+          update.setLong(1, claim.getFireTimeMillis());
+          update.setString(2, instanceId);
+          update.setString(3, claim.getTriggerId());
+          update.setLong(4, claim.getFireTimeMillis());
+          update.addBatch();
+        }
+        updated = update.executeBatch();
+      }
+
+      for (int i = 0; i < claims.size(); i++) {
+        if (updated[i] == 1) {
+          claimed.set(i, true);
+        } else if (updated[i] == 0) {
+          claimed.set(i, insert(connection, claims.get(i)));
+        } else {
+          // the driver didn't report whether the row was updated, don't risk a double firing
+          log.warn(
+              "Unknown claim result {} for trigger {}", updated[i], claims.get(i).getTriggerId());
+        }
+      }
+    } catch (SQLException e) {
+      log.error("Failed to claim {} cron trigger firings", claims.size(), e);
+      registry.counter("echo.cron.wheel.claimErrors").increment();
+    }
+    return claimed;
+  }
+
+  private boolean insert(Connection connection, Claim claim) throws SQLException {
+    try (PreparedStatement insert =
+        connection.prepareStatement(
+            "INSERT INTO " + TABLE + " (TRIGGER_ID, LAST_FIRE_TIME, FIRED_BY) VALUES (?, ?, ?)")) {
+      insert.setString(1, claim.getTriggerId());
+      insert.setLong(2, claim.getFireTimeMillis());
+      insert.setString(3, instanceId);
+      return insert.executeUpdate() == 1;
+    } catch (SQLException e) {
+      if (e instanceof SQLIntegrityConstraintViolationException
+          || (e.getSQLState() != null && e.getSQLState().startsWith("23"))) {
+        // the row exists, and is already at (or past) this fire time
+        return false;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,574 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.scheduler.wheel;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy;
+import com.netflix.spinnaker.echo.model.Pipeline;
+import com.netflix.spinnaker.echo.model.Trigger;
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker;
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker.Stage;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.CronExpressionCache;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.TriggerConverter;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.TriggerRepository;
+import com.netflix.spinnaker.echo.scheduler.sharding.CronTriggerOwnership;
+import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.CronExpression;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * Fires pipeline cron triggers from an in-memory {@link HierarchicalTimingWheel} rather than from
+ * quartz.
+ *
+ * <p>The firing plan is built straight from the {@link PipelineCache} snapshot and reconciled
+ * whenever the snapshot changes; only triggers that are new or whose fingerprint (see {@link
+ * TriggerConverter#fingerprint}) changed are rescheduled. The only shared state is the last fire
+ * time of each trigger (see {@link CronFireStateStore}), which is what keeps several echo instances
+ * from firing the same trigger twice. Firings that are more than {@code misfireThresholdMillis}
+ * late are skipped, like quartz's "do nothing" misfire instruction, and left to the compensation
+ * job.
+ *
+ * <p>Only triggers this instance owns (see {@link CronTriggerOwnership}) are scheduled; ownership
+ * is checked again right before firing, and {@link #invalidate} forces the next refresh to
+ * reconcile after ownership changed.
+ *
+ * <p>The tick thread only collects the firings that became due. They are claimed in one batch and
+ * handed to the {@link PipelineInitiator} on a separate thread, so that a slow database doesn't
+ * hold up the wheel. Refreshes run on a thread of their own as well, since hashing and compiling
+ * every trigger (or waiting on the pipeline cache) could otherwise delay ticks past the misfire
+ * threshold. They hand the reconciled plan to the tick thread, which swaps it in before advancing.
+ */
+@Slf4j
+public class TimingWheelCronScheduler implements ApplicationListener<ContextRefreshedEvent> {
+  private final PipelineCache pipelineCache;
+  private final PipelineInitiator pipelineInitiator;
+  private final CronFireStateStore fireStateStore;
+  private final CronTriggerOwnership ownership;
+  private final CronJitterPolicy jitterPolicy;
+  private final DiscoveryStatusListener discoveryStatusListener;
+  private final TriggerLatencyTracker latencyTracker;
+  private final Registry registry;
+  private final Clock clock;
+  private final TimeZone timeZone;
+  private final long tickMillis;
+  private final long refreshIntervalMillis;
+  private final long misfireThresholdMillis;
+
+  private final CronExpressionCache cronExpressions;
+  private final HierarchicalTimingWheel<Firing> wheel;
+
+  /** Guarded by {@code this}. */
+  private Map<String, ScheduledTrigger> scheduled = new HashMap<>();
+
+  /** The last reconciled plan, until the tick thread swaps it in. */
+  private final AtomicReference<Plan> pendingPlan = new AtomicReference<>();
+
+  /** Serializes refreshes, which mostly run without holding {@code this}. */
+  private final Object refreshLock = new Object();
+
+  /** Bumped by {@link #invalidate}, so that a refresh already in flight can't swallow it. */
+  private final AtomicLong generation = new AtomicLong();
+
+  /** The snapshot and generation last reconciled, guarded by {@code refreshLock}. */
+  private List<Pipeline> snapshot;
+
+  private long reconciledGeneration = -1;
+  private ScheduledExecutorService executor;
+  private ScheduledExecutorService refreshExecutor;
+  private ExecutorService fireExecutor;
+
+  /** Claims and fires due triggers. Runs on the ticking thread until the scheduler is started. */
+  private volatile Executor fireDispatcher = Runnable::run;
+
+  public TimingWheelCronScheduler(
+      PipelineCache pipelineCache,
+      PipelineInitiator pipelineInitiator,
+      CronFireStateStore fireStateStore,
+      DiscoveryStatusListener discoveryStatusListener,
+      Registry registry,
+      Clock clock,
+      TimeZone timeZone,
+      long tickMillis,
+      int wheelSize,
+      long refreshIntervalMillis,
+      long misfireThresholdMillis) {
+    this(
+        pipelineCache,
+        pipelineInitiator,
+        fireStateStore,
+        CronTriggerOwnership.ALL,
+        CronJitterPolicy.NONE,
+        discoveryStatusListener,
+        new TriggerLatencyTracker(registry, clock, 0, Duration.ZERO),
+        registry,
+        clock,
+        timeZone,
+        tickMillis,
+        wheelSize,
+        refreshIntervalMillis,
+        misfireThresholdMillis);
+  }
+
+  public TimingWheelCronScheduler(
+      PipelineCache pipelineCache,
+      PipelineInitiator pipelineInitiator,
+      CronFireStateStore fireStateStore,
+      CronTriggerOwnership ownership,
+      CronJitterPolicy jitterPolicy,
+      DiscoveryStatusListener discoveryStatusListener,
+      TriggerLatencyTracker latencyTracker,
+      Registry registry,
+      Clock clock,
+      TimeZone timeZone,
+      long tickMillis,
+      int wheelSize,
+      long refreshIntervalMillis,
+      long misfireThresholdMillis) {
+    this.pipelineCache = pipelineCache;
+    this.pipelineInitiator = pipelineInitiator;
+    this.fireStateStore = fireStateStore;
+    this.ownership = ownership;
+    this.jitterPolicy = jitterPolicy;
+    this.cronExpressions = new CronExpressionCache(jitterPolicy);
+    this.discoveryStatusListener = discoveryStatusListener;
+    this.latencyTracker = latencyTracker;
+    this.registry = registry;
+    this.clock = clock;
+    this.timeZone = timeZone;
+    this.tickMillis = tickMillis;
+    this.refreshIntervalMillis = refreshIntervalMillis;
+    this.misfireThresholdMillis = misfireThresholdMillis;
+    this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, clock.millis());
+
+    PolledMeter.using(registry)
+        .withName("echo.cron.wheel.triggers")
+        .monitorValue(this, s -> s.scheduledCount());
+    PolledMeter.using(registry)
+        .withName("echo.cron.wheel.pending")
+        .monitorValue(this, s -> s.pendingCount());
+  }
+
+  @Override
+  public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+    if (executor != null) {
+      return;
+    }
+
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "cron-timing-wheel");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.scheduleAtFixedRate(this::tickSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    refreshExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "cron-timing-wheel-refresh");
+              thread.setDaemon(true);
+              return thread;
+            });
+    refreshExecutor.scheduleWithFixedDelay(
+        this::refreshSafely, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    fireExecutor =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread thread = new Thread(r, "cron-timing-wheel-fire");
+              thread.setDaemon(true);
+              return thread;
+            });
+    fireDispatcher = fireExecutor;
+    log.info("Started timing wheel cron scheduler (tick: {}ms)", tickMillis);
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+      refreshExecutor = null;
+    }
+    if (fireExecutor != null) {
+      fireExecutor.shutdownNow();
+      fireExecutor = null;
+      fireDispatcher = Runnable::run;
+    }
+  }
+
+  /**
+   * Reconcile the firing plan with the current pipeline cache snapshot. A no-op if the snapshot
+   * didn't change since the last call. The plan takes effect on the next {@link #tick}.
+   */
+  public void refresh() throws Exception {
+    synchronized (refreshLock) {
+      long currentGeneration = generation.get();
+      List<Pipeline> pipelines = pipelineCache.getPipelinesSync();
+      if (pipelines == snapshot && currentGeneration == reconciledGeneration) {
+        return;
+      }
+
+      long start = System.currentTimeMillis();
+      Collection<Trigger> triggers =
+          new TriggerRepository(
+                  pipelines.stream()
+                      .filter(p -> !p.isDisabled() && p.getTriggers() != null)
+                      .collect(Collectors.toList()))
+              .triggers();
+      cronExpressions.refresh(pipelines, triggers, timeZone);
+
+      Map<String, ScheduledTrigger> base;
+      Map<String, String> fingerprints = new HashMap<>();
+      synchronized (this) {
+        base = scheduled;
+        scheduled.forEach((id, existing) -> fingerprints.put(id, existing.fingerprint));
+      }
+
+      List<Trigger> unchanged = new ArrayList<>();
+      List<ScheduledTrigger> changed = new ArrayList<>();
+      for (Trigger trigger : triggers) {
+        if (!ownership.owns(trigger.getId())) {
+          continue;
+        }
+
+        String fingerprint = TriggerConverter.fingerprint(trigger, timeZone, jitterPolicy);
+        if (fingerprint.equals(fingerprints.get(trigger.getId()))) {
+          unchanged.add(trigger);
+          continue;
+        }
+
+        try {
+          changed.add(new ScheduledTrigger(trigger, fingerprint, cronExpressions.get(trigger)));
+        } catch (ParseException e) {
+          // already reported when the expression was compiled
+        }
+      }
+
+      // supersedes a plan that wasn't swapped in yet
+      pendingPlan.set(
+          new Plan(base, unchanged, changed, clock.millis(), System.currentTimeMillis() - start));
+      snapshot = pipelines;
+      reconciledGeneration = currentGeneration;
+    }
+  }
+
+  /**
+   * Makes the next {@link #refresh} reconcile even if the pipeline cache snapshot didn't change,
+   * e.g. because trigger ownership did.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Invalidates the firing plan and reconciles it on the scheduler's refresh thread as soon as
+   * possible, so that callers (e.g. the shard heartbeat) don't wait for the reconciliation.
+   */
+  public synchronized void refreshSoon() {
+    invalidate();
+    if (refreshExecutor != null) {
+      refreshExecutor.execute(this::refreshSafely);
+    }
+  }
+
+  /** Swap in the latest plan, then fire every trigger that became due since the last tick. */
+  public void tick() {
+    long now = clock.millis();
+    List<DueFiring> due = new ArrayList<>();
+    synchronized (this) {
+      Plan plan = pendingPlan.getAndSet(null);
+      if (plan != null) {
+        apply(plan);
+      }
+
+      wheel.advance(
+          now,
+          firing -> {
+            DueFiring dueFiring = onDue(firing, now);
+            if (dueFiring != null) {
+              due.add(dueFiring);
+            }
+          });
+    }
+
+    if (!due.isEmpty()) {
+      fireDispatcher.execute(() -> fire(due));
+    }
+  }
+
+  public synchronized int scheduledCount() {
+    return scheduled.size();
+  }
+
+  /**
+   * @return the number of firings in the wheel, including the ones that became stale
+   */
+  public synchronized int pendingCount() {
+    return wheel.size();
+  }
+
+  private void apply(Plan plan) {
+    if (plan.base != scheduled) {
+      // another plan was swapped in while this one was made, so its idea of what changed is stale
+      log.debug("Discarding a stale cron trigger plan");
+      refreshSoon();
+      return;
+    }
+
+    int added = 0;
+    Map<String, ScheduledTrigger> next = new HashMap<>();
+    for (Trigger trigger : plan.unchanged) {
+      // same schedule, but the pipeline itself may have changed. A trigger that stopped firing or
+      // was handed off while refreshing stays dropped.
+      ScheduledTrigger existing = scheduled.get(trigger.getId());
+      if (existing != null) {
+        existing.trigger = trigger;
+        next.put(trigger.getId(), existing);
+      }
+    }
+    for (ScheduledTrigger scheduledTrigger : plan.changed) {
+      // from when the plan was made, so that a firing that became due since then isn't skipped
+      if (scheduledTrigger.scheduleAfter(plan.plannedAt)) {
+        next.put(scheduledTrigger.trigger.getId(), scheduledTrigger);
+        added++;
+      }
+    }
+
+    int removed = (int) scheduled.keySet().stream().filter(id -> !next.containsKey(id)).count();
+    scheduled = next;
+
+    log.debug(
+        "Reconciled {} cron triggers ({} added or changed, {} removed), planned in {}ms",
+        next.size(),
+        added,
+        removed,
+        plan.planMillis);
+  }
+
+  /**
+   * Plans the next firing of a due trigger.
+   *
+   * @return the firing to claim, or null if it was stale, misfired or shouldn't happen here
+   */
+  private DueFiring onDue(Firing firing, long now) {
+    ScheduledTrigger scheduledTrigger = firing.scheduledTrigger;
+    if (scheduled.get(scheduledTrigger.trigger.getId()) != scheduledTrigger
+        || scheduledTrigger.nextFireTime != firing.fireTime) {
+      // the trigger was removed or rescheduled since this firing was planned
+      return null;
+    }
+
+    if (!ownership.owns(scheduledTrigger.trigger.getId())) {
+      // handed off to another node once the rebalance grace period ran out
+      scheduled.remove(scheduledTrigger.trigger.getId());
+      return null;
+    }
+
+    // plan the next firing before handing this one off, so that a failure can't drop the trigger.
+    // After a misfire (e.g. a long pause) planning resumes from now rather than replaying every
+    // firing that was missed.
+    long lagMillis = now - firing.fireTime;
+    boolean misfired = lagMillis > misfireThresholdMillis;
+    if (!scheduledTrigger.scheduleAfter(misfired ? now : firing.fireTime)) {
+      scheduled.remove(scheduledTrigger.trigger.getId());
+    }
+
+    if (misfired) {
+      log.warn(
+          "Skipping firing of trigger {} scheduled at {}, {}ms late",
+          scheduledTrigger.trigger.getId(),
+          new Date(firing.fireTime),
+          lagMillis);
+      registry.counter("echo.cron.wheel.misfires").increment();
+      return null;
+    }
+
+    return new DueFiring(scheduledTrigger.trigger, firing.fireTime);
+  }
+
+  private void fire(List<DueFiring> due) {
+    if (!discoveryStatusListener.isEnabled()) {
+      return;
+    }
+
+    List<Boolean> claimed =
+        fireStateStore.tryClaimAll(
+            due.stream()
+                .map(d -> new CronFireStateStore.Claim(d.trigger.getId(), d.fireTime))
+                .collect(Collectors.toList()));
+
+    for (int i = 0; i < due.size(); i++) {
+      boolean wasClaimed = claimed.get(i);
+      registry
+          .counter("echo.cron.wheel.fires", "claimed", Boolean.toString(wasClaimed))
+          .increment();
+      if (wasClaimed) {
+        start(due.get(i));
+      }
+    }
+  }
+
+  private void start(DueFiring firing) {
+    long jobStartedAt = clock.millis();
+    Trigger trigger = firing.trigger;
+    try {
+      Pipeline pipeline =
+          TriggerConverter.toPipeline(
+              trigger.getParent(), TriggerConverter.toParamMap(trigger, timeZone.getID()));
+      log.info(
+          "Firing cron trigger {} for pipeline {}, eventId='{}'",
+          trigger.getId(),
+          pipeline,
+          pipeline.getTrigger().getEventId());
+      // the same stages as a quartz trigger job, starting once the firing was claimed
+      latencyTracker.record(
+          Stage.SCHEDULED_TO_JOB_START,
+          PipelineInitiator.TriggerSource.CRON_SCHEDULER,
+          pipeline,
+          jobStartedAt - firing.fireTime);
+      latencyTracker.record(
+          Stage.JOB_START_TO_TRIGGER,
+          PipelineInitiator.TriggerSource.CRON_SCHEDULER,
+          pipeline,
+          clock.millis() - jobStartedAt);
+      pipelineInitiator.startPipeline(
+          pipeline,
+          PipelineInitiator.TriggerSource.CRON_SCHEDULER,
+          Instant.ofEpochMilli(firing.fireTime));
+      registry
+          .timer("echo.cron.wheel.lag")
+          .record(clock.millis() - firing.fireTime, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      log.error("Failed to fire cron trigger {}", trigger.getId(), e);
+      registry.counter("echo.cron.wheel.errors").increment();
+    }
+  }
+
+  private void refreshSafely() {
+    try {
+      refresh();
+    } catch (Exception e) {
+      log.error("Failed to reconcile cron triggers with the pipeline cache", e);
+    }
+  }
+
+  private void tickSafely() {
+    try {
+      tick();
+    } catch (Exception e) {
+      log.error("Failed to fire due cron triggers", e);
+    }
+  }
+
+  private class ScheduledTrigger {
+    private final String fingerprint;
+    private final CronExpression expression;
+    private Trigger trigger;
+    private long nextFireTime;
+
+    ScheduledTrigger(Trigger trigger, String fingerprint, CronExpression expression) {
+      this.trigger = trigger;
+      this.fingerprint = fingerprint;
+      this.expression = expression;
+    }
+
+    /**
+     * @return false if the expression won't fire again
+     */
+    boolean scheduleAfter(long timeMillis) {
+      Date next = expression.getNextValidTimeAfter(new Date(timeMillis));
+      if (next == null) {
+        return false;
+      }
+
+      nextFireTime = next.getTime();
+      wheel.schedule(nextFireTime, new Firing(this, nextFireTime));
+      return true;
+    }
+  }
+
+  private static class Plan {
+    /** The triggers this plan was made against. */
+    private final Map<String, ScheduledTrigger> base;
+
+    private final List<Trigger> unchanged;
+    private final List<ScheduledTrigger> changed;
+    private final long plannedAt;
+    private final long planMillis;
+
+    Plan(
+        Map<String, ScheduledTrigger> base,
+        List<Trigger> unchanged,
+        List<ScheduledTrigger> changed,
+        long plannedAt,
+        long planMillis) {
+      this.base = base;
+      this.unchanged = unchanged;
+      this.changed = changed;
+      this.plannedAt = plannedAt;
+      this.planMillis = planMillis;
+    }
+  }
+
+  private static class DueFiring {
+    private final Trigger trigger;
+    private final long fireTime;
+
+    DueFiring(Trigger trigger, long fireTime) {
+      this.trigger = trigger;
+      this.fireTime = fireTime;
+    }
+  }
+
+  private static class Firing {
+    private final ScheduledTrigger scheduledTrigger;
+    private final long fireTime;
+
+    Firing(ScheduledTrigger scheduledTrigger, long fireTime) {
+      this.scheduledTrigger = scheduledTrigger;
+      this.fireTime = fireTime;
+    }
+  }
+}
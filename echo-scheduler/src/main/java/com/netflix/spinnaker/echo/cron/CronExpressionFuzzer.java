@@ -30,6 +30,9 @@ import org.quartz.CronExpression;
  * <p>Similar to Jenkins, fuzzy expressions are marked by an "H".
  *
  * <p>Supports hashing of seconds, minutes and hours fields only.
+ *
+ * <p>Expressions without fuzzy tokens can also be {@link #spread} by an operator policy (see {@link
+ * CronJitterPolicy}).
  */
 public class CronExpressionFuzzer {
 
@@ -42,6 +45,31 @@ public class CronExpressionFuzzer {
     return Tokens.tokenize(expression).toFuzzedExpression(id);
   }
 
+  /**
+   * Delays an expression that fires at a fixed second and minute (e.g. {@code 0 0 * * * ?}) by up
+   * to {@code windowSeconds}, hashed by {@code id}. The delay never carries over into the next
+   * hour, so the hours and day fields keep their meaning.
+   *
+   * @return the spread expression, or {@code expression} itself if it can't be spread
+   */
+  public static String spread(String id, String expression, int windowSeconds) {
+    Tokens tokens = Tokens.tokenize(expression);
+    if (windowSeconds <= 0 || !isNumber(tokens.seconds) || !isNumber(tokens.minutes)) {
+      return expression;
+    }
+
+    int start = Integer.parseInt(tokens.minutes) * 60 + Integer.parseInt(tokens.seconds);
+    int window = Math.min(windowSeconds, 3600 - start);
+    if (start >= 3600 || window <= 1) {
+      return expression;
+    }
+
+    int shifted = start + Math.floorMod(id.hashCode(), window);
+    tokens.seconds = Integer.toString(shifted % 60);
+    tokens.minutes = Integer.toString(shifted / 60);
+    return tokens.toExpression();
+  }
+
   public static boolean isValid(String expression) {
     return CronExpression.isValidExpression(fuzz("temp", expression));
   }
@@ -50,6 +78,10 @@ public class CronExpressionFuzzer {
     return Tokens.tokenize(expression).hasFuzzyToken();
   }
 
+  private static boolean isNumber(String token) {
+    return !token.isEmpty() && token.chars().allMatch(Character::isDigit);
+  }
+
   private static class Tokens {
     private String seconds;
     private String minutes;
@@ -96,6 +128,10 @@ public class CronExpressionFuzzer {
         hours = hours.replace(TOKEN, hash(id, 23));
       }
 
+      return toExpression();
+    }
+
+    String toExpression() {
       return (year == null)
           ? format("%s %s %s %s %s %s", seconds, minutes, hours, dayOfMonth, month, dayOfWeek)
           : format(
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.cron;
+
+import com.netflix.spinnaker.echo.model.Trigger;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides the cron expression a pipeline trigger is actually scheduled with.
+ *
+ * <p>Fuzzy ({@code H}) expressions are always fuzzed (see {@link CronExpressionFuzzer}). With auto
+ * jitter enabled, expressions that fire at a fixed second and minute are additionally spread over
+ * up to {@code maxWindowMinutes}, so that the many pipelines scheduled on the hour don't all start
+ * in the same second. Auto jitter applies to every application, or only to {@code applications}
+ * when set, minus {@code excludedApplications}.
+ *
+ * <p>Everything scheduling or checking cron triggers must resolve expressions through the same
+ * policy, otherwise the missed trigger compensation job would see spread firings as misfires.
+ */
+@Component
+public class CronJitterPolicy {
+  public static final CronJitterPolicy NONE = new CronJitterPolicy(false, 0, List.of(), List.of());
+
+  private final boolean enabled;
+  private final int maxWindowSeconds;
+  private final Set<String> applications;
+  private final Set<String> excludedApplications;
+
+  public CronJitterPolicy(
+      @Value("${scheduler.cron.auto-jitter.enabled:false}") boolean enabled,
+      @Value("${scheduler.cron.auto-jitter.max-window-minutes:5}") int maxWindowMinutes,
+      @Value("${scheduler.cron.auto-jitter.applications:}") List<String> applications,
+      @Value("${scheduler.cron.auto-jitter.excluded-applications:}")
+          List<String> excludedApplications) {
+    this.enabled = enabled && maxWindowMinutes > 0;
+    this.maxWindowSeconds = maxWindowMinutes * 60;
+    this.applications = normalize(applications);
+    this.excludedApplications = normalize(excludedApplications);
+  }
+
+  /**
+   * @return the expression {@code trigger} is scheduled with
+   * @throws RuntimeException if the trigger's expression can't be tokenized
+   */
+  public String resolve(Trigger trigger) {
+    String expression = trigger.getCronExpression();
+    if (CronExpressionFuzzer.hasFuzzyExpression(expression)) {
+      return CronExpressionFuzzer.fuzz(trigger.getId(), expression);
+    }
+
+    if (!appliesTo(trigger)) {
+      return expression;
+    }
+    return CronExpressionFuzzer.spread(trigger.getId(), expression, maxWindowSeconds);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  private boolean appliesTo(Trigger trigger) {
+    if (!enabled) {
+      return false;
+    }
+
+    String application = trigger.getParent() == null ? null : trigger.getParent().getApplication();
+    if (application == null) {
+      return applications.isEmpty();
+    }
+
+    application = application.toLowerCase();
+    return (applications.isEmpty() || applications.contains(application))
+        && !excludedApplications.contains(application);
+  }
+
+  private static Set<String> normalize(Collection<String> applications) {
+    Set<String> normalized = new HashSet<>();
+    if (applications != null) {
+      applications.stream()
+          .filter(application -> application != null && !application.isBlank())
+          .forEach(application -> normalized.add(application.trim().toLowerCase()));
+    }
+    return normalized;
+  }
+}
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset 20261019-cron-nodes:1
+CREATE TABLE ECHO_CRON_NODES (
+  NODE_ID VARCHAR(200) NOT NULL,
+  LAST_HEARTBEAT BIGINT(13) NOT NULL,
+  PRIMARY KEY (NODE_ID)
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset 20261019-cron-trigger-fires:1
+CREATE TABLE ECHO_CRON_TRIGGER_FIRES (
+  TRIGGER_ID VARCHAR(190) NOT NULL,
+  LAST_FIRE_TIME BIGINT(13) NOT NULL,
+  FIRED_BY VARCHAR(200) NULL,
+  PRIMARY KEY (TRIGGER_ID)
+) ENGINE = InnoDB;
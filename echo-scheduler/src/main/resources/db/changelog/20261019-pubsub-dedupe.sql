@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset 20261019-pubsub-dedupe:1
+CREATE TABLE ECHO_PUBSUB_DEDUPE (
+  MESSAGE_KEY VARCHAR(190) NOT NULL,
+  MESSAGE_VALUE VARCHAR(200) NOT NULL,
+  EXPIRES_AT BIGINT(13) NOT NULL,
+  PRIMARY KEY (MESSAGE_KEY),
+  INDEX ECHO_PUBSUB_DEDUPE_EXPIRES_AT_IDX (EXPIRES_AT)
+) ENGINE = InnoDB;
@@ -52,5 +52,21 @@ class CronExpressionFuzzerSpec extends Specification {
     "H/5 * * * * THU" || true
     "00 05 09 ? * MON-THU" || false
   }
-}
 
+  @Unroll
+  def "should spread fixed expressions within the window and the hour"() {
+    when:
+    def result = CronExpressionFuzzer.spread("abcd", expression, windowSeconds)
+
+    then:
+    result == expected
+
+    where:
+    expression            | windowSeconds || expected
+    "0 0 * * * ?"         | 300           || "34 4 * * * ?"
+    "0 0 9 ? * MON-FRI *" | 300           || "34 4 9 ? * MON-FRI *"
+    "0 58 * * * ?"        | 300           || "34 58 * * * ?"
+    "0 */5 * * * ?"       | 300           || "0 */5 * * * ?"
+    "0 0 * * * ?"         | 0             || "0 0 * * * ?"
+  }
+}
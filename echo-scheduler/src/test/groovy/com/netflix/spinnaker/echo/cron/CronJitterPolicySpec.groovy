@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.cron
+
+import com.netflix.spinnaker.echo.model.Pipeline
+import com.netflix.spinnaker.echo.model.Trigger
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CronJitterPolicySpec extends Specification {
+
+  @Unroll
+  def "should only spread triggers the policy applies to"() {
+    given:
+    def policy = new CronJitterPolicy(enabled, 5, applications, excluded)
+    def trigger = Trigger.builder()
+      .id("abcd")
+      .cronExpression("0 0 * * * ?")
+      .parent(Pipeline.builder().application("App").name("pipeline").id("p1").build())
+      .build()
+
+    expect:
+    policy.resolve(trigger) == expected
+
+    where:
+    enabled | applications   | excluded || expected
+    false   | []             | []       || "0 0 * * * ?"
+    true    | []             | []       || "34 4 * * * ?"
+    true    | ["app"]        | []       || "34 4 * * * ?"
+    true    | ["other"]      | []       || "0 0 * * * ?"
+    true    | []             | ["APP"]  || "0 0 * * * ?"
+  }
+
+  def "should always fuzz fuzzy expressions"() {
+    given:
+    def trigger = Trigger.builder().id("abcd").cronExpression("0 H * * * ?").build()
+
+    expect:
+    CronJitterPolicy.NONE.resolve(trigger) == "0 34 * * * ?"
+    new CronJitterPolicy(true, 5, [], []).resolve(trigger) == "0 34 * * * ?"
+  }
+}
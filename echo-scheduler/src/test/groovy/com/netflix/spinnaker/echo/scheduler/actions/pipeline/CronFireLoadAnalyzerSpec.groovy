@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline
+
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
+import com.netflix.spinnaker.echo.model.Pipeline
+import com.netflix.spinnaker.echo.model.Trigger
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+
+class CronFireLoadAnalyzerSpec extends Specification {
+  def pipelineCache = Stub(PipelineCache) {
+    getPipelinesSync() >> PipelineCache.decorateTriggers((1..100).collect { pipeline("p$it", "0 0 * * * ?") })
+  }
+  def clock = Clock.fixed(Instant.parse("2026-01-01T09:15:00Z"), ZoneOffset.UTC)
+
+  def "reports the top of the hour spike"() {
+    given:
+    def analyzer = new CronFireLoadAnalyzer(pipelineCache, CronJitterPolicy.NONE, TimeZone.getTimeZone("UTC"), clock)
+
+    when:
+    def load = analyzer.analyze(Duration.ofHours(1), 3)
+
+    then:
+    load.from == Instant.parse("2026-01-01T10:00:00Z")
+    load.triggers == 100
+    load.totalFires == 100
+    load.secondsWithFires == 1
+    load.maxFiresPerSecond == 100
+    load.secondsByFiresPerSecond == ["1": 0, "2-3": 0, "4-7": 0, "8-15": 0, "16-31": 0, "32-63": 0, "64-127": 1]
+    load.busiestSeconds*.time == [Instant.parse("2026-01-01T10:00:00Z")]
+  }
+
+  def "auto jitter flattens the spike"() {
+    given:
+    def analyzer = new CronFireLoadAnalyzer(pipelineCache, new CronJitterPolicy(true, 5, [], []), TimeZone.getTimeZone("UTC"), clock)
+
+    when:
+    def load = analyzer.analyze(Duration.ofHours(1), 3)
+
+    then:
+    load.autoJitterEnabled
+    load.totalFires == 100
+    load.maxFiresPerSecondWithoutJitter == 100
+    load.maxFiresPerSecond < 10
+    load.busiestSeconds.every { it.time < Instant.parse("2026-01-01T10:05:00Z") }
+  }
+
+  def "rejects windows that are too long"() {
+    given:
+    def analyzer = new CronFireLoadAnalyzer(pipelineCache, CronJitterPolicy.NONE, TimeZone.getTimeZone("UTC"), clock)
+
+    when:
+    analyzer.analyze(Duration.ofDays(1), 3)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  private static Pipeline pipeline(String id, String cronExpression) {
+    return Pipeline.builder()
+      .application('app')
+      .name(id)
+      .id(id)
+      .triggers([Trigger.builder().enabled(true).type('cron').cronExpression(cronExpression).build()])
+      .build()
+  }
+}
@@ -18,6 +18,7 @@ package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 
 import com.netflix.spectator.api.NoopRegistry
 import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
@@ -28,6 +29,7 @@ import org.quartz.CronExpression
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.text.ParseException
 import java.time.Clock
 import java.time.Duration
 import java.time.Instant
@@ -69,7 +71,7 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
     dateContext.getClock() >> Clock.system(ZoneId.of('America/Los_Angeles'))
 
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
-      pipelineInitiator, registry, quietPeriodIndicator, /* not used */ 30000, 2000, /* not used */ 'America/Los_Angeles', true, 900000, 20, dateContext)
+      pipelineInitiator, registry, quietPeriodIndicator, /* not used */ 30000, 2000, /* not used */ 'America/Los_Angeles', true, 900000, 20, 1, dateContext, CronJitterPolicy.NONE)
 
     when:
     compensationJob.triggerMissedExecutions(pipelines)
@@ -103,8 +105,8 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
     and: 'a window that is scoped to minutes [0, 10]'
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
       pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L,
-      'America/Los_Angeles', false, 900000, 20,
-      stubDateContext(0, 10))
+      'America/Los_Angeles', false, 900000, 20, 1,
+      stubDateContext(0, 10), CronJitterPolicy.NONE)
 
     when:
     compensationJob.triggerMissedExecutions(pipelines)
@@ -121,6 +123,66 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
     0 * _
   }
 
+  @Unroll
+  def 'should evaluate triggers with the jitter policy they are scheduled with'() {
+    given: 'a pipeline that should execute at minute 1, spread to 5:34 by auto jitter'
+    def pipelines = [
+      pipelineBuilder('1').disabled(false).triggers([
+        new Trigger.TriggerBuilder().id('abcd').type(Trigger.Type.CRON.toString()).cronExpression('0 1 * * * ? *').enabled(true).build()
+      ]).build()
+    ]
+
+    and:
+    def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L,
+      'America/Los_Angeles', false, 900000, 20, 1,
+      stubDateContext(windowFloor, windowCeiling), new CronJitterPolicy(true, 5, [], []))
+
+    when:
+    compensationJob.triggerMissedExecutions(pipelines)
+
+    then:
+    queries * orcaService.getLatestPipelineExecutions(['1'], _) >> Calls.response([])
+
+    where:
+    windowFloor | windowCeiling || queries
+    0           | 3             || 0
+    5           | 6             || 1
+  }
+
+  def 'should fetch execution history of all partitions concurrently'() {
+    given: '5 pipelines that should execute at minute 5'
+    def pipelines = (1..5).collect { id ->
+      pipelineBuilder("${id}").disabled(false).triggers([
+        new Trigger.TriggerBuilder().id("${id}").type(Trigger.Type.CRON.toString()).cronExpression('0 5 * * * ? *').enabled(true).build()
+      ]).build()
+    }
+
+    and: 'a window that is scoped to minutes [0, 10], fetched 2 pipelines at a time'
+    def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L,
+      'America/Los_Angeles', false, 900000, 2, 3,
+      stubDateContext(0, 10), CronJitterPolicy.NONE)
+
+    when:
+    compensationJob.triggerMissedExecutions(pipelines)
+
+    then: 'each partition is queried once and only pipelines that last ran before minute 5 are started'
+    1 * orcaService.getLatestPipelineExecutions(['1', '2'], _) >> Calls.response([
+      new OrcaService.PipelineResponse(pipelineConfigId: '1', startTime: getDateOffset(0).time),
+      new OrcaService.PipelineResponse(pipelineConfigId: '2', startTime: getDateOffset(6).time)
+    ])
+    1 * orcaService.getLatestPipelineExecutions(['3', '4'], _) >> Calls.response([
+      new OrcaService.PipelineResponse(pipelineConfigId: '4', startTime: getDateOffset(0).time)
+    ])
+    1 * orcaService.getLatestPipelineExecutions(['5'], _) >> Calls.response([
+      new OrcaService.PipelineResponse(pipelineConfigId: '5', startTime: getDateOffset(6).time)
+    ])
+    1 * pipelineInitiator.startPipeline({ it.id == '1' }, PipelineInitiator.TriggerSource.COMPENSATION_SCHEDULER)
+    1 * pipelineInitiator.startPipeline({ it.id == '4' }, PipelineInitiator.TriggerSource.COMPENSATION_SCHEDULER)
+    0 * pipelineInitiator.startPipeline(_, _)
+  }
+
   @Unroll
   def 'should only look up execution history for pipelines that have an eligible trigger in window [#floorOffset, #ceilingOffset]'() {
     given:
@@ -149,7 +211,7 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
     and:
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
       pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L,
-      'America/Los_Angeles', true, 900000, 20, dateContext)
+      'America/Los_Angeles', true, 900000, 20, 1, dateContext, CronJitterPolicy.NONE)
 
     when:
     compensationJob.triggerMissedExecutions(pipelines)
@@ -227,7 +289,7 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
 
     def dateContext = Mock(MissedPipelineTriggerCompensationJob.DateContext)
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
-      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, dateContext)
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, 1, dateContext, CronJitterPolicy.NONE)
 
     when:
     def result = compensationJob.missedExecution(expr, lastExecution, windowFloor, now)
@@ -268,6 +330,64 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
     configIds == ['3']
   }
 
+  @Unroll
+  def 'should only consider the last firing minute in window for #cronExpression'() {
+    given:
+    def expr = new CronExpression(cronExpression)
+    def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, 1, Mock(MissedPipelineTriggerCompensationJob.DateContext), CronJitterPolicy.NONE)
+
+    when:
+    def result = compensationJob.missedExecution(expr, getDateOffsetMillis(lastExecutionMillis), getDateOffset(0), getDateOffsetMillis(ceilingMillis))
+
+    then:
+    result == missed
+
+    where:
+    cronExpression   | lastExecutionMillis | ceilingMillis      || missed
+    '0 * * * * ? *'  | 14 * 60000 + 500    | 15 * 60000 + 30000 || true  // 15:00 was missed
+    '0 * * * * ? *'  | 15 * 60000 + 500    | 15 * 60000 + 30000 || false
+    '* 15 * * * ? *' | 15 * 60000 + 500    | 15 * 60000 + 30000 || false // started on the first second of the minute
+    '* 15 * * * ? *' | 14 * 60000          | 15 * 60000 + 30000 || true
+  }
+
+  def 'should reuse compiled cron expressions until triggers change'() {
+    given:
+    def cache = new CronExpressionCache()
+    def timeZone = TimeZone.getTimeZone('America/Los_Angeles')
+    def trigger = new Trigger.TriggerBuilder().id('1').cronExpression('H 5 * * * ? *').build()
+    def changed = trigger.withCronExpression('H 6 * * * ? *')
+    def invalid = new Trigger.TriggerBuilder().id('2').cronExpression('not a cron').build()
+
+    when:
+    cache.refresh([], [trigger, invalid], timeZone)
+    def compiled = cache.get(trigger)
+
+    then:
+    compiled.timeZone == timeZone
+    !compiled.cronExpression.contains('H')
+
+    when: 'the same trigger is part of a new snapshot'
+    cache.refresh([], [trigger], timeZone)
+
+    then:
+    cache.get(trigger).is(compiled)
+    cache.size() == 1
+
+    when: 'the trigger changed'
+    cache.refresh([], [changed], timeZone)
+
+    then:
+    !cache.get(changed).is(compiled)
+    cache.size() == 1
+
+    when:
+    cache.get(invalid)
+
+    then:
+    thrown(ParseException)
+  }
+
   def 'should be able to retrigger daily executions'() {
     def expr = new CronExpression('0 0 10 ? * * *')
     expr.timeZone = TimeZone.getTimeZone('America/Los_Angeles')
@@ -279,7 +399,7 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
 
     def dateContext = Mock(MissedPipelineTriggerCompensationJob.DateContext)
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
-      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, dateContext)
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, 1, dateContext, CronJitterPolicy.NONE)
 
     when:
     def missedExecution = compensationJob.missedExecution(expr, lastExecution, windowFloor, now)
@@ -290,7 +410,7 @@ class MissedPipelineTriggerCompensationJobSpec extends Specification {
 
   def 'verify that the present is a fleeting moment, the past is no more'() {
     def compensationJob = new MissedPipelineTriggerCompensationJob(pipelineCache, orcaService,
-      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20)
+      pipelineInitiator, registry, quietPeriodIndicator, 30000L, 2000L, 'America/Los_Angeles', true, 900000, 20, 4, CronJitterPolicy.NONE)
 
     def sleepyTimeMs = 100
 
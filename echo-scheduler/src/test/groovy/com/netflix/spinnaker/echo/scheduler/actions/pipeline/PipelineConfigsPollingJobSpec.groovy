@@ -21,6 +21,7 @@ import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
 import org.quartz.CronTrigger
 import org.quartz.JobDataMap
+import org.quartz.JobDetail
 import org.quartz.JobExecutionContext
 import org.quartz.Scheduler
 import org.quartz.TriggerKey
@@ -35,6 +36,7 @@ class PipelineConfigsPollingJobSpec extends Specification {
   def pipelineCache = Mock(PipelineCache)
   def pollingJobContext = Mock(JobExecutionContext)
   def jobDataMap = new JobDataMap()
+  def jobDetail = Mock(JobDetail)
 
   @Subject
     pollingAgent = new PipelineConfigsPollingJob(metrics, pipelineCache)
@@ -43,6 +45,7 @@ class PipelineConfigsPollingJobSpec extends Specification {
     jobDataMap.put("timeZoneId", "America/Los_Angeles")
     pollingJobContext.scheduler >> scheduler
     pollingJobContext.mergedJobDataMap >> jobDataMap
+    scheduler.getJobDetail(_) >> jobDetail
   }
 
   void 'when a new pipeline trigger is added, a scheduled action instance is registered with an id same as the trigger id'() {
@@ -56,15 +59,70 @@ class PipelineConfigsPollingJobSpec extends Specification {
 
     List<Pipeline> pipelines = PipelineCache.decorateTriggers([pipeline])
     pipelineCache.getPipelinesSync() >> pipelines
+    scheduler.getTriggerKeys(_) >> []
 
     when:
     pollingAgent.execute(pollingJobContext)
 
     then:
-    1 * scheduler.scheduleJob(_ as CronTrigger) >> { args ->
-      assert (args[0] as CronTrigger).key.name == pipelines[0].triggers[0].id
+    1 * scheduler.scheduleJobs(_, true) >> { args ->
+      Set<CronTrigger> triggers = (args[0] as Map)[jobDetail]
+      assert triggers*.key.name == [pipelines[0].triggers[0].id]
+      assert triggers[0].description == TriggerConverter.fingerprint(pipelines[0].triggers[0], TimeZone.getTimeZone("America/Los_Angeles"))
     }
-    0 * scheduler.unscheduleJob(_)
+    0 * scheduler.unscheduleJobs(_)
+    1 * metrics.addCount(1)
+  }
+
+  void 'unchanged pipeline triggers are not written back to the scheduler'() {
+    given:
+    Trigger trigger = Trigger.builder()
+      .enabled(true)
+      .type('cron')
+      .cronExpression('* 0/30 * * * ? *')
+      .build()
+    List<Pipeline> pipelines = PipelineCache.decorateTriggers([buildPipeline([trigger])])
+    pipelineCache.getPipelinesSync() >> pipelines
+
+    CronTrigger existing = TriggerConverter.toQuartzTrigger(pipelines[0].triggers[0], TimeZone.getTimeZone("America/Los_Angeles"))
+    scheduler.getTriggerKeys(_) >> [existing.key]
+    scheduler.getTrigger(existing.key) >> existing
+
+    when:
+    pollingAgent.execute(pollingJobContext)
+
+    then:
+    0 * scheduler.scheduleJobs(_, _)
+    0 * scheduler.unscheduleJobs(_)
+    1 * metrics.unchangedCount(1)
+  }
+
+  void 'pipeline triggers whose fingerprint changed are replaced'() {
+    given:
+    Trigger trigger = Trigger.builder()
+      .enabled(true)
+      .type('cron')
+      .cronExpression('* 0/30 * * * ? *')
+      .build()
+    List<Pipeline> pipelines = PipelineCache.decorateTriggers([buildPipeline([trigger])])
+    pipelineCache.getPipelinesSync() >> pipelines
+
+    CronTrigger existing = TriggerConverter.toQuartzTrigger(pipelines[0].triggers[0], TimeZone.getTimeZone("America/New_York"))
+    scheduler.getTriggerKeys(_) >> [existing.key]
+    scheduler.getTrigger(existing.key) >> existing
+
+    when:
+    pollingAgent.execute(pollingJobContext)
+
+    then:
+    1 * scheduler.scheduleJobs(_, true) >> { args ->
+      Set<CronTrigger> triggers = (args[0] as Map)[jobDetail]
+      assert triggers*.key == [existing.key]
+      assert triggers[0].timeZone.getID() == "America/Los_Angeles"
+    }
+    0 * scheduler.unscheduleJobs(_)
+    1 * metrics.updateCount(1)
+    1 * metrics.addCount(0)
   }
 
   void 'when an existing pipeline trigger is removed, corresponding scheduled action is also removed'() {
@@ -74,15 +132,16 @@ class PipelineConfigsPollingJobSpec extends Specification {
     CronTrigger trigger1 = makeTrigger("1", "America/New_York", true)
 
     scheduler.getTriggerKeys(_) >> [trigger1.key]
+    scheduler.getTrigger(trigger1.key) >> trigger1
 
     when:
     pollingAgent.execute(pollingJobContext)
 
     then:
-    1 * scheduler.unscheduleJob(_ as TriggerKey) >> { args ->
-      assert (args[0] as TriggerKey) == trigger1.key
+    1 * scheduler.unscheduleJobs(_ as List<TriggerKey>) >> { args ->
+      assert (args[0] as List<TriggerKey>) == [trigger1.key]
     }
-    0 * scheduler.scheduleJob(_)
+    0 * scheduler.scheduleJobs(_, _)
   }
 
   void 'invalid new triggers are not causing errors'() {
@@ -96,13 +155,14 @@ class PipelineConfigsPollingJobSpec extends Specification {
 
     List<Pipeline> pipelines = PipelineCache.decorateTriggers([pipeline])
     pipelineCache.getPipelinesSync() >> pipelines
+    scheduler.getTriggerKeys(_) >> []
 
     when: 'creating a new trigger'
     pollingAgent.execute(pollingJobContext)
 
     then: 'the bad trigger is ignored'
     noExceptionThrown()
-    0 * scheduler.scheduleJob(_)
+    0 * scheduler.scheduleJobs(_, _)
     1 * metrics.addCount(0)
     1 * metrics.failedUpdateCount(0)
   }
@@ -116,16 +176,18 @@ class PipelineConfigsPollingJobSpec extends Specification {
       .build()
     Pipeline pipelineWithInvalidTrigger = buildPipeline([triggerInvalid])
     List<Pipeline> pipelines2 = PipelineCache.decorateTriggers([pipelineWithInvalidTrigger])
+    TriggerKey existingKey = TriggerKey.triggerKey(pipelines2[0].triggers[0].id, PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX + pipelines2[0].id)
 
     when: 'updating with an invalid trigger'
     pipelineCache.getPipelinesSync() >> pipelines2
-    scheduler.getTrigger(_) >> makeTrigger("1", "America/New_York", true)
+    scheduler.getTriggerKeys(_) >> [existingKey]
+    scheduler.getTrigger(existingKey) >> makeTrigger("1", "America/New_York", true)
     pollingAgent.execute(pollingJobContext)
 
     then: 'the bad trigger is ignored and original trigger is removed'
     noExceptionThrown()
-    0 * scheduler.scheduleJob(_)
-    1 * scheduler.unscheduleJob(_)
+    0 * scheduler.scheduleJobs(_, _)
+    1 * scheduler.unscheduleJobs([existingKey])
     1 * metrics.addCount(0)
     1 * metrics.failedUpdateCount(0)
   }
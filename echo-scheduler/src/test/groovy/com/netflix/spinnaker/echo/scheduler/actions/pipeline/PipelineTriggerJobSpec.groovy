@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.echo.model.Pipeline
+import com.netflix.spinnaker.echo.model.Trigger
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker
+import org.quartz.JobDataMap
+import org.quartz.JobExecutionContext
+import org.quartz.TriggerKey
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Clock
+import java.time.Duration
+
+import static com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator.TriggerSource.CRON_SCHEDULER
+
+class PipelineTriggerJobSpec extends Specification {
+  def pipeline = Pipeline.builder()
+    .application('app')
+    .name('pipeline')
+    .id('p1')
+    .build()
+  def trigger = Trigger.builder()
+    .id('t1')
+    .type('cron')
+    .cronExpression('0 * * * * ? *')
+    .parent(pipeline)
+    .build()
+
+  def pipelineInitiator = Mock(PipelineInitiator)
+  def pipelineCache = Stub(PipelineCache) {
+    getPipelinesSync() >> [pipeline]
+  }
+  def latencyTracker = new TriggerLatencyTracker(new DefaultRegistry(), Clock.systemUTC(), 20, Duration.ofHours(1))
+
+  @Subject
+  def job = new PipelineTriggerJob(pipelineInitiator, pipelineCache, latencyTracker)
+
+  def 'records how long the job took to start and trigger the pipeline'() {
+    given:
+    def scheduledFireTime = new Date(System.currentTimeMillis() - 5000)
+
+    when:
+    job.execute(context(scheduledFireTime))
+
+    then:
+    1 * pipelineInitiator.startPipeline({ Pipeline p ->
+      p.id == 'p1' && p.trigger.id == 't1'
+    }, CRON_SCHEDULER, scheduledFireTime.toInstant())
+
+    def report = latencyTracker.report()
+    report.stages.collect { [it.stage, it.triggerSource, it.count] } == [
+      ['scheduledToJobStart', CRON_SCHEDULER, 1L],
+      ['jobStartToTrigger', CRON_SCHEDULER, 1L]
+    ]
+    report.worstOffenders.scheduledToJobStart*.latencyMillis.every { it >= 5000 }
+    report.worstOffenders.scheduledToJobStart*.triggerId == ['t1']
+  }
+
+  def 'only records the job stage without a scheduled fire time'() {
+    when:
+    job.execute(context(null))
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, CRON_SCHEDULER, null)
+    latencyTracker.report().stages*.stage == ['jobStartToTrigger']
+  }
+
+  private JobExecutionContext context(Date scheduledFireTime) {
+    def quartzTrigger = Stub(org.quartz.Trigger) {
+      getKey() >> TriggerKey.triggerKey('t1')
+    }
+    return Stub(JobExecutionContext) {
+      getMergedJobDataMap() >> new JobDataMap(TriggerConverter.toParamMap(trigger, 'UTC'))
+      getScheduledFireTime() >> scheduledFireTime
+      getTrigger() >> quartzTrigger
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.actions.pipeline
+
+import org.h2.jdbcx.JdbcDataSource
+import org.quartz.JobDataMap
+import org.quartz.Scheduler
+import org.quartz.SchedulerMetaData
+import org.quartz.TriggerKey
+import org.quartz.impl.matchers.GroupMatcher
+import spock.lang.Specification
+import spock.lang.Subject
+
+class QuartzTriggerStateReaderSpec extends Specification {
+  def dataSource = new JdbcDataSource(url: "jdbc:h2:mem:quartz_${UUID.randomUUID()};DB_CLOSE_DELAY=-1")
+  def scheduler = Stub(Scheduler) {
+    getSchedulerName() >> "echo"
+    getMetaData() >> Stub(SchedulerMetaData) {
+      isJobStoreSupportsPersistence() >> true
+    }
+  }
+
+  @Subject
+  def reader = new QuartzTriggerStateReader(Optional.of(dataSource), "QRTZ_")
+
+  void setup() {
+    dataSource.connection.withCloseable {
+      it.createStatement().execute(
+        "CREATE TABLE QRTZ_TRIGGERS (SCHED_NAME VARCHAR(120), TRIGGER_NAME VARCHAR(200), TRIGGER_GROUP VARCHAR(200), DESCRIPTION VARCHAR(250), JOB_DATA BLOB)")
+      it.createStatement().execute(
+        "CREATE TABLE QRTZ_CRON_TRIGGERS (SCHED_NAME VARCHAR(120), TRIGGER_NAME VARCHAR(200), TRIGGER_GROUP VARCHAR(200), CRON_EXPRESSION VARCHAR(120), TIME_ZONE_ID VARCHAR(80))")
+    }
+    insert("echo", "t1", "trigger_p1", "0 0 * * * ?", [application: "app", id: "p1"])
+    insert("echo", "t2", "trigger_p2", "0 30 * * * ?", [application: "app", id: "p2"])
+    insert("echo", "t3", "user", "0 15 * * * ?", null)
+    insert("other", "t4", "trigger_p1", "0 0 * * * ?", [application: "app", id: "p1"])
+  }
+
+  def 'reads cron triggers and their job data in bulk'() {
+    when:
+    def triggers = reader.readCronTriggers(scheduler, GroupMatcher.triggerGroupStartsWith("trigger_")).sort { it.key }
+
+    then:
+    triggers*.key == [TriggerKey.triggerKey("t1", "trigger_p1"), TriggerKey.triggerKey("t2", "trigger_p2")]
+    triggers*.cronExpression == ["0 0 * * * ?", "0 30 * * * ?"]
+    triggers*.timeZoneId == ["UTC", "UTC"]
+    triggers[1].jobData.getString("id") == "p2"
+
+    when:
+    triggers = reader.readCronTriggers(scheduler, GroupMatcher.triggerGroupEquals("user"))
+
+    then:
+    triggers*.key == [TriggerKey.triggerKey("t3", "user")]
+    triggers[0].jobData.isEmpty()
+  }
+
+  def 'pages cron triggers in the job store'() {
+    given:
+    (3..6).each { insert("echo", "t$it", "trigger_p$it", "0 0 * * * ?", [application: "app", id: "p$it"]) }
+    insert("echo", "t7", "triggerXp7", "0 0 * * * ?", [application: "app", id: "p7"])
+
+    when:
+    def page = reader.readCronTriggers(scheduler, GroupMatcher.triggerGroupStartsWith("trigger_"), offset, 2)
+
+    then:
+    page.triggers*.key*.name == names
+    page.total == 6
+
+    where:
+    offset | names
+    0      | ["t1", "t2"]
+    4      | ["t5", "t6"]
+    5      | ["t6"]
+    6      | []
+  }
+
+  def 'only matches the trigger group prefix literally'() {
+    given:
+    insert("echo", "t5", "triggerXp5", "0 0 * * * ?", [application: "app", id: "p5"])
+
+    expect:
+    reader.readCronTriggers(scheduler, GroupMatcher.triggerGroupStartsWith("trigger_"))*.key*.name.sort() == ["t1", "t2"]
+    reader.readFingerprints(scheduler).keySet()*.name.sort() == ["t1", "t2"]
+    QuartzTriggerStateReader.likePrefix("a_b%c!") == "a!_b!%c!!%"
+  }
+
+  def 'falls back to the scheduler api without a database'() {
+    given:
+    def inMemoryReader = new QuartzTriggerStateReader(Optional.empty(), "QRTZ_")
+
+    when:
+    def triggers = inMemoryReader.readCronTriggers(scheduler, GroupMatcher.triggerGroupEquals("user"))
+
+    then:
+    triggers.isEmpty()
+  }
+
+  private void insert(String schedulerName, String name, String group, String cronExpression, Map jobData) {
+    byte[] blob = null
+    if (jobData != null) {
+      def bytes = new ByteArrayOutputStream()
+      new ObjectOutputStream(bytes).withCloseable { it.writeObject(new JobDataMap(jobData)) }
+      blob = bytes.toByteArray()
+    }
+
+    dataSource.connection.withCloseable {
+      def statement = it.prepareStatement("INSERT INTO QRTZ_TRIGGERS VALUES (?, ?, ?, NULL, ?)")
+      statement.setString(1, schedulerName)
+      statement.setString(2, name)
+      statement.setString(3, group)
+      statement.setBytes(4, blob)
+      statement.executeUpdate()
+
+      statement = it.prepareStatement("INSERT INTO QRTZ_CRON_TRIGGERS VALUES (?, ?, ?, ?, 'UTC')")
+      statement.setString(1, schedulerName)
+      statement.setString(2, name)
+      statement.setString(3, group)
+      statement.setString(4, cronExpression)
+      statement.executeUpdate()
+    }
+  }
+}
@@ -19,15 +19,11 @@ package com.netflix.spinnaker.echo.scheduler.actions.pipeline
 import com.netflix.spinnaker.echo.model.Pipeline
 import com.netflix.spinnaker.echo.model.Trigger
 import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
-import org.quartz.CronScheduleBuilder
 import org.quartz.CronTrigger
-import org.quartz.JobDataMap
 import spock.lang.Shared
 import spock.lang.Specification
 import spock.lang.Unroll
 
-import static TriggerConverter.isInSync
-
 class TriggerConverterSpec extends Specification {
     @Shared
     def pipeline = Pipeline
@@ -135,40 +131,4 @@ class TriggerConverterSpec extends Specification {
         where:
         triggerId << ['123-456']
     }
-
-    @Unroll
-    void 'isInSync() should return true if cronExpression, timezone of the trigger, runAsUser and trigger parameters match the ActionInstance'() {
-        setup:
-        Trigger pipelineTrigger = Trigger.builder()
-                                 .id("id1")
-                                 .parent(pipeline)
-                                 .type(Trigger.Type.CRON.toString())
-                                 .cronExpression('* 0/30 * * * ? *')
-                                 .runAsUser("batman")
-                                 .parameters([param: 'value'])
-                                 .build()
-
-        org.quartz.Trigger scheduleTrigger = org.quartz.TriggerBuilder.newTrigger()
-          .withIdentity("ignored", null)
-          .withSchedule(CronScheduleBuilder.cronSchedule(pipelineTrigger.cronExpression)
-            .inTimeZone(TimeZone.getTimeZone(actionInstanceTimeZoneId)))
-          .usingJobData(new JobDataMap([
-            runAsUser: runAsUser,
-            triggerParameters: parameters
-          ]))
-          .build()
-
-        expect:
-        isInSync(scheduleTrigger, pipelineTrigger, TimeZone.getTimeZone('America/New_York')) == expectedInSync
-
-        where:
-        actionInstanceTimeZoneId | runAsUser | parameters         | expectedInSync
-        'America/New_York'       | 'batman'  | [param: 'value']   | true
-        'America/New_York'       | 'batman'  | [:]                | false
-        'America/New_York'       | 'batman'  | null               | false
-        'America/New_York'       | 'batman'  | [param: 'other']   | false
-        'America/Los_Angeles'    | 'batman'  | [param: 'value']   | false
-        ''                       | 'batman'  | [param: 'value']   | false
-        'America/New_York'       | 'robin'   | [param: 'value']   | false
-    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding
+
+import spock.lang.Specification
+
+class ConsistentHashRingSpec extends Specification {
+  def keys = (1..10000).collect { UUID.randomUUID().toString() }
+
+  def 'spreads keys evenly across members'() {
+    given:
+    def ring = new ConsistentHashRing(["node1", "node2", "node3", "node4"], 128)
+
+    when:
+    def counts = keys.countBy { ring.owner(it) }
+
+    then:
+    counts.keySet() == ["node1", "node2", "node3", "node4"] as Set
+    counts.values().every { it > 1800 && it < 3200 }
+  }
+
+  def 'a joining member only takes keys over, it does not shuffle the others'() {
+    given:
+    def before = new ConsistentHashRing(["node1", "node2", "node3"], 128)
+    def after = new ConsistentHashRing(["node1", "node2", "node3", "node4"], 128)
+
+    when:
+    def moved = keys.findAll { before.owner(it) != after.owner(it) }
+
+    then:
+    moved.every { after.owner(it) == "node4" }
+    moved.size() < keys.size() * 0.35
+  }
+
+  def 'a leaving member only hands off its own keys'() {
+    given:
+    def before = new ConsistentHashRing(["node1", "node2", "node3"], 128)
+    def after = new ConsistentHashRing(["node1", "node3"], 128)
+
+    expect:
+    keys.findAll { before.owner(it) != after.owner(it) }.every { before.owner(it) == "node2" }
+  }
+
+  def 'an empty ring has no owners'() {
+    expect:
+    new ConsistentHashRing([], 128).owner("key") == null
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.sharding
+
+import com.netflix.spectator.api.DefaultRegistry
+import org.h2.jdbcx.JdbcDataSource
+import spock.lang.Specification
+import spock.util.time.MutableClock
+
+import java.time.Instant
+import java.time.ZoneOffset
+
+class CronTriggerShardingSpec extends Specification {
+  def dataSource = new JdbcDataSource(url: "jdbc:h2:mem:cron_nodes_${UUID.randomUUID()};DB_CLOSE_DELAY=-1")
+  def membership = new SqlCronShardMembership(dataSource)
+  def registry = new DefaultRegistry()
+  def clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC)
+  def triggerIds = (1..1000).collect { UUID.randomUUID().toString() }
+
+  void setup() {
+    dataSource.connection.withCloseable {
+      it.createStatement().execute(
+        "CREATE TABLE ECHO_CRON_NODES (NODE_ID VARCHAR(200) NOT NULL PRIMARY KEY, LAST_HEARTBEAT BIGINT NOT NULL)")
+    }
+  }
+
+  def 'owns nothing until the first heartbeat'() {
+    given:
+    def node1 = sharding("node1")
+
+    expect:
+    !triggerIds.any { node1.owns(it) }
+
+    when:
+    node1.heartbeat()
+
+    then:
+    triggerIds.every { node1.owns(it) }
+  }
+
+  def 'every trigger has exactly one owner once the handoff grace period is over'() {
+    given:
+    def nodes = ["node1", "node2", "node3"].collect { sharding(it) }
+
+    when:
+    2.times { nodes*.heartbeat() }
+    clock.instant = clock.instant().plusSeconds(61)
+
+    then:
+    nodes.every { it.members == ["node1", "node2", "node3"] as Set }
+    triggerIds.every { id -> nodes.count { it.owns(id) } == 1 }
+    nodes.every { node -> triggerIds.count { node.owns(it) } > 200 }
+  }
+
+  def 'hands off the triggers of a node whose heartbeat expired'() {
+    given:
+    def node1 = sharding("node1")
+    def node2 = sharding("node2")
+    def rebalances = 0
+    node1.addRebalanceListener { rebalances++ }
+
+    and:
+    node1.heartbeat()
+    node2.heartbeat()
+    node1.heartbeat()
+    clock.instant = clock.instant().plusSeconds(61)
+    def ownedByNode2 = triggerIds.findAll { node2.owns(it) }
+
+    when: 'node2 stops heartbeating'
+    clock.instant = clock.instant().plusSeconds(31)
+    node1.heartbeat()
+
+    then: 'node1 takes its triggers over'
+    node1.members == ["node1"] as Set
+    ownedByNode2.every { node1.owns(it) }
+    rebalances == 3
+    registry.counter("echo.cron.shard.rebalances", "joined", "0", "left", "1").count() == 1
+  }
+
+  def 'keeps previous triggers during the handoff grace period'() {
+    given:
+    def node1 = sharding("node1")
+    node1.heartbeat()
+
+    when: 'node2 joins'
+    sharding("node2").heartbeat()
+    node1.heartbeat()
+
+    then: 'node1 keeps firing node2 triggers until node2 caught up'
+    triggerIds.every { node1.owns(it) }
+
+    when:
+    clock.instant = clock.instant().plusSeconds(61)
+
+    then:
+    !triggerIds.every { node1.owns(it) }
+  }
+
+  def 'keeps every handoff within its grace period when members change again'() {
+    given:
+    def node1 = sharding("node1")
+    def node2 = sharding("node2")
+    node1.heartbeat()
+    node2.heartbeat()
+    node1.heartbeat()
+    clock.instant = clock.instant().plusSeconds(61)
+    node2.heartbeat()
+    node1.heartbeat()
+    def ownedBefore = triggerIds.findAll { node1.owns(it) }
+
+    when: 'node3 joins, and node4 shortly after, like in a rolling deploy'
+    sharding("node3").heartbeat()
+    node1.heartbeat()
+    clock.instant = clock.instant().plusSeconds(10)
+    sharding("node4").heartbeat()
+    node1.heartbeat()
+
+    then: 'node1 keeps the triggers it handed off in the first rebalance'
+    node1.members == ["node1", "node2", "node3", "node4"] as Set
+    ownedBefore.every { node1.owns(it) }
+
+    when: 'only the grace period of the first rebalance is over'
+    clock.instant = clock.instant().plusSeconds(51)
+
+    then:
+    !ownedBefore.every { node1.owns(it) }
+  }
+
+  def 'a node that leaves is removed right away'() {
+    given:
+    def node1 = sharding("node1")
+    def node2 = sharding("node2")
+    node1.heartbeat()
+    node2.heartbeat()
+    node2.onApplicationEvent(null)
+
+    when:
+    node2.stop()
+    node1.heartbeat()
+
+    then:
+    node1.members == ["node1"] as Set
+  }
+
+  def 'a node that never started does not leave'() {
+    given:
+    def membership = Mock(CronShardMembership)
+    def node1 = new CronTriggerSharding(membership, registry, clock, "node1", 128, 10000, 30000, 60000)
+
+    when:
+    node1.stop()
+
+    then:
+    0 * membership.leave(_)
+  }
+
+  private CronTriggerSharding sharding(String nodeId) {
+    return new CronTriggerSharding(membership, registry, clock, nodeId, 128, 10000, 30000, 60000)
+  }
+}
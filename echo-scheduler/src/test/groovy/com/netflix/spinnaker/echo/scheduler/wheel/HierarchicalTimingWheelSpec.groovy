@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class HierarchicalTimingWheelSpec extends Specification {
+
+  @Unroll
+  def 'expires a task #delayMillis ms out on its tick'() {
+    given:
+    def wheel = new HierarchicalTimingWheel<String>(1000, 4, 0)
+    List<String> expired = []
+    wheel.schedule(delayMillis, "task")
+
+    when:
+    wheel.advance(delayMillis - 1000, { expired << it })
+
+    then:
+    expired.isEmpty()
+    wheel.size() == 1
+
+    when:
+    wheel.advance(delayMillis, { expired << it })
+
+    then:
+    expired == ["task"]
+    wheel.size() == 0
+
+    where:
+    delayMillis << [1000, 3000, 4000, 15000, 16000, 64000, 500000]
+  }
+
+  def 'expires tasks in deadline order across levels'() {
+    given:
+    def wheel = new HierarchicalTimingWheel<Long>(1000, 8, 0)
+    def random = new Random(42)
+    List<Long> deadlines = (1..500).collect { (random.nextInt(100_000) / 1000 as long) * 1000 }
+    deadlines.each { wheel.schedule(it, it) }
+    List<Long> expired = []
+
+    when:
+    (1..100).each { second -> wheel.advance(second * 1000, { expired << it }) }
+
+    then:
+    expired == deadlines.sort(false)
+    wheel.size() == 0
+  }
+
+  def 'tasks whose deadline passed expire on the next advance'() {
+    given:
+    def wheel = new HierarchicalTimingWheel<String>(1000, 4, 10_000)
+    List<String> expired = []
+
+    when:
+    wheel.schedule(5_000, "late")
+    wheel.advance(10_000, { expired << it })
+
+    then:
+    expired == ["late"]
+  }
+
+  def 'tasks scheduled while expiring are honored'() {
+    given:
+    def wheel = new HierarchicalTimingWheel<Integer>(1000, 4, 0)
+    List<Integer> expired = []
+    wheel.schedule(1000, 1)
+
+    when:
+    wheel.advance(20_000, { Integer n ->
+      expired << n
+      if (n < 5) {
+        wheel.schedule(n * 3000 + 1000, n + 1)
+      }
+    })
+
+    then:
+    expired == [1, 2, 3, 4, 5]
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel
+
+import com.netflix.spectator.api.NoopRegistry
+import org.h2.jdbcx.JdbcDataSource
+import spock.lang.Specification
+
+class SqlCronFireStateStoreSpec extends Specification {
+  def dataSource = new JdbcDataSource(url: "jdbc:h2:mem:cron_fires_${UUID.randomUUID()};DB_CLOSE_DELAY=-1")
+
+  void setup() {
+    dataSource.connection.withCloseable {
+      it.createStatement().execute(
+        "CREATE TABLE ECHO_CRON_TRIGGER_FIRES (TRIGGER_ID VARCHAR(190) NOT NULL PRIMARY KEY, LAST_FIRE_TIME BIGINT NOT NULL, FIRED_BY VARCHAR(200))")
+    }
+  }
+
+  def 'each fire time is claimed once'() {
+    given:
+    def node1 = new SqlCronFireStateStore(dataSource, new NoopRegistry(), "node1")
+    def node2 = new SqlCronFireStateStore(dataSource, new NoopRegistry(), "node2")
+
+    expect:
+    node1.tryClaim("t1", 1000)
+    !node2.tryClaim("t1", 1000)
+    node2.tryClaim("t1", 2000)
+    !node1.tryClaim("t1", 1000)
+    node1.tryClaim("t2", 1000)
+  }
+
+  def 'claims a batch of firings at once'() {
+    given:
+    def node1 = new SqlCronFireStateStore(dataSource, new NoopRegistry(), "node1")
+    def node2 = new SqlCronFireStateStore(dataSource, new NoopRegistry(), "node2")
+    node1.tryClaim("t1", 1000)
+
+    expect:
+    node2.tryClaimAll([claim("t1", 1000), claim("t1", 2000), claim("t2", 1000), claim("t2", 1000)]) == [false, true, true, false]
+    node1.tryClaimAll([claim("t1", 2000), claim("t2", 3000)]) == [false, true]
+    node1.tryClaimAll([]) == []
+  }
+
+  def 'nothing is claimed when the database is unavailable'() {
+    given:
+    def store = new SqlCronFireStateStore(new JdbcDataSource(url: "jdbc:h2:mem:missing;IFEXISTS=TRUE"), new NoopRegistry(), "node1")
+
+    expect:
+    !store.tryClaim("t1", 1000)
+    store.tryClaimAll([claim("t1", 1000), claim("t2", 1000)]) == [false, false]
+  }
+
+  private static CronFireStateStore.Claim claim(String triggerId, long fireTime) {
+    new CronFireStateStore.Claim(triggerId, fireTime)
+  }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler.wheel
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.echo.cron.CronJitterPolicy
+import com.netflix.spinnaker.echo.model.Pipeline
+import com.netflix.spinnaker.echo.model.Trigger
+import com.netflix.spinnaker.echo.pipelinetriggers.PipelineCache
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.PipelineInitiator
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker
+import com.netflix.spinnaker.echo.scheduler.sharding.CronTriggerOwnership
+import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.util.concurrent.PollingConditions
+import spock.util.time.MutableClock
+
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class TimingWheelCronSchedulerSpec extends Specification {
+  def pipelineCache = Mock(PipelineCache)
+  def pipelineInitiator = Mock(PipelineInitiator)
+  def discoveryStatusListener = Stub(DiscoveryStatusListener) {
+    isEnabled() >> true
+  }
+  def fireStateStore = new InMemoryCronFireStateStore()
+  def clock = new MutableClock(Instant.parse("2026-01-01T10:00:00.500Z"), ZoneOffset.UTC)
+  def latencyTracker = new TriggerLatencyTracker(new DefaultRegistry(), clock, 20, Duration.ofHours(1))
+
+  @Subject
+  def scheduler = new TimingWheelCronScheduler(
+    pipelineCache, pipelineInitiator, fireStateStore, discoveryStatusListener, new NoopRegistry(), clock,
+    TimeZone.getTimeZone("UTC"), 1000, 60, 30000, 60000)
+
+  def 'fires triggers on schedule'() {
+    given: 'a trigger firing every 15 seconds'
+    def pipelines = pipelines('0/15 * * * * ? *')
+    pipelineCache.getPipelinesSync() >> pipelines
+
+    when:
+    scheduler.refresh()
+    advanceTo("10:00:14.900")
+
+    then:
+    0 * pipelineInitiator.startPipeline(_, _, _)
+
+    when:
+    advanceTo("10:00:15.100")
+
+    then:
+    1 * pipelineInitiator.startPipeline({ Pipeline p ->
+      p.id == 'p1' && p.trigger.id == pipelines[0].triggers[0].id && p.trigger.eventId
+    }, PipelineInitiator.TriggerSource.CRON_SCHEDULER, Instant.parse("2026-01-01T10:00:15Z"))
+
+    when:
+    advanceTo("10:01:00.000")
+
+    then:
+    3 * pipelineInitiator.startPipeline(_, PipelineInitiator.TriggerSource.CRON_SCHEDULER, _)
+  }
+
+  def 'reschedules changed triggers and drops removed ones'() {
+    given:
+    def everyMinute = pipelines('0 * * * * ? *')
+    def everyTenMinutes = pipelines('0 0/10 * * * ? *')
+    pipelineCache.getPipelinesSync() >>> [everyMinute, everyTenMinutes, []]
+
+    when:
+    scheduler.refresh()
+    advanceTo("10:01:00.000")
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, _, _)
+
+    when: 'the expression changed'
+    scheduler.refresh()
+    advanceTo("10:09:59.000")
+
+    then: 'the firings planned for the old expression are dropped'
+    0 * pipelineInitiator.startPipeline(_, _, _)
+
+    when:
+    advanceTo("10:10:00.000")
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, _, _)
+
+    when: 'the pipeline is gone'
+    scheduler.refresh()
+    advanceTo("10:30:00.000")
+
+    then:
+    0 * pipelineInitiator.startPipeline(_, _, _)
+    scheduler.scheduledCount() == 0
+  }
+
+  def 'only one instance fires a trigger'() {
+    given:
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+    def otherPipelineInitiator = Mock(PipelineInitiator)
+    def otherScheduler = new TimingWheelCronScheduler(
+      pipelineCache, otherPipelineInitiator, fireStateStore, discoveryStatusListener, new NoopRegistry(), clock,
+      TimeZone.getTimeZone("UTC"), 1000, 60, 30000, 60000)
+
+    when:
+    scheduler.refresh()
+    otherScheduler.refresh()
+    clock.instant = at("10:01:00.200")
+    otherScheduler.tick()
+    scheduler.tick()
+
+    then:
+    1 * otherPipelineInitiator.startPipeline(_, _, _)
+    0 * pipelineInitiator.startPipeline(_, _, _)
+  }
+
+  def 'skips firings that are too late'() {
+    given:
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+    scheduler.refresh()
+
+    when: 'the scheduler was paused for a while'
+    clock.instant = at("10:05:30.000")
+    scheduler.tick()
+
+    then:
+    0 * pipelineInitiator.startPipeline(_, _, _)
+
+    when: 'it resumes from now rather than replaying the missed firings'
+    advanceTo("10:06:00.000")
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, _, _)
+  }
+
+  def 'only schedules owned triggers'() {
+    given:
+    def owned = true
+    def ownership = { String triggerId -> owned } as CronTriggerOwnership
+    def shardedScheduler = new TimingWheelCronScheduler(
+      pipelineCache, pipelineInitiator, fireStateStore, ownership, CronJitterPolicy.NONE, discoveryStatusListener, latencyTracker,
+      new NoopRegistry(), clock,
+      TimeZone.getTimeZone("UTC"), 1000, 60, 30000, 60000)
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+
+    when:
+    shardedScheduler.refresh()
+    clock.instant = at("10:01:00.200")
+    shardedScheduler.tick()
+
+    then:
+    shardedScheduler.scheduledCount() == 1
+    1 * pipelineInitiator.startPipeline(_, _, _)
+
+    when: 'the trigger was handed off'
+    owned = false
+    clock.instant = at("10:02:00.200")
+    shardedScheduler.tick()
+
+    then:
+    0 * pipelineInitiator.startPipeline(_, _, _)
+    shardedScheduler.scheduledCount() == 0
+
+    when: 'and came back'
+    owned = true
+    shardedScheduler.invalidate()
+    shardedScheduler.refresh()
+    clock.instant = at("10:03:00.200")
+    shardedScheduler.tick()
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, _, _)
+  }
+
+  def 'keeps firing while a refresh is slow'() {
+    given:
+    def refreshing = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def fired = new CountDownLatch(1)
+    def ownership = { String triggerId ->
+      // mocks can't block without blocking each other, so the refresh is held up while checking
+      // ownership instead
+      if (Thread.currentThread().name == 'cron-timing-wheel-refresh') {
+        refreshing.countDown()
+        release.await()
+      }
+      return true
+    } as CronTriggerOwnership
+    def slowScheduler = new TimingWheelCronScheduler(
+      pipelineCache, pipelineInitiator, fireStateStore, ownership, CronJitterPolicy.NONE, discoveryStatusListener, latencyTracker,
+      new NoopRegistry(), clock, TimeZone.getTimeZone("UTC"), 100, 60, 3600000, 60000)
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+
+    and: 'the trigger is scheduled'
+    slowScheduler.refresh()
+    slowScheduler.tick()
+    slowScheduler.invalidate()
+
+    when: 'the next refresh is slow'
+    slowScheduler.onApplicationEvent(null)
+    def refreshStarted = refreshing.await(5, TimeUnit.SECONDS)
+
+    and: 'a firing becomes due meanwhile'
+    clock.instant = at("10:01:00.200")
+    def firedInTime = fired.await(5, TimeUnit.SECONDS)
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, _, at("10:01:00.000")) >> { fired.countDown() }
+    refreshStarted
+    firedInTime
+    release.count == 1
+
+    cleanup:
+    release.countDown()
+    slowScheduler.stop()
+  }
+
+  def 'does not lose an invalidation that happens while refreshing'() {
+    given:
+    def owned = false
+    def shardedScheduler
+    def ownership = { String triggerId ->
+      def result = owned
+      if (!owned) {
+        // the trigger is handed over right after this refresh checked it
+        owned = true
+        shardedScheduler.invalidate()
+      }
+      return result
+    } as CronTriggerOwnership
+    shardedScheduler = new TimingWheelCronScheduler(
+      pipelineCache, pipelineInitiator, fireStateStore, ownership, CronJitterPolicy.NONE, discoveryStatusListener, latencyTracker,
+      new NoopRegistry(), clock, TimeZone.getTimeZone("UTC"), 1000, 60, 30000, 60000)
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+
+    when:
+    shardedScheduler.refresh()
+    shardedScheduler.tick()
+
+    then:
+    shardedScheduler.scheduledCount() == 0
+
+    when: 'the same snapshot is refreshed again'
+    shardedScheduler.refresh()
+    shardedScheduler.tick()
+
+    then:
+    shardedScheduler.scheduledCount() == 1
+  }
+
+  def 'records how long each firing took to start'() {
+    given:
+    def wheelScheduler = new TimingWheelCronScheduler(
+      pipelineCache, pipelineInitiator, fireStateStore, CronTriggerOwnership.ALL, CronJitterPolicy.NONE, discoveryStatusListener,
+      latencyTracker, new NoopRegistry(), clock, TimeZone.getTimeZone("UTC"), 1000, 60, 30000, 60000)
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+
+    when:
+    wheelScheduler.refresh()
+    clock.instant = at("10:01:00.200")
+    wheelScheduler.tick()
+
+    then:
+    1 * pipelineInitiator.startPipeline(_, PipelineInitiator.TriggerSource.CRON_SCHEDULER, at("10:01:00.000"))
+
+    def report = latencyTracker.report()
+    report.stages.collect { [it.stage, it.triggerSource, it.count] } == [
+      ['scheduledToJobStart', PipelineInitiator.TriggerSource.CRON_SCHEDULER, 1L],
+      ['jobStartToTrigger', PipelineInitiator.TriggerSource.CRON_SCHEDULER, 1L]
+    ]
+    report.worstOffenders.scheduledToJobStart*.latencyMillis == [200L]
+    report.worstOffenders.scheduledToJobStart*.pipelineId == ['p1']
+  }
+
+  def 'reconciles on its own thread when asked to refresh soon'() {
+    given:
+    def owned = true
+    def ownership = { String triggerId -> owned } as CronTriggerOwnership
+    def shardedScheduler = new TimingWheelCronScheduler(
+      pipelineCache, pipelineInitiator, fireStateStore, ownership, CronJitterPolicy.NONE, discoveryStatusListener, latencyTracker,
+      new NoopRegistry(), clock,
+      TimeZone.getTimeZone("UTC"), 1000, 60, 3600000, 60000)
+    pipelineCache.getPipelinesSync() >> pipelines('0 * * * * ? *')
+    def conditions = new PollingConditions(timeout: 5)
+
+    when:
+    shardedScheduler.onApplicationEvent(null)
+
+    then:
+    conditions.eventually { assert shardedScheduler.scheduledCount() == 1 }
+
+    when: 'the trigger was handed off'
+    owned = false
+    shardedScheduler.refreshSoon()
+
+    then:
+    conditions.eventually { assert shardedScheduler.scheduledCount() == 0 }
+
+    cleanup:
+    shardedScheduler.stop()
+  }
+
+  private void advanceTo(String time) {
+    Instant target = at(time)
+    while (clock.instant() < target) {
+      clock.instant = [clock.instant().plusMillis(100), target].min()
+      scheduler.tick()
+    }
+  }
+
+  private static Instant at(String time) {
+    return Instant.parse("2026-01-01T${time}Z")
+  }
+
+  private static List<Pipeline> pipelines(String cronExpression) {
+    return PipelineCache.decorateTriggers([
+      Pipeline.builder()
+        .application('app')
+        .name('pipeline')
+        .id('p1')
+        .triggers([Trigger.builder().enabled(true).type('cron').cronExpression(cronExpression).build()])
+        .build()
+    ])
+  }
+}
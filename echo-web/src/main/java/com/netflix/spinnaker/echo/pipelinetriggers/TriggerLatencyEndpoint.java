@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.pipelinetriggers;
+
+import com.netflix.spinnaker.echo.pipelinetriggers.orca.TriggerLatencyTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint with the latency percentiles and the slowest recent triggers of each stage of
+ * triggering a pipeline (see {@link TriggerLatencyTracker}). Like other actuator endpoints, it has
+ * to be exposed through {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "triggerLatency")
+public class TriggerLatencyEndpoint {
+  private final TriggerLatencyTracker latencyTracker;
+
+  public TriggerLatencyEndpoint(TriggerLatencyTracker latencyTracker) {
+    this.latencyTracker = latencyTracker;
+  }
+
+  @ReadOperation
+  public TriggerLatencyTracker.Report report() {
+    return latencyTracker.report();
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.scheduler;
+
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.CronFireLoadAnalyzer;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.CronFireLoadAnalyzer.FireLoad;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Reports how many cron triggers fire per second, to tune {@code scheduler.cron.auto-jitter}. */
+@RestController
+@ConditionalOnExpression("${scheduler.enabled:false}")
+public class CronFireLoadController {
+  private final CronFireLoadAnalyzer analyzer;
+
+  @Autowired
+  public CronFireLoadController(CronFireLoadAnalyzer analyzer) {
+    this.analyzer = analyzer;
+  }
+
+  @GetMapping("/scheduledActions/fireLoad")
+  public FireLoad getFireLoad(
+      @RequestParam(defaultValue = "60") int windowMinutes,
+      @RequestParam(defaultValue = "20") int top)
+      throws TimeoutException {
+    return analyzer.analyze(Duration.ofMinutes(windowMinutes), top);
+  }
+}
@@ -21,15 +21,21 @@ import static org.quartz.TriggerKey.triggerKey;
 
 import com.netflix.spinnaker.echo.cron.CronExpressionFuzzer;
 import com.netflix.spinnaker.echo.scheduler.actions.pipeline.PipelineConfigsPollingJob;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader.CronTriggerPage;
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader.CronTriggerState;
 import com.netflix.spinnaker.echo.scheduler.actions.pipeline.TriggerConverter;
 import com.netflix.spinnaker.kork.web.exceptions.NotFoundException;
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.stream.Collectors;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
+import lombok.Value;
 import org.quartz.*;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,35 +49,73 @@ import org.springframework.web.bind.annotation.*;
 public class ScheduledActionsController {
   private static final String USER_TRIGGER_GROUP = "user";
 
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private Scheduler scheduler;
+  private QuartzTriggerStateReader triggerStateReader;
 
-  @Autowired
   public ScheduledActionsController(SchedulerFactoryBean schedulerBean) {
+    this(schedulerBean, new QuartzTriggerStateReader(Optional.empty(), "QRTZ_"));
+  }
+
+  @Autowired
+  public ScheduledActionsController(
+      SchedulerFactoryBean schedulerBean, QuartzTriggerStateReader triggerStateReader) {
     this.scheduler = schedulerBean.getScheduler();
+    this.triggerStateReader = triggerStateReader;
   }
 
-  @RequestMapping(value = "/scheduledActions", method = RequestMethod.GET)
   public TriggerListResponse getAllScheduledActions() throws SchedulerException {
-    Set<TriggerKey> triggerKeys =
-        scheduler.getTriggerKeys(
-            GroupMatcher.triggerGroupStartsWith(
-                PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX));
-
-    Set<TriggerKey> manuallyCreatedKeys =
-        scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals(USER_TRIGGER_GROUP));
-
-    ArrayList<TriggerDescription> pipelineTriggers = new ArrayList<>(triggerKeys.size());
-    ArrayList<TriggerDescription> manualTriggers = new ArrayList<>(manuallyCreatedKeys.size());
+    return getAllScheduledActions(null, null, 0, null);
+  }
 
-    for (TriggerKey triggerKey : triggerKeys) {
-      pipelineTriggers.add(toTriggerDescription((CronTrigger) scheduler.getTrigger(triggerKey)));
+  /**
+   * Triggers are read in bulk from the job store and sorted by id. Both lists are paged
+   * independently, a page holds up to {@code pageSize} triggers of each list. Pages are counted and
+   * read by the job store unless filtered by job data (the application, or the pipeline of manually
+   * created triggers). All triggers are returned when no {@code pageSize} is given.
+   *
+   * @param application only return triggers of this application
+   * @param pipelineId only return triggers of this pipeline
+   */
+  @RequestMapping(value = "/scheduledActions", method = RequestMethod.GET)
+  public TriggerListResponse getAllScheduledActions(
+      @RequestParam(required = false) String application,
+      @RequestParam(required = false) String pipelineId,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) Integer pageSize)
+      throws SchedulerException {
+    if (page < 0) {
+      throw new IllegalArgumentException("page must not be negative");
+    }
+    if (pageSize != null && (pageSize < 1 || pageSize > MAX_PAGE_SIZE)) {
+      throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
     }
 
-    for (TriggerKey triggerKey : manuallyCreatedKeys) {
-      manualTriggers.add(toTriggerDescription((CronTrigger) scheduler.getTrigger(triggerKey)));
+    // pipeline triggers are grouped by pipeline id, so that filter doesn't have to read the others
+    GroupMatcher<TriggerKey> pipelineGroups =
+        pipelineId == null
+            ? GroupMatcher.triggerGroupStartsWith(
+                PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX)
+            : GroupMatcher.triggerGroupEquals(
+                PipelineConfigsPollingJob.PIPELINE_TRIGGER_GROUP_PREFIX + pipelineId);
+    GroupMatcher<TriggerKey> manualGroup = GroupMatcher.triggerGroupEquals(USER_TRIGGER_GROUP);
+
+    if (pageSize == null) {
+      return new TriggerListResponse(
+          readTriggers(pipelineGroups, application, null),
+          readTriggers(manualGroup, application, pipelineId));
     }
 
-    return new TriggerListResponse(pipelineTriggers, manualTriggers);
+    Page pipelineTriggers = readTriggers(pipelineGroups, application, null, page, pageSize);
+    Page manualTriggers = readTriggers(manualGroup, application, pipelineId, page, pageSize);
+    return new TriggerListResponse(
+        pipelineTriggers.triggers,
+        manualTriggers.triggers,
+        page,
+        pageSize,
+        pipelineTriggers.total,
+        manualTriggers.total);
   }
 
   @RequestMapping(value = "/scheduledActions", method = RequestMethod.POST)
@@ -146,6 +190,65 @@ public class ScheduledActionsController {
     return description;
   }
 
+  private List<TriggerDescription> readTriggers(
+      GroupMatcher<TriggerKey> groupMatcher, String application, String pipelineId)
+      throws SchedulerException {
+    return triggerStateReader.readCronTriggers(scheduler, groupMatcher).stream()
+        .filter(
+            trigger ->
+                application == null
+                    || application.equalsIgnoreCase(trigger.getJobData().getString("application")))
+        .filter(
+            trigger ->
+                pipelineId == null || pipelineId.equals(trigger.getJobData().getString("id")))
+        .sorted(Comparator.comparing(CronTriggerState::getKey))
+        .map(ScheduledActionsController::toTriggerDescription)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Pages are read from the job store, unless they are filtered by job data which it can't query.
+   */
+  private Page readTriggers(
+      GroupMatcher<TriggerKey> groupMatcher,
+      String application,
+      String pipelineId,
+      int page,
+      int pageSize)
+      throws SchedulerException {
+    long offset = (long) page * pageSize;
+    if (application == null && pipelineId == null) {
+      CronTriggerPage triggers =
+          triggerStateReader.readCronTriggers(scheduler, groupMatcher, offset, pageSize);
+      return new Page(
+          triggers.getTriggers().stream()
+              .map(ScheduledActionsController::toTriggerDescription)
+              .collect(Collectors.toList()),
+          triggers.getTotal());
+    }
+
+    List<TriggerDescription> triggers = readTriggers(groupMatcher, application, pipelineId);
+    if (offset >= triggers.size()) {
+      return new Page(List.of(), triggers.size());
+    }
+    return new Page(
+        triggers.subList((int) offset, (int) Math.min(triggers.size(), offset + pageSize)),
+        triggers.size());
+  }
+
+  private static TriggerDescription toTriggerDescription(CronTriggerState trigger) {
+    TriggerDescription description = new TriggerDescription();
+    description.setId(trigger.getKey().getName());
+    description.setApplication(trigger.getJobData().getString("application"));
+    description.setCronExpression(trigger.getCronExpression());
+    description.setPipelineId(trigger.getJobData().getString("id"));
+    description.setRunAsUser(trigger.getJobData().getString("runAsUser"));
+    description.setTimezone(trigger.getTimeZoneId());
+    description.setForceRebake(trigger.getJobData().getBooleanValue("triggerRebake"));
+
+    return description;
+  }
+
   private TriggerDescription toTriggerDescription(CronTrigger trigger) {
     TriggerDescription description = new TriggerDescription();
     description.setId(trigger.getKey().getName());
@@ -158,4 +261,10 @@ public class ScheduledActionsController {
 
     return description;
   }
+
+  @Value
+  private static class Page {
+    List<TriggerDescription> triggers;
+    int total;
+  }
 }
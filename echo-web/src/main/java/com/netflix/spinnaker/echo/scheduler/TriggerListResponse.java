@@ -1,13 +1,31 @@
 package com.netflix.spinnaker.echo.scheduler;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TriggerListResponse {
   private final List<TriggerDescription> pipeline;
 
   private final List<TriggerDescription> manuallyCreated;
+
+  /** Only set for paged responses. */
+  private final Integer page;
+
+  private final Integer pageSize;
+
+  /** Number of matching pipeline triggers across all pages. */
+  private final Integer pipelineTotal;
+
+  /** Number of matching manually created triggers across all pages. */
+  private final Integer manuallyCreatedTotal;
+
+  public TriggerListResponse(
+      List<TriggerDescription> pipeline, List<TriggerDescription> manuallyCreated) {
+    this(pipeline, manuallyCreated, null, null, null, null);
+  }
 }
@@ -2,6 +2,9 @@ package com.netflix.spinnaker.echo.scheduler
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spinnaker.echo.jackson.EchoObjectMapper
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader.CronTriggerPage
+import com.netflix.spinnaker.echo.scheduler.actions.pipeline.QuartzTriggerStateReader.CronTriggerState
 import org.quartz.CronTrigger
 import org.quartz.Scheduler
 import org.quartz.Trigger
@@ -60,6 +63,76 @@ class ScheduledActionsControllerSpec extends Specification {
     result.manuallyCreated[0].forceRebake == trigger2.jobDataMap.getBoolean("triggerRebake")
   }
 
+  void 'should filter and page triggers'() {
+    given:
+    def pipelineTriggers = (1..5).collect { makeTrigger("$it", "UTC", false, "trigger_id$it") }
+    def manualTriggers = [makeTrigger("6", "UTC", false), makeTrigger("7", "UTC", false)]
+    manualTriggers[1].jobDataMap.put("application", "app1")
+    def triggers = (pipelineTriggers + manualTriggers).collectEntries { [(it.key): it] }
+
+    scheduler.getTriggerKeys({ it.compareToValue == "trigger_" }) >> (pipelineTriggers*.key as Set)
+    scheduler.getTriggerKeys({ it.compareToValue == "trigger_id1" }) >> ([pipelineTriggers[0].key] as Set)
+    scheduler.getTriggerKeys({ it.compareToValue == "user" }) >> (manualTriggers*.key as Set)
+    scheduler.getTrigger(_) >> { TriggerKey key -> triggers[key] }
+
+    when:
+    def result = sac.getAllScheduledActions(null, null, 1, 2)
+
+    then:
+    result.pipeline*.id == ["key3", "key4"]
+    result.manuallyCreated*.id == []
+    result.pipelineTotal == 5
+    result.manuallyCreatedTotal == 2
+
+    when:
+    result = sac.getAllScheduledActions("APP1", null, 0, null)
+
+    then:
+    result.pipeline*.id == ["key1"]
+    result.manuallyCreated*.id == ["key7"]
+    result.pipelineTotal == null
+
+    when:
+    result = sac.getAllScheduledActions(null, "id1", 0, 10)
+
+    then:
+    result.pipeline*.id == ["key1"]
+    result.manuallyCreated*.id == []
+  }
+
+  void 'should page unfiltered triggers in the job store'() {
+    given:
+    def reader = Mock(QuartzTriggerStateReader)
+    sac = new ScheduledActionsController(schedulerFactoryBean, reader)
+    def trigger = new CronTriggerState(trigger1.key, trigger1.cronExpression, "UTC", trigger1.jobDataMap)
+
+    when:
+    def result = sac.getAllScheduledActions(null, null, 2, 10)
+
+    then:
+    1 * reader.readCronTriggers(scheduler, { it.compareToValue == "trigger_" }, 20, 10) >> new CronTriggerPage([trigger], 21)
+    1 * reader.readCronTriggers(scheduler, { it.compareToValue == "user" }, 20, 10) >> new CronTriggerPage([], 3)
+    0 * reader.readCronTriggers(*_)
+    result.pipeline*.id == ["key1"]
+    result.pipelineTotal == 21
+    result.manuallyCreated*.id == []
+    result.manuallyCreatedTotal == 3
+  }
+
+  void 'should reject invalid pages'() {
+    when:
+    sac.getAllScheduledActions(null, null, page, pageSize)
+
+    then:
+    thrown(IllegalArgumentException)
+
+    where:
+    page | pageSize
+    -1   | 10
+    0    | 0
+    0    | 1001
+  }
+
   void 'should fail creating a trigger with missing params'() {
     when:
     sac.createScheduledAction((TriggerDescription)objectMapper.readValue(payload, TriggerDescription.class))
@@ -125,9 +198,9 @@ class ScheduledActionsControllerSpec extends Specification {
   }
 
 
-  private CronTrigger makeTrigger(String id, String timezone, boolean rebake) {
+  private CronTrigger makeTrigger(String id, String timezone, boolean rebake, String group = "user") {
     def trigger = new CronTriggerImpl(
-      "key" + id, "user", "job","job",
+      "key" + id, group, "job","job",
       id + " 10 0/12 1/1 * ? *")
     trigger.timeZone = TimeZone.getTimeZone(timezone)
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.artifacts;
+
+import com.hubspot.jinjava.Jinjava;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled artifact templates by file path. A template is read again once the modification time or
+ * size of its file changed, which is checked at most every {@code checkIntervalMillis}.
+ */
+@Slf4j
+public class ArtifactTemplateCache {
+  private final Jinjava jinjava;
+  private final Clock clock;
+  private final long checkIntervalMillis;
+  private final ConcurrentMap<String, Entry> templates = new ConcurrentHashMap<>();
+
+  public ArtifactTemplateCache(Jinjava jinjava, Clock clock, long checkIntervalMillis) {
+    this.jinjava = jinjava;
+    this.clock = clock;
+    this.checkIntervalMillis = checkIntervalMillis;
+  }
+
+  public CompiledArtifactTemplate get(String templatePath) {
+    long now = clock.millis();
+    Entry entry = templates.get(templatePath);
+    if (entry != null && now < entry.nextCheck) {
+      return entry.template;
+    }
+    return templates.compute(templatePath, (path, current) -> refresh(path, current, now)).template;
+  }
+
+  public int size() {
+    return templates.size();
+  }
+
+  private Entry refresh(String templatePath, Entry current, long now) {
+    if (current != null && now < current.nextCheck) {
+      // checked by another thread in the meantime
+      return current;
+    }
+
+    try {
+      Path path = Paths.get(templatePath);
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      FileStamp stamp = new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+      if (current != null && current.stamp.equals(stamp)) {
+        return new Entry(current.template, stamp, now + checkIntervalMillis);
+      }
+
+      log.info("{} artifact template {}", current == null ? "Loading" : "Reloading", templatePath);
+      CompiledArtifactTemplate template =
+          new CompiledArtifactTemplate(
+              jinjava, new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+      return new Entry(template, stamp, now + checkIntervalMillis);
+    } catch (IOException e) {
+      throw new RuntimeException(
+          "Failed to read template path " + templatePath + ": " + e.getMessage(), e);
+    }
+  }
+
+  @Value
+  private static class FileStamp {
+    long lastModified;
+    long size;
+  }
+
+  @Value
+  private static class Entry {
+    CompiledArtifactTemplate template;
+    FileStamp stamp;
+    long nextCheck;
+  }
+}
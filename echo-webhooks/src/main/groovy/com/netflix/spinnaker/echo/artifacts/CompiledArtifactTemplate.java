@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.artifacts;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
+import com.netflix.spinnaker.kork.artifacts.model.Artifact;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A Jinja artifact template that is parsed once and rendered against payloads that were parsed
+ * already. Renders like kork's {@code JinjaArtifactExtractor}, which parses the template and the
+ * payload on every call.
+ */
+@Slf4j
+public class CompiledArtifactTemplate {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final TypeReference<List<Artifact>> artifactListReference =
+      new TypeReference<List<Artifact>>() {};
+
+  private final Jinjava jinjava;
+  private final String template;
+  private final Node root;
+
+  public CompiledArtifactTemplate(Jinjava jinjava, String template) {
+    this.jinjava = jinjava;
+    this.template = template;
+    this.root = jinjava.newInterpreter().parse(template);
+  }
+
+  public List<Artifact> getArtifacts(Map<String, ?> payload) {
+    String rendered = render(payload);
+    try {
+      return objectMapper.readValue(rendered, artifactListReference);
+    } catch (IOException e) {
+      log.warn("Unable to parse artifact from {}", rendered, e);
+      return Collections.emptyList();
+    }
+  }
+
+  private String render(Map<String, ?> bindings) {
+    JinjavaConfig config = jinjava.getGlobalConfig();
+    Context context = new Context(jinjava.getGlobalContext(), bindings, config.getDisabled());
+    JinjavaInterpreter interpreter =
+        config.getInterpreterFactory().newInstance(jinjava, context, config);
+
+    JinjavaInterpreter.pushCurrent(interpreter);
+    try {
+      String output = interpreter.render(root);
+      List<TemplateError> fatalErrors =
+          interpreter.getErrorsCopy().stream()
+              .filter(error -> error.getSeverity() == ErrorType.FATAL)
+              .collect(Collectors.toList());
+      if (!fatalErrors.isEmpty()) {
+        throw new FatalTemplateErrorsException(template, fatalErrors);
+      }
+      return output;
+    } finally {
+      JinjavaInterpreter.popCurrent();
+    }
+  }
+}
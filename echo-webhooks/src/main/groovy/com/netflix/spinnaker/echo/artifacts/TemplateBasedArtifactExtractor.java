@@ -16,35 +16,66 @@
 
 package com.netflix.spinnaker.echo.artifacts;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
 import com.netflix.spinnaker.echo.config.WebhookProperties;
+import com.netflix.spinnaker.echo.model.ArtifactEvent;
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import com.netflix.spinnaker.kork.artifacts.parsing.JinjavaFactory;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+/**
+ * Translates webhook payloads of sources with a {@code templatePath} through their Jinja template.
+ * Templates are compiled once and picked up again when their file changes, see {@link
+ * ArtifactTemplateCache}.
+ */
 @Component
 @Slf4j
 public class TemplateBasedArtifactExtractor implements WebhookArtifactExtractor {
   private final WebhookProperties webhookProperties;
-  private final ObjectMapper objectMapper;
-  private final MessageArtifactTranslator.Factory messageArtifactTranslatorFactory;
+  private final ArtifactTemplateCache templateCache;
+  private final ApplicationEventPublisher applicationEventPublisher;
+  private final Registry registry;
+  private final Id renderTimerId;
 
   @Autowired
   public TemplateBasedArtifactExtractor(
       Optional<WebhookProperties> webhookProperties,
-      ObjectMapper objectMapper,
-      MessageArtifactTranslator.Factory messageArtifactTranslatorFactory) {
+      JinjavaFactory jinjavaFactory,
+      ApplicationEventPublisher applicationEventPublisher,
+      Registry registry,
+      @Value("${webhooks.artifacts.template-check-interval-ms:10000}")
+          long templateCheckIntervalMillis) {
+    this(
+        webhookProperties,
+        new ArtifactTemplateCache(
+            jinjavaFactory.create(), Clock.systemUTC(), templateCheckIntervalMillis),
+        applicationEventPublisher,
+        registry);
+  }
+
+  TemplateBasedArtifactExtractor(
+      Optional<WebhookProperties> webhookProperties,
+      ArtifactTemplateCache templateCache,
+      ApplicationEventPublisher applicationEventPublisher,
+      Registry registry) {
     this.webhookProperties = webhookProperties.orElse(null);
-    this.objectMapper = objectMapper;
-    this.messageArtifactTranslatorFactory = messageArtifactTranslatorFactory;
+    this.templateCache = templateCache;
+    this.applicationEventPublisher = applicationEventPublisher;
+    this.registry = registry;
+    this.renderTimerId = registry.createId("echo.webhooks.artifactTemplateRender");
   }
 
   @Override
@@ -57,23 +88,27 @@ public class TemplateBasedArtifactExtractor implements WebhookArtifactExtractor
     if (StringUtils.isEmpty(templatePath)) {
       return (List<Artifact>) payload.getOrDefault("artifacts", new ArrayList<>());
     } else {
-      MessageArtifactTranslator translator;
-      try {
-        translator =
-            messageArtifactTranslatorFactory.createJinja(new FileInputStream(templatePath));
-      } catch (FileNotFoundException e) {
-        throw new RuntimeException(
-            "Failed to read template path " + templatePath + ": " + e.getMessage(), e);
-      }
+      CompiledArtifactTemplate template = templateCache.get(templatePath);
 
       List<Artifact> result = new ArrayList<>();
+      long start = registry.clock().monotonicTime();
+      boolean success = false;
       try {
-        result = translator.parseArtifacts(objectMapper.writeValueAsString(payload));
+        result = template.getArtifacts(payload);
+        success = true;
         log.info("Webhook artifacts were processed: {}", result);
       } catch (Exception e) {
         log.error("Unable to translate artifacts: {}", payload, e);
+      } finally {
+        PercentileTimer.get(
+                registry,
+                renderTimerId.withTags("source", source, "success", String.valueOf(success)))
+            .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
       }
 
+      if (!result.isEmpty()) {
+        applicationEventPublisher.publishEvent(new ArtifactEvent(null, result));
+      }
       return result;
     }
   }
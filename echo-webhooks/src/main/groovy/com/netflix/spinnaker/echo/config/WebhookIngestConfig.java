@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.webhooks.WebhookIngestQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Answers webhooks with 202 once they're parsed, and processes them from a bounded queue. Webhooks
+ * are answered with 429 while the queue is full.
+ */
+@Configuration
+@ConditionalOnProperty("webhooks.async.enabled")
+public class WebhookIngestConfig {
+
+  @Bean
+  public WebhookIngestQueue webhookIngestQueue(
+      Registry registry,
+      @Value("${webhooks.async.workers:8}") int workers,
+      @Value("${webhooks.async.queue-capacity:1000}") int queueCapacity,
+      @Value("${webhooks.async.retry-after-seconds:5}") int retryAfterSeconds) {
+    return new WebhookIngestQueue(registry, workers, queueCapacity, retryAfterSeconds);
+  }
+}
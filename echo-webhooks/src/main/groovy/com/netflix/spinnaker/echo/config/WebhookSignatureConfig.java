@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.config;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.webhooks.WebhookSignatureVerifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Verifies webhook signatures as they're received, before they're parsed. Webhooks from sources
+ * without a secret are left to the triggers to authenticate.
+ */
+@Configuration
+@ConditionalOnProperty("webhooks.signatures.enabled")
+@EnableConfigurationProperties(WebhookSignatureProperties.class)
+public class WebhookSignatureConfig {
+
+  @Bean
+  public WebhookSignatureVerifier webhookSignatureVerifier(
+      WebhookSignatureProperties properties, Registry registry) {
+    return new WebhookSignatureVerifier(properties, registry);
+  }
+}
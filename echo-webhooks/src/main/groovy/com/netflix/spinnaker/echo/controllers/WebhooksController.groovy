@@ -24,14 +24,24 @@ import com.netflix.spinnaker.kork.web.exceptions.InvalidRequestException
 import com.netflix.spinnaker.echo.events.EventPropagator
 import com.netflix.spinnaker.echo.scm.GitWebhookHandler
 import com.netflix.spinnaker.echo.scm.ScmWebhookHandler
+import com.netflix.spinnaker.echo.webhooks.WebhookIngestQueue
+import com.netflix.spinnaker.echo.webhooks.WebhookSignatureVerifier
+import com.netflix.spinnaker.security.AuthenticatedRequest
 import groovy.util.logging.Slf4j
 import io.cloudevents.CloudEvent
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
 import org.springframework.http.ResponseEntity
 import org.springframework.util.CollectionUtils
 import org.springframework.web.bind.annotation.*
 
+import javax.servlet.http.HttpServletRequest
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.Callable
+
 @RestController
 @Slf4j
 class WebhooksController {
@@ -48,13 +58,101 @@ class WebhooksController {
   @Autowired
   ScmWebhookHandler scmWebhookHandler
 
+  @Autowired(required = false)
+  WebhookIngestQueue ingestQueue
+
+  @Autowired(required = false)
+  WebhookSignatureVerifier signatureVerifier
+
+  /**
+   * Larger webhooks are rejected before their body is read. The default matches the largest
+   * payload GitHub sends.
+   */
+  @Value('${webhooks.max-payload-bytes:26214400}')
+  long maxPayloadBytes = 26214400
+
+  /**
+   * How much of a payload is logged when it can't be parsed.
+   */
+  private static final int LOGGED_PAYLOAD_CHARS = 1024
+
+  /**
+   * Reads the body itself, so that an oversized webhook is rejected by its Content-Length before
+   * anything is read, and any other one as soon as it exceeds the limit.
+   */
   @RequestMapping(value = '/webhooks/{type}/{source}', method = RequestMethod.POST)
-  WebhooksController.WebhookResponse forwardEvent(@PathVariable String type,
-                                                  @PathVariable String source,
-                                                  @RequestBody String rawPayload,
-                                                  @RequestHeader HttpHeaders headers) {
+  ResponseEntity<WebhooksController.WebhookResponse> ingestEvent(@PathVariable String type,
+                                                                 @PathVariable String source,
+                                                                 HttpServletRequest request,
+                                                                 @RequestHeader HttpHeaders headers) {
+    long contentLength = request.getContentLengthLong()
+    if (contentLength > maxPayloadBytes) {
+      return payloadTooLarge(type, source, "${contentLength} bytes")
+    }
+
+    byte[] body = readBody(request.inputStream)
+    if (body == null) {
+      return payloadTooLarge(type, source, "a body over the limit")
+    }
+
+    Charset charset = headers.getContentType()?.getCharset() ?: StandardCharsets.UTF_8
+    return verifyAndIngest(type, source, body, new String(body, charset), headers)
+  }
+
+  ResponseEntity<WebhooksController.WebhookResponse> ingestEvent(String type,
+                                                                 String source,
+                                                                 String rawPayload,
+                                                                 HttpHeaders headers) {
+    byte[] body = rawPayload == null ? new byte[0] : rawPayload.getBytes(StandardCharsets.UTF_8)
+    return verifyAndIngest(type, source, body, rawPayload, headers)
+  }
+
+  /**
+   * @param body the body as received, which is what signatures cover
+   * @param rawPayload the body decoded with the request's charset
+   */
+  private ResponseEntity<WebhooksController.WebhookResponse> verifyAndIngest(String type,
+                                                                             String source,
+                                                                             byte[] body,
+                                                                             String rawPayload,
+                                                                             HttpHeaders headers) {
+    if (signatureVerifier != null && !signatureVerifier.verify(source, headers, body)) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()
+    }
+
+    if (ingestQueue == null) {
+      return ResponseEntity.ok(forwardEvent(type, source, rawPayload, headers))
+    }
+
+    // malformed payloads are still rejected right away, everything else happens on the queue
+    Event event = parseEvent(type, source, rawPayload, headers)
+
+    // the workers don't share the request's thread, so carry its user and request id over to them
+    Callable<Boolean> process = AuthenticatedRequest.propagate({ processEvent(event, headers) } as Callable<Boolean>)
+    if (!ingestQueue.offer(type, source, { process.call() })) {
+      log.warn("Webhook queue is full, rejecting ${type}:${source}")
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestQueue.retryAfterSeconds))
+        .build()
+    }
+
+    return ResponseEntity.accepted().body(WebhookResponse.newInstance(eventProcessed: false, eventId: event.eventId))
+  }
+
+  WebhooksController.WebhookResponse forwardEvent(String type,
+                                                  String source,
+                                                  String rawPayload,
+                                                  HttpHeaders headers) {
+    Event event = parseEvent(type, source, rawPayload, headers)
+    boolean sendEvent = processEvent(event, headers)
+
+    return sendEvent ?
+      WebhookResponse.newInstance(eventProcessed: true, eventId: event.eventId) :
+      WebhookResponse.newInstance(eventProcessed: false);
+  }
+
+  private Event parseEvent(String type, String source, String rawPayload, HttpHeaders headers) {
     Event event = new Event()
-    boolean sendEvent = true
     event.details = new Metadata()
     event.details.source = source
     event.details.type = type
@@ -69,7 +167,7 @@ class WebhooksController {
     try {
       postedEvent = mapper.readValue(rawPayload, Map) ?: [:]
     } catch (Exception e) {
-      log.error("Failed to parse payload: {}", rawPayload, e);
+      log.error("Failed to parse payload: {}", truncate(rawPayload), e);
       throw e
     }
     event.content = postedEvent
@@ -77,6 +175,16 @@ class WebhooksController {
     if (headers.containsKey('X-Event-Key')) {
       event.content.event_type = headers['X-Event-Key'][0]
     }
+    return event
+  }
+
+  /**
+   * @return whether the event was propagated
+   */
+  private boolean processEvent(Event event, HttpHeaders headers) {
+    String type = event.details.type
+    String source = event.details.source
+    boolean sendEvent = true
     def filteredHeaders = CollectionUtils.toMultiValueMap(headers.findAll { headersPredicate(it) })
 
     if (type == 'git') {
@@ -87,7 +195,7 @@ class WebhooksController {
         log.error("Unable to handle SCM source: {}", source)
         throw e
       }
-      handler.handle(event, postedEvent, new HttpHeaders(filteredHeaders))
+      handler.handle(event, event.content, new HttpHeaders(filteredHeaders))
       // shouldSendEvent should be called after the event
       // has been processed
       sendEvent = handler.shouldSendEvent(event)
@@ -97,15 +205,53 @@ class WebhooksController {
       event.content.artifacts = artifactExtractor.extractArtifacts(type, source, event.payload)
     }
 
-    log.info("Webhook ${type}:${source}:${event.content}")
+    logEvent(event)
 
     if (sendEvent) {
       propagator.processEvent(event)
     }
+    return sendEvent
+  }
 
-    return sendEvent ?
-      WebhookResponse.newInstance(eventProcessed: true, eventId: event.eventId) :
-      WebhookResponse.newInstance(eventProcessed: false);
+  /**
+   * Payloads can be large, so only their top level fields are logged unless debug logging is on.
+   */
+  private static void logEvent(Event event) {
+    if (log.isDebugEnabled()) {
+      log.debug("Webhook {}:{}:{}", event.details.type, event.details.source, event.content)
+    } else {
+      log.info(
+        "Webhook {}:{} (eventId: {}, {} chars, fields: {})",
+        event.details.type,
+        event.details.source,
+        event.eventId,
+        event.rawContent?.length() ?: 0,
+        event.content?.keySet())
+    }
+  }
+
+  /**
+   * The buffer grows with what's actually read rather than with the announced Content-Length, so
+   * that a sender can't make us allocate the whole limit without sending anything.
+   *
+   * @return the body, or null if it's longer than the limit
+   */
+  private byte[] readBody(InputStream input) {
+    int limit = (int) Math.min(maxPayloadBytes, Integer.MAX_VALUE - 9)
+    byte[] body = input.readNBytes(limit + 1)
+    return body.length > limit ? null : body
+  }
+
+  private ResponseEntity<WebhooksController.WebhookResponse> payloadTooLarge(String type, String source, String size) {
+    log.warn("Rejecting webhook ${type}:${source} of ${size}, the limit is ${maxPayloadBytes} bytes")
+    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build()
+  }
+
+  private static String truncate(String payload) {
+    if (payload == null || payload.length() <= LOGGED_PAYLOAD_CHARS) {
+      return payload
+    }
+    return payload.substring(0, LOGGED_PAYLOAD_CHARS) + "... (${payload.length()} chars)"
   }
 
   // If your scm implementation needs access to headers, add them as a clause to this filter predicate
@@ -127,7 +273,7 @@ class WebhooksController {
       event.details.source = event.content.source;
     }
 
-    log.info("Webhook ${type}:${event.details.source}:${event.content}")
+    logEvent(event)
 
     propagator.processEvent(event)
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.webhooks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Processes webhooks off the request threads ({@code webhooks.async.enabled}). Requests are only
+ * parsed before they're queued, and a pool of workers does the rest. A full queue rejects webhooks
+ * instead of growing, so that senders back off rather than time out and retry.
+ */
+@Slf4j
+public class WebhookIngestQueue {
+  private final Registry registry;
+  private final ThreadPoolExecutor executor;
+  private final BlockingQueue<Runnable> queue;
+  private final Id queueWaitId;
+  private final Id rejectedId;
+  private final Id processedId;
+
+  /** Seconds senders are asked to wait after a rejected webhook. */
+  @Getter private final int retryAfterSeconds;
+
+  public WebhookIngestQueue(Registry registry, int workers, int capacity, int retryAfterSeconds) {
+    this.registry = registry;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            queue,
+            new ThreadFactoryBuilder().setNameFormat("webhook-ingest-%d").setDaemon(true).build(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.queueWaitId = registry.createId("echo.webhooks.queue.wait");
+    this.rejectedId = registry.createId("echo.webhooks.rejected");
+    this.processedId = registry.createId("echo.webhooks.processed");
+
+    PolledMeter.using(registry)
+        .withId(registry.createId("echo.webhooks.queue.depth"))
+        .monitorValue(queue, BlockingQueue::size);
+    PolledMeter.using(registry)
+        .withId(registry.createId("echo.webhooks.queue.oldestAgeMillis"))
+        .monitorValue(this, WebhookIngestQueue::oldestAgeMillis);
+  }
+
+  /**
+   * @param type the webhook type, used for metrics
+   * @param source the webhook source, used for metrics
+   * @return whether the webhook was queued, {@code false} if the queue is full
+   */
+  public boolean offer(String type, String source, Runnable task) {
+    try {
+      executor.execute(new QueuedWebhook(type, source, task, registry.clock().wallTime()));
+      return true;
+    } catch (RejectedExecutionException e) {
+      registry.counter(rejectedId.withTags("type", type, "source", source)).increment();
+      return false;
+    }
+  }
+
+  public int depth() {
+    return queue.size();
+  }
+
+  /**
+   * @return how long the oldest queued webhook has been waiting, 0 if none is
+   */
+  public long oldestAgeMillis() {
+    QueuedWebhook oldest = (QueuedWebhook) queue.peek();
+    return oldest == null ? 0 : Math.max(0, registry.clock().wallTime() - oldest.queuedAt);
+  }
+
+  /** Stops accepting webhooks and gives the queued ones a chance to finish. */
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+      log.warn("Dropping {} queued webhooks on shutdown", executor.shutdownNow().size());
+    }
+  }
+
+  private class QueuedWebhook implements Runnable {
+    private final String type;
+    private final String source;
+    private final Runnable task;
+    private final long queuedAt;
+
+    QueuedWebhook(String type, String source, Runnable task, long queuedAt) {
+      this.type = type;
+      this.source = source;
+      this.task = task;
+      this.queuedAt = queuedAt;
+    }
+
+    @Override
+    public void run() {
+      PercentileTimer.get(registry, queueWaitId)
+          .record(registry.clock().wallTime() - queuedAt, TimeUnit.MILLISECONDS);
+
+      boolean success = false;
+      try {
+        task.run();
+        success = true;
+      } catch (Exception e) {
+        log.error("Failed to process webhook {}:{}", type, source, e);
+      } finally {
+        registry
+            .counter(
+                processedId.withTags(
+                    "type", type, "source", source, "success", String.valueOf(success)))
+            .increment();
+      }
+    }
+  }
+}
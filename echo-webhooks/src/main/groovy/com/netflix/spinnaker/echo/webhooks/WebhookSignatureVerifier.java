@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.echo.webhooks;
+
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.echo.config.WebhookSignatureProperties;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Checks the signatures of webhooks from sources with a configured secret:
+ *
+ * <ul>
+ *   <li>{@code github}: HMAC-SHA256 of the payload in {@code X-Hub-Signature-256}
+ *   <li>{@code bitbucket}, {@code stash}: HMAC-SHA256 of the payload in {@code X-Hub-Signature}
+ *   <li>{@code gitlab}: the secret itself in {@code X-Gitlab-Token}
+ * </ul>
+ *
+ * Signatures are compared in constant time. Keys are built once, and each thread keeps its own
+ * {@link Mac} per source.
+ */
+@Slf4j
+public class WebhookSignatureVerifier {
+  private final Map<String, SourceVerifier> verifiers = new HashMap<>();
+  private final Registry registry;
+  private final Id rejectedId;
+
+  public WebhookSignatureVerifier(WebhookSignatureProperties properties, Registry registry) {
+    this.registry = registry;
+    this.rejectedId = registry.createId("echo.webhooks.signatureRejected");
+
+    properties
+        .getSources()
+        .forEach(
+            (source, config) -> {
+              if (config.getSecret() == null || config.getSecret().isEmpty()) {
+                throw new IllegalArgumentException(
+                    "webhooks.signatures.sources." + source + ".secret is required");
+              }
+              verifiers.put(source, new SourceVerifier(Scheme.of(source), config));
+            });
+  }
+
+  /**
+   * @return whether the webhook may be processed: it's correctly signed, or its source has no
+   *     secret, or it's unsigned and its source doesn't require signatures
+   * @param body the body as received, senders sign it before it's decoded
+   */
+  public boolean verify(String source, HttpHeaders headers, byte[] body) {
+    SourceVerifier verifier = verifiers.get(source);
+    if (verifier == null) {
+      return true;
+    }
+
+    String signature = headers.getFirst(verifier.scheme.header);
+    if (signature == null) {
+      if (verifier.required) {
+        reject(source, "missing");
+        return false;
+      }
+      return true;
+    }
+
+    if (!verifier.matches(signature, body == null ? new byte[0] : body)) {
+      reject(source, "mismatch");
+      return false;
+    }
+    return true;
+  }
+
+  private void reject(String source, String reason) {
+    log.warn("Rejecting {} webhook, signature {}", source, reason);
+    registry.counter(rejectedId.withTags("source", source, "reason", reason)).increment();
+  }
+
+  private enum Scheme {
+    GITHUB("X-Hub-Signature-256"),
+    BITBUCKET("X-Hub-Signature"),
+    GITLAB("X-Gitlab-Token");
+
+    private final String header;
+
+    Scheme(String header) {
+      this.header = header;
+    }
+
+    static Scheme of(String source) {
+      switch (source) {
+        case "github":
+          return GITHUB;
+        case "bitbucket":
+        case "stash":
+          return BITBUCKET;
+        case "gitlab":
+          return GITLAB;
+        default:
+          throw new IllegalArgumentException(
+              "Signatures of " + source + " webhooks can't be verified");
+      }
+    }
+  }
+
+  private static class SourceVerifier {
+    private static final String HMAC_PREFIX = "sha256=";
+
+    private final Scheme scheme;
+    private final boolean required;
+    private final byte[] secret;
+    private final ThreadLocal<Mac> mac;
+
+    SourceVerifier(Scheme scheme, WebhookSignatureProperties.Source config) {
+      this.scheme = scheme;
+      this.required = config.isRequired();
+      this.secret = config.getSecret().getBytes(StandardCharsets.UTF_8);
+
+      SecretKeySpec key = new SecretKeySpec(secret, "HmacSHA256");
+      this.mac =
+          ThreadLocal.withInitial(
+              () -> {
+                try {
+                  Mac mac = Mac.getInstance("HmacSHA256");
+                  mac.init(key);
+                  return mac;
+                } catch (GeneralSecurityException e) {
+                  throw new IllegalStateException(e);
+                }
+              });
+    }
+
+    boolean matches(String signature, byte[] body) {
+      if (scheme == Scheme.GITLAB) {
+        return MessageDigest.isEqual(secret, signature.getBytes(StandardCharsets.UTF_8));
+      }
+
+      if (!signature.regionMatches(true, 0, HMAC_PREFIX, 0, HMAC_PREFIX.length())) {
+        return false;
+      }
+
+      byte[] expected;
+      try {
+        expected = Hex.decodeHex(signature.substring(HMAC_PREFIX.length()));
+      } catch (DecoderException e) {
+        return false;
+      }
+      // doFinal resets the mac for the next webhook
+      byte[] actual = mac.get().doFinal(body);
+      return MessageDigest.isEqual(expected, actual);
+    }
+  }
+}
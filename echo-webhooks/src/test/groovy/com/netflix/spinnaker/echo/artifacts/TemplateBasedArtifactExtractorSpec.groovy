@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.artifacts
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.echo.config.WebhookProperties
+import com.netflix.spinnaker.echo.model.ArtifactEvent
+import com.netflix.spinnaker.kork.artifacts.parsing.DefaultJinjavaFactory
+import org.springframework.context.ApplicationEventPublisher
+import spock.lang.Specification
+import spock.lang.TempDir
+import spock.util.time.MutableClock
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.time.Instant
+import java.time.ZoneOffset
+
+class TemplateBasedArtifactExtractorSpec extends Specification {
+  static final String TEMPLATE = '''
+    [
+      {% for artifact in receivedArtifacts %}
+      {
+        "reference": "{{ artifact['id'] }}",
+        "type": "{{ artifact['type'] }}"
+      }{% if !loop.last %},{% endif %}
+      {% endfor %}
+    ]
+    '''
+
+  @TempDir
+  Path tempDir
+
+  def clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC)
+  def templateCache = new ArtifactTemplateCache(new DefaultJinjavaFactory().create(), clock, 10000)
+  def applicationEventPublisher = Mock(ApplicationEventPublisher)
+  def registry = new DefaultRegistry()
+  Path templatePath
+
+  TemplateBasedArtifactExtractor extractor
+
+  def setup() {
+    templatePath = tempDir.resolve("template.jinja")
+    Files.writeString(templatePath, TEMPLATE)
+
+    def webhookProperties = new WebhookProperties(sources: [
+      new WebhookProperties.WebhookArtifactTranslator(source: "ci", templatePath: templatePath.toString())
+    ])
+    extractor = new TemplateBasedArtifactExtractor(
+      Optional.of(webhookProperties), templateCache, applicationEventPublisher, registry)
+  }
+
+  def 'translates parsed payloads through the template'() {
+    given:
+    def payload = [receivedArtifacts: [
+      [id: "gs://bucket/id1", type: "gcs/object"],
+      [id: "gs://bucket/id2", type: "tarball"]
+    ]]
+
+    when:
+    def artifacts = extractor.getArtifacts("ci", payload)
+
+    then:
+    artifacts*.reference == ["gs://bucket/id1", "gs://bucket/id2"]
+    artifacts*.type == ["gcs/object", "tarball"]
+    1 * applicationEventPublisher.publishEvent({ ArtifactEvent event -> event.artifacts.size() == 2 })
+    registry.timers().anyMatch { it.id().name() == "echo.webhooks.artifactTemplateRender" }
+  }
+
+  def 'compiles templates once'() {
+    expect:
+    templateCache.get(templatePath.toString()).is(templateCache.get(templatePath.toString()))
+    templateCache.size() == 1
+  }
+
+  def 'reloads templates whose file changed'() {
+    given:
+    def payload = [receivedArtifacts: [[id: "gs://bucket/id1", type: "gcs/object"]]]
+    def before = templateCache.get(templatePath.toString())
+
+    when:
+    Files.writeString(templatePath, '[{"reference": "{{ receivedArtifacts[0].id }}", "type": "changed"}]')
+    Files.setLastModifiedTime(templatePath, FileTime.fromMillis(Files.getLastModifiedTime(templatePath).toMillis() + 5000))
+
+    then: 'the file is not checked again before the interval passed'
+    extractor.getArtifacts("ci", payload)*.type == ["gcs/object"]
+
+    when:
+    clock.instant = clock.instant().plusSeconds(10)
+
+    then:
+    extractor.getArtifacts("ci", payload)*.type == ["changed"]
+    !templateCache.get(templatePath.toString()).is(before)
+  }
+
+  def 'keeps templates whose file did not change'() {
+    given:
+    def before = templateCache.get(templatePath.toString())
+
+    when:
+    clock.instant = clock.instant().plusSeconds(10)
+
+    then:
+    templateCache.get(templatePath.toString()).is(before)
+  }
+
+  def 'fails for missing templates'() {
+    when:
+    templateCache.get(tempDir.resolve("missing.jinja").toString())
+
+    then:
+    thrown(RuntimeException)
+  }
+}
@@ -17,7 +17,9 @@
 package com.netflix.spinnaker.echo.controllers
 
 
+import com.netflix.spectator.api.NoopRegistry
 import com.netflix.spinnaker.echo.artifacts.ArtifactExtractor
+import com.netflix.spinnaker.echo.config.WebhookSignatureProperties
 import com.netflix.spinnaker.echo.events.EventPropagator
 import com.netflix.spinnaker.echo.jackson.EchoObjectMapper
 import com.netflix.spinnaker.echo.scm.BitbucketWebhookEventHandler
@@ -26,12 +28,20 @@ import com.netflix.spinnaker.echo.scm.GitlabWebhookEventHandler
 import com.netflix.spinnaker.echo.scm.ScmWebhookHandler
 import com.netflix.spinnaker.echo.scm.StashWebhookEventHandler
 import com.netflix.spinnaker.echo.scm.bitbucket.server.BitbucketServerEventHandler
+import com.netflix.spinnaker.echo.webhooks.WebhookIngestQueue
+import com.netflix.spinnaker.echo.webhooks.WebhookSignatureVerifier
 import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import org.springframework.mock.web.MockHttpServletRequest
 import spock.lang.Specification
 import io.cloudevents.CloudEvent
 import io.cloudevents.core.builder.CloudEventBuilder
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spinnaker.kork.web.exceptions.InvalidRequestException
+import org.apache.commons.codec.digest.HmacAlgorithms
+import org.apache.commons.codec.digest.HmacUtils
+import com.netflix.spinnaker.security.AuthenticatedRequest
 
 
 import java.nio.charset.StandardCharsets
@@ -70,6 +80,183 @@ class WebhooksControllerSpec extends Specification {
 
   }
 
+  void 'queues webhook events when async ingestion is enabled'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
+    controller.propagator = Mock(EventPropagator)
+    controller.artifactExtractor = Mock(ArtifactExtractor)
+    controller.artifactExtractor.extractArtifacts(_, _, _) >> []
+    controller.ingestQueue = Mock(WebhookIngestQueue)
+    Runnable queued = null
+
+    when:
+    def response = controller.ingestEvent('docker', 'ecr', '{"name": "something"}', new HttpHeaders())
+
+    then:
+    1 * controller.ingestQueue.offer('docker', 'ecr', _) >> { type, source, Runnable task -> queued = task; true }
+    0 * controller.propagator.processEvent(_)
+    response.statusCode == HttpStatus.ACCEPTED
+    response.body.eventId
+
+    when:
+    queued.run()
+
+    then:
+    1 * controller.propagator.processEvent({ it.eventId == response.body.eventId && it.content.name == 'something' })
+  }
+
+  void 'processes queued webhook events as the user who sent them'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
+    controller.propagator = Mock(EventPropagator)
+    controller.artifactExtractor = Mock(ArtifactExtractor)
+    controller.artifactExtractor.extractArtifacts(_, _, _) >> []
+    controller.ingestQueue = Mock(WebhookIngestQueue)
+    Runnable queued = null
+    String processedAs = null
+    String processedRequestId = null
+
+    when:
+    AuthenticatedRequest.setUser('alice')
+    AuthenticatedRequest.setRequestId('request-1')
+    controller.ingestEvent('docker', 'ecr', '{"name": "something"}', new HttpHeaders())
+    AuthenticatedRequest.clear()
+
+    and: 'a worker picks it up'
+    queued.run()
+
+    then:
+    1 * controller.ingestQueue.offer('docker', 'ecr', _) >> { type, source, Runnable task -> queued = task; true }
+    1 * controller.propagator.processEvent(_) >> {
+      processedAs = AuthenticatedRequest.getSpinnakerUser().orElse(null)
+      processedRequestId = AuthenticatedRequest.getSpinnakerRequestId().orElse(null)
+    }
+    processedAs == 'alice'
+    processedRequestId == 'request-1'
+
+    and: 'the worker does not keep it'
+    !AuthenticatedRequest.getSpinnakerUser().isPresent()
+
+    cleanup:
+    AuthenticatedRequest.clear()
+  }
+
+  void 'rejects webhook events while the queue is full'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
+    controller.propagator = Mock(EventPropagator)
+    controller.ingestQueue = Mock(WebhookIngestQueue) {
+      offer(_, _, _) >> false
+      getRetryAfterSeconds() >> 5
+    }
+
+    when:
+    def response = controller.ingestEvent('docker', 'ecr', '{"name": "something"}', new HttpHeaders())
+
+    then:
+    0 * controller.propagator.processEvent(_)
+    response.statusCode == HttpStatus.TOO_MANY_REQUESTS
+    response.headers.getFirst(HttpHeaders.RETRY_AFTER) == '5'
+  }
+
+  void 'rejects malformed webhook events before queueing them'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
+    controller.ingestQueue = Mock(WebhookIngestQueue)
+
+    when:
+    controller.ingestEvent('docker', 'ecr', '{"name": ', new HttpHeaders())
+
+    then:
+    thrown(Exception)
+    0 * controller.ingestQueue.offer(_, _, _)
+  }
+
+  void 'rejects webhook events larger than the limit before parsing them'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: Mock(ObjectMapper), scmWebhookHandler: scmWebhookHandler, maxPayloadBytes: 16)
+    controller.propagator = Mock(EventPropagator)
+    def request = Spy(MockHttpServletRequest) {
+      getContentLengthLong() >> contentLength
+    }
+    request.content = payload.bytes
+
+    when:
+    def response = controller.ingestEvent('docker', 'ecr', request, new HttpHeaders())
+
+    then:
+    response.statusCode == HttpStatus.PAYLOAD_TOO_LARGE
+    bodyRead * request.getInputStream()
+    0 * controller.mapper._
+    0 * controller.propagator._
+
+    where:
+    payload                          | contentLength || bodyRead
+    '{"name": "something-too-long"}' | -1            || 1
+    '{"name": "something-too-long"}' | 2             || 1 // the body is longer than announced
+    '{}'                             | 1024          || 0
+  }
+
+  void 'reads webhook bodies up to the limit as UTF-8 unless another charset is given'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler, maxPayloadBytes: 64)
+    controller.propagator = Mock(EventPropagator)
+    controller.artifactExtractor = Mock(ArtifactExtractor)
+    controller.artifactExtractor.extractArtifacts(_, _, _) >> []
+    def request = new MockHttpServletRequest()
+    request.content = '{"name": "caf\u00e9"}'.getBytes(StandardCharsets.UTF_8)
+
+    when:
+    def response = controller.ingestEvent('docker', 'ecr', request, new HttpHeaders())
+
+    then:
+    response.statusCode == HttpStatus.OK
+    1 * controller.propagator.processEvent({ it.content.name == 'caf\u00e9' })
+  }
+
+  void 'rejects webhook events with invalid signatures before parsing them'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: Mock(ObjectMapper), scmWebhookHandler: scmWebhookHandler)
+    controller.propagator = Mock(EventPropagator)
+    controller.signatureVerifier = Mock(WebhookSignatureVerifier) {
+      verify('github', _, _) >> false
+    }
+
+    when:
+    def response = controller.ingestEvent('git', 'github', '{}', new HttpHeaders())
+
+    then:
+    response.statusCode == HttpStatus.UNAUTHORIZED
+    0 * controller.mapper._
+    0 * controller.propagator._
+  }
+
+  void 'verifies signatures of the body as received rather than as decoded'() {
+    given:
+    WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
+    controller.propagator = Mock(EventPropagator)
+    controller.artifactExtractor = Mock(ArtifactExtractor)
+    controller.artifactExtractor.extractArtifacts(_, _, _) >> []
+    controller.signatureVerifier = new WebhookSignatureVerifier(new WebhookSignatureProperties(sources: [
+      bitbucket: new WebhookSignatureProperties.Source(secret: 's3cret')
+    ]), new NoopRegistry())
+
+    and: 'a body that is not valid UTF-8'
+    byte[] body = '{"name": "caf\u00e9"}'.getBytes(StandardCharsets.ISO_8859_1)
+    def request = new MockHttpServletRequest()
+    request.content = body
+    def headers = new HttpHeaders()
+    headers.set('X-Hub-Signature', "sha256=${new HmacUtils(HmacAlgorithms.HMAC_SHA_256, 's3cret').hmacHex(body)}")
+    headers.setContentType(MediaType.parseMediaType('application/json;charset=ISO-8859-1'))
+
+    when:
+    def response = controller.ingestEvent('docker', 'bitbucket', request, headers)
+
+    then:
+    response.statusCode == HttpStatus.OK
+    1 * controller.propagator.processEvent({ it.content.name == 'caf\u00e9' })
+  }
+
   void 'handles initial github ping'() {
     given:
     WebhooksController controller = new WebhooksController(mapper: EchoObjectMapper.getInstance(), scmWebhookHandler: scmWebhookHandler)
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.webhooks
+
+import com.netflix.spectator.api.DefaultRegistry
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class WebhookIngestQueueSpec extends Specification {
+  def registry = new DefaultRegistry()
+  def queue = new WebhookIngestQueue(registry, 1, 2, 5)
+  def conditions = new PollingConditions(timeout: 5)
+
+  void cleanup() {
+    queue.shutdown()
+  }
+
+  def 'rejects webhooks once the queue is full'() {
+    given: 'the only worker is busy'
+    def release = new CountDownLatch(1)
+    def started = new CountDownLatch(1)
+    queue.offer('docker', 'ecr', { started.countDown(); release.await() })
+    started.await(5, TimeUnit.SECONDS)
+
+    expect:
+    queue.offer('docker', 'ecr', {})
+    queue.offer('docker', 'ecr', {})
+    queue.depth() == 2
+    !queue.offer('docker', 'ecr', {})
+    registry.counter('echo.webhooks.rejected', 'type', 'docker', 'source', 'ecr').count() == 1
+
+    when:
+    release.countDown()
+
+    then:
+    conditions.eventually {
+      assert queue.depth() == 0
+    }
+    queue.offer('docker', 'ecr', {})
+  }
+
+  def 'keeps processing after a failed webhook'() {
+    given:
+    def processed = new CountDownLatch(1)
+
+    when:
+    queue.offer('git', 'github', { throw new IllegalStateException('boom') })
+    queue.offer('git', 'github', { processed.countDown() })
+
+    then:
+    processed.await(5, TimeUnit.SECONDS)
+    conditions.eventually {
+      assert registry.counter('echo.webhooks.processed', 'type', 'git', 'source', 'github', 'success', 'false').count() == 1
+      assert registry.counter('echo.webhooks.processed', 'type', 'git', 'source', 'github', 'success', 'true').count() == 1
+    }
+  }
+
+  def 'reports how long the oldest webhook has been waiting'() {
+    expect:
+    queue.oldestAgeMillis() == 0
+
+    when:
+    def release = new CountDownLatch(1)
+    def started = new CountDownLatch(1)
+    queue.offer('docker', 'ecr', { started.countDown(); release.await() })
+    started.await(5, TimeUnit.SECONDS)
+    queue.offer('docker', 'ecr', {})
+
+    then:
+    conditions.eventually {
+      assert queue.oldestAgeMillis() >= 20
+    }
+
+    cleanup:
+    release.countDown()
+  }
+}
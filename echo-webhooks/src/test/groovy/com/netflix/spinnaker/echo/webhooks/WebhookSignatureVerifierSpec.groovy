@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.echo.webhooks
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.echo.config.WebhookSignatureProperties
+import org.apache.commons.codec.digest.HmacAlgorithms
+import org.apache.commons.codec.digest.HmacUtils
+import org.springframework.http.HttpHeaders
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+class WebhookSignatureVerifierSpec extends Specification {
+  static final String PAYLOAD = '{"ref": "refs/heads/main"}'
+
+  def registry = new DefaultRegistry()
+  def verifier = new WebhookSignatureVerifier(new WebhookSignatureProperties(sources: [
+    github   : new WebhookSignatureProperties.Source(secret: 's3cret'),
+    bitbucket: new WebhookSignatureProperties.Source(secret: 's3cret'),
+    gitlab   : new WebhookSignatureProperties.Source(secret: 's3cret', required: false)
+  ]), registry)
+
+  @Unroll
+  def 'verifies #source signatures'() {
+    expect:
+    verifier.verify(source, headers(header, signature), PAYLOAD.bytes) == valid
+
+    where:
+    source      | header                | signature                  || valid
+    'github'    | 'X-Hub-Signature-256' | "sha256=${hmac('s3cret')}" || true
+    'github'    | 'X-Hub-Signature-256' | "sha256=${hmac('other')}"  || false
+    'github'    | 'X-Hub-Signature-256' | 'sha256=not-hex'           || false
+    'github'    | 'X-Hub-Signature'     | "sha256=${hmac('s3cret')}" || false
+    'github'    | null                  | null                       || false
+    'bitbucket' | 'X-Hub-Signature'     | "sha256=${hmac('s3cret')}" || true
+    'bitbucket' | 'X-Hub-Signature'     | hmac('s3cret')             || false
+    'gitlab'    | 'X-Gitlab-Token'      | 's3cret'                   || true
+    'gitlab'    | 'X-Gitlab-Token'      | 's3cre'                    || false
+    'gitlab'    | null                  | null                       || true
+    'docker'    | null                  | null                       || true
+  }
+
+  def 'verifies the signature of the body as received'() {
+    given: 'a body that is not valid UTF-8'
+    byte[] body = '{"name": "caf\u00e9"}'.getBytes(StandardCharsets.ISO_8859_1)
+    def signature = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, 's3cret').hmacHex(body)
+
+    expect:
+    verifier.verify('github', headers('X-Hub-Signature-256', "sha256=${signature}"), body)
+  }
+
+  def 'counts rejected webhooks'() {
+    when:
+    verifier.verify('github', new HttpHeaders(), PAYLOAD.bytes)
+    verifier.verify('github', headers('X-Hub-Signature-256', 'sha256=00'), PAYLOAD.bytes)
+
+    then:
+    registry.counter('echo.webhooks.signatureRejected', 'source', 'github', 'reason', 'missing').count() == 1
+    registry.counter('echo.webhooks.signatureRejected', 'source', 'github', 'reason', 'mismatch').count() == 1
+  }
+
+  def 'refuses sources it cannot verify'() {
+    when:
+    new WebhookSignatureVerifier(new WebhookSignatureProperties(sources: [
+      docker: new WebhookSignatureProperties.Source(secret: 's3cret')
+    ]), registry)
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
+  private static String hmac(String secret) {
+    return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, secret).hmacHex(PAYLOAD)
+  }
+
+  private static HttpHeaders headers(String header, String value) {
+    def headers = new HttpHeaders()
+    if (header) {
+      headers.add(header, value)
+    }
+    return headers
+  }
+}